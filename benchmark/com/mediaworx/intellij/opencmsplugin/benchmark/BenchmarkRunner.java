@@ -0,0 +1,147 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.benchmark;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * Minimal micro benchmark runner measuring the average time per operation. Each benchmark is run for a number of
+ * timed warmup iterations (results discarded, lets the JIT compile the hot paths) followed by timed measurement
+ * iterations. Operation results are consumed so the JIT can't eliminate the measured code.
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * A benchmarked operation
+	 */
+	public interface Operation {
+
+		/**
+		 * Executes the operation once
+		 * @param i invocation counter (never negative), may be used to cycle through input data
+		 * @return the operation's result (consumed by the runner)
+		 * @throws Exception if the operation fails, the benchmark is aborted
+		 */
+		Object invoke(int i) throws Exception;
+	}
+
+	private final int warmupIterations;
+	private final int measurementIterations;
+	private final long iterationMillis;
+	private final PrintStream out;
+
+	/** invocation counter passed to the operations */
+	private int counter;
+
+	/** sink for operation results */
+	private int sink;
+
+	/**
+	 * Creates a new runner
+	 * @param warmupIterations      number of warmup iterations
+	 * @param measurementIterations number of measurement iterations
+	 * @param iterationMillis       duration of each iteration in milliseconds
+	 * @param out                   stream results are printed to
+	 */
+	public BenchmarkRunner(int warmupIterations, int measurementIterations, long iterationMillis, PrintStream out) {
+		this.warmupIterations = warmupIterations;
+		this.measurementIterations = measurementIterations;
+		this.iterationMillis = iterationMillis;
+		this.out = out;
+	}
+
+	/**
+	 * Prints the result header
+	 */
+	public void printHeader() {
+		out.println(String.format(Locale.US, "%-58s %8s %14s %12s %14s", "Benchmark", "Params", "ns/op", "error", "ops/s"));
+	}
+
+	/**
+	 * Runs and prints a benchmark
+	 * @param name      the benchmark name
+	 * @param params    benchmark parameters to print (e.g. the number of modules)
+	 * @param operation the operation to measure
+	 * @return the average time per operation in nanoseconds
+	 * @throws Exception if the operation fails
+	 */
+	public double run(String name, String params, Operation operation) throws Exception {
+		for (int i = 0; i < warmupIterations; i++) {
+			iterate(operation);
+		}
+		double[] nanosPerOp = new double[measurementIterations];
+		for (int i = 0; i < measurementIterations; i++) {
+			nanosPerOp[i] = iterate(operation);
+		}
+		double mean = 0;
+		for (double value : nanosPerOp) {
+			mean += value;
+		}
+		mean /= nanosPerOp.length;
+		double variance = 0;
+		for (double value : nanosPerOp) {
+			variance += (value - mean) * (value - mean);
+		}
+		double error = nanosPerOp.length > 1 ? Math.sqrt(variance / (nanosPerOp.length - 1)) : 0;
+		out.println(String.format(Locale.US, "%-58s %8s %14.1f %12.1f %14.0f", name, params, mean, error, 1e9 / mean));
+		return mean;
+	}
+
+	/**
+	 * Runs one timed iteration
+	 * @return the average time per operation in nanoseconds
+	 */
+	private double iterate(Operation operation) throws Exception {
+		long start = System.nanoTime();
+		long end = start + iterationMillis * 1000000L;
+		long numOps = 0;
+		long now = start;
+		// the time is only checked after a batch of operations, so that System.nanoTime() doesn't dominate fast
+		// operations; the batch grows as long as a batch takes less than a millisecond
+		int batchSize = 1;
+		while (now < end) {
+			for (int i = 0; i < batchSize; i++) {
+				Object result = operation.invoke(counter++ & Integer.MAX_VALUE);
+				sink ^= result == null ? 0 : result.hashCode();
+			}
+			numOps += batchSize;
+			long batchNanos = System.nanoTime() - now;
+			now += batchNanos;
+			if (batchNanos < 1000000L && batchSize < 65536) {
+				batchSize <<= 1;
+			}
+		}
+		return (double)(now - start) / numOps;
+	}
+
+	/**
+	 * @return the consumed operation results, print it to make sure nothing is optimized away
+	 */
+	public int getSink() {
+		return sink;
+	}
+}
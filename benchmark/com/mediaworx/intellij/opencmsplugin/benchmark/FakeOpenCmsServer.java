@@ -0,0 +1,384 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.benchmark;
+
+import com.mediaworx.intellij.opencmsplugin.connector.OpenCmsPluginConnector;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
+import org.apache.commons.io.IOUtils;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for an OpenCms instance with the IntelliJ connector module installed. Consists of
+ * <ul>
+ *     <li>a {@link FakeVfsRepository} holding the VFS, accessible through a {@link FakeVfsAdapter} (see
+ *         {@link #createVfsAdapter()})</li>
+ *     <li>an http server on a free local port implementing the connector actions used by the
+ *         {@link OpenCmsPluginConnector} (resource infos, module manifests and publishing, see
+ *         {@link #createPluginConnector()})</li>
+ * </ul>
+ * Latency and bandwidth are simulated for both the VFS and the connector, so syncs and meta data pulls take roughly
+ * as long as they would against a remote OpenCms.
+ */
+public class FakeOpenCmsServer {
+
+	private static final String CONNECTOR_PATH = "/opencms/system/modules/com.mediaworx.opencms.ideconnector/connector.jsp";
+	private static final String USER = "Admin";
+	private static final String PASSWORD = "admin";
+
+	private final FakeVfsRepository repository = new FakeVfsRepository();
+	private final List<String> publishedPaths = Collections.synchronizedList(new ArrayList<String>());
+	private final JSONParser jsonParser = new JSONParser();
+
+	private HttpServer httpServer;
+	private ExecutorService httpExecutor;
+	private volatile long latency = 0;
+	private volatile long bandwidth = 0;
+	private final AtomicInteger numConnectorRequests = new AtomicInteger();
+
+	/**
+	 * Starts the connector http server on a free port of the loopback interface
+	 * @throws IOException if the server could not be started
+	 */
+	public synchronized void start() throws IOException {
+		if (httpServer != null) {
+			return;
+		}
+		httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		httpServer.createContext(CONNECTOR_PATH, new ConnectorHandler());
+		httpExecutor = Executors.newCachedThreadPool();
+		httpServer.setExecutor(httpExecutor);
+		httpServer.start();
+	}
+
+	/**
+	 * Stops the connector http server
+	 */
+	public synchronized void stop() {
+		if (httpServer != null) {
+			httpServer.stop(0);
+			httpServer = null;
+			httpExecutor.shutdown();
+			httpExecutor = null;
+		}
+	}
+
+	/**
+	 * @return the fake VFS
+	 */
+	public FakeVfsRepository getRepository() {
+		return repository;
+	}
+
+	/**
+	 * Creates a new VfsAdapter working on the fake VFS
+	 * @return a new VfsAdapter, not yet connected
+	 */
+	public FakeVfsAdapter createVfsAdapter() {
+		return new FakeVfsAdapter(repository);
+	}
+
+	/**
+	 * Creates a new plugin connector talking to this server, the server must have been started
+	 * @return a new plugin connector
+	 */
+	public OpenCmsPluginConnector createPluginConnector() {
+		return new OpenCmsPluginConnector(getConnectorUrl(), USER, PASSWORD, false, false);
+	}
+
+	/**
+	 * @return the URL of the fake connector, only available after the server has been started
+	 */
+	public synchronized String getConnectorUrl() {
+		if (httpServer == null) {
+			throw new IllegalStateException("The fake OpenCms server has not been started");
+		}
+		return "http://localhost:" + httpServer.getAddress().getPort() + CONNECTOR_PATH;
+	}
+
+	/**
+	 * Sets the simulated latency for VFS calls and connector requests
+	 * @param latency the latency in milliseconds, <code>0</code> for no latency
+	 */
+	public void setLatency(long latency) {
+		this.latency = latency;
+		repository.setLatency(latency);
+	}
+
+	/**
+	 * Sets the simulated bandwidth for VFS content transfers and connector responses
+	 * @param bandwidth the bandwidth in bytes per second, <code>0</code> for unlimited bandwidth
+	 */
+	public void setBandwidth(long bandwidth) {
+		this.bandwidth = bandwidth;
+		repository.setBandwidth(bandwidth);
+	}
+
+	/**
+	 * Makes the fake OpenCms (un)available, while unavailable VFS calls fail with connection errors and the connector
+	 * responds with http status 503
+	 * @param available <code>false</code> to simulate OpenCms being down
+	 */
+	public void setAvailable(boolean available) {
+		repository.setAvailable(available);
+	}
+
+	/**
+	 * @return the root paths of all resources published so far, in the order they were published
+	 */
+	public List<String> getPublishedPaths() {
+		synchronized (publishedPaths) {
+			return new ArrayList<String>(publishedPaths);
+		}
+	}
+
+	/**
+	 * @return the number of requests the connector has handled so far
+	 */
+	public int getNumConnectorRequests() {
+		return numConnectorRequests.get();
+	}
+
+	/**
+	 * Handles connector requests, the request parameters are the ones sent by the {@link OpenCmsPluginConnector}
+	 * (user, password, action, json and the action specific parameters)
+	 */
+	private class ConnectorHandler implements HttpHandler {
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			numConnectorRequests.incrementAndGet();
+			try {
+				String body = IOUtils.toString(exchange.getRequestBody(), "UTF-8");
+				sleep(latency);
+				int status = 200;
+				String response;
+				Map<String, String> params = null;
+				List<String> identifiers = null;
+				String malformedMessage = null;
+				try {
+					params = parseParams(body);
+					identifiers = getIdentifiers(params.get("json"));
+				}
+				catch (IllegalArgumentException e) {
+					malformedMessage = e.getMessage();
+				}
+				if (malformedMessage != null) {
+					status = 400;
+					response = "Malformed request: " + malformedMessage;
+				}
+				else if (!USER.equals(params.get("user")) || !PASSWORD.equals(params.get("password"))) {
+					status = 403;
+					response = "Access denied";
+				}
+				else {
+					try {
+						repository.simulateRoundTrip(0);
+						response = handleAction(params.get("action"), identifiers, params);
+						if (response == null) {
+							status = 400;
+							response = "Unknown action " + params.get("action");
+						}
+					}
+					catch (CmisConnectionException e) {
+						// the fake OpenCms is unavailable
+						status = 503;
+						response = e.getMessage();
+					}
+					catch (RuntimeException e) {
+						status = 500;
+						response = String.valueOf(e);
+					}
+				}
+				byte[] responseBytes = response.getBytes("UTF-8");
+				if (bandwidth > 0) {
+					sleep(responseBytes.length * 1000L / bandwidth);
+				}
+				exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+				exchange.sendResponseHeaders(status, responseBytes.length);
+				OutputStream out = exchange.getResponseBody();
+				try {
+					out.write(responseBytes);
+				}
+				finally {
+					out.close();
+				}
+			}
+			finally {
+				exchange.close();
+			}
+		}
+	}
+
+	/**
+	 * Internal method executing a connector action
+	 * @param action      the action to execute
+	 * @param identifiers the resource paths or module names
+	 * @param params      all request parameters
+	 * @return the response, <code>null</code> if the action is unknown
+	 */
+	@SuppressWarnings("unchecked")
+	private String handleAction(String action, List<String> identifiers, Map<String, String> params) {
+		if ("resourceInfos".equals(action) || "moduleManifests".equals(action)) {
+			boolean manifests = "moduleManifests".equals(action);
+			JSONArray infos = new JSONArray();
+			for (String identifier : identifiers) {
+				String xml;
+				if (manifests) {
+					xml = getManifestStub(identifier);
+				}
+				else if (repository.exists(identifier)) {
+					xml = getResourceInfo(identifier, "true".equals(params.get("useDateVariables")), "true".equals(params.get("useIdVariables")));
+				}
+				else {
+					continue;
+				}
+				JSONObject info = new JSONObject();
+				info.put("id", identifier);
+				info.put("xml", xml);
+				infos.add(info);
+			}
+			return infos.toJSONString();
+		}
+		if ("publishResources".equals(action)) {
+			publishedPaths.addAll(identifiers);
+			return "OK";
+		}
+		return null;
+	}
+
+	/**
+	 * Internal method creating resource meta data in the format of the OpenCms module export
+	 */
+	private String getResourceInfo(String path, boolean useDateVariables, boolean useIdVariables) {
+		boolean folder = repository.isFolder(path);
+		String date = useDateVariables ? "${datelastmodified}" : formatDate(repository.getLastModified(path));
+		String id = useIdVariables ? "${uuidstructure}" : repository.getId(path);
+		StringBuilder xml = new StringBuilder();
+		xml.append("<file>\n");
+		xml.append("\t<destination>").append(path.startsWith("/") ? path.substring(1) : path).append("</destination>\n");
+		xml.append("\t<type>").append(folder ? "folder" : "plain").append("</type>\n");
+		xml.append("\t<uuidstructure>").append(id).append("</uuidstructure>\n");
+		xml.append("\t<datelastmodified>").append(date).append("</datelastmodified>\n");
+		xml.append("\t<userlastmodified>").append(USER).append("</userlastmodified>\n");
+		xml.append("\t<datecreated>").append(date).append("</datecreated>\n");
+		xml.append("\t<usercreated>").append(USER).append("</usercreated>\n");
+		xml.append("\t<flags>0</flags>\n");
+		xml.append("\t<properties/>\n");
+		xml.append("\t<relations/>\n");
+		xml.append("\t<accesscontrol/>\n");
+		xml.append("</file>");
+		return xml.toString();
+	}
+
+	/**
+	 * Internal method creating a module manifest stub like the one exported by the connector
+	 */
+	private static String getManifestStub(String moduleName) {
+		return "<export>\n" +
+				"\t<info>\n" +
+				"\t\t<creator>" + USER + "</creator>\n" +
+				"\t\t<export_version>10</export_version>\n" +
+				"\t</info>\n" +
+				"\t<module>\n" +
+				"\t\t<name>" + moduleName + "</name>\n" +
+				"\t\t<nicename><![CDATA[" + moduleName + "]]></nicename>\n" +
+				"\t\t<version>1.0</version>\n" +
+				"\t\t<resources/>\n" +
+				"\t</module>\n" +
+				"\t<files/>\n" +
+				"</export>";
+	}
+
+	private static String formatDate(long millis) {
+		SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+		return format.format(new Date(millis));
+	}
+
+	private List<String> getIdentifiers(String json) {
+		List<String> identifiers = new ArrayList<String>();
+		if (json == null) {
+			return identifiers;
+		}
+		try {
+			JSONArray jsonArray;
+			synchronized (jsonParser) {
+				jsonArray = (JSONArray)jsonParser.parse(json);
+			}
+			for (Object identifier : jsonArray) {
+				identifiers.add((String)identifier);
+			}
+		}
+		catch (ParseException | ClassCastException e) {
+			throw new IllegalArgumentException("Invalid json parameter: " + json, e);
+		}
+		return identifiers;
+	}
+
+	private static Map<String, String> parseParams(String body) throws IOException {
+		Map<String, String> params = new HashMap<String, String>();
+		for (String pair : body.split("&")) {
+			int separatorPos = pair.indexOf('=');
+			if (separatorPos > 0) {
+				params.put(URLDecoder.decode(pair.substring(0, separatorPos), "UTF-8"), URLDecoder.decode(pair.substring(separatorPos + 1), "UTF-8"));
+			}
+		}
+		return params;
+	}
+
+	private static void sleep(long millis) {
+		if (millis > 0) {
+			try {
+				Thread.sleep(millis);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
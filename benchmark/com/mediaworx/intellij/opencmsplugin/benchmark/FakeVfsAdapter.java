@@ -0,0 +1,172 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.benchmark;
+
+import com.mediaworx.intellij.opencmsplugin.entities.SyncEntity;
+import com.mediaworx.intellij.opencmsplugin.exceptions.CmsConnectionException;
+import com.mediaworx.intellij.opencmsplugin.exceptions.CmsPushException;
+import com.mediaworx.intellij.opencmsplugin.exceptions.CmsTransferException;
+import com.mediaworx.intellij.opencmsplugin.sync.VfsAdapter;
+import com.mediaworx.intellij.opencmsplugin.tools.PluginTools;
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Document;
+import org.apache.chemistry.opencmis.client.api.Folder;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * VfsAdapter working on a {@link FakeVfsRepository} instead of a CMIS session, so syncs can be run without an
+ * OpenCms instance. Connection failures of the repository (see {@link FakeVfsRepository#setAvailable(boolean)}) are
+ * passed on as CMIS connection exceptions, just like the real adapter would encounter them.
+ */
+public class FakeVfsAdapter extends VfsAdapter {
+
+	private final FakeVfsRepository repository;
+	private boolean connected;
+
+	/**
+	 * Creates a new adapter for the given repository, the adapter has to be connected by calling
+	 * {@link #startSession()}
+	 * @param repository the fake repository
+	 */
+	public FakeVfsAdapter(FakeVfsRepository repository) {
+		super("fake://opencms/cmisatom/cmis-offline/", "Admin", "admin");
+		this.repository = repository;
+	}
+
+	/**
+	 * @return the fake repository the adapter works on
+	 */
+	public FakeVfsRepository getRepository() {
+		return repository;
+	}
+
+	@Override
+	public void startSession() throws CmsConnectionException {
+		try {
+			repository.simulateRoundTrip(0);
+		}
+		catch (CmisConnectionException e) {
+			throw new CmsConnectionException("There was an error connecting to the fake VFS\n" + e.getMessage(), e);
+		}
+		connected = true;
+	}
+
+	@Override
+	public boolean exists(String path) {
+		return connected && path.startsWith("/") && repository.exists(path);
+	}
+
+	@Override
+	protected CmisObject getObjectByPath(String path) {
+		return repository.getObjectByPath(path);
+	}
+
+	@Override
+	public CmisObject getVfsObject(String path) throws CmsConnectionException {
+		ensureFakeConnected();
+		try {
+			return repository.getObjectByPath(PluginTools.ensureUnixPath(path));
+		}
+		catch (CmisObjectNotFoundException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public Folder createFolder(String path) throws CmsConnectionException {
+		ensureFakeConnected();
+		return repository.createFolder(path);
+	}
+
+	@Override
+	public Document pushFile(SyncEntity entity) throws CmsPushException, CmsConnectionException {
+		ensureFakeConnected();
+		File rfsFile = entity.getFile();
+		byte[] content;
+		try {
+			content = FileUtils.readFileToByteArray(rfsFile);
+		}
+		catch (IOException e) {
+			throw new CmsPushException("Could not push entity " + entity.getVfsPath() + ", the local file could not be read.\n" + e.getMessage(), e);
+		}
+		Document vfsFile = repository.storeContent(entity.getVfsPath(), content);
+		// like OpenCms, the fake VFS sets its own modification date, so the RFS date is adjusted
+		rfsFile.setLastModified(vfsFile.getLastModificationDate().getTimeInMillis());
+		return vfsFile;
+	}
+
+	@Override
+	public void pullFile(SyncEntity syncEntity) throws CmsConnectionException, CmsTransferException {
+		ensureFakeConnected();
+		byte[] content = repository.getContent(syncEntity.getVfsPath());
+		File rfsFile = createRealFile(syncEntity);
+		try {
+			FileUtils.writeByteArrayToFile(rfsFile, content);
+		}
+		catch (IOException e) {
+			// like the real adapter, don't leave a partially written file behind
+			FileUtils.deleteQuietly(rfsFile);
+			throw new CmsTransferException("There was an Exception pulling " + syncEntity.getVfsPath() + " to the local file " + syncEntity.getRfsPath() + ": " + e.getMessage(), e);
+		}
+		rfsFile.setLastModified(repository.getLastModified(syncEntity.getVfsPath()));
+	}
+
+	@Override
+	public boolean deleteResource(String vfsPath) throws CmsConnectionException {
+		ensureFakeConnected();
+		return repository.delete(vfsPath);
+	}
+
+	@Override
+	public boolean isConnected() {
+		if (!connected) {
+			return false;
+		}
+		try {
+			repository.simulateRoundTrip(0);
+		}
+		catch (CmisConnectionException e) {
+			connected = false;
+		}
+		return connected;
+	}
+
+	@Override
+	public void clearCache() {
+		// there's no cache
+	}
+
+	private void ensureFakeConnected() throws CmsConnectionException {
+		if (!connected) {
+			throw new CmsConnectionException("Not connected to the fake VFS");
+		}
+	}
+}
@@ -0,0 +1,487 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.benchmark;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Document;
+import org.apache.chemistry.opencmis.client.api.Folder;
+import org.apache.chemistry.opencmis.client.api.ItemIterable;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.apache.chemistry.opencmis.commons.data.ContentStream;
+import org.apache.chemistry.opencmis.commons.enums.BaseTypeId;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisContentAlreadyExistsException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisObjectNotFoundException;
+import org.apache.chemistry.opencmis.commons.impl.dataobjects.ContentStreamImpl;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * In-memory stand-in for the OpenCms VFS. Resources are kept in a sorted map keyed by their root path and are exposed
+ * as CMIS objects (<code>Document</code> and <code>Folder</code>) implementing the subset of the CMIS client API used
+ * by the plugin. Every call simulates a network round trip, content transfers additionally take as long as the
+ * configured bandwidth allows.<br />
+ * <br />
+ * Folder paths returned by {@link Folder#getPath()} end with a slash, just like OpenCms root paths for folders.
+ */
+public class FakeVfsRepository {
+
+	private final TreeMap<String, FakeResource> resources = new TreeMap<String, FakeResource>();
+
+	private volatile long latency = 0;
+	private volatile long bandwidth = 0;
+	private volatile boolean available = true;
+
+	/**
+	 * Creates a new repository containing only the root folder
+	 */
+	public FakeVfsRepository() {
+		resources.put("/", new FakeResource("/", true, null));
+	}
+
+	/**
+	 * Sets the simulated latency added to each call
+	 * @param latency the latency in milliseconds, <code>0</code> for no latency
+	 */
+	public void setLatency(long latency) {
+		this.latency = latency;
+	}
+
+	/**
+	 * Sets the simulated bandwidth for content transfers
+	 * @param bandwidth the bandwidth in bytes per second, <code>0</code> for unlimited bandwidth
+	 */
+	public void setBandwidth(long bandwidth) {
+		this.bandwidth = bandwidth;
+	}
+
+	/**
+	 * Makes the repository (un)available. While unavailable, every call fails with a CMIS connection exception, so
+	 * OpenCms being restarted or down can be simulated.
+	 * @param available <code>false</code> to simulate OpenCms being down
+	 */
+	public void setAvailable(boolean available) {
+		this.available = available;
+	}
+
+	/**
+	 * Creates a folder and all missing parent folders
+	 * @param path the folder's root path
+	 */
+	public synchronized void addFolder(String path) {
+		path = normalize(path);
+		if (resources.containsKey(path)) {
+			return;
+		}
+		addFolder(getParentPath(path));
+		resources.put(path, new FakeResource(path, true, null));
+	}
+
+	/**
+	 * Creates or replaces a file, missing parent folders are created
+	 * @param path    the file's root path
+	 * @param content the file's content
+	 */
+	public synchronized void addFile(String path, byte[] content) {
+		path = normalize(path);
+		addFolder(getParentPath(path));
+		FakeResource existing = resources.get(path);
+		if (existing != null) {
+			existing.setContent(content);
+		}
+		else {
+			resources.put(path, new FakeResource(path, false, content));
+		}
+	}
+
+	/**
+	 * Returns the number of resources in the repository (including the root folder)
+	 * @return the number of resources
+	 */
+	public synchronized int getNumResources() {
+		return resources.size();
+	}
+
+	/**
+	 * Checks if a resource exists
+	 * @param path the resource's root path
+	 * @return <code>true</code> if the resource exists, <code>false</code> otherwise
+	 */
+	public boolean exists(String path) {
+		simulateRoundTrip(0);
+		synchronized (this) {
+			return resources.containsKey(normalize(path));
+		}
+	}
+
+	/**
+	 * Returns the resource at the given path as CMIS object
+	 * @param path the resource's root path
+	 * @return the CMIS object (a <code>Document</code> or a <code>Folder</code>)
+	 * @throws CmisObjectNotFoundException if there's no resource at the given path
+	 */
+	public CmisObject getObjectByPath(String path) {
+		simulateRoundTrip(0);
+		FakeResource resource;
+		synchronized (this) {
+			resource = resources.get(normalize(path));
+		}
+		if (resource == null) {
+			throw new CmisObjectNotFoundException("Resource not found: " + path);
+		}
+		return toCmisObject(resource);
+	}
+
+	/**
+	 * Returns the content of a file
+	 * @param path the file's root path
+	 * @return the file's content
+	 * @throws CmisObjectNotFoundException if there's no file at the given path
+	 */
+	public byte[] getContent(String path) {
+		FakeResource resource = getResource(path);
+		simulateRoundTrip(resource.content.length);
+		return resource.content;
+	}
+
+	/**
+	 * Stores the content of a file, simulating the upload. Missing parent folders are created.
+	 * @param path    the file's root path
+	 * @param content the file's content
+	 * @return the stored file as CMIS document
+	 */
+	public Document storeContent(String path, byte[] content) {
+		simulateRoundTrip(content.length);
+		addFile(path, content);
+		return (Document)toCmisObject(getResource(path));
+	}
+
+	/**
+	 * Creates a folder, simulating the request. Missing parent folders are created.
+	 * @param path the folder's root path
+	 * @return the folder as CMIS folder
+	 */
+	public Folder createFolder(String path) {
+		simulateRoundTrip(0);
+		addFolder(path);
+		return (Folder)toCmisObject(getResource(path));
+	}
+
+	/**
+	 * Deletes a resource and, if it's a folder, all resources contained
+	 * @param path the resource's root path
+	 * @return <code>true</code> if the resource existed, <code>false</code> otherwise
+	 */
+	public boolean delete(String path) {
+		simulateRoundTrip(0);
+		path = normalize(path);
+		synchronized (this) {
+			if (resources.remove(path) == null) {
+				return false;
+			}
+			resources.subMap(path + "/", path + "/￿").clear();
+			return true;
+		}
+	}
+
+	/**
+	 * Checks if the resource at the given path is a folder
+	 * @param path the resource's root path
+	 * @return <code>true</code> if the resource is a folder, <code>false</code> if it's a file
+	 */
+	public boolean isFolder(String path) {
+		return getResource(path).folder;
+	}
+
+	/**
+	 * Returns the last modification date of a resource
+	 * @param path the resource's root path
+	 * @return the last modification date in milliseconds
+	 */
+	public long getLastModified(String path) {
+		return getResource(path).lastModified;
+	}
+
+	/**
+	 * Returns the structure id of a resource
+	 * @param path the resource's root path
+	 * @return the resource's structure id
+	 */
+	public String getId(String path) {
+		return getResource(path).id;
+	}
+
+	/**
+	 * Returns the root paths of all resources
+	 * @return all root paths, sorted
+	 */
+	public synchronized List<String> getPaths() {
+		return new ArrayList<String>(resources.keySet());
+	}
+
+	/**
+	 * Simulates a network round trip transferring the given number of bytes. Fails if the repository is not
+	 * available.
+	 * @param numBytes number of bytes transferred
+	 */
+	void simulateRoundTrip(long numBytes) {
+		if (!available) {
+			throw new CmisConnectionException("Fake OpenCms is not available");
+		}
+		long millis = latency;
+		if (bandwidth > 0) {
+			millis += numBytes * 1000 / bandwidth;
+		}
+		if (millis > 0) {
+			try {
+				Thread.sleep(millis);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private FakeResource getResource(String path) {
+		FakeResource resource;
+		synchronized (this) {
+			resource = resources.get(normalize(path));
+		}
+		if (resource == null) {
+			throw new CmisObjectNotFoundException("Resource not found: " + path);
+		}
+		return resource;
+	}
+
+	private synchronized List<CmisObject> getChildren(String folderPath) {
+		String prefix = "/".equals(folderPath) ? "/" : folderPath + "/";
+		List<CmisObject> children = new ArrayList<CmisObject>();
+		for (FakeResource resource : resources.subMap(prefix, false, prefix + "￿", false).values()) {
+			if (resource.path.indexOf('/', prefix.length()) < 0) {
+				children.add(toCmisObject(resource));
+			}
+		}
+		return children;
+	}
+
+	private static String normalize(String path) {
+		if (path.length() > 1 && path.endsWith("/")) {
+			return path.substring(0, path.length() - 1);
+		}
+		return path;
+	}
+
+	private static String getParentPath(String path) {
+		int separatorPos = path.lastIndexOf('/');
+		return separatorPos > 0 ? path.substring(0, separatorPos) : "/";
+	}
+
+	/**
+	 * Internal method creating a dynamic proxy implementing <code>Document</code> or <code>Folder</code> for the given
+	 * resource
+	 */
+	private CmisObject toCmisObject(FakeResource resource) {
+		Class<?> type = resource.folder ? Folder.class : Document.class;
+		return (CmisObject)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {type}, new CmisObjectHandler(resource));
+	}
+
+	/**
+	 * Implements the CMIS object methods used by the plugin
+	 */
+	private class CmisObjectHandler implements InvocationHandler {
+
+		private final FakeResource resource;
+
+		private CmisObjectHandler(FakeResource resource) {
+			this.resource = resource;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if ("getName".equals(name)) {
+				return resource.getName();
+			}
+			if ("getPath".equals(name)) {
+				return "/".equals(resource.path) ? "/" : resource.path + "/";
+			}
+			if ("getPaths".equals(name)) {
+				return Collections.singletonList(resource.path);
+			}
+			if ("getId".equals(name)) {
+				return resource.id;
+			}
+			if ("getBaseTypeId".equals(name)) {
+				return resource.folder ? BaseTypeId.CMIS_FOLDER : BaseTypeId.CMIS_DOCUMENT;
+			}
+			if ("getLastModificationDate".equals(name) || "getCreationDate".equals(name)) {
+				GregorianCalendar calendar = new GregorianCalendar();
+				calendar.setTimeInMillis(resource.lastModified);
+				return calendar;
+			}
+			if ("getContentStreamLength".equals(name)) {
+				return (long)resource.content.length;
+			}
+			if ("getContentStream".equals(name)) {
+				byte[] content = getContent(resource.path);
+				return new ContentStreamImpl(resource.getName(), BigInteger.valueOf(content.length),
+						"application/octet-stream", new ByteArrayInputStream(content));
+			}
+			if ("setContentStream".equals(name)) {
+				storeContent(resource.path, readContent((ContentStream)args[0]));
+				return null;
+			}
+			if ("getChildren".equals(name)) {
+				simulateRoundTrip(0);
+				return toItemIterable(getChildren(resource.path));
+			}
+			if ("createFolder".equals(name)) {
+				return createFolder(getChildPath(args[0]));
+			}
+			if ("createDocument".equals(name)) {
+				return storeContent(getChildPath(args[0]), readContent((ContentStream)args[1]));
+			}
+			if ("delete".equals(name)) {
+				FakeVfsRepository.this.delete(resource.path);
+				return null;
+			}
+			if ("deleteTree".equals(name)) {
+				FakeVfsRepository.this.delete(resource.path);
+				return Collections.emptyList();
+			}
+			if ("refresh".equals(name) || "refreshIfOld".equals(name)) {
+				return null;
+			}
+			if ("equals".equals(name)) {
+				return proxy == args[0];
+			}
+			if ("hashCode".equals(name)) {
+				return System.identityHashCode(proxy);
+			}
+			if ("toString".equals(name)) {
+				return "Fake" + (resource.folder ? "Folder" : "Document") + "[" + resource.path + "]";
+			}
+			throw new UnsupportedOperationException("Not supported by the fake VFS: " + method);
+		}
+
+		private String getChildPath(Object properties) {
+			String childName = (String)((Map<?, ?>)properties).get(PropertyIds.NAME);
+			String childPath = "/".equals(resource.path) ? "/" + childName : resource.path + "/" + childName;
+			synchronized (FakeVfsRepository.this) {
+				if (resources.containsKey(childPath)) {
+					throw new CmisContentAlreadyExistsException("Resource already exists: " + childPath);
+				}
+			}
+			return childPath;
+		}
+	}
+
+	private static byte[] readContent(ContentStream contentStream) throws IOException {
+		InputStream in = contentStream.getStream();
+		try {
+			return IOUtils.toByteArray(in);
+		}
+		finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
+
+	/**
+	 * Internal method creating a dynamic proxy implementing <code>ItemIterable</code> for a list of children
+	 */
+	@SuppressWarnings("unchecked")
+	private static ItemIterable<CmisObject> toItemIterable(final List<CmisObject> children) {
+		return (ItemIterable<CmisObject>)Proxy.newProxyInstance(FakeVfsRepository.class.getClassLoader(), new Class<?>[] {ItemIterable.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				String name = method.getName();
+				if ("iterator".equals(name)) {
+					return children.iterator();
+				}
+				if ("getTotalNumItems".equals(name) || "getPageNumItems".equals(name)) {
+					return (long)children.size();
+				}
+				if ("getHasMoreItems".equals(name)) {
+					return false;
+				}
+				if ("skipTo".equals(name) || "getPage".equals(name)) {
+					return proxy;
+				}
+				if ("hashCode".equals(name)) {
+					return System.identityHashCode(proxy);
+				}
+				if ("equals".equals(name)) {
+					return proxy == args[0];
+				}
+				if ("toString".equals(name)) {
+					return "FakeItemIterable" + children;
+				}
+				throw new UnsupportedOperationException("Not supported by the fake VFS: " + method);
+			}
+		});
+	}
+
+	/**
+	 * A resource in the fake VFS
+	 */
+	private static class FakeResource {
+		private final String path;
+		private final boolean folder;
+		private final String id = UUID.randomUUID().toString();
+		private byte[] content;
+		private long lastModified;
+
+		private FakeResource(String path, boolean folder, byte[] content) {
+			this.path = path;
+			this.folder = folder;
+			setContent(content);
+		}
+
+		private void setContent(byte[] content) {
+			this.content = content != null ? content : new byte[0];
+			// OpenCms sets the modification date whenever a resource is written, full seconds like most file systems
+			this.lastModified = System.currentTimeMillis() / 1000 * 1000;
+		}
+
+		private String getName() {
+			return "/".equals(path) ? "" : path.substring(path.lastIndexOf('/') + 1);
+		}
+	}
+}
@@ -0,0 +1,319 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.benchmark;
+
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.mediaworx.intellij.opencmsplugin.OpenCmsPlugin;
+import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsPluginConfigurationData;
+import com.mediaworx.intellij.opencmsplugin.connector.OpenCmsPluginConnector;
+import com.mediaworx.intellij.opencmsplugin.entities.SyncFile;
+import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModule;
+import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModules;
+import com.mediaworx.intellij.opencmsplugin.sync.SyncAction;
+import com.mediaworx.intellij.opencmsplugin.sync.SyncJob;
+import com.mediaworx.intellij.opencmsplugin.sync.SyncList;
+import com.mediaworx.intellij.opencmsplugin.tools.PluginTools;
+import com.mediaworx.intellij.opencmsplugin.tools.VfsFileAnalyzer;
+import com.mediaworx.intellij.opencmsplugin.toolwindow.OpenCmsToolWindowConsole;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Micro benchmarks for the plugin's hot paths, i.e. the code running for every menu update and for every file
+ * analyzed during a sync:
+ * <ul>
+ *     <li>module lookups ({@link OpenCmsModules#getModuleForPath(String)},
+ *         {@link OpenCmsModules#getModuleForFile(File)})</li>
+ *     <li>module resource checks ({@link OpenCmsModule#isPathModuleResource(String)})</li>
+ *     <li>export point lookups ({@link OpenCmsModules#getExportPointForVfsResource(String)})</li>
+ *     <li>ignore rules ({@link VfsFileAnalyzer#fileOrPathIsIgnored(OpenCmsPluginConfigurationData, String, String)})</li>
+ *     <li>path conversions ({@link PluginTools#ensureUnixPath(String)},
+ *         {@link PluginTools#stripVfsSiteRootFromVfsPath(OpenCmsModule, String)})</li>
+ *     <li>connector requests including JSON parsing, against the {@link FakeOpenCmsServer}</li>
+ *     <li>pushing files with the {@link SyncJob}, against the VFS of the {@link FakeOpenCmsServer} with and without
+ *         simulated latency</li>
+ * </ul>
+ * The benchmarks run on {@link SyntheticProject}s with different numbers of modules. Run the class with the plugin's
+ * classpath (plugin classes, the jars in <code>lib</code> and the IntelliJ platform jars), optional arguments are
+ * <pre>
+ * -modules 10,50,180,500  module counts of the generated projects
+ * -paths 100000           number of file paths per project
+ * -warmup 3               number of warmup iterations per benchmark
+ * -iterations 5           number of measurement iterations per benchmark
+ * -time 1000              duration of an iteration in milliseconds
+ * </pre>
+ */
+public class PluginBenchmarks {
+
+	private static final int CONNECTOR_BATCH_SIZE = 100;
+	private static final int SYNC_BATCH_SIZE = 100;
+	private static final long SYNC_LATENCY = 2;
+
+	private int[] moduleCounts = {10, 50, 180, 500};
+	private int numPaths = 100000;
+	private int warmupIterations = 3;
+	private int measurementIterations = 5;
+	private long iterationMillis = 1000;
+
+	/**
+	 * Runs the benchmarks
+	 * @param args see class description
+	 * @throws Exception if a benchmark fails
+	 */
+	public static void main(String[] args) throws Exception {
+		PluginBenchmarks benchmarks = new PluginBenchmarks();
+		benchmarks.parseArgs(args);
+		benchmarks.run();
+		// the plugin and the http client leave some non daemon threads behind
+		System.exit(0);
+	}
+
+	private void parseArgs(String[] args) {
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			String value = args[i + 1];
+			if ("-modules".equals(args[i])) {
+				String[] counts = value.split(",");
+				moduleCounts = new int[counts.length];
+				for (int j = 0; j < counts.length; j++) {
+					moduleCounts[j] = Integer.parseInt(counts[j].trim());
+				}
+			}
+			else if ("-paths".equals(args[i])) {
+				numPaths = Integer.parseInt(value);
+			}
+			else if ("-warmup".equals(args[i])) {
+				warmupIterations = Integer.parseInt(value);
+			}
+			else if ("-iterations".equals(args[i])) {
+				measurementIterations = Integer.parseInt(value);
+			}
+			else if ("-time".equals(args[i])) {
+				iterationMillis = Long.parseLong(value);
+			}
+			else {
+				throw new IllegalArgumentException("Unknown argument " + args[i]);
+			}
+		}
+	}
+
+	private void run() throws Exception {
+		BenchmarkRunner runner = new BenchmarkRunner(warmupIterations, measurementIterations, iterationMillis, System.out);
+		System.out.println("Generating projects with " + numPaths + " paths, this may take a while ...");
+		runner.printHeader();
+		boolean firstProject = true;
+		for (int numModules : moduleCounts) {
+			SyntheticProject project = new SyntheticProject(numModules, numPaths, true);
+			try {
+				runModuleBenchmarks(runner, project, String.valueOf(numModules));
+				if (firstProject) {
+					// these don't depend on the number of modules
+					runPathBenchmarks(runner, project);
+					runConnectorBenchmarks(runner, project);
+					runSyncBenchmarks(runner, project);
+					firstProject = false;
+				}
+			}
+			finally {
+				project.delete();
+			}
+		}
+		System.out.println("(sink " + runner.getSink() + ")");
+	}
+
+	private void runModuleBenchmarks(BenchmarkRunner runner, SyntheticProject project, String params) throws Exception {
+		final OpenCmsModules ocmsModules = project.getOpenCmsModules();
+		final List<String> paths = project.getPaths();
+		final List<String> vfsPaths = project.getVfsPaths();
+		final int numPaths = paths.size();
+		final File[] files = new File[numPaths];
+		final OpenCmsModule[] modules = new OpenCmsModule[numPaths];
+		for (int i = 0; i < numPaths; i++) {
+			files[i] = new File(paths.get(i));
+			modules[i] = project.getExpectedModule(paths.get(i));
+		}
+		verifyModuleLookups(project, ocmsModules, paths, files);
+
+		runner.run("OpenCmsModules.getModuleForPath", params, new BenchmarkRunner.Operation() {
+			@Override
+			public Object invoke(int i) {
+				return ocmsModules.getModuleForPath(paths.get(i % numPaths));
+			}
+		});
+		runner.run("OpenCmsModules.getModuleForFile", params, new BenchmarkRunner.Operation() {
+			@Override
+			public Object invoke(int i) {
+				return ocmsModules.getModuleForFile(files[i % numPaths]);
+			}
+		});
+		runner.run("OpenCmsModule.isPathModuleResource", params, new BenchmarkRunner.Operation() {
+			@Override
+			public Object invoke(int i) {
+				int index = i % numPaths;
+				return modules[index].isPathModuleResource(paths.get(index));
+			}
+		});
+		runner.run("OpenCmsModules.getExportPointForVfsResource", params, new BenchmarkRunner.Operation() {
+			@Override
+			public Object invoke(int i) {
+				return ocmsModules.getExportPointForVfsResource(vfsPaths.get(i % numPaths));
+			}
+		});
+	}
+
+	private void runPathBenchmarks(BenchmarkRunner runner, SyntheticProject project) throws Exception {
+		final OpenCmsPluginConfigurationData config = project.getPlugin().getPluginConfiguration();
+		final List<String> paths = project.getPaths();
+		final List<String> vfsPaths = project.getVfsPaths();
+		final int numPaths = paths.size();
+		final String[] filenames = new String[numPaths];
+		final String[] windowsPaths = new String[numPaths];
+		final OpenCmsModule[] modules = new OpenCmsModule[numPaths];
+		final String[] siteRootVfsPaths = new String[numPaths];
+		for (int i = 0; i < numPaths; i++) {
+			String path = paths.get(i);
+			filenames[i] = path.substring(path.lastIndexOf('/') + 1);
+			windowsPaths[i] = "C:" + path.replace('/', '\\');
+			modules[i] = project.getExpectedModule(path);
+			siteRootVfsPaths[i] = PluginTools.addVfsSiteRootToLocalPath(modules[i], vfsPaths.get(i));
+		}
+
+		runner.run("VfsFileAnalyzer.fileOrPathIsIgnored", "-", new BenchmarkRunner.Operation() {
+			@Override
+			public Object invoke(int i) {
+				int index = i % numPaths;
+				return VfsFileAnalyzer.fileOrPathIsIgnored(config, paths.get(index), filenames[index]);
+			}
+		});
+		runner.run("PluginTools.ensureUnixPath (unix path)", "-", new BenchmarkRunner.Operation() {
+			@Override
+			public Object invoke(int i) {
+				return PluginTools.ensureUnixPath(paths.get(i % numPaths));
+			}
+		});
+		runner.run("PluginTools.ensureUnixPath (windows path)", "-", new BenchmarkRunner.Operation() {
+			@Override
+			public Object invoke(int i) {
+				return PluginTools.ensureUnixPath(windowsPaths[i % numPaths]);
+			}
+		});
+		runner.run("PluginTools.stripVfsSiteRootFromVfsPath", "-", new BenchmarkRunner.Operation() {
+			@Override
+			public Object invoke(int i) {
+				int index = i % numPaths;
+				return PluginTools.stripVfsSiteRootFromVfsPath(modules[index], siteRootVfsPaths[index]);
+			}
+		});
+	}
+
+	private void runConnectorBenchmarks(BenchmarkRunner runner, SyntheticProject project) throws Exception {
+		FakeOpenCmsServer server = new FakeOpenCmsServer();
+		List<String> vfsPaths = new ArrayList<String>(new LinkedHashSet<String>(project.getVfsPaths()));
+		for (String vfsPath : vfsPaths) {
+			server.getRepository().addFile(vfsPath, new byte[0]);
+		}
+		final int numBatches = vfsPaths.size() / CONNECTOR_BATCH_SIZE;
+		final List<List<String>> batches = new ArrayList<List<String>>(numBatches);
+		for (int i = 0; i < numBatches; i++) {
+			batches.add(vfsPaths.subList(i * CONNECTOR_BATCH_SIZE, (i + 1) * CONNECTOR_BATCH_SIZE));
+		}
+		if (numBatches == 0) {
+			return;
+		}
+		server.start();
+		final OpenCmsPluginConnector connector = server.createPluginConnector();
+		try {
+			runner.run("OpenCmsPluginConnector.getResourceInfos (loopback)", String.valueOf(CONNECTOR_BATCH_SIZE), new BenchmarkRunner.Operation() {
+				@Override
+				public Object invoke(int i) throws Exception {
+					return connector.getResourceInfos(batches.get(i % numBatches));
+				}
+			});
+		}
+		finally {
+			connector.close();
+			server.stop();
+		}
+	}
+
+	private void runSyncBenchmarks(BenchmarkRunner runner, SyntheticProject project) throws Exception {
+		FakeOpenCmsServer server = new FakeOpenCmsServer();
+		project.useFakeVfs(server);
+		final OpenCmsPlugin plugin = project.getPlugin();
+		// the sync actions connect the adapter before the SyncJob is started
+		plugin.getVfsAdapter().startSession();
+		plugin.setConsole(new OpenCmsToolWindowConsole());
+		// sync reports are written to the IDE's log folder
+		if (System.getProperty("idea.log.path") == null) {
+			System.setProperty("idea.log.path", new File(FileUtils.getTempDirectory(), "opencms-benchmark-log").getPath());
+		}
+
+		final List<String> paths = project.getPaths();
+		final List<String> vfsPaths = project.getVfsPaths();
+		final int numFiles = Math.min(SYNC_BATCH_SIZE, paths.size());
+		if (numFiles == 0) {
+			return;
+		}
+		final OpenCmsModule[] modules = new OpenCmsModule[numFiles];
+		for (int i = 0; i < numFiles; i++) {
+			modules[i] = project.getExpectedModule(paths.get(i));
+		}
+		BenchmarkRunner.Operation sync = new BenchmarkRunner.Operation() {
+			@Override
+			public Object invoke(int i) {
+				SyncList syncList = new SyncList();
+				for (int j = 0; j < numFiles; j++) {
+					syncList.add(new SyncFile(modules[j], vfsPaths.get(j), new File(paths.get(j)), null, SyncAction.PUSH, false));
+					syncList.addOcmsModule(modules[j]);
+				}
+				new SyncJob(plugin, syncList).run(new EmptyProgressIndicator());
+				if (plugin.getFailedSyncList() != null && !plugin.getFailedSyncList().isEmpty()) {
+					throw new IllegalStateException(plugin.getFailedSyncList().size() + " files could not be pushed to the fake VFS");
+				}
+				return syncList.size();
+			}
+		};
+		runner.run("SyncJob.run push (fake VFS, no latency)", String.valueOf(numFiles), sync);
+		server.getRepository().setLatency(SYNC_LATENCY);
+		runner.run("SyncJob.run push (fake VFS, " + SYNC_LATENCY + "ms latency)", String.valueOf(numFiles), sync);
+	}
+
+	/**
+	 * Internal method making sure the module lookups return the expected results, otherwise the benchmark results
+	 * would be meaningless
+	 */
+	private static void verifyModuleLookups(SyntheticProject project, OpenCmsModules ocmsModules, List<String> paths, File[] files) {
+		for (int i = 0; i < paths.size(); i += 97) {
+			OpenCmsModule expected = project.getExpectedModule(paths.get(i));
+			if (ocmsModules.getModuleForPath(paths.get(i)) != expected || ocmsModules.getModuleForFile(files[i]) != expected) {
+				throw new IllegalStateException("Wrong module returned for " + paths.get(i));
+			}
+		}
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.benchmark;
+
+import com.intellij.openapi.project.Project;
+import com.mediaworx.intellij.opencmsplugin.OpenCmsPlugin;
+import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsModuleConfigurationData;
+import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsPluginConfigurationData;
+import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModule;
+import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModules;
+import com.mediaworx.intellij.opencmsplugin.sync.VfsAdapter;
+import com.mediaworx.intellij.opencmsplugin.tools.PluginTools;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a project with the given number of OpenCms modules and module files on the local file system, including
+ * the OpenCms module configuration (<code>opencms-modules.xml</code>) declaring each module's resources and export
+ * points, and registers the modules with a plugin instance that's not attached to a real IntelliJ project.<br />
+ * <br />
+ * Module names are chosen so that some of them are prefixes of others (e.g. <code>com.example.m1</code> and
+ * <code>com.example.m10</code>) like in real projects. Every second module uses <code>/sites/default</code> as
+ * export/import site root. About one in twenty paths lies in an ignored folder or is an ignored file.<br />
+ * <br />
+ * The plugin syncs with the VFS of a {@link FakeOpenCmsServer} if one is set with {@link #useFakeVfs(FakeOpenCmsServer)}.
+ */
+public class SyntheticProject {
+
+	private static final String MODULE_PREFIX = "com.example.m";
+	private static final String LOCAL_VFS_ROOT = "src/main/vfs";
+	private static final String SITE_ROOT = "/sites/default";
+	private static final String IGNORED_PATHS = ".git\n.svn\nnode_modules\n";
+	private static final String IGNORED_FILES = "\\.DS_Store\n.*\\.bak\nThumbs\\.db\n";
+	private static final String[] RESOURCE_FOLDERS = {"formatters", "elements", "schemas", "resources/css", "resources/js", "resources/img", "classes/com/example"};
+	private static final String[] FILE_EXTENSIONS = {".jsp", ".xml", ".xsd", ".css", ".js", ".png", ".properties"};
+
+	private final File rootFolder;
+	private final OpenCmsPlugin plugin;
+	private final List<String> moduleBasePaths = new ArrayList<String>();
+	private final List<String> paths = new ArrayList<String>();
+	private final List<String> vfsPaths = new ArrayList<String>();
+	private volatile FakeOpenCmsServer fakeServer;
+
+	/**
+	 * Generates the project in a new temporary folder
+	 * @param numModules  number of OpenCms modules to generate
+	 * @param numPaths    number of module file paths to generate (in total, spread over all modules)
+	 * @param createFiles <code>true</code> if the module files should be created on disk (needed for lookups
+	 *                    checking file existence), <code>false</code> if only the module folders are created
+	 * @throws IOException if the project could not be written
+	 */
+	public SyntheticProject(int numModules, int numPaths, boolean createFiles) throws IOException {
+		rootFolder = new File(FileUtils.getTempDirectory(), "opencms-benchmark-" + System.nanoTime());
+		Random random = new Random(numModules * 31L + numPaths);
+
+		StringBuilder modulesXml = new StringBuilder();
+		modulesXml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<opencms>\n\t<modules>\n");
+		for (int i = 1; i <= numModules; i++) {
+			String moduleName = MODULE_PREFIX + i;
+			String moduleBasePath = PluginTools.ensureUnixPath(new File(rootFolder, "modules/" + moduleName).getPath());
+			moduleBasePaths.add(moduleBasePath);
+			FileUtils.forceMkdir(new File(moduleBasePath + "/" + LOCAL_VFS_ROOT + "/system/modules/" + moduleName));
+			modulesXml.append("\t\t<module>\n\t\t\t<name>").append(moduleName).append("</name>\n");
+			modulesXml.append("\t\t\t<exportpoints>\n");
+			modulesXml.append("\t\t\t\t<exportpoint uri=\"/system/modules/").append(moduleName).append("/classes/\" destination=\"WEB-INF/classes/\"/>\n");
+			modulesXml.append("\t\t\t\t<exportpoint uri=\"/system/modules/").append(moduleName).append("/lib/\" destination=\"WEB-INF/lib/\"/>\n");
+			modulesXml.append("\t\t\t</exportpoints>\n\t\t\t<resources>\n");
+			modulesXml.append("\t\t\t\t<resource uri=\"/system/modules/").append(moduleName).append("/\"/>\n");
+			modulesXml.append("\t\t\t\t<resource uri=\"/sites/default/").append(moduleName).append("/\"/>\n");
+			modulesXml.append("\t\t\t</resources>\n\t\t</module>\n");
+		}
+		modulesXml.append("\t</modules>\n</opencms>\n");
+
+		File webappRoot = new File(rootFolder, "webapp");
+		FileUtils.writeStringToFile(new File(webappRoot, "WEB-INF/config/opencms-modules.xml"), modulesXml.toString(), "UTF-8");
+
+		for (int i = 0; i < numPaths; i++) {
+			String moduleName = MODULE_PREFIX + (random.nextInt(numModules) + 1);
+			String folder = RESOURCE_FOLDERS[random.nextInt(RESOURCE_FOLDERS.length)];
+			String filename = "file" + random.nextInt(1000) + FILE_EXTENSIONS[random.nextInt(FILE_EXTENSIONS.length)];
+			int ignoreRoll = random.nextInt(40);
+			if (ignoreRoll == 0) {
+				folder = folder + "/node_modules/lib";
+			}
+			else if (ignoreRoll == 1) {
+				filename = filename + ".bak";
+			}
+			String vfsPath = "/system/modules/" + moduleName + "/" + folder + "/" + filename;
+			vfsPaths.add(vfsPath);
+			paths.add(PluginTools.ensureUnixPath(new File(rootFolder, "modules/" + moduleName).getPath()) + "/" + LOCAL_VFS_ROOT + vfsPath);
+		}
+		if (createFiles) {
+			for (String path : paths) {
+				File file = new File(path);
+				if (!file.exists()) {
+					FileUtils.forceMkdir(file.getParentFile());
+					FileUtils.touch(file);
+				}
+			}
+		}
+
+		plugin = new OpenCmsPlugin(createProject(rootFolder)) {
+			@Override
+			protected VfsAdapter createVfsAdapter(OpenCmsPluginConfigurationData config) {
+				FakeOpenCmsServer server = fakeServer;
+				return server != null ? server.createVfsAdapter() : super.createVfsAdapter(config);
+			}
+		};
+		OpenCmsPluginConfigurationData config = plugin.getPluginConfiguration();
+		config.setOpenCmsPluginEnabled(true);
+		config.setUsername("Admin");
+		config.setPassword("admin");
+		config.setWebappRoot(PluginTools.ensureUnixPath(webappRoot.getPath()));
+		config.setDefaultLocalVfsRoot(LOCAL_VFS_ROOT);
+		config.setIgnoredPaths(IGNORED_PATHS);
+		config.setIgnoredFiles(IGNORED_FILES);
+
+		OpenCmsModules ocmsModules = plugin.getOpenCmsModules();
+		for (int i = 0; i < numModules; i++) {
+			String moduleBasePath = moduleBasePaths.get(i);
+			OpenCmsModuleConfigurationData moduleConfig = new OpenCmsModuleConfigurationData();
+			moduleConfig.setOpenCmsModuleEnabled(true);
+			moduleConfig.setUseProjectDefaultModuleNameEnabled(true);
+			moduleConfig.setUseProjectDefaultVfsRootEnabled(true);
+			moduleConfig.setUseProjectDefaultSyncModeEnabled(true);
+			if (i % 2 == 1) {
+				moduleConfig.setExportImportSiteRoot(SITE_ROOT);
+			}
+			ocmsModules.registerModule(moduleBasePath, moduleConfig);
+		}
+	}
+
+	/**
+	 * Lets the plugin sync with the VFS of the given fake server instead of an OpenCms instance. Must be called
+	 * before the plugin's VFS adapter is used for the first time.
+	 * @param server the fake OpenCms server
+	 */
+	public void useFakeVfs(FakeOpenCmsServer server) {
+		fakeServer = server;
+	}
+
+	/**
+	 * @return the plugin instance the project's modules are registered with
+	 */
+	public OpenCmsPlugin getPlugin() {
+		return plugin;
+	}
+
+	/**
+	 * @return the registered OpenCms modules
+	 */
+	public OpenCmsModules getOpenCmsModules() {
+		return plugin.getOpenCmsModules();
+	}
+
+	/**
+	 * @param path a module file path
+	 * @return the module the path belongs to (determined by the generator, not by a lookup)
+	 */
+	public OpenCmsModule getExpectedModule(String path) {
+		String moduleFolder = path.substring(0, path.indexOf("/" + LOCAL_VFS_ROOT + "/"));
+		return plugin.getOpenCmsModules().getModuleForBasePath(moduleFolder);
+	}
+
+	/**
+	 * @return the base paths of all modules
+	 */
+	public List<String> getModuleBasePaths() {
+		return Collections.unmodifiableList(moduleBasePaths);
+	}
+
+	/**
+	 * @return the local paths of all generated module files
+	 */
+	public List<String> getPaths() {
+		return Collections.unmodifiableList(paths);
+	}
+
+	/**
+	 * @return the VFS paths of all generated module files, in the same order as {@link #getPaths()}
+	 */
+	public List<String> getVfsPaths() {
+		return Collections.unmodifiableList(vfsPaths);
+	}
+
+	/**
+	 * Disposes the plugin instance and deletes the project from the file system
+	 */
+	public void delete() {
+		plugin.disposeComponent();
+		FileUtils.deleteQuietly(rootFolder);
+	}
+
+	/**
+	 * Internal method creating a minimal project implementation providing the project name and base path, which is
+	 * all the plugin needs outside of IntelliJ (other project components are not available)
+	 */
+	private static Project createProject(final File rootFolder) {
+		return (Project)Proxy.newProxyInstance(SyntheticProject.class.getClassLoader(), new Class<?>[] {Project.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				String name = method.getName();
+				if ("getName".equals(name)) {
+					return "OpenCms benchmark";
+				}
+				if ("getBasePath".equals(name)) {
+					return PluginTools.ensureUnixPath(rootFolder.getPath());
+				}
+				if ("getComponent".equals(name)) {
+					// project components like the dirty file tracker aren't available outside of IntelliJ
+					return null;
+				}
+				if ("hashCode".equals(name)) {
+					return System.identityHashCode(proxy);
+				}
+				if ("equals".equals(name)) {
+					return proxy == args[0];
+				}
+				if ("toString".equals(name)) {
+					return "SyntheticProject[" + rootFolder + "]";
+				}
+				throw new UnsupportedOperationException("Not supported by the synthetic project: " + method);
+			}
+		});
+	}
+}
@@ -0,0 +1,35 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+/**
+ * This package contains tools for measuring the plugin's performance without a running OpenCms instance: an
+ * in-process fake OpenCms server providing an in-memory VFS (used through a {@link
+ * com.mediaworx.intellij.opencmsplugin.benchmark.FakeVfsAdapter}) and the plugin connector actions via http, both with
+ * injectable latency and bandwidth limits. The fake adapter is handed to the plugin by overriding
+ * {@link com.mediaworx.intellij.opencmsplugin.OpenCmsPlugin#createVfsAdapter}, see
+ * {@link com.mediaworx.intellij.opencmsplugin.benchmark.SyntheticProject#useFakeVfs}.
+ * None of the classes in this package are used by the plugin itself, they are kept in the separate <code>benchmark</code>
+ * source root (a test source root) and aren't part of the plugin jar.
+ */
+package com.mediaworx.intellij.opencmsplugin.benchmark;
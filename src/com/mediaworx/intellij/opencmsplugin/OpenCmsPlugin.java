@@ -26,10 +26,13 @@ package com.mediaworx.intellij.opencmsplugin;
 
 import com.intellij.openapi.actionSystem.*;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.components.*;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.vfs.VirtualFileManager;
@@ -44,13 +47,21 @@ import com.mediaworx.intellij.opencmsplugin.actions.menus.OpenCmsEditorPopupMenu
 import com.mediaworx.intellij.opencmsplugin.actions.menus.OpenCmsEditorTabPopupMenu;
 import com.mediaworx.intellij.opencmsplugin.actions.menus.OpenCmsMainMenu;
 import com.mediaworx.intellij.opencmsplugin.actions.menus.OpenCmsProjectPopupMenu;
+import com.mediaworx.intellij.opencmsplugin.actions.tools.SelectionClassificationCache;
 import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsModuleConfigurationComponent;
 import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsModuleConfigurationData;
 import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsPluginConfigurationData;
 import com.mediaworx.intellij.opencmsplugin.connector.OpenCmsPluginConnector;
+import com.mediaworx.intellij.opencmsplugin.connector.OpenCmsPublishQueue;
+import com.mediaworx.intellij.opencmsplugin.listeners.OpenCmsDirtyFileListener;
 import com.mediaworx.intellij.opencmsplugin.listeners.OpenCmsModuleFileChangeListener;
+import com.mediaworx.intellij.opencmsplugin.listeners.OpenCmsWatchModeListener;
 import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsConfiguration;
 import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModules;
+import com.mediaworx.intellij.opencmsplugin.sync.MetaInfoCache;
+import com.mediaworx.intellij.opencmsplugin.sync.OpenCmsWatchModeQueue;
+import com.mediaworx.intellij.opencmsplugin.sync.SyncList;
+import com.mediaworx.intellij.opencmsplugin.sync.SyncRunReportHistory;
 import com.mediaworx.intellij.opencmsplugin.sync.VfsAdapter;
 import com.mediaworx.intellij.opencmsplugin.tools.PluginTools;
 import com.mediaworx.intellij.opencmsplugin.toolwindow.OpenCmsPluginToolWindowFactory;
@@ -64,8 +75,14 @@ import org.jetbrains.annotations.Nullable;
 import javax.swing.*;
 import java.io.File;
 import java.util.Map;
-import java.util.TimerTask;
 import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * OpenCms plugin for IntelliJ providing IntelliJ menu actions to sync resources to and from the OpenCms VFS, to publish
@@ -121,6 +138,9 @@ public class OpenCmsPlugin implements ProjectComponent, PersistentStateComponent
 	/** After IntelliJ module changes we'll wait a while before OpenCms modules get updated */
 	private static final int MODULE_CHANGE_UPDATE_DELAY = 1000;
 
+	/** max time in milliseconds the queued pushes and publishes may take when the project is closed */
+	private static final long CLOSE_FLUSH_TIMEOUT = 10000;
+
 	/** The IntelliJ project */
 	private Project project;
 	
@@ -144,6 +164,22 @@ public class OpenCmsPlugin implements ProjectComponent, PersistentStateComponent
 	 */
 	private OpenCmsPluginConnector pluginConnector;
 
+	/**
+	 * Plugin wide queue collecting resources to be published, so that syncs and file changes following each other
+	 * closely are published in one direct publish session
+	 */
+	private OpenCmsPublishQueue publishQueue;
+
+	/**
+	 * Queue collecting module files saved in watch mode, so that they are pushed to OpenCms automatically
+	 */
+	private OpenCmsWatchModeQueue watchModeQueue;
+
+	/**
+	 * Reports of the recent sync runs, listed in the tool window
+	 */
+	private SyncRunReportHistory syncRunReportHistory;
+
 	/**
 	 * Client used to execute actions in OpenCms (new with version 1.7). Right now it runs side by side with the old
 	 * {@link #pluginConnector} and adds some additional functionality (importing modules). In a future release the
@@ -170,20 +206,53 @@ public class OpenCmsPlugin implements ProjectComponent, PersistentStateComponent
 	private ActionManager actionManager;
 
 	/**
-	 * timer used to execute delayed refreshes of OpenCms modules after IntelliJ modules have been changed
+	 * Plugin wide executor used for all background work (bounded thread pools and a scheduler), disposed when the
+	 * project is closed
 	 */
-	private final java.util.Timer moduleUpdateTimer = new java.util.Timer();
+	private OpenCmsPluginExecutor executor;
 
 	/**
 	 * task used to execute delayed OpenCms module updates after IntelliJ modules have been changed
 	 */
-	private TimerTask currentModuleUpdateTimerTask;
+	private ScheduledFuture<?> currentModuleUpdateTask;
+
+	/**
+	 * Entities that could not be synced during the last sync, used by the action "Retry failed Sync"
+	 */
+	private SyncList failedSyncList;
+
+	/**
+	 * Cache used to skip pulling meta data for resources that weren't modified since their meta data was pulled
+	 */
+	private final MetaInfoCache metaInfoCache = new MetaInfoCache();
+
+	/**
+	 * Cache for the classification of the project tree selection, shared by all OpenCms actions
+	 */
+	private final SelectionClassificationCache selectionClassificationCache = new SelectionClassificationCache(this);
+
+	/**
+	 * Timings of the last plugin startup, <code>null</code> if the plugin was not enabled yet
+	 */
+	private volatile PluginStartupTimings startupTimings;
+
+	/**
+	 * Signal counted down when the background phase of the plugin startup is finished
+	 */
+	private volatile CountDownLatch startupReadySignal = new CountDownLatch(0);
 
 	/**
 	 * Set to <code>true</code> the first time the OpenCms plugin is enabled
 	 */
 	private boolean wasInitialized = false;
 
+	/**
+	 * <code>true</code> while the plugin is enabled, reset when the plugin is disabled or the project is closed.
+	 * Only changed while holding the plugin's lock, checked by the background phase of the startup so it doesn't
+	 * start monitoring the configuration after the plugin was disabled.
+	 */
+	private volatile boolean enabled = false;
+
 	/**
 	 * Creates a new plugin instance, called by IntelliJ
 	 * @param project   the IntelliJ project
@@ -203,14 +272,28 @@ public class OpenCmsPlugin implements ProjectComponent, PersistentStateComponent
 		actionManager = ActionManager.getInstance();
 	}
 
-	private void initOpenCmsConfiguration() {
+	private synchronized void initOpenCmsConfiguration() {
 		clearOpenCmsConfiguration();
 		OpenCmsPluginConfigurationData config = getPluginConfiguration();
-		openCmsConfiguration = new OpenCmsConfiguration(config);
+		openCmsConfiguration = new OpenCmsConfiguration(config, getExecutor());
+		openCmsConfiguration.registerConfigurationChangeListener(openCmsModules);
 		openCmsConfiguration.startMonitoringConfigurationChanges();
 	}
 
-	private void clearOpenCmsConfiguration() {
+	/**
+	 * Initializes the OpenCms configuration and starts monitoring it, unless the plugin was disabled or the project
+	 * was closed in the meantime
+	 * @return <code>true</code> if the configuration was initialized, <code>false</code> if the plugin is disabled
+	 */
+	private synchronized boolean initOpenCmsConfigurationIfEnabled() {
+		if (!enabled || project == null) {
+			return false;
+		}
+		initOpenCmsConfiguration();
+		return true;
+	}
+
+	private synchronized void clearOpenCmsConfiguration() {
 		if (openCmsConfiguration != null) {
 			openCmsConfiguration.stopMonitoringConfigurationChanges();
 			openCmsConfiguration = null;
@@ -240,19 +323,91 @@ public class OpenCmsPlugin implements ProjectComponent, PersistentStateComponent
 		LOG.info("OpenCmsPlugin: projectClosed called, project: " + project.getName());
 		if (wasInitialized) {
 			openCmsMainMenu.unregisterModuleActions();
-			openCmsConfiguration.stopMonitoringConfigurationChanges();
 			disable();
 		}
+		flushQueuesOnClose();
+	}
+
+	/**
+	 * Pushes the files saved in watch mode and publishes the resources waiting in the publish queue before the
+	 * project is closed. The queues are flushed in the background while a cancelable progress dialog is shown, so
+	 * the event dispatch thread isn't blocked by calls to OpenCms. If flushing takes longer than
+	 * {@link #CLOSE_FLUSH_TIMEOUT} or is canceled, the remaining queued resources are dropped.
+	 */
+	private void flushQueuesOnClose() {
+		final OpenCmsWatchModeQueue watchModeQueue = this.watchModeQueue;
+		final OpenCmsPublishQueue publishQueue = this.publishQueue;
+		boolean pushPending = watchModeQueue != null && watchModeQueue.getNumQueued() > 0;
+		boolean publishPending = publishQueue != null && publishQueue.getNumQueued() > 0;
+		if (!pushPending && !publishPending) {
+			return;
+		}
+		final FutureTask<Void> flushTask = new FutureTask<Void>(new Runnable() {
+			@Override
+			public void run() {
+				// files saved in watch mode are pushed first, because pushing them may queue them for publishing
+				if (watchModeQueue != null) {
+					watchModeQueue.flush();
+				}
+				if (publishQueue != null) {
+					publishQueue.flush();
+				}
+			}
+		}, null);
+		getExecutor().execute(flushTask);
+		ProgressManager.getInstance().runProcessWithProgressSynchronously(new Runnable() {
+			@Override
+			public void run() {
+				ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+				long end = System.currentTimeMillis() + CLOSE_FLUSH_TIMEOUT;
+				try {
+					while (true) {
+						try {
+							flushTask.get(100, TimeUnit.MILLISECONDS);
+							return;
+						}
+						catch (TimeoutException e) {
+							if ((indicator != null && indicator.isCanceled()) || System.currentTimeMillis() > end) {
+								flushTask.cancel(true);
+								LOG.warn("Pushing/publishing queued resources was not finished before the project was closed, the remaining resources were dropped");
+								return;
+							}
+						}
+					}
+				}
+				catch (CancellationException e) {
+					LOG.warn("Queued resources could not be pushed/published before the project was closed, they were dropped");
+				}
+				catch (ExecutionException e) {
+					LOG.warn("There was an exception pushing/publishing queued resources before the project was closed", e.getCause());
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, "Pushing and publishing queued OpenCms resources ...", true, project);
 	}
 
 	/**
 	 * Enables the plugin for the current project. Initializes the plugin and its actions if initialization was not
 	 * done before. If the plugin connector is activated in the project level configuration it gets initialized as well.
+	 * <br /><br />
+	 * Only lightweight initialization (listeners, menus, connector) is done right away, the OpenCms configuration is
+	 * parsed and the OpenCms modules are initialized in the background. Use {@link #isReady()} or
+	 * {@link #awaitReady(long, TimeUnit)} to check if the background initialization is finished. The durations of
+	 * the startup phases are available using {@link #getStartupTimings()}.
 	 */
 	public void enable() {
-		initOpenCmsConfiguration();
-		initializeOpenCmsModules();
+		final PluginStartupTimings timings = new PluginStartupTimings();
+		final CountDownLatch readySignal = new CountDownLatch(1);
+		startupTimings = timings;
+		startupReadySignal = readySignal;
+		synchronized (this) {
+			enabled = true;
+		}
 
+		long phaseStart = System.nanoTime();
+		boolean checkWebappRoot = false;
 		if (!wasInitialized) {
 			OpenCmsPluginConfigurationData config = getPluginConfiguration();
 			if (config != null && config.isOpenCmsPluginEnabled()) {
@@ -263,19 +418,112 @@ public class OpenCmsPlugin implements ProjectComponent, PersistentStateComponent
 												config.getUsername(),
 												config.getPassword(),
 												config.isUseMetaDateVariablesEnabled(),
-												config.isUseMetaIdVariablesEnabled()
+												config.isUseMetaIdVariablesEnabled(),
+												config.getConnectorConnectTimeout(),
+												config.getConnectorSocketTimeout()
 										);
+					pluginConnector.setAsyncExecutor(getExecutor().getVfsExecutor());
 				}
 			}
 			registerListeners();
 			registerMenus();
 			wasInitialized = true;
-
-			checkWebappRootConfiguration(true);
+			checkWebappRoot = true;
 		}
 		else {
 			setToolWindowAvailable(true);
 		}
+		timings.addPhase("listeners and menus", phaseStart);
+
+		// if the startup is dropped because the project is closed, waiting actions must still be released
+		getExecutor().execute(new FutureTask<Void>(new Runnable() {
+			@Override
+			public void run() {
+				initializeInBackground(timings, readySignal);
+			}
+		}, null) {
+			@Override
+			protected void done() {
+				readySignal.countDown();
+			}
+		});
+
+		if (checkWebappRoot) {
+			checkWebappRootConfiguration(true);
+		}
+	}
+
+	/**
+	 * Background phase of the plugin startup: parses the OpenCms configuration, initializes the OpenCms modules and
+	 * registers the module actions. Counts down the ready signal when done, even if the initialization failed. Stops
+	 * early if the plugin is disabled or the project is closed while the initialization is running.
+	 * @param timings     the startup timings the phases are recorded in
+	 * @param readySignal the ready signal for this startup
+	 */
+	private void initializeInBackground(PluginStartupTimings timings, CountDownLatch readySignal) {
+		try {
+			if (project == null || project.isDisposed()) {
+				return;
+			}
+			long phaseStart = System.nanoTime();
+			if (!initOpenCmsConfigurationIfEnabled()) {
+				return;
+			}
+			timings.addPhase("OpenCms configuration", phaseStart);
+
+			phaseStart = System.nanoTime();
+			initializeOpenCmsModulesInReadAction();
+			timings.addPhase("OpenCms modules", phaseStart);
+			if (!enabled) {
+				return;
+			}
+
+			phaseStart = System.nanoTime();
+			if (openCmsMainMenu != null) {
+				openCmsMainMenu.registerModuleActions();
+			}
+			timings.addPhase("module actions", phaseStart);
+		}
+		catch (RuntimeException e) {
+			LOG.warn("There was an error initializing the OpenCms plugin", e);
+		}
+		finally {
+			timings.finish();
+			readySignal.countDown();
+			LOG.info(timings.getSummary());
+			OpenCmsToolWindowConsole console = this.console;
+			if (console != null) {
+				console.info(timings.getSummary() + "\n");
+			}
+		}
+	}
+
+	/**
+	 * Checks if the background phase of the plugin startup is finished (see {@link #enable()}).
+	 * @return <code>true</code> if the plugin is ready (or was never enabled), <code>false</code> while the OpenCms
+	 *         configuration and modules are still being initialized
+	 */
+	public boolean isReady() {
+		return startupReadySignal.getCount() == 0;
+	}
+
+	/**
+	 * Waits until the background phase of the plugin startup is finished (see {@link #enable()}).
+	 * @param timeout the maximum time to wait
+	 * @param unit    the time unit of the timeout
+	 * @return <code>true</code> if the plugin is ready, <code>false</code> if the timeout elapsed before
+	 * @throws InterruptedException if the current thread is interrupted while waiting
+	 */
+	public boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException {
+		return startupReadySignal.await(timeout, unit);
+	}
+
+	/**
+	 * Returns the durations of the phases of the last plugin startup
+	 * @return the startup timings, <code>null</code> if the plugin was not enabled yet
+	 */
+	public PluginStartupTimings getStartupTimings() {
+		return startupTimings;
 	}
 
 	/**
@@ -283,18 +531,38 @@ public class OpenCmsPlugin implements ProjectComponent, PersistentStateComponent
 	 * automatically because all actions are hidden if the plugin is deactivated
 	 */
 	public void disable() {
-		clearOpenCmsConfiguration();
+		synchronized (this) {
+			enabled = false;
+			clearOpenCmsConfiguration();
+		}
 
 		if (wasInitialized) {
 			setToolWindowAvailable(false);
 		}
 	}
 
+	/**
+	 * Calls {@link #initializeOpenCmsModules()} in a read action, so the IntelliJ modules can be accessed from
+	 * background threads
+	 */
+	private void initializeOpenCmsModulesInReadAction() {
+		ApplicationManager.getApplication().runReadAction(new Runnable() {
+			@Override
+			public void run() {
+				initializeOpenCmsModules();
+			}
+		});
+	}
+
 	/**
 	 * initializes all OpenCms modules that are configured in the IntelliJ modules (option "Is OpenCms module" checked)
 	 * and removes modules that aren't configured as OpenCms modules
 	 */
 	private synchronized void initializeOpenCmsModules() {
+		if (project == null || openCmsModules == null) {
+			// the project was closed while the module update was pending
+			return;
+		}
 		LOG.info("OpenCmsPlugin: initializeOpenCmsModules called, project: " + project.getName());
 
 		ModuleManager moduleManager = ModuleManager.getInstance(project);
@@ -333,21 +601,20 @@ public class OpenCmsPlugin implements ProjectComponent, PersistentStateComponent
 	 * done only once.
 	 */
 	public void queueOpenCmsModuleUpdate() {
-		if (currentModuleUpdateTimerTask != null) {
-			currentModuleUpdateTimerTask.cancel();
+		if (currentModuleUpdateTask != null) {
+			currentModuleUpdateTask.cancel(false);
 		}
-		currentModuleUpdateTimerTask = new TimerTask() {
+		currentModuleUpdateTask = getExecutor().schedule(new Runnable() {
 			@Override
 			public void run() {
 				LOG.info("OpenCmsPlugin: running timed OpenCms module refresh now: " + project.getName());
-				currentModuleUpdateTimerTask = null;
-				initializeOpenCmsModules();
+				currentModuleUpdateTask = null;
+				initializeOpenCmsModulesInReadAction();
 				if (openCmsMainMenu != null) {
 					openCmsMainMenu.registerModuleActions();
 				}
 			}
-		};
-		moduleUpdateTimer.schedule(currentModuleUpdateTimerTask, MODULE_CHANGE_UPDATE_DELAY);
+		}, MODULE_CHANGE_UPDATE_DELAY);
 	}
 
 
@@ -362,15 +629,17 @@ public class OpenCmsPlugin implements ProjectComponent, PersistentStateComponent
 	}
 
 	/**
-	 * Registers listeners for IntelliJ events. The listeners only listen for file change events and only file
-	 * deletions, renames and moves are handled (depending on the project level configuration these changes may
-	 * be synced back to OpenCms).
+	 * Registers listeners for IntelliJ events. The listeners only listen for file change events. File deletions,
+	 * renames and moves are handled (depending on the project level configuration these changes may be synced back
+	 * to OpenCms), saved files are pushed to OpenCms if watch mode is enabled.
 	 */
 	private void registerListeners() {
 		MessageBus bus = ApplicationManager.getApplication().getMessageBus();
 		MessageBusConnection connection = bus.connect();
 		OpenCmsModuleFileChangeListener fileChangeListener = new OpenCmsModuleFileChangeListener(this);
 		connection.subscribe(VirtualFileManager.VFS_CHANGES, fileChangeListener);
+		connection.subscribe(VirtualFileManager.VFS_CHANGES, new OpenCmsWatchModeListener(this));
+		connection.subscribe(VirtualFileManager.VFS_CHANGES, new OpenCmsDirtyFileListener(this));
 	}
 
 	/**
@@ -519,13 +788,37 @@ public class OpenCmsPlugin implements ProjectComponent, PersistentStateComponent
 	@Override
 	public void disposeComponent() {
 		LOG.info("OpenCmsPlugin: disposeComponent called, project: " + project.getName());
-		project = null;
-		configurationData = null;
-		clearOpenCmsConfiguration();
-		openCmsModules = null;
+		synchronized (this) {
+			// under the plugin's lock, so a running background initialization is finished before the project is gone
+			enabled = false;
+			project = null;
+			configurationData = null;
+			clearOpenCmsConfiguration();
+			openCmsModules = null;
+		}
 		vfsAdapter = null;
-		pluginConnector = null;
+		if (pluginConnector != null) {
+			pluginConnector.close();
+			pluginConnector = null;
+		}
+		failedSyncList = null;
+		selectionClassificationCache.clear();
+		if (publishQueue != null) {
+			publishQueue.dispose();
+			publishQueue = null;
+		}
+		if (watchModeQueue != null) {
+			watchModeQueue.dispose();
+			watchModeQueue = null;
+		}
+		// the disposed executor is kept, so late callers don't start new threads
+		if (executor != null) {
+			executor.dispose();
+		}
 		toolWindow = null;
+		if (console != null) {
+			console.closeSpillFile();
+		}
 		console = null;
 		actionManager = null;
 	}
@@ -553,7 +846,7 @@ public class OpenCmsPlugin implements ProjectComponent, PersistentStateComponent
 	 * Returns the helper object to retrieve configuration data from the OpenCms configuration
 	 * @return  the OpenCms configuration helper object
 	 */
-	public OpenCmsConfiguration getOpenCmsConfiguration() {
+	public synchronized OpenCmsConfiguration getOpenCmsConfiguration() {
 		if (openCmsConfiguration == null) {
 			initOpenCmsConfiguration();
 		}
@@ -594,12 +887,22 @@ public class OpenCmsPlugin implements ProjectComponent, PersistentStateComponent
 		if (vfsAdapter == null) {
 			OpenCmsPluginConfigurationData config = getPluginConfiguration();
 			if (config != null && config.isOpenCmsPluginEnabled() && config.getPassword() != null && config.getPassword().length() > 0) {
-				vfsAdapter = new VfsAdapter(config.getRepository(), config.getUsername(), config.getPassword());
+				vfsAdapter = createVfsAdapter(config);
 			}
 		}
 		return vfsAdapter;
 	}
 
+	/**
+	 * Creates the adapter used to sync the RFS with the OpenCms VFS, called by {@link #getVfsAdapter()}. Overridden
+	 * by the benchmarks to sync with an in-memory VFS instead of an OpenCms instance.
+	 * @param config the plugin configuration containing the CMIS repository Url and the OpenCms credentials
+	 * @return a new VFS adapter, not yet connected
+	 */
+	protected VfsAdapter createVfsAdapter(OpenCmsPluginConfigurationData config) {
+		return new VfsAdapter(config.getRepository(), config.getUsername(), config.getPassword());
+	}
+
 	/**
 	 * Returns the connector used to retrieve module or resource information from OpenCms and execute actions in
 	 * OpenCms (e.g. publishing)
@@ -623,6 +926,88 @@ public class OpenCmsPlugin implements ProjectComponent, PersistentStateComponent
 	@Deprecated
 	public void setPluginConnector(OpenCmsPluginConnector pluginConnector) {
 		this.pluginConnector = pluginConnector;
+		if (pluginConnector != null) {
+			pluginConnector.setAsyncExecutor(getExecutor().getVfsExecutor());
+		}
+	}
+
+	/**
+	 * Returns the plugin wide executor that should be used for all background work of the plugin
+	 * @return the plugin executor
+	 */
+	public synchronized OpenCmsPluginExecutor getExecutor() {
+		if (executor == null) {
+			executor = new OpenCmsPluginExecutor(project.getName());
+		}
+		return executor;
+	}
+
+	/**
+	 * Returns the plugin wide queue collecting resources to be published via the plugin connector
+	 * @return the publish queue
+	 */
+	public synchronized OpenCmsPublishQueue getPublishQueue() {
+		if (publishQueue == null) {
+			publishQueue = new OpenCmsPublishQueue(this);
+		}
+		return publishQueue;
+	}
+
+	/**
+	 * Returns the queue collecting module files saved in watch mode to be pushed to OpenCms
+	 * @return the watch mode queue
+	 */
+	public synchronized OpenCmsWatchModeQueue getWatchModeQueue() {
+		if (watchModeQueue == null) {
+			watchModeQueue = new OpenCmsWatchModeQueue(this);
+		}
+		return watchModeQueue;
+	}
+
+	/**
+	 * Returns the reports of the recent sync runs, the JSON reports are written to the folder
+	 * <code>opencms-sync-reports/[project name]</code> in IntelliJ's log folder
+	 * @return the sync run report history
+	 */
+	public synchronized SyncRunReportHistory getSyncRunReportHistory() {
+		if (syncRunReportHistory == null) {
+			File reportFolder = new File(PathManager.getLogPath(), "opencms-sync-reports/" + project.getName().replaceAll("[^\\w.-]", "_"));
+			syncRunReportHistory = new SyncRunReportHistory(reportFolder);
+		}
+		return syncRunReportHistory;
+	}
+
+	/**
+	 * Returns the cache used to skip pulling meta data for resources whose local meta info files are up to date
+	 * @return the meta info cache
+	 */
+	public MetaInfoCache getMetaInfoCache() {
+		return metaInfoCache;
+	}
+
+	/**
+	 * Returns the cache for the classification of the files selected in the project tree, used by the actions'
+	 * <code>update</code> methods
+	 * @return the selection classification cache
+	 */
+	public SelectionClassificationCache getSelectionClassificationCache() {
+		return selectionClassificationCache;
+	}
+
+	/**
+	 * Returns the entities that could not be synced during the last sync
+	 * @return the entities that failed during the last sync, <code>null</code> if no sync was executed yet
+	 */
+	public SyncList getFailedSyncList() {
+		return failedSyncList;
+	}
+
+	/**
+	 * Sets the entities that could not be synced during the last sync, called by the {@link com.mediaworx.intellij.opencmsplugin.sync.SyncJob}
+	 * @param failedSyncList the entities that failed during the last sync
+	 */
+	public void setFailedSyncList(SyncList failedSyncList) {
+		this.failedSyncList = failedSyncList;
 	}
 
 	/**
@@ -732,6 +1117,10 @@ public class OpenCmsPlugin implements ProjectComponent, PersistentStateComponent
 	 */
 	public void setConsole(OpenCmsToolWindowConsole console) {
 		this.console = console;
+		PluginStartupTimings timings = startupTimings;
+		if (console != null && timings != null && timings.isFinished()) {
+			console.info(timings.getSummary() + "\n");
+		}
 	}
 
 	/**
@@ -0,0 +1,407 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plugin wide executor for all background work of the plugin, created by {@link OpenCmsPlugin#getExecutor()} and
+ * disposed along with the project. Uses bounded pools of named daemon threads instead of creating threads and timers
+ * per action:
+ * <ul>
+ *     <li>the background pool executes general background tasks (e.g. checks after file changes, module imports,
+ *     debounced pushes and publishes)</li>
+ *     <li>the VFS pool executes single calls to OpenCms (connector calls, parallel VFS operations), limiting the
+ *     number of concurrent requests hitting the server. Tasks in the VFS pool must not wait for other tasks of the
+ *     plugin executor, background tasks may wait for VFS tasks.</li>
+ *     <li>the scheduler delays tasks (see {@link #schedule(Runnable, long)}), the tasks are handed over to the
+ *     background pool when due, so a long running task doesn't delay other scheduled tasks</li>
+ * </ul>
+ * If a pool's queue is full, the submitting thread waits for free space in the queue, slowing down the producer
+ * instead of queueing an unbounded number of tasks. Threads that must never wait (the event dispatch thread, the
+ * scheduler and threads of the same pool) don't wait, their tasks are parked in the pool's unbounded overflow queue
+ * and handed to the pool as soon as a thread finishes a task. So tasks are only dropped when the executor is
+ * disposed. Tasks are never executed on the submitting thread.
+ */
+public class OpenCmsPluginExecutor {
+
+	private static final Logger LOG = Logger.getInstance(OpenCmsPluginExecutor.class);
+
+	/** max number of threads executing general background tasks */
+	private static final int MAX_BACKGROUND_THREADS = 4;
+
+	/** max number of threads executing calls to OpenCms */
+	private static final int MAX_VFS_THREADS = 4;
+
+	/** max number of tasks waiting for a free thread in each pool */
+	private static final int MAX_QUEUED_TASKS = 200;
+
+	/** queue depth at which a warning is logged (once per pool) */
+	private static final int QUEUE_DEPTH_WARNING_THRESHOLD = 50;
+
+	/** time in seconds idle pool threads are kept alive */
+	private static final long KEEP_ALIVE_SECONDS = 60;
+
+	private static final String BACKGROUND_POOL_NAME = "background";
+	private static final String VFS_POOL_NAME = "VFS";
+	private static final String SCHEDULER_NAME = "scheduler";
+
+	private final String projectName;
+	private final BoundedPool backgroundPool;
+	private final BoundedPool vfsPool;
+	private final ScheduledThreadPoolExecutor scheduler;
+	private volatile boolean disposed = false;
+
+	/**
+	 * Creates the executor for the given project, threads are started on demand.
+	 * @param projectName name of the project, used for the thread names
+	 */
+	OpenCmsPluginExecutor(String projectName) {
+		this.projectName = projectName;
+		backgroundPool = new BoundedPool(BACKGROUND_POOL_NAME, MAX_BACKGROUND_THREADS);
+		vfsPool = new BoundedPool(VFS_POOL_NAME, MAX_VFS_THREADS);
+		scheduler = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(SCHEDULER_NAME));
+		scheduler.setRemoveOnCancelPolicy(true);
+		scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+	}
+
+	/**
+	 * Executes the given task with the background pool. If the executor was disposed, the task is skipped (and
+	 * cancelled if it is a {@link Future}, so callers waiting for it are released).
+	 * @param task the task to execute
+	 */
+	public void execute(Runnable task) {
+		if (disposed) {
+			LOG.info("The plugin executor for " + projectName + " was disposed, task skipped");
+			cancelDropped(task);
+			return;
+		}
+		backgroundPool.execute(task);
+	}
+
+	/**
+	 * Runs the given task with the background pool after the given delay. Debounced tasks are rescheduled by
+	 * cancelling the returned future (<code>cancel(false)</code>) and scheduling a new task.
+	 * @param task        the task to execute
+	 * @param delayMillis delay in milliseconds
+	 * @return the future that can be used to cancel the task before it is due, <code>null</code> if the executor
+	 *         was disposed
+	 */
+	public ScheduledFuture<?> schedule(final Runnable task, long delayMillis) {
+		if (disposed) {
+			LOG.info("The plugin executor for " + projectName + " was disposed, scheduled task skipped");
+			return null;
+		}
+		return scheduler.schedule(new Runnable() {
+			@Override
+			public void run() {
+				execute(task);
+			}
+		}, delayMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Runs the given task with the background pool repeatedly, the first time after the initial delay and then with
+	 * the given delay between the end of one hand-over to the pool and the start of the next. Used for polling,
+	 * stopped by cancelling the returned future.
+	 * @param task               the task to execute
+	 * @param initialDelayMillis delay in milliseconds before the first execution
+	 * @param delayMillis        delay in milliseconds between executions
+	 * @return the future that can be used to stop the task, <code>null</code> if the executor was disposed
+	 */
+	public ScheduledFuture<?> scheduleWithFixedDelay(final Runnable task, long initialDelayMillis, long delayMillis) {
+		if (disposed) {
+			LOG.info("The plugin executor for " + projectName + " was disposed, scheduled task skipped");
+			return null;
+		}
+		return scheduler.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				execute(task);
+			}
+		}, initialDelayMillis, delayMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Creates (but doesn't start) a named daemon thread for work that blocks for the whole lifetime of a component
+	 * and therefore must not occupy a pool thread, e.g. waiting for file system events. The thread is not managed by
+	 * the executor, its owner has to stop it.
+	 * @param name     name of the thread, the project name is appended
+	 * @param runnable the work to be done by the thread
+	 * @return the new thread
+	 */
+	public Thread newThread(String name, Runnable runnable) {
+		return new NamedThreadFactory(name).newThread(runnable);
+	}
+
+	/**
+	 * Returns the pool for single calls to OpenCms. Tasks submitted to this pool must not wait for other tasks of
+	 * the plugin executor. The pool is shut down by {@link #dispose()}, callers must not shut it down.
+	 * @return the executor service for calls to OpenCms
+	 */
+	public ExecutorService getVfsExecutor() {
+		return vfsPool;
+	}
+
+	/**
+	 * @return the number of tasks waiting for a free thread, in both pools
+	 */
+	public int getQueueDepth() {
+		return backgroundPool.getQueueDepth() + vfsPool.getQueueDepth();
+	}
+
+	/**
+	 * @return a summary of the executor's state (active threads, queue depths, completed and scheduled tasks)
+	 */
+	public String getMetrics() {
+		return backgroundPool.getMetrics() + "; " + vfsPool.getMetrics() + "; scheduled: " + scheduler.getQueue().size();
+	}
+
+	/**
+	 * @return <code>true</code> if the executor was disposed, <code>false</code> otherwise
+	 */
+	public boolean isDisposed() {
+		return disposed;
+	}
+
+	/**
+	 * Stops all threads, pending and scheduled tasks are dropped, running tasks are interrupted. Called when the
+	 * project is closed.
+	 */
+	public void dispose() {
+		disposed = true;
+		LOG.info("Disposing the plugin executor for " + projectName + " - " + getMetrics());
+		scheduler.shutdownNow();
+		backgroundPool.shutdownNow();
+		vfsPool.shutdownNow();
+		backgroundPool.dropOverflow();
+		vfsPool.dropOverflow();
+	}
+
+	/**
+	 * Cancels a task that is dropped if it was submitted for a result, so nobody waits for it.
+	 * @param task the dropped task
+	 */
+	private static void cancelDropped(Runnable task) {
+		if (task instanceof Future) {
+			((Future<?>)task).cancel(false);
+		}
+	}
+
+	/**
+	 * Thread pool with a bounded number of threads and a bounded queue that keeps track of the max queue depth. Tasks
+	 * of threads that must not wait for space in the queue are parked in an unbounded overflow queue, which is
+	 * drained into the pool's queue whenever a pool thread finishes a task.
+	 */
+	private class BoundedPool extends ThreadPoolExecutor {
+
+		private final String name;
+		private final int maxThreads;
+		private final ConcurrentLinkedDeque<Runnable> overflow = new ConcurrentLinkedDeque<Runnable>();
+		private final AtomicInteger maxQueueDepth = new AtomicInteger();
+		private volatile boolean queueDepthWarningLogged = false;
+
+		BoundedPool(String name, int maxThreads) {
+			super(maxThreads, maxThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<Runnable>(MAX_QUEUED_TASKS), new NamedThreadFactory(name));
+			this.name = name;
+			this.maxThreads = maxThreads;
+			allowCoreThreadTimeOut(true);
+			setRejectedExecutionHandler(new WaitOrDropWhenSaturated());
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			super.execute(command);
+			int queueDepth = getQueue().size();
+			int max = maxQueueDepth.get();
+			while (queueDepth > max && !maxQueueDepth.compareAndSet(max, queueDepth)) {
+				max = maxQueueDepth.get();
+			}
+			if (queueDepth >= QUEUE_DEPTH_WARNING_THRESHOLD && !queueDepthWarningLogged) {
+				queueDepthWarningLogged = true;
+				LOG.warn("The OpenCms " + name + " pool of " + projectName + " is busy - " + getMetrics());
+			}
+		}
+
+		@Override
+		protected void afterExecute(Runnable task, Throwable throwable) {
+			super.afterExecute(task, throwable);
+			drainOverflow();
+		}
+
+		/**
+		 * Parks the given task in the overflow queue, it is handed to the pool as soon as there's space in the queue.
+		 * @param task the task that didn't fit into the queue
+		 */
+		void addToOverflow(Runnable task) {
+			overflow.offerLast(task);
+			// the queue may have been drained in the meantime, in that case no pool thread would pick up the task
+			drainOverflow();
+			if (isShutdown()) {
+				dropOverflow();
+			}
+		}
+
+		/**
+		 * Moves parked tasks to the pool's queue (in the order they were parked) as long as there is space
+		 */
+		private void drainOverflow() {
+			Runnable task;
+			while ((task = overflow.pollFirst()) != null) {
+				if (!getQueue().offer(task)) {
+					overflow.offerFirst(task);
+					return;
+				}
+				// a task put into the queue directly doesn't start a thread, make sure there is one to pick it up
+				prestartCoreThread();
+			}
+		}
+
+		/**
+		 * Drops the parked tasks, called after the pool was shut down
+		 */
+		void dropOverflow() {
+			Runnable task;
+			while ((task = overflow.pollFirst()) != null) {
+				cancelDropped(task);
+			}
+		}
+
+		int getQueueDepth() {
+			return getQueue().size() + overflow.size();
+		}
+
+		String getMetrics() {
+			return name + ": active " + getActiveCount() + "/" + maxThreads + ", queued " + getQueue().size()
+					+ " (max " + maxQueueDepth.get() + "), overflow " + overflow.size() + ", completed "
+					+ getCompletedTaskCount();
+		}
+	}
+
+	/**
+	 * Lets the submitting thread wait until there's space in the queue for tasks that don't fit. The event dispatch
+	 * thread, the scheduler and threads of the saturated pool itself (which could wait for each other forever) never
+	 * wait, their tasks are parked in the pool's overflow queue instead. Tasks submitted after shutdown are dropped.
+	 * Dropped tasks that were submitted for a result are cancelled, so nobody waits for them.
+	 */
+	private class WaitOrDropWhenSaturated implements RejectedExecutionHandler {
+
+		@Override
+		public void rejectedExecution(Runnable task, ThreadPoolExecutor pool) {
+			if (pool.isShutdown()) {
+				LOG.info("The plugin executor for " + projectName + " was disposed, task skipped");
+				cancelDropped(task);
+				return;
+			}
+			BoundedPool boundedPool = (BoundedPool)pool;
+			if (!mayWait(boundedPool.name)) {
+				if (boundedPool.overflow.isEmpty()) {
+					LOG.info("The plugin executor for " + projectName + " is saturated, parking tasks in the overflow queue - " + getMetrics());
+				}
+				boundedPool.addToOverflow(task);
+				return;
+			}
+			LOG.info("The plugin executor for " + projectName + " is saturated, waiting for a free slot in the queue");
+			try {
+				while (!pool.getQueue().offer(task, 100, TimeUnit.MILLISECONDS)) {
+					if (pool.isShutdown()) {
+						cancelDropped(task);
+						return;
+					}
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				// the task must not be lost because the waiting thread was interrupted
+				boundedPool.addToOverflow(task);
+			}
+		}
+
+		/**
+		 * Checks if the current thread may wait for a free slot in the given pool's queue
+		 * @param poolName name of the saturated pool
+		 * @return <code>true</code> if the thread may wait, <code>false</code> otherwise
+		 */
+		private boolean mayWait(String poolName) {
+			if (SwingUtilities.isEventDispatchThread()) {
+				return false;
+			}
+			Thread thread = Thread.currentThread();
+			if (!(thread instanceof PluginThread)) {
+				return true;
+			}
+			// background tasks may wait for VFS tasks, but not the other way round
+			return BACKGROUND_POOL_NAME.equals(((PluginThread)thread).poolName) && VFS_POOL_NAME.equals(poolName);
+		}
+	}
+
+	/**
+	 * Thread created by the plugin executor, knows the pool it belongs to
+	 */
+	private static class PluginThread extends Thread {
+
+		private final String poolName;
+
+		PluginThread(Runnable runnable, String name, String poolName) {
+			super(runnable, name);
+			this.poolName = poolName;
+		}
+	}
+
+	/**
+	 * Creates named daemon threads, so the plugin's threads can be identified in thread dumps
+	 */
+	private class NamedThreadFactory implements ThreadFactory {
+
+		private final String poolName;
+		private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+		NamedThreadFactory(String poolName) {
+			this.poolName = poolName;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new PluginThread(runnable, "OpenCms " + poolName + " " + threadNumber.getAndIncrement() + " (" + projectName + ")", poolName);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
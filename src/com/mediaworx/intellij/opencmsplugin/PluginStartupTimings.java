@@ -0,0 +1,105 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records the durations of the phases of the plugin startup (see {@link OpenCmsPlugin#enable()}). Phases may be
+ * recorded from different threads.
+ */
+public class PluginStartupTimings {
+
+	private final long startTime = System.nanoTime();
+	private final Map<String, Long> phaseDurations = new LinkedHashMap<String, Long>();
+	private long totalDuration = -1;
+
+	/**
+	 * Records the duration of a phase that has just finished.
+	 * @param phase      the name of the phase, e.g. "OpenCms modules"
+	 * @param phaseStart the start time of the phase, as returned by {@link System#nanoTime()}
+	 */
+	public synchronized void addPhase(String phase, long phaseStart) {
+		phaseDurations.put(phase, (System.nanoTime() - phaseStart) / 1000000);
+	}
+
+	/**
+	 * Marks the startup as finished, the total duration is measured from the creation of this object.
+	 */
+	public synchronized void finish() {
+		totalDuration = (System.nanoTime() - startTime) / 1000000;
+	}
+
+	/**
+	 * @return <code>true</code> if the startup is finished, <code>false</code> otherwise
+	 */
+	public synchronized boolean isFinished() {
+		return totalDuration >= 0;
+	}
+
+	/**
+	 * @return the durations of all recorded phases in milliseconds, in the order they were recorded
+	 */
+	public synchronized Map<String, Long> getPhaseDurations() {
+		return new LinkedHashMap<String, Long>(phaseDurations);
+	}
+
+	/**
+	 * @return the total startup duration in milliseconds, -1 if the startup is not finished yet
+	 */
+	public synchronized long getTotalDuration() {
+		return totalDuration;
+	}
+
+	/**
+	 * Returns a one line summary of the startup timings, e.g.
+	 * "OpenCms plugin started in 830 ms (menus: 20 ms, OpenCms configuration: 310 ms, OpenCms modules: 500 ms)"
+	 * @return a summary of the startup timings
+	 */
+	public synchronized String getSummary() {
+		StringBuilder summary = new StringBuilder("OpenCms plugin ");
+		if (isFinished()) {
+			summary.append("started in ").append(totalDuration).append(" ms");
+		}
+		else {
+			summary.append("is starting");
+		}
+		if (!phaseDurations.isEmpty()) {
+			summary.append(" (");
+			boolean first = true;
+			for (Map.Entry<String, Long> phase : phaseDurations.entrySet()) {
+				if (!first) {
+					summary.append(", ");
+				}
+				summary.append(phase.getKey()).append(": ").append(phase.getValue()).append(" ms");
+				first = false;
+			}
+			summary.append(")");
+		}
+		return summary.toString();
+	}
+}
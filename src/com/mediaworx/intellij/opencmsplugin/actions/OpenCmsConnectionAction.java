@@ -38,6 +38,9 @@ public abstract class OpenCmsConnectionAction extends OpenCmsPluginAction {
 	@Override
 	public void actionPerformed(AnActionEvent event) {
 		super.actionPerformed(event);
+		if (!isPluginReady()) {
+			return;
+		}
 		XDebugSession[] debugSessions = XDebuggerManager.getInstance(plugin.getProject()).getDebugSessions();
 		boolean isDebugHalted = false;
 		for (XDebugSession debugSession : debugSessions) {
@@ -27,6 +27,8 @@ package com.mediaworx.intellij.opencmsplugin.actions;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.mediaworx.intellij.opencmsplugin.OpenCmsPlugin;
 import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsPluginConfigurationData;
@@ -34,6 +36,8 @@ import com.mediaworx.intellij.opencmsplugin.toolwindow.OpenCmsToolWindowConsole;
 import com.mediaworx.opencms.ideconnector.client.IDEConnectorClient;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * The "mother" of all menu actions for the OpenCms plugin. Implemented by all of the plugin's actions except menu
  * groups.
@@ -46,15 +50,62 @@ public abstract class OpenCmsPluginAction extends AnAction {
 	protected OpenCmsToolWindowConsole console;
 	protected IDEConnectorClient connectorClient;
 
+	/**
+	 * <code>false</code> if the user canceled waiting for the plugin startup (or the plugin is not available), set
+	 * by {@link #actionPerformed(AnActionEvent)}
+	 */
+	private boolean pluginReady;
+
 	/**
 	 * Method triggered by IntelliJ whenever a menu action is executed by the user. Does nothing by itself besides
-	 * initializing some variables needed for action execution. The actual action functionality can be found in
-	 * implementing classes.
+	 * initializing some variables needed for action execution and waiting for the plugin startup to finish, if the
+	 * action is executed while the OpenCms modules are still being initialized. The actual action functionality can
+	 * be found in implementing classes, which must not execute if {@link #isPluginReady()} returns <code>false</code>.
 	 * @param event the action event, provided by IntelliJ
 	 */
 	@Override
 	public void actionPerformed(AnActionEvent event) {
 		init(event);
+		pluginReady = waitForPluginStartup();
+	}
+
+	/**
+	 * @return <code>true</code> if the plugin startup is finished and the action may be executed, <code>false</code>
+	 *         if the user canceled waiting for the startup or the plugin is not available
+	 */
+	protected boolean isPluginReady() {
+		return pluginReady;
+	}
+
+	/**
+	 * Waits (showing a cancelable progress dialog) until the background phase of the plugin startup is finished.
+	 * @return <code>true</code> if the plugin is ready, <code>false</code> if waiting was canceled or the plugin is
+	 *         not available
+	 */
+	private boolean waitForPluginStartup() {
+		if (plugin == null) {
+			return false;
+		}
+		if (plugin.isReady()) {
+			return true;
+		}
+		boolean finished = ProgressManager.getInstance().runProcessWithProgressSynchronously(new Runnable() {
+			@Override
+			public void run() {
+				ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+				try {
+					while (!plugin.awaitReady(100, TimeUnit.MILLISECONDS)) {
+						if (indicator != null) {
+							indicator.checkCanceled();
+						}
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, "Waiting for the OpenCms plugin to finish initializing the OpenCms modules ...", true, project);
+		return finished && plugin.isReady();
 	}
 
 	/**
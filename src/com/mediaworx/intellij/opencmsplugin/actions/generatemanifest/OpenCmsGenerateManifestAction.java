@@ -57,6 +57,9 @@ public abstract class OpenCmsGenerateManifestAction extends OpenCmsPluginAction
 	public void actionPerformed(AnActionEvent event) {
 		LOG.info("actionPerformed - event: " + event);
 		super.actionPerformed(event);
+		if (!isPluginReady()) {
+			return;
+		}
 
 		List<File> moduleFiles = getModuleFileList(event);
 
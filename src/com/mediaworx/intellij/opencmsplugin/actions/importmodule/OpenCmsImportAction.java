@@ -106,8 +106,7 @@ public abstract class OpenCmsImportAction extends OpenCmsConnectionAction {
 						}
 					}
 				};
-				Thread thread = new Thread(runnable);
-				thread.start();
+				plugin.getExecutor().execute(runnable);
 			}
 		}
 		else {
@@ -31,7 +31,7 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.mediaworx.intellij.opencmsplugin.OpenCmsPlugin;
 import com.mediaworx.intellij.opencmsplugin.actions.publish.OpenCmsPublishSelectedAction;
 import com.mediaworx.intellij.opencmsplugin.actions.sync.OpenCmsSyncSelectedAction;
-import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModule;
+import com.mediaworx.intellij.opencmsplugin.actions.tools.FileTypeCounter;
 
 /**
  * Used to create the OpenCms menu located in the editor popup menu containing the following actions:
@@ -76,8 +76,9 @@ public class OpenCmsEditorPopupMenu extends OpenCmsMenu {
 		VirtualFile[] selectedFiles = event.getData(PlatformDataKeys.VIRTUAL_FILE_ARRAY);
 		boolean enableMenu;
 		if (selectedFiles != null && selectedFiles.length == 1) {
-			OpenCmsModule ocmsModule = plugin.getOpenCmsModules().getModuleForPath(selectedFiles[0].getPath());
-			enableMenu = ocmsModule != null && ocmsModule.isPathInVFSPath(selectedFiles[0].getPath());
+			// a single module root is counted as an entity, but it's not a resource within the VFS path
+			FileTypeCounter fileTypeCounter = plugin.getSelectionClassificationCache().getFileTypeCounter(selectedFiles);
+			enableMenu = fileTypeCounter.hasEntities() && !fileTypeCounter.hasOnlyModules();
 		}
 		else {
 			enableMenu = false;
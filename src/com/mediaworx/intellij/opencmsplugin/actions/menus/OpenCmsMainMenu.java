@@ -45,10 +45,13 @@ import com.mediaworx.intellij.opencmsplugin.actions.publish.OpenCmsPublishOpenEd
 import com.mediaworx.intellij.opencmsplugin.actions.publish.OpenCmsPublishSelectedAction;
 import com.mediaworx.intellij.opencmsplugin.actions.pullmetadata.OpenCmsPullAllMetaDataAction;
 import com.mediaworx.intellij.opencmsplugin.actions.pullmetadata.OpenCmsPullSelectedModuleMetaDataAction;
+import com.mediaworx.intellij.opencmsplugin.actions.sync.OpenCmsRetryFailedSyncAction;
 import com.mediaworx.intellij.opencmsplugin.actions.sync.OpenCmsSyncAllModulesAction;
+import com.mediaworx.intellij.opencmsplugin.actions.sync.OpenCmsSyncChangedFilesAction;
 import com.mediaworx.intellij.opencmsplugin.actions.sync.OpenCmsSyncModuleAction;
 import com.mediaworx.intellij.opencmsplugin.actions.sync.OpenCmsSyncOpenEditorTabsAction;
 import com.mediaworx.intellij.opencmsplugin.actions.sync.OpenCmsSyncSelectedAction;
+import com.mediaworx.intellij.opencmsplugin.actions.sync.OpenCmsToggleWatchModeAction;
 import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModule;
 
 import javax.swing.*;
@@ -58,7 +61,8 @@ import java.util.Collection;
 /**
  * Used to create the OpenCms menu located in the main menu bar containing the following actions:
  * <ul>
- *     <li>Sync actions (sync selected, sync all open tabs, sync all modules, sync specific module)</li>
+ *     <li>Sync actions (sync selected, sync all open tabs, sync all modules, sync changed files, sync specific module,
+ *     retry failed sync, enable/disable watch mode)</li>
  *     <li>Pull Meta Data actions (Pull meta data for selected module, pull all meta data)</li>
  *     <li>Generate Manifest actions (Generate manifest for selected module, Generate manifest for all modules)</li>
  *     <li>Package Module Zip actions (Package module zip for selected module, Package Module Zip for all modules)</li>
@@ -77,6 +81,9 @@ public class OpenCmsMainMenu extends OpenCmsMenu {
 	private static final String SYNC_OPEN_TABS_ID = "OpenCmsPlugin.SyncOpenTabsAction";
 	private static final String SYNC_ALL_MODULES_ID = "OpenCmsPlugin.SyncAllAction";
 	public static final String SYNC_MODULE_ID_PREFIX = "OpenCmsPlugin.SyncModule.";
+	private static final String SYNC_CHANGED_FILES_ID = "OpenCmsPlugin.SyncChangedFilesAction";
+	private static final String RETRY_FAILED_SYNC_ID = "OpenCmsPlugin.RetryFailedSyncAction";
+	private static final String TOGGLE_WATCH_MODE_ID = "OpenCmsPlugin.ToggleWatchModeAction";
 	private static final String PULL_MODULE_METADATA_ID = "OpenCmsPlugin.PullModuleMetaDataAction";
 	private static final String PULL_ALL_METADATA_ID = "OpenCmsPlugin.PullAllMetaDataAction";
 	private static final String GENERATE_SELECTED_MODULE_MANIFEST_ID = "OpenCmsPlugin.GenerateManifestAction";
@@ -161,7 +168,10 @@ public class OpenCmsMainMenu extends OpenCmsMenu {
 		plugin.addAction(this, SYNC_SELECTED_ID, new OpenCmsSyncSelectedAction(), "_Sync selected Modules/Folders/Files");
 		plugin.addAction(this, SYNC_OPEN_TABS_ID, new OpenCmsSyncOpenEditorTabsAction(), "Sync all open Editor _Tabs");
 		plugin.addAction(this, SYNC_ALL_MODULES_ID, new OpenCmsSyncAllModulesAction(), "Sync _all Modules");
+		plugin.addAction(this, SYNC_CHANGED_FILES_ID, new OpenCmsSyncChangedFilesAction(), "Sync _changed Files");
 		add(syncModuleActions);
+		plugin.addAction(this, RETRY_FAILED_SYNC_ID, new OpenCmsRetryFailedSyncAction(), "Retry _failed Sync");
+		plugin.addAction(this, TOGGLE_WATCH_MODE_ID, new OpenCmsToggleWatchModeAction(), "Enable _Watch Mode (push saved Files)");
 
 		add(Separator.getInstance());
 
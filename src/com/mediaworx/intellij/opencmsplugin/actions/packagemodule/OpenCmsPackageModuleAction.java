@@ -36,8 +36,6 @@ import org.jetbrains.annotations.NotNull;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * Parent action for all actions used to package module zip files
@@ -58,6 +56,9 @@ public abstract class OpenCmsPackageModuleAction extends OpenCmsPluginAction {
 	public void actionPerformed(AnActionEvent event) {
 		LOG.info("actionPerformed - event: " + event);
 		super.actionPerformed(event);
+		if (!isPluginReady()) {
+			return;
+		}
 
 		List<File> moduleFiles = getModuleFileArray(event);
 		final List<File> filesToBeRefreshed = new ArrayList<File>(moduleFiles.size());
@@ -87,7 +88,7 @@ public abstract class OpenCmsPackageModuleAction extends OpenCmsPluginAction {
 
 			filesToBeRefreshed.add(new File(zipTargetPath));
 		}
-		new Timer().schedule(new TimerTask() {
+		plugin.getExecutor().schedule(new Runnable() {
 			@Override
 			public void run() {
 				LocalFileSystem.getInstance().refreshIoFiles(filesToBeRefreshed, true, false, null);
@@ -35,8 +35,9 @@ import com.mediaworx.intellij.opencmsplugin.toolwindow.OpenCmsToolWindowConsole;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
 
 /**
  * Parent action for all actions used to publish OpenCms resources
@@ -76,18 +77,25 @@ public abstract class OpenCmsPublishAction extends OpenCmsConnectionAction {
 					console.info("  " + vfsPath);
 				}
 
+				// publish asynchronously, so the UI doesn't freeze while waiting for OpenCms
+				final OpenCmsToolWindowConsole publishConsole = console;
 				OpenCmsPluginConnector connector = plugin.getPluginConnector();
-				try {
-					connector.publishResources(publishList, true);
-					console.info("Direct publish session started");
-				}
-				catch (IOException e) {
-					LOG.warn("There was an exception while publishing resources", e);
-					console.error("There was an exception while publishing resources. Is OpenCms running? Please have a look at the OpenCms log file and/or the IntelliJ log file.");
-				}
-				catch (OpenCmsConnectorException e) {
-					console.error(e.getMessage());
-				}
+				connector.publishResourcesAsync(publishList, true).whenComplete(new BiConsumer<Void, Throwable>() {
+					@Override
+					public void accept(Void result, Throwable throwable) {
+						Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+						if (cause == null) {
+							publishConsole.info("Direct publish session started");
+						}
+						else if (cause instanceof OpenCmsConnectorException) {
+							publishConsole.error(cause.getMessage());
+						}
+						else {
+							LOG.warn("There was an exception while publishing resources", cause);
+							publishConsole.error("There was an exception while publishing resources. Is OpenCms running? Please have a look at the OpenCms log file and/or the IntelliJ log file.");
+						}
+					}
+				});
 			}
 			else {
 				console.info("nothing to publish");
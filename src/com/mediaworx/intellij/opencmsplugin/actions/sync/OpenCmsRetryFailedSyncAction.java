@@ -0,0 +1,73 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.mediaworx.intellij.opencmsplugin.actions.sync;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.diagnostic.Logger;
+import com.mediaworx.intellij.opencmsplugin.actions.OpenCmsConnectionAction;
+import com.mediaworx.intellij.opencmsplugin.sync.OpenCmsSyncer;
+import com.mediaworx.intellij.opencmsplugin.sync.SyncList;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Action to sync the files and folders that failed during the last sync (e.g. because OpenCms was restarting) again.
+ */
+@SuppressWarnings("ComponentNotRegistered")
+public class OpenCmsRetryFailedSyncAction extends OpenCmsConnectionAction {
+
+	private static final Logger LOG = Logger.getInstance(OpenCmsRetryFailedSyncAction.class);
+
+	/**
+	 * Triggers the sync of all entities that failed during the last sync.
+	 * @param event the action event, provided by IntelliJ
+	 */
+	@Override
+	public void executeAction(AnActionEvent event) {
+		LOG.info("executeAction - event: " + event);
+		try {
+			clearConsole();
+			OpenCmsSyncer syncer = new OpenCmsSyncer(plugin);
+			syncer.retryFailedSync();
+		}
+		catch (Throwable t) {
+			LOG.warn("Exception in OpenCmsRetryFailedSyncAction.actionPerformed: " + t.getMessage(), t);
+		}
+	}
+
+	/**
+	 * Enables the action only if there are failed entities from the last sync.
+	 * @param event the action event, provided by IntelliJ
+	 */
+	@Override
+	public void update(@NotNull AnActionEvent event) {
+		super.update(event);
+		if (plugin != null) {
+			SyncList failedList = plugin.getFailedSyncList();
+			int numFailed = failedList != null ? failedList.size() : 0;
+			event.getPresentation().setEnabled(numFailed > 0);
+			event.getPresentation().setText(numFailed > 0 ? "Retry _failed Sync (" + numFailed + " files/folders)" : "Retry _failed Sync");
+		}
+	}
+}
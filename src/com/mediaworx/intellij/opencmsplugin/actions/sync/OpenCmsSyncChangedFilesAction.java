@@ -0,0 +1,67 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.actions.sync;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.mediaworx.intellij.opencmsplugin.sync.OpenCmsDirtyFileTracker;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Action to sync only the module resources changed or created locally since they were last synced (see
+ * {@link OpenCmsDirtyFileTracker}), so the module trees don't have to be walked to find them.
+ */
+@SuppressWarnings("ComponentNotRegistered")
+public class OpenCmsSyncChangedFilesAction extends OpenCmsSyncAction {
+
+	/**
+	 * @param event the action event, provided by IntelliJ
+	 * @return A list containing the files and folders changed since the last sync
+	 */
+	@Override
+	protected List<File> getSyncFiles(@NotNull AnActionEvent event) {
+		OpenCmsDirtyFileTracker tracker = OpenCmsDirtyFileTracker.getInstance(project);
+		return tracker != null ? tracker.getDirtyFiles() : new ArrayList<File>();
+	}
+
+	/**
+	 * Enables the action only if there are changed files, the number of changed files is displayed in the menu.
+	 * @param event the action event, provided by IntelliJ
+	 */
+	@Override
+	public void update(@NotNull AnActionEvent event) {
+		super.update(event);
+		if (project != null) {
+			OpenCmsDirtyFileTracker tracker = OpenCmsDirtyFileTracker.getInstance(project);
+			int numDirty = tracker != null ? tracker.getNumDirty() : 0;
+			event.getPresentation().setEnabled(numDirty > 0);
+			event.getPresentation().setText(numDirty > 0 ? "Sync _changed Files (" + numDirty + ")" : "Sync _changed Files");
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.actions.sync;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.diagnostic.Logger;
+import com.mediaworx.intellij.opencmsplugin.actions.OpenCmsPluginAction;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Action to enable or disable watch mode. In watch mode module files saved in IntelliJ are pushed to the OpenCms VFS
+ * automatically (see {@link com.mediaworx.intellij.opencmsplugin.sync.OpenCmsWatchModeQueue}).
+ */
+@SuppressWarnings("ComponentNotRegistered")
+public class OpenCmsToggleWatchModeAction extends OpenCmsPluginAction {
+
+	private static final Logger LOG = Logger.getInstance(OpenCmsToggleWatchModeAction.class);
+
+	/**
+	 * Enables watch mode if it is disabled and vice versa. Files waiting to be pushed are dropped when watch mode is
+	 * disabled.
+	 * @param event the action event, provided by IntelliJ
+	 */
+	@Override
+	public void actionPerformed(AnActionEvent event) {
+		LOG.info("actionPerformed - event: " + event);
+		super.actionPerformed(event);
+		if (!isPluginReady() || config == null) {
+			return;
+		}
+		boolean watchModeEnabled = !config.isWatchModeEnabled();
+		config.setWatchModeEnabled(watchModeEnabled);
+		if (!watchModeEnabled) {
+			plugin.getWatchModeQueue().clear();
+		}
+		plugin.showConsole();
+		plugin.getConsole().notice(watchModeEnabled ? "Watch mode enabled, saved module files are pushed to OpenCms automatically" : "Watch mode disabled");
+	}
+
+	/**
+	 * Shows if watch mode is currently enabled or disabled.
+	 * @param event the action event, provided by IntelliJ
+	 */
+	@Override
+	public void update(@NotNull AnActionEvent event) {
+		super.update(event);
+		if (config != null) {
+			event.getPresentation().setText(config.isWatchModeEnabled() ? "Disable _Watch Mode" : "Enable _Watch Mode (push saved Files)");
+		}
+	}
+}
@@ -92,14 +92,17 @@ public class ActionTools {
 		String actionPlace = event.getPlace();
 
 		VirtualFile[] selectedFiles = event.getData(PlatformDataKeys.VIRTUAL_FILE_ARRAY);
-		FileTypeCounter fileTypeCounter = new FileTypeCounter(plugin);
+		FileTypeCounter fileTypeCounter;
 
 		if (selectedFiles != null && selectedFiles.length > 0) {
-			fileTypeCounter.count(selectedFiles);
+			fileTypeCounter = plugin.getSelectionClassificationCache().getFileTypeCounter(selectedFiles);
 			if (fileTypeCounter.hasEntities()) {
 				enableAction = true;
 			}
 		}
+		else {
+			fileTypeCounter = new FileTypeCounter(plugin);
+		}
 
 		if (!actionPlace.equals(ActionPlaces.EDITOR_POPUP) && !actionPlace.equals(ActionPlaces.EDITOR_TAB_POPUP)) {
 			String actionText = textPrefix + " selected " + fileTypeCounter.getEntityNames();
@@ -133,23 +136,17 @@ public class ActionTools {
 		OpenCmsPlugin plugin = project.getComponent(OpenCmsPlugin.class);
 		VirtualFile[] selectedFiles = event.getData(PlatformDataKeys.VIRTUAL_FILE_ARRAY);
 
+		FileTypeCounter fileTypeCounter = null;
 		if (selectedFiles != null) {
 			// check if only module roots have been selected
-			for (VirtualFile ideaVFile : selectedFiles) {
-				OpenCmsModule ocmsModule = plugin.getOpenCmsModules().getModuleForPath(ideaVFile.getPath());
-				if (ocmsModule == null || !ocmsModule.isPathModuleRoot(ideaVFile.getPath())) {
-					enableAction = false;
-					break;
-				}
-			}
+			fileTypeCounter = plugin.getSelectionClassificationCache().getFileTypeCounter(selectedFiles);
+			enableAction = fileTypeCounter.hasOnlyModules();
 		}
 		else {
 			enableAction = false;
 		}
 
 		if (enableAction) {
-			FileTypeCounter fileTypeCounter = new FileTypeCounter(plugin);
-			fileTypeCounter.count(selectedFiles);
 			event.getPresentation().setText(textPrefix + " selected " + fileTypeCounter.getEntityNames());
 			event.getPresentation().setEnabled(true);
 		}
@@ -53,6 +53,7 @@ public class FileTypeCounter {
 	private int numModules;
 	private int numFolders;
 	private int numFiles;
+	private boolean onlyModules;
 
 	/**
 	 * Creates a new FileTypeConter.
@@ -63,6 +64,7 @@ public class FileTypeCounter {
 		numModules = 0;
 		numFolders = 0;
 		numFiles = 0;
+		onlyModules = true;
 	}
 
 	/**
@@ -77,18 +79,22 @@ public class FileTypeCounter {
 			OpenCmsModule ocmsModule = plugin.getOpenCmsModules().getModuleForPath(filePath);
 
 			if (ocmsModule == null) {
+				onlyModules = false;
 				continue;
 			}
 
 			if (ocmsModule.isPathModuleRoot(filePath)) {
 				numModules += 1;
 			}
-			else if (ocmsModule.isPathInVFSPath(ideaVFile.getPath())) {
-				if (ideaVFile.isDirectory()) {
-					numFolders += 1;
-				}
-				else {
-					numFiles += 1;
+			else {
+				onlyModules = false;
+				if (ocmsModule.isPathInVFSPath(filePath)) {
+					if (ideaVFile.isDirectory()) {
+						numFolders += 1;
+					}
+					else {
+						numFiles += 1;
+					}
 				}
 			}
 			// if we know that there are multiple modules, multiple folders and multiple files, then there's no reason to go on
@@ -107,6 +113,15 @@ public class FileTypeCounter {
 		return numModules + numFolders + numFiles > 0;
 	}
 
+	/**
+	 * Checks if only OpenCms module roots were selected.
+	 * @return <code>true</code> if every selected file is the root of an OpenCms module, <code>false</code>
+	 *         otherwise
+	 */
+	public boolean hasOnlyModules() {
+		return onlyModules;
+	}
+
 	/**
 	 * 	Returns the names of the entities contained in the user's selection. E.g.:
 	 * <ul>
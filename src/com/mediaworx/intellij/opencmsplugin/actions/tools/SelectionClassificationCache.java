@@ -0,0 +1,103 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.actions.tools;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.mediaworx.intellij.opencmsplugin.OpenCmsPlugin;
+import com.mediaworx.intellij.opencmsplugin.configuration.IgnoreRules;
+
+import java.util.Arrays;
+
+/**
+ * Caches the classification of the files selected in IntelliJ's project tree (see {@link FileTypeCounter}).
+ * IntelliJ calls the <code>update</code> method of every visible action many times per second, and all OpenCms
+ * actions classify the same selection, so the classification is computed only once per selection and reused
+ * until the selection, the OpenCms modules or the ignored files and folders change. There's one cache per plugin
+ * instance (see {@link OpenCmsPlugin#getSelectionClassificationCache()}).
+ */
+public class SelectionClassificationCache {
+
+	private final OpenCmsPlugin plugin;
+	private volatile Entry lastEntry;
+
+	/**
+	 * Creates a new selection classification cache.
+	 * @param plugin the current OpenCms plugin instance
+	 */
+	public SelectionClassificationCache(OpenCmsPlugin plugin) {
+		this.plugin = plugin;
+	}
+
+	/**
+	 * Returns the classification for the given selection, computed only if the selection or the plugin state
+	 * changed since the last call.
+	 * @param selectedFiles the virtual file array containing all files selected in the project tree
+	 * @return the FileTypeCounter containing the counted OpenCms modules, folders and files; the returned instance
+	 *         is shared and must not be modified
+	 */
+	public FileTypeCounter getFileTypeCounter(VirtualFile[] selectedFiles) {
+		int moduleVersion = plugin.getOpenCmsModules().getVersion();
+		IgnoreRules ignoreRules = plugin.getPluginConfiguration().getIgnoreRules();
+
+		Entry entry = lastEntry;
+		if (entry != null && entry.matches(selectedFiles, moduleVersion, ignoreRules)) {
+			return entry.fileTypeCounter;
+		}
+
+		FileTypeCounter fileTypeCounter = new FileTypeCounter(plugin);
+		fileTypeCounter.count(selectedFiles);
+		lastEntry = new Entry(selectedFiles.clone(), moduleVersion, ignoreRules, fileTypeCounter);
+		return fileTypeCounter;
+	}
+
+	/**
+	 * Drops the cached classification.
+	 */
+	public void clear() {
+		lastEntry = null;
+	}
+
+	private static class Entry {
+
+		private final VirtualFile[] selectedFiles;
+		private final int moduleVersion;
+		private final IgnoreRules ignoreRules;
+		private final FileTypeCounter fileTypeCounter;
+
+		private Entry(VirtualFile[] selectedFiles, int moduleVersion, IgnoreRules ignoreRules, FileTypeCounter fileTypeCounter) {
+			this.selectedFiles = selectedFiles;
+			this.moduleVersion = moduleVersion;
+			this.ignoreRules = ignoreRules;
+			this.fileTypeCounter = fileTypeCounter;
+		}
+
+		private boolean matches(VirtualFile[] selectedFiles, int moduleVersion, IgnoreRules ignoreRules) {
+			return this.moduleVersion == moduleVersion
+					&& this.ignoreRules == ignoreRules
+					&& Arrays.equals(this.selectedFiles, selectedFiles);
+		}
+	}
+}
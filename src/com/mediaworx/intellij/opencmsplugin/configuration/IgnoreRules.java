@@ -0,0 +1,141 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.configuration;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.mediaworx.intellij.opencmsplugin.tools.PluginTools;
+import org.apache.commons.io.filefilter.AbstractFileFilter;
+import org.apache.commons.io.filefilter.IOFileFilter;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The ignored files and folders configured for the project, compiled into one regular expression for paths and one
+ * for file names. A path is ignored if one of its path segment sequences matches one of the ignored path patterns
+ * (the combined pattern is <code>.*&#47;(?:p1|p2|...)(?:&#47;.*)?</code>), a file is ignored if its name
+ * matches one of the ignored file patterns. Invalid patterns are skipped (and logged). If a folder is ignored,
+ * everything it contains is ignored as well.
+ */
+public class IgnoreRules {
+
+	private static final Logger LOG = Logger.getInstance(IgnoreRules.class);
+
+	/** rules ignoring nothing */
+	public static final IgnoreRules NONE = new IgnoreRules(null, null);
+
+	private final Pattern ignoredPathsPattern;
+	private final Pattern ignoredFilesPattern;
+
+	private final IOFileFilter fileFilter = new AbstractFileFilter() {
+		@Override
+		public boolean accept(File file) {
+			return !isIgnored(file);
+		}
+	};
+
+	/**
+	 * Compiles the given ignore patterns
+	 * @param ignoredPaths regular expressions for ignored paths, may be <code>null</code>
+	 * @param ignoredFiles regular expressions for ignored file names, may be <code>null</code>
+	 */
+	public IgnoreRules(String[] ignoredPaths, String[] ignoredFiles) {
+		List<String> validPaths = getValidPatterns(ignoredPaths);
+		List<String> validFiles = getValidPatterns(ignoredFiles);
+		ignoredPathsPattern = validPaths.isEmpty() ? null : Pattern.compile(".*/" + getAlternation(validPaths) + "(?:/.*)?");
+		ignoredFilesPattern = validFiles.isEmpty() ? null : Pattern.compile(getAlternation(validFiles));
+	}
+
+	/**
+	 * Checks if a resource is ignored
+	 * @param path     full file system path of the resource (unix separators)
+	 * @param filename name of the resource
+	 * @return <code>true</code> if the resource is ignored, <code>false</code> otherwise
+	 */
+	public boolean isIgnored(String path, String filename) {
+		return (ignoredPathsPattern != null && ignoredPathsPattern.matcher(path).matches())
+				|| (ignoredFilesPattern != null && ignoredFilesPattern.matcher(filename).matches());
+	}
+
+	/**
+	 * Checks if a file or folder is ignored
+	 * @param file the file or folder
+	 * @return <code>true</code> if the file or folder is ignored, <code>false</code> otherwise
+	 */
+	public boolean isIgnored(File file) {
+		return isIgnored(PluginTools.ensureUnixPath(file.getPath()), file.getName());
+	}
+
+	/**
+	 * @return <code>true</code> if there are no ignore rules, <code>false</code> otherwise
+	 */
+	public boolean isEmpty() {
+		return ignoredPathsPattern == null && ignoredFilesPattern == null;
+	}
+
+	/**
+	 * Returns a filter accepting all files and folders that are not ignored. Used as file filter when listing the
+	 * files of a folder (e.g. with <code>FileUtils.listFiles</code>), so ignored files aren't listed at all.
+	 * @return file filter accepting resources that are not ignored
+	 */
+	public IOFileFilter getFileFilter() {
+		return fileFilter;
+	}
+
+	private static String getAlternation(List<String> patterns) {
+		StringBuilder alternation = new StringBuilder("(?:");
+		for (int i = 0; i < patterns.size(); i++) {
+			if (i > 0) {
+				alternation.append('|');
+			}
+			alternation.append("(?:").append(patterns.get(i)).append(')');
+		}
+		return alternation.append(')').toString();
+	}
+
+	private static List<String> getValidPatterns(String[] patterns) {
+		List<String> validPatterns = new ArrayList<String>();
+		if (patterns == null) {
+			return validPatterns;
+		}
+		for (String pattern : patterns) {
+			if (pattern == null || pattern.length() == 0) {
+				continue;
+			}
+			try {
+				Pattern.compile(pattern);
+				validPatterns.add(pattern);
+			}
+			catch (PatternSyntaxException e) {
+				LOG.warn("Invalid ignore pattern " + pattern + " is skipped", e);
+			}
+		}
+		return validPatterns;
+	}
+}
@@ -141,6 +141,7 @@ public class OpenCmsPluginConfigurable implements Configurable {
 					plugin.getPluginConnector().setPassword(configurationData.getPassword());
 					plugin.getPluginConnector().setUseMetaDateVariables(configurationData.isUseMetaDateVariablesEnabled());
 					plugin.getPluginConnector().setUseMetaIdVariables(configurationData.isUseMetaIdVariablesEnabled());
+					plugin.getPluginConnector().setTimeouts(configurationData.getConnectorConnectTimeout(), configurationData.getConnectorSocketTimeout());
 				}
 				else {
 					plugin.setPluginConnector(
@@ -149,12 +150,17 @@ public class OpenCmsPluginConfigurable implements Configurable {
 									configurationData.getUsername(),
 									configurationData.getPassword(),
 									configurationData.isUseMetaDateVariablesEnabled(),
-									configurationData.isUseMetaIdVariablesEnabled()
+									configurationData.isUseMetaIdVariablesEnabled(),
+									configurationData.getConnectorConnectTimeout(),
+									configurationData.getConnectorSocketTimeout()
 							)
 					);
 				}
 			}
 			else {
+				if (plugin.getPluginConnector() != null) {
+					plugin.getPluginConnector().close();
+				}
 				plugin.setPluginConnector(null);
 			}
 
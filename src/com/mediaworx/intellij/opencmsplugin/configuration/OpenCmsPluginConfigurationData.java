@@ -33,6 +33,18 @@ import org.apache.commons.lang.StringUtils;
  */
 public class OpenCmsPluginConfigurationData {
 
+	/** Default time in milliseconds queued resources are collected before they are published */
+	public static final int DEFAULT_PUBLISH_QUEUE_DELAY = 2000;
+
+	/** Default time in milliseconds files saved in watch mode are collected before they are pushed */
+	public static final int DEFAULT_WATCH_MODE_DELAY = 300;
+
+	/** Default timeout in milliseconds for establishing a connection to the plugin connector */
+	public static final int DEFAULT_CONNECTOR_CONNECT_TIMEOUT = 5000;
+
+	/** Default timeout in milliseconds for waiting for a response of the plugin connector */
+	public static final int DEFAULT_CONNECTOR_SOCKET_TIMEOUT = 120000;
+
 	private boolean openCmsPluginEnabled = false;
     private String repository;
     private String username;
@@ -45,6 +57,7 @@ public class OpenCmsPluginConfigurationData {
 	private String[] ignoredFilesArray;
 	private String ignoredPaths;
 	private String[] ignoredPathsArray;
+	private volatile IgnoreRules ignoreRules = IgnoreRules.NONE;
 	private String moduleZipTargetFolderPath;
 	private boolean pluginConnectorEnabled;
 	private String connectorUrl;
@@ -56,6 +69,11 @@ public class OpenCmsPluginConfigurationData {
 	private boolean useMetaDateVariablesEnabled;
 	private boolean useMetaIdVariablesEnabled;
 	private boolean useMetaVariablesEnabled;
+	private int publishQueueDelay = DEFAULT_PUBLISH_QUEUE_DELAY;
+	private boolean watchModeEnabled;
+	private int watchModeDelay = DEFAULT_WATCH_MODE_DELAY;
+	private int connectorConnectTimeout = DEFAULT_CONNECTOR_CONNECT_TIMEOUT;
+	private int connectorSocketTimeout = DEFAULT_CONNECTOR_SOCKET_TIMEOUT;
 
 	/**
 	 * Flag denoting if the plugin is enabled for the project.
@@ -230,6 +248,7 @@ public class OpenCmsPluginConfigurationData {
 		else {
 			ignoredFilesArray = new String[0];
 		}
+		ignoreRules = new IgnoreRules(ignoredPathsArray, ignoredFilesArray);
 	}
 
 	/**
@@ -265,6 +284,16 @@ public class OpenCmsPluginConfigurationData {
 		else {
 			ignoredPathsArray = new String[0];
 		}
+		ignoreRules = new IgnoreRules(ignoredPathsArray, ignoredFilesArray);
+	}
+
+	/**
+	 * Returns the ignored files and folders compiled into a matcher, which is rebuilt whenever the ignored files or
+	 * folders are changed.
+	 * @return the compiled ignore rules
+	 */
+	public IgnoreRules getIgnoreRules() {
+		return ignoreRules;
 	}
 
 	/**
@@ -470,6 +499,90 @@ public class OpenCmsPluginConfigurationData {
 		}
 	}
 
+	/**
+	 * Gets the time in milliseconds resources to be published are collected in the publish queue before a direct
+	 * publish session is started. The delay is restarted whenever further resources are queued.
+	 * @return the publish queue delay in milliseconds
+	 */
+	public int getPublishQueueDelay() {
+		return publishQueueDelay >= 0 ? publishQueueDelay : DEFAULT_PUBLISH_QUEUE_DELAY;
+	}
+
+	/**
+	 * Sets the time in milliseconds resources to be published are collected in the publish queue before a direct
+	 * publish session is started.
+	 * @param publishQueueDelay the publish queue delay in milliseconds, <code>0</code> to publish without delay
+	 */
+	public void setPublishQueueDelay(int publishQueueDelay) {
+		this.publishQueueDelay = publishQueueDelay;
+	}
+
+	/**
+	 * Flag denoting if watch mode is enabled. In watch mode module files saved in IntelliJ are pushed to the OpenCms
+	 * VFS automatically (without analyzing the module tree).
+	 * @return <code>true</code> if watch mode is enabled, <code>false</code> otherwise
+	 */
+	public boolean isWatchModeEnabled() {
+		return watchModeEnabled;
+	}
+
+	/**
+	 * Sets the flag denoting if watch mode is enabled
+	 * @param watchModeEnabled <code>true</code> if watch mode should be enabled, <code>false</code> otherwise
+	 */
+	public void setWatchModeEnabled(boolean watchModeEnabled) {
+		this.watchModeEnabled = watchModeEnabled;
+	}
+
+	/**
+	 * Gets the time in milliseconds files saved in watch mode are collected before they are pushed. The delay is
+	 * restarted whenever further files are saved.
+	 * @return the watch mode delay in milliseconds
+	 */
+	public int getWatchModeDelay() {
+		return watchModeDelay >= 0 ? watchModeDelay : DEFAULT_WATCH_MODE_DELAY;
+	}
+
+	/**
+	 * Sets the time in milliseconds files saved in watch mode are collected before they are pushed.
+	 * @param watchModeDelay the watch mode delay in milliseconds, <code>0</code> to push without delay
+	 */
+	public void setWatchModeDelay(int watchModeDelay) {
+		this.watchModeDelay = watchModeDelay;
+	}
+
+	/**
+	 * Gets the timeout for establishing a connection to the plugin connector
+	 * @return the connect timeout in milliseconds
+	 */
+	public int getConnectorConnectTimeout() {
+		return connectorConnectTimeout > 0 ? connectorConnectTimeout : DEFAULT_CONNECTOR_CONNECT_TIMEOUT;
+	}
+
+	/**
+	 * Sets the timeout for establishing a connection to the plugin connector
+	 * @param connectorConnectTimeout the connect timeout in milliseconds
+	 */
+	public void setConnectorConnectTimeout(int connectorConnectTimeout) {
+		this.connectorConnectTimeout = connectorConnectTimeout;
+	}
+
+	/**
+	 * Gets the timeout for waiting for a response of the plugin connector (e.g. while meta data is collected)
+	 * @return the socket timeout in milliseconds
+	 */
+	public int getConnectorSocketTimeout() {
+		return connectorSocketTimeout > 0 ? connectorSocketTimeout : DEFAULT_CONNECTOR_SOCKET_TIMEOUT;
+	}
+
+	/**
+	 * Sets the timeout for waiting for a response of the plugin connector
+	 * @param connectorSocketTimeout the socket timeout in milliseconds
+	 */
+	public void setConnectorSocketTimeout(int connectorSocketTimeout) {
+		this.connectorSocketTimeout = connectorSocketTimeout;
+	}
+
 	/**
 	 * Internal utility method to strip trailing path separators from path Strings.
 	 * @param s the path String
@@ -26,16 +26,23 @@ package com.mediaworx.intellij.opencmsplugin.connector;
 
 
 import com.intellij.openapi.diagnostic.Logger;
+import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsPluginConfigurationData;
 import com.mediaworx.intellij.opencmsplugin.exceptions.OpenCmsConnectorException;
 import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModuleResource;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -47,6 +54,17 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The connector to OpenCms used for publishing and pulling module and resource meta data. The Plugin Connector is
@@ -65,6 +83,15 @@ import java.util.Map;
  * Communication between the plugin and the connector JSP is done via http by sending JSON requests. Responses from
  * the connector module are in JSON format as well.<br />
  * <br />
+ * All requests share one pooled HttpClient using keep-alive connections and gzip compression. Cookies returned by
+ * OpenCms (e.g. the session id) are kept and sent with subsequent requests, so the connector JSP's OpenCms session
+ * can be reused across calls. The client is rebuilt whenever the credentials or timeouts change.<br />
+ * <br />
+ * Besides the blocking methods, asynchronous variants returning <code>CompletableFuture</code>s are provided (e.g.
+ * {@link #publishResourcesAsync(List, boolean)}). They are executed by a small executor owned by the connector or
+ * by the plugin's VFS pool (see {@link #setAsyncExecutor(Executor)}), so callers on the EDT never have to wait for
+ * OpenCms and connector calls may overlap with VFS transfers.<br />
+ * <br />
  * With version 1.7 a new connector service was introduced that is supposed to slowly replace the old JSP connector.
  */
 public class OpenCmsPluginConnector {
@@ -75,13 +102,27 @@ public class OpenCmsPluginConnector {
 	private static final String ACTION_RESOURCEINFOS = "resourceInfos";
 	private static final String ACTION_PUBLISH = "publishResources";
 
-	private String connectorUrl;
-	private String user;
-	private String password;
-	private boolean useMetaDateVariables;
-	private boolean useMetaIdVariables;
+	/** max number of pooled connections, the connector usually talks to one local OpenCms instance */
+	private static final int MAX_CONNECTIONS = 4;
+
+	/** time in milliseconds idle connections are kept alive if OpenCms doesn't send a keep-alive timeout */
+	private static final long DEFAULT_KEEP_ALIVE = 30000;
+
+	/** number of threads executing asynchronous connector calls */
+	private static final int NUM_ASYNC_THREADS = 2;
+
+	// set on the EDT when the configuration changes, read by the threads executing asynchronous calls
+	private volatile String connectorUrl;
+	private volatile String user;
+	private volatile String password;
+	private volatile boolean useMetaDateVariables;
+	private volatile boolean useMetaIdVariables;
+	private int connectTimeout;
+	private int socketTimeout;
 	private CloseableHttpClient httpClient;
-	private JSONParser jsonParser;
+	private BasicCookieStore cookieStore;
+	private ExecutorService asyncExecutor;
+	private Executor sharedAsyncExecutor;
 
 	/**
 	 * Creates a new Plugin Connector
@@ -94,28 +135,154 @@ public class OpenCmsPluginConnector {
 	 *                              otherwise
 	 */
 	public OpenCmsPluginConnector(String connectorUrl, String user, String password, boolean useMetaDateVariables, boolean useMetaIdVariables) {
+		this(connectorUrl, user, password, useMetaDateVariables, useMetaIdVariables,
+				OpenCmsPluginConfigurationData.DEFAULT_CONNECTOR_CONNECT_TIMEOUT,
+				OpenCmsPluginConfigurationData.DEFAULT_CONNECTOR_SOCKET_TIMEOUT);
+	}
+
+	/**
+	 * Creates a new Plugin Connector
+	 * @param connectorUrl          the Url under which the connector JSP cam be called
+	 * @param user                  OpenCms user to be used for communication with the connector
+	 * @param password              The OpenCms user's password
+	 * @param useMetaDateVariables  <code>true</code> if date variables should be used in meta data, <code>false</code>
+	 *                              otherwise
+	 * @param useMetaIdVariables    <code>true</code> if UUID variables should be used in meta data, <code>false</code>
+	 *                              otherwise
+	 * @param connectTimeout        timeout in milliseconds for establishing a connection to OpenCms
+	 * @param socketTimeout         timeout in milliseconds for waiting for the connector's response
+	 */
+	public OpenCmsPluginConnector(String connectorUrl, String user, String password, boolean useMetaDateVariables, boolean useMetaIdVariables, int connectTimeout, int socketTimeout) {
 		this.connectorUrl = connectorUrl;
 		this.user = user;
 		this.password = password;
 		this.useMetaDateVariables = useMetaDateVariables;
 		this.useMetaIdVariables = useMetaIdVariables;
-		HttpClientBuilder clientBuilder = HttpClientBuilder.create();
-		clientBuilder.setUserAgent("IntelliJ OpenCms plugin connector");
-		httpClient = clientBuilder.build();
+		this.connectTimeout = connectTimeout;
+		this.socketTimeout = socketTimeout;
+	}
+
+	/**
+	 * Returns the HttpClient, building a new one if necessary. The client uses a connection pool with keep-alive
+	 * connections, gzip compression (enabled by default in HttpClientBuilder) and a cookie store holding the OpenCms
+	 * session.
+	 * @return the HttpClient used for all connector requests
+	 */
+	private synchronized CloseableHttpClient getClient() {
+		if (httpClient == null) {
+			PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+			connectionManager.setMaxTotal(MAX_CONNECTIONS);
+			connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS);
+
+			RequestConfig requestConfig = RequestConfig.custom()
+					.setConnectTimeout(connectTimeout)
+					.setConnectionRequestTimeout(connectTimeout)
+					.setSocketTimeout(socketTimeout)
+					.build();
+
+			cookieStore = new BasicCookieStore();
+
+			HttpClientBuilder clientBuilder = HttpClientBuilder.create();
+			clientBuilder.setUserAgent("IntelliJ OpenCms plugin connector");
+			clientBuilder.setConnectionManager(connectionManager);
+			clientBuilder.setDefaultRequestConfig(requestConfig);
+			clientBuilder.setDefaultCookieStore(cookieStore);
+			clientBuilder.setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
+				@Override
+				public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+					long keepAlive = super.getKeepAliveDuration(response, context);
+					return keepAlive > 0 ? keepAlive : DEFAULT_KEEP_ALIVE;
+				}
+			});
+			httpClient = clientBuilder.build();
+		}
+		return httpClient;
+	}
+
+	/**
+	 * Internal method to reset the HttpClient. Closes all pooled connections and drops the OpenCms session, the next
+	 * request builds a new client using the current credentials and timeouts.
+	 */
+	private synchronized void resetClient() {
+		if (httpClient != null) {
+			try {
+				httpClient.close();
+			}
+			catch (IOException e) {
+				LOG.warn("Exception closing the connector's http client", e);
+			}
+			httpClient = null;
+			cookieStore = null;
+		}
+	}
+
+	/**
+	 * Returns the executor used for asynchronous connector calls, creating it if necessary
+	 * @return the executor for asynchronous connector calls
+	 */
+	private synchronized Executor getAsyncExecutor() {
+		if (sharedAsyncExecutor != null) {
+			return sharedAsyncExecutor;
+		}
+		if (asyncExecutor == null) {
+			asyncExecutor = Executors.newFixedThreadPool(NUM_ASYNC_THREADS, new ThreadFactory() {
+				private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "OpenCms plugin connector " + threadNumber.getAndIncrement());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return asyncExecutor;
+	}
 
-		jsonParser = new JSONParser();
+	/**
+	 * Sets an executor for asynchronous connector calls that is shared with other components (e.g. the plugin's VFS
+	 * pool). A shared executor is not shut down by {@link #close()}, if none is set the connector uses its own.
+	 * @param sharedAsyncExecutor the executor for asynchronous connector calls
+	 */
+	public synchronized void setAsyncExecutor(Executor sharedAsyncExecutor) {
+		this.sharedAsyncExecutor = sharedAsyncExecutor;
+		if (asyncExecutor != null) {
+			asyncExecutor.shutdown();
+			asyncExecutor = null;
+		}
 	}
 
 	/**
-	 * Internal method to reset the HttpClient.
+	 * Closes the HttpClient and all pooled connections and stops the executor for asynchronous calls, should be
+	 * called if the connector isn't used any more
 	 */
-	private void resetClient() {
-		// TODO: reset the client or the session or whatever, if necessary
+	public void close() {
+		synchronized (this) {
+			if (asyncExecutor != null) {
+				asyncExecutor.shutdown();
+				asyncExecutor = null;
+			}
+		}
+		resetClient();
 	}
 
 	public void setConnectorUrl(String connectorUrl) {
 		if (this.connectorUrl == null || !this.connectorUrl.equals(connectorUrl)) {
 			this.connectorUrl = connectorUrl;
+			resetClient();
+		}
+	}
+
+	/**
+	 * Sets the timeouts used for requests to the connector
+	 * @param connectTimeout timeout in milliseconds for establishing a connection to OpenCms
+	 * @param socketTimeout  timeout in milliseconds for waiting for the connector's response
+	 */
+	public synchronized void setTimeouts(int connectTimeout, int socketTimeout) {
+		if (this.connectTimeout != connectTimeout || this.socketTimeout != socketTimeout) {
+			this.connectTimeout = connectTimeout;
+			this.socketTimeout = socketTimeout;
+			resetClient();
 		}
 	}
 
@@ -221,6 +388,149 @@ public class OpenCmsPluginConnector {
 		}
 	}
 
+	/**
+	 * Asynchronous variant of {@link #getModuleResourceInfos(List)}
+	 * @param moduleResources   a list of module resources for which meta data is to be retrieved
+	 * @return a future completing with a map containing the resource path as key and the corresponding resource meta
+	 *         data (XML String) as value
+	 */
+	public CompletableFuture<HashMap<String, String>> getModuleResourceInfosAsync(final List<OpenCmsModuleResource> moduleResources) {
+		return supplyAsync(new ConnectorCall<HashMap<String, String>>() {
+			@Override
+			public HashMap<String, String> execute() throws IOException, OpenCmsConnectorException {
+				return getModuleResourceInfos(moduleResources);
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous variant of {@link #getResourceInfos(List)}
+	 * @param resourcePaths List of resource paths for which meta data is to be retrieved
+	 * @return a future completing with a map containing the resource path as key and the corresponding resource meta
+	 *         data (XML String) as value
+	 */
+	public CompletableFuture<HashMap<String, String>> getResourceInfosAsync(final List<String> resourcePaths) {
+		return supplyAsync(new ConnectorCall<HashMap<String, String>>() {
+			@Override
+			public HashMap<String, String> execute() throws IOException, OpenCmsConnectorException {
+				return getResourceInfos(resourcePaths);
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous variant of {@link #getModuleManifests(List)}
+	 * @param moduleNames List of module names for which manifest stubs are to be retrieved
+	 * @return a future completing with a map containing the module name as key and the corresponding manifest stub
+	 *         (XML String) as value
+	 */
+	public CompletableFuture<HashMap<String, String>> getModuleManifestsAsync(final List<String> moduleNames) {
+		return supplyAsync(new ConnectorCall<HashMap<String, String>>() {
+			@Override
+			public HashMap<String, String> execute() throws IOException, OpenCmsConnectorException {
+				return getModuleManifests(moduleNames);
+			}
+		});
+	}
+
+	/**
+	 * Asynchronous variant of {@link #publishResources(List, boolean)}
+	 * @param resourcePaths List containing the paths of the resources to be published
+	 * @param publishSubResources <code>true</code> if sub resources should be published, <code>false</code> if only
+	 *                            the resources in the list should be published
+	 * @return a future completing once the direct publish session was started
+	 */
+	public CompletableFuture<Void> publishResourcesAsync(final List<String> resourcePaths, final boolean publishSubResources) {
+		return supplyAsync(new ConnectorCall<Void>() {
+			@Override
+			public Void execute() throws IOException, OpenCmsConnectorException {
+				publishResources(resourcePaths, publishSubResources);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Waits for the result of an asynchronous connector call, unwrapping the exception thrown by the call
+	 * @param future the future returned by one of the asynchronous connector methods
+	 * @param <T> the result type
+	 * @return the result of the connector call
+	 * @throws IOException if something went wrong with the HttpClient
+	 * @throws OpenCmsConnectorException if the connector was not found at the given Url or if the connector returned
+	 *                                   an invalid http status
+	 */
+	public static <T> T awaitResult(CompletableFuture<T> future) throws IOException, OpenCmsConnectorException {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the connector", e);
+		}
+		catch (CancellationException e) {
+			throw new IOException("The connector call was skipped, the plugin is too busy or the project is being closed", e);
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof CompletionException && cause.getCause() != null) {
+				cause = cause.getCause();
+			}
+			if (cause instanceof IOException) {
+				throw (IOException)cause;
+			}
+			if (cause instanceof OpenCmsConnectorException) {
+				throw (OpenCmsConnectorException)cause;
+			}
+			throw new IOException("Exception during connector call", cause);
+		}
+	}
+
+	/**
+	 * A blocking connector call executed asynchronously
+	 * @param <T> the result type
+	 */
+	private interface ConnectorCall<T> {
+		T execute() throws IOException, OpenCmsConnectorException;
+	}
+
+	/**
+	 * Internal method executing a blocking connector call with the connector's executor. Exceptions thrown by the
+	 * call complete the future exceptionally. The call is submitted as a <code>FutureTask</code>, so if the executor
+	 * drops it (e.g. because it is saturated or shut down) the returned future is cancelled instead of never
+	 * completing.
+	 * @param call the connector call
+	 * @param <T> the result type
+	 * @return a future completing with the call's result
+	 */
+	private <T> CompletableFuture<T> supplyAsync(final ConnectorCall<T> call) {
+		final CompletableFuture<T> future = new CompletableFuture<T>();
+		FutureTask<Void> task = new FutureTask<Void>(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					future.complete(call.execute());
+				}
+				catch (IOException | OpenCmsConnectorException | RuntimeException e) {
+					future.completeExceptionally(e);
+				}
+			}
+		}, null) {
+			@Override
+			protected void done() {
+				if (isCancelled()) {
+					future.cancel(false);
+				}
+			}
+		};
+		try {
+			getAsyncExecutor().execute(task);
+		}
+		catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
 	/**
 	 * Internal method to get the http response String for a connector action
 	 * @param identifiers List of identifiers (e.g. resource paths or module names)
@@ -261,7 +571,7 @@ public class OpenCmsPluginConnector {
 
 		httpPost.setEntity(new UrlEncodedFormEntity(postParams, "UTF-8"));
 
-		CloseableHttpResponse response = httpClient.execute(httpPost);
+		CloseableHttpResponse response = getClient().execute(httpPost);
 
 		try {
 			LOG.info("Status: " + response.getStatusLine().getStatusCode());
@@ -309,7 +619,8 @@ public class OpenCmsPluginConnector {
 		String jsonString = getActionResponseString(identifiers, action, additionalParams);
 		if (jsonString != null) {
 			try {
-				JSONArray jsonArray = (JSONArray)jsonParser.parse(jsonString);
+				// the JSONParser keeps state while parsing and calls may run concurrently, so each call uses its own
+				JSONArray jsonArray = (JSONArray)new JSONParser().parse(jsonString);
 				for (Object o : jsonArray) {
 					JSONObject metaJson = (JSONObject)o;
 					String id = (String)metaJson.get("id");
@@ -0,0 +1,237 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.connector;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.mediaworx.intellij.opencmsplugin.OpenCmsPlugin;
+import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsPluginConfigurationData;
+import com.mediaworx.intellij.opencmsplugin.exceptions.OpenCmsConnectorException;
+import com.mediaworx.intellij.opencmsplugin.toolwindow.OpenCmsToolWindowConsole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Plugin wide queue collecting VFS resources to be published. Instead of starting a separate direct publish session
+ * for every sync or file change event, resources are collected for a configurable debounce window (see
+ * {@link OpenCmsPluginConfigurationData#getPublishQueueDelay()}) and published with one call to
+ * {@link OpenCmsPluginConnector#publishResources(List, boolean)} once no new resources have been queued for that
+ * time.<br />
+ * <br />
+ * Paths that are already queued are not queued again. If a folder is queued with sub resources, queued resources
+ * below that folder are dropped since they are published along with the folder anyway. Resources queued without sub
+ * resources are never collapsed, because publishing a folder without its sub resources doesn't cover them.
+ */
+public class OpenCmsPublishQueue {
+
+	private static final Logger LOG = Logger.getInstance(OpenCmsPublishQueue.class);
+
+	private OpenCmsPlugin plugin;
+
+	/** queued VFS paths (key) and the flag denoting if sub resources should be published as well (value) */
+	private final TreeMap<String, Boolean> queuedResources = new TreeMap<String, Boolean>();
+
+	/** task used to execute the delayed publish once no new resources were queued for the configured debounce window */
+	private ScheduledFuture<?> currentPublishTask;
+
+	/**
+	 * Creates a new publish queue for the given plugin instance
+	 * @param plugin the current plugin instance
+	 */
+	public OpenCmsPublishQueue(OpenCmsPlugin plugin) {
+		this.plugin = plugin;
+	}
+
+	/**
+	 * Adds the given resources to the queue and (re)starts the debounce timer.
+	 * @param resourcePaths       VFS paths of the resources to be published
+	 * @param publishSubResources <code>true</code> if sub resources should be published as well, <code>false</code>
+	 *                            if only the given resources should be published
+	 */
+	public synchronized void enqueue(Collection<String> resourcePaths, boolean publishSubResources) {
+		if (plugin == null || resourcePaths == null || resourcePaths.isEmpty()) {
+			return;
+		}
+		for (String resourcePath : resourcePaths) {
+			addResource(resourcePath, publishSubResources);
+		}
+
+		if (currentPublishTask != null) {
+			currentPublishTask.cancel(false);
+		}
+		currentPublishTask = plugin.getExecutor().schedule(new Runnable() {
+			@Override
+			public void run() {
+				flush();
+			}
+		}, getPublishQueueDelay());
+	}
+
+	/**
+	 * Returns the number of resources currently waiting to be published
+	 * @return the number of queued resources
+	 */
+	public synchronized int getNumQueued() {
+		return queuedResources.size();
+	}
+
+	/**
+	 * Publishes all queued resources immediately. Called by the debounce timer, may be called directly if queued
+	 * resources should be published without further delay.
+	 */
+	public void flush() {
+		List<String> publishList = new ArrayList<String>();
+		List<String> publishWithSubResourcesList = new ArrayList<String>();
+
+		synchronized (this) {
+			if (currentPublishTask != null) {
+				currentPublishTask.cancel(false);
+				currentPublishTask = null;
+			}
+			for (Map.Entry<String, Boolean> queuedResource : queuedResources.entrySet()) {
+				if (queuedResource.getValue()) {
+					publishWithSubResourcesList.add(queuedResource.getKey());
+				}
+				else {
+					publishList.add(queuedResource.getKey());
+				}
+			}
+			queuedResources.clear();
+		}
+
+		publish(publishList, false);
+		publish(publishWithSubResourcesList, true);
+	}
+
+	/**
+	 * Drops all queued resources without publishing them and stops the debounce timer, called when the project is
+	 * closed.
+	 */
+	public synchronized void dispose() {
+		queuedResources.clear();
+		if (currentPublishTask != null) {
+			currentPublishTask.cancel(false);
+			currentPublishTask = null;
+		}
+		plugin = null;
+	}
+
+	/**
+	 * Internal method adding a resource to the queue, skipping resources already covered by a queued ancestor folder
+	 * and removing queued descendants covered by the new resource.
+	 * @param resourcePath        VFS path of the resource to be published
+	 * @param publishSubResources <code>true</code> if sub resources should be published as well
+	 */
+	private void addResource(String resourcePath, boolean publishSubResources) {
+		String path = stripTrailingSlash(resourcePath);
+		if (path.length() == 0 || isCoveredByQueuedFolder(path)) {
+			return;
+		}
+		Boolean queuedPublishSubResources = queuedResources.get(path);
+		if (queuedPublishSubResources != null && (queuedPublishSubResources || !publishSubResources)) {
+			return;
+		}
+		queuedResources.put(path, publishSubResources);
+
+		if (publishSubResources) {
+			String folderPrefix = path + "/";
+			Iterator<String> descendants = queuedResources.tailMap(folderPrefix, true).keySet().iterator();
+			while (descendants.hasNext()) {
+				if (!descendants.next().startsWith(folderPrefix)) {
+					break;
+				}
+				descendants.remove();
+			}
+		}
+	}
+
+	/**
+	 * Internal method checking if any ancestor folder of the given path is queued with sub resources
+	 * @param path the VFS path to check
+	 * @return <code>true</code> if an ancestor folder is queued with sub resources, <code>false</code> otherwise
+	 */
+	private boolean isCoveredByQueuedFolder(String path) {
+		int separatorPos = path.lastIndexOf('/');
+		while (separatorPos > 0) {
+			path = path.substring(0, separatorPos);
+			if (Boolean.TRUE.equals(queuedResources.get(path))) {
+				return true;
+			}
+			separatorPos = path.lastIndexOf('/');
+		}
+		return false;
+	}
+
+	/**
+	 * Internal method starting one direct publish session for the given resources
+	 * @param resourcePaths       VFS paths of the resources to be published
+	 * @param publishSubResources <code>true</code> if sub resources should be published as well
+	 */
+	private void publish(List<String> resourcePaths, boolean publishSubResources) {
+		if (resourcePaths.isEmpty() || plugin == null) {
+			return;
+		}
+		OpenCmsToolWindowConsole console = plugin.getConsole();
+		OpenCmsPluginConnector connector = plugin.getPluginConnector();
+		if (connector == null) {
+			LOG.info("The plugin connector is not available, " + resourcePaths.size() + " queued resources are not published");
+			return;
+		}
+		try {
+			connector.publishResources(resourcePaths, publishSubResources);
+			console.info("PUBLISH: A direct publish session was started successfully for " + resourcePaths.size() + " queued resource(s)");
+		}
+		catch (OpenCmsConnectorException e) {
+			console.error(e.getMessage());
+		}
+		catch (IOException e) {
+			LOG.warn("There was an exception while publishing queued resources", e);
+			console.error("There was an exception while publishing queued resources. Is OpenCms running? Please have a look at the OpenCms log file and/or the IntelliJ log file.");
+		}
+	}
+
+	/**
+	 * Internal method returning the configured debounce delay
+	 * @return the debounce delay in milliseconds
+	 */
+	private long getPublishQueueDelay() {
+		OpenCmsPluginConfigurationData config = plugin.getPluginConfiguration();
+		return config != null ? config.getPublishQueueDelay() : OpenCmsPluginConfigurationData.DEFAULT_PUBLISH_QUEUE_DELAY;
+	}
+
+	private static String stripTrailingSlash(String path) {
+		if (path.length() > 1 && path.endsWith("/")) {
+			return path.substring(0, path.length() - 1);
+		}
+		return path;
+	}
+}
@@ -25,6 +25,7 @@
 package com.mediaworx.intellij.opencmsplugin.entities;
 
 import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModule;
+import com.mediaworx.intellij.opencmsplugin.opencms.VfsPath;
 import com.mediaworx.intellij.opencmsplugin.sync.SyncAction;
 import com.mediaworx.intellij.opencmsplugin.tools.PluginTools;
 import org.apache.chemistry.opencmis.client.api.CmisObject;
@@ -38,6 +39,7 @@ public abstract class SyncEntity {
 
 	private OpenCmsModule ocmsModule;
 	private String vfsPath;
+	private VfsPath path;
 	private File file;
 	private CmisObject vfsObject;
 	private SyncAction syncAction;
@@ -87,6 +89,7 @@ public abstract class SyncEntity {
 	 */
 	public void setOcmsModule(OpenCmsModule ocmsModule) {
 		this.ocmsModule = ocmsModule;
+		updatePath();
 	}
 
 	/**
@@ -103,6 +106,19 @@ public abstract class SyncEntity {
 	 */
 	public void setVfsPath(String vfsPath) {
 		this.vfsPath = PluginTools.ensureUnixPath(vfsPath);
+		updatePath();
+	}
+
+	/**
+	 * Returns the entity's VFS path along with its cached derived forms (RFS path, meta info paths).
+	 * @return the entity's VfsPath
+	 */
+	public VfsPath getPath() {
+		return path;
+	}
+
+	private void updatePath() {
+		path = ocmsModule != null && vfsPath != null ? ocmsModule.createVfsPath(vfsPath) : null;
 	}
 
 	/**
@@ -110,8 +126,7 @@ public abstract class SyncEntity {
 	 * @return the entity's RFS path
 	 */
 	public String getRfsPath() {
-		String localPath = PluginTools.stripVfsSiteRootFromVfsPath(ocmsModule, vfsPath);
-		return ocmsModule.getLocalVfsRoot() + localPath;
+		return path.getRfsPath();
 	}
 
 	/**
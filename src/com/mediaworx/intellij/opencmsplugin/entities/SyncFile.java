@@ -26,8 +26,6 @@ package com.mediaworx.intellij.opencmsplugin.entities;
 
 import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModule;
 import com.mediaworx.intellij.opencmsplugin.sync.SyncAction;
-import com.mediaworx.intellij.opencmsplugin.tools.PluginTools;
-import com.mediaworx.opencms.moduleutils.manifestgenerator.OpenCmsModuleManifestGenerator;
 import org.apache.chemistry.opencmis.client.api.CmisObject;
 
 import java.io.File;
@@ -63,8 +61,7 @@ public class SyncFile extends SyncEntity {
 	 * @return the path to the meta data file for this file
 	 */
 	public String getMetaInfoFilePath() {
-		String localPath = PluginTools.stripVfsSiteRootFromVfsPath(getOcmsModule(), getVfsPath());
-		return OpenCmsModuleManifestGenerator.getMetaInfoPath(getOcmsModule().getManifestRoot(), localPath, false);
+		return getPath().getMetaInfoFilePath(false);
 	}
 
 }
@@ -0,0 +1,304 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.listeners;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModule;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Coalesces the module resource changes recorded by the {@link OpenCmsModuleFileChangeListener} for one batch of
+ * file events. Branch switches or mass refactorings produce thousands of events, many of which are redundant for the
+ * OpenCms VFS:
+ * <ul>
+ *     <li>subsequent moves, renames and deletions of the same file are merged into one change from the file's
+ *     original VFS path to its final VFS path (or into a deletion of the original path)</li>
+ *     <li>changes that end up where they started (e.g. a file renamed and renamed back) are dropped</li>
+ *     <li>deletions of resources below a folder deleted in the same batch are dropped, deleting the folder deletes
+ *     its children</li>
+ *     <li>moves and renames of resources that just move along with a moved or renamed ancestor folder are
+ *     dropped</li>
+ * </ul>
+ * The coalescer also counts the file events of the batch to detect bursts that look like a VCS operation (see
+ * {@link #isVcsOperation()}).
+ */
+class FileChangeCoalescer {
+
+	/** number of file events in one batch from which on a batch consisting of refresh events is a VCS operation */
+	static final int VCS_OPERATION_THRESHOLD = 50;
+
+	private Map<VirtualFile, FileChange> changes = new LinkedHashMap<VirtualFile, FileChange>();
+	private int numEvents;
+	private int numRefreshEvents;
+
+	/**
+	 * Counts a delete, move or rename event of the batch (regardless of whether it affects a module resource)
+	 * @param event IntelliJ's file change event
+	 */
+	void countEvent(VFileEvent event) {
+		numEvents++;
+		if (event.isFromRefresh()) {
+			numRefreshEvents++;
+		}
+	}
+
+	/**
+	 * Records the deletion of a module resource (also used for resources moved out of their module)
+	 * @param ideaVFile   the deleted file
+	 * @param ocmsModule  the OpenCms module the file belonged to
+	 * @param vfsPath     the VFS path of the file before the deletion
+	 * @param isDirectory <code>true</code> if the file is a folder, <code>false</code> otherwise
+	 */
+	void recordDeletion(VirtualFile ideaVFile, OpenCmsModule ocmsModule, String vfsPath, boolean isDirectory) {
+		FileChange change = getChange(ideaVFile, isDirectory);
+		if (change.originParentVfsPath == null) {
+			change.originModule = ocmsModule;
+			change.originParentVfsPath = getParentPath(vfsPath);
+		}
+		change.targetModule = null;
+		change.targetVfsPath = null;
+	}
+
+	/**
+	 * Records the move of a module resource
+	 * @param ideaVFile        the moved file
+	 * @param oldOcmsModule    the OpenCms module the file was moved from
+	 * @param newOcmsModule    the OpenCms module the file was moved to
+	 * @param oldParentVfsPath the VFS path of the parent folder the file was moved from
+	 * @param newParentVfsPath the VFS path of the parent folder the file was moved to
+	 */
+	void recordMove(VirtualFile ideaVFile, OpenCmsModule oldOcmsModule, OpenCmsModule newOcmsModule, String oldParentVfsPath, String newParentVfsPath) {
+		FileChange change = getChange(ideaVFile, ideaVFile.isDirectory());
+		// the first move determines the original parent, a preceding rename only knows the current parent
+		if (!change.moved) {
+			change.moved = true;
+			change.originModule = oldOcmsModule;
+			change.originParentVfsPath = oldParentVfsPath;
+		}
+		change.targetModule = newOcmsModule;
+		change.targetVfsPath = newParentVfsPath + "/" + ideaVFile.getName();
+	}
+
+	/**
+	 * Records the rename of a module resource
+	 * @param ideaVFile  the renamed file
+	 * @param ocmsModule the OpenCms module containing the file
+	 * @param oldName    the file's name before the rename
+	 * @param newVfsPath the VFS path of the file after the rename
+	 */
+	void recordRename(VirtualFile ideaVFile, OpenCmsModule ocmsModule, String oldName, String newVfsPath) {
+		FileChange change = getChange(ideaVFile, ideaVFile.isDirectory());
+		if (change.originParentVfsPath == null) {
+			change.originModule = ocmsModule;
+			change.originParentVfsPath = getParentPath(newVfsPath);
+		}
+		// the first rename determines the original name
+		if (change.originName == null) {
+			change.originName = oldName;
+		}
+		change.targetModule = ocmsModule;
+		change.targetVfsPath = newVfsPath;
+	}
+
+	private FileChange getChange(VirtualFile ideaVFile, boolean isDirectory) {
+		FileChange change = changes.get(ideaVFile);
+		if (change == null) {
+			change = new FileChange(ideaVFile, isDirectory);
+			changes.put(ideaVFile, change);
+		}
+		return change;
+	}
+
+	/**
+	 * @return <code>true</code> if no module resource changes were recorded
+	 */
+	boolean isEmpty() {
+		return changes.isEmpty();
+	}
+
+	/**
+	 * @return the number of counted delete, move and rename events
+	 */
+	int getNumEvents() {
+		return numEvents;
+	}
+
+	/**
+	 * A batch is considered to be a VCS operation (like a branch switch, pull or revert) if it contains at least
+	 * {@link #VCS_OPERATION_THRESHOLD} events and most of them are refresh events, i.e. were caused by changes made
+	 * outside of IntelliJ.
+	 * @return <code>true</code> if the batch looks like a VCS operation, <code>false</code> otherwise
+	 */
+	boolean isVcsOperation() {
+		return numEvents >= VCS_OPERATION_THRESHOLD && numRefreshEvents * 2 > numEvents;
+	}
+
+	/**
+	 * Merges the recorded changes and drops the redundant ones, see the class comment.
+	 * @return the coalesced changes in the order they were first recorded
+	 */
+	List<FileChange> coalesce() {
+		List<FileChange> mergedChanges = new ArrayList<FileChange>(changes.size());
+		Set<String> deletedFolderPaths = new HashSet<String>();
+		Map<String, String> movedFolderPaths = new HashMap<String, String>();
+
+		for (FileChange change : changes.values()) {
+			String originVfsPath = change.getOriginVfsPath();
+			if (change.isDeletion()) {
+				if (change.isDirectory) {
+					deletedFolderPaths.add(originVfsPath);
+				}
+			}
+			else if (originVfsPath.equals(change.targetVfsPath)) {
+				continue;
+			}
+			else if (change.isDirectory) {
+				movedFolderPaths.put(originVfsPath, change.targetVfsPath);
+			}
+			mergedChanges.add(change);
+		}
+
+		if (deletedFolderPaths.isEmpty() && movedFolderPaths.isEmpty()) {
+			return mergedChanges;
+		}
+
+		List<FileChange> coalescedChanges = new ArrayList<FileChange>(mergedChanges.size());
+		for (FileChange change : mergedChanges) {
+			if (!isCoveredByAncestor(change, deletedFolderPaths, movedFolderPaths)) {
+				coalescedChanges.add(change);
+			}
+		}
+		return coalescedChanges;
+	}
+
+	/**
+	 * Checks if the given change is implied by the deletion or move of one of the resource's ancestor folders
+	 * @param change             the change to check
+	 * @param deletedFolderPaths original VFS paths of deleted folders
+	 * @param movedFolderPaths   original VFS paths of moved or renamed folders mapped to their new VFS paths
+	 * @return <code>true</code> if the change is implied by a change of an ancestor, <code>false</code> otherwise
+	 */
+	private static boolean isCoveredByAncestor(FileChange change, Set<String> deletedFolderPaths, Map<String, String> movedFolderPaths) {
+		String originVfsPath = change.getOriginVfsPath();
+		String ancestorPath = getParentPath(originVfsPath);
+		while (ancestorPath.length() > 0) {
+			if (change.isDeletion()) {
+				if (deletedFolderPaths.contains(ancestorPath)) {
+					return true;
+				}
+			}
+			else {
+				String newAncestorPath = movedFolderPaths.get(ancestorPath);
+				if (newAncestorPath != null && change.targetVfsPath.equals(newAncestorPath + originVfsPath.substring(ancestorPath.length()))) {
+					return true;
+				}
+			}
+			ancestorPath = getParentPath(ancestorPath);
+		}
+		return false;
+	}
+
+	private static String getParentPath(String vfsPath) {
+		int lastSlash = vfsPath.lastIndexOf('/');
+		return lastSlash > 0 ? vfsPath.substring(0, lastSlash) : "";
+	}
+
+	private static String getName(String vfsPath) {
+		return vfsPath.substring(vfsPath.lastIndexOf('/') + 1);
+	}
+
+	/**
+	 * A coalesced change of one module resource, either a deletion of the original VFS path or a move and/or rename
+	 * from the original to the final VFS path
+	 */
+	static class FileChange {
+
+		private final VirtualFile ideaVFile;
+		private final boolean isDirectory;
+		private boolean moved;
+		private OpenCmsModule originModule;
+		private String originParentVfsPath;
+		private String originName;
+		private OpenCmsModule targetModule;
+		private String targetVfsPath;
+
+		private FileChange(VirtualFile ideaVFile, boolean isDirectory) {
+			this.ideaVFile = ideaVFile;
+			this.isDirectory = isDirectory;
+		}
+
+		/**
+		 * @return the VFS path of the resource before all changes of the batch, used to check if the resource exists
+		 */
+		String getOriginVfsPath() {
+			return originParentVfsPath + "/" + getOriginName();
+		}
+
+		/**
+		 * @return the name of the resource before all changes of the batch
+		 */
+		private String getOriginName() {
+			// files that were only moved keep their name
+			return originName != null ? originName : ideaVFile.getName();
+		}
+
+		/**
+		 * @return <code>true</code> if the resource was deleted (or moved out of its module)
+		 */
+		boolean isDeletion() {
+			return targetVfsPath == null;
+		}
+
+		/**
+		 * Adds the change to the given change handler, a merged rename and move is added as a move of the resource
+		 * (with its original name) to the final parent folder followed by a rename to the final name
+		 * @param changeHandler the change handler
+		 */
+		void addToChangeHandler(OpenCmsModuleFileChangeHandler changeHandler) {
+			if (isDeletion()) {
+				changeHandler.addFileToBeDeleted(originModule, getOriginVfsPath(), isDirectory);
+				return;
+			}
+			String targetParentVfsPath = getParentPath(targetVfsPath);
+			String targetName = getName(targetVfsPath);
+			String originName = getOriginName();
+			if (!targetParentVfsPath.equals(originParentVfsPath)) {
+				changeHandler.addFileToBeMoved(originModule, targetModule, ideaVFile, originName, originParentVfsPath, targetParentVfsPath);
+			}
+			if (!targetName.equals(originName)) {
+				changeHandler.addFileToBeRenamed(targetModule, ideaVFile, targetParentVfsPath + "/" + originName, targetVfsPath, targetName);
+			}
+		}
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.listeners;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.mediaworx.intellij.opencmsplugin.OpenCmsPlugin;
+import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsPluginConfigurationData;
+import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModule;
+import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModules;
+import com.mediaworx.intellij.opencmsplugin.sync.OpenCmsDirtyFileTracker;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Listener for changes in the IntelliJ file system feeding the {@link OpenCmsDirtyFileTracker}. Content changes and
+ * created files or folders below module resource paths are marked dirty, deleted ones are removed from the dirty set
+ * and moved or renamed ones are tracked under their new path.
+ * <br /><br />
+ * Unlike the {@link OpenCmsWatchModeListener} changes detected by file system refreshes are tracked as well, since
+ * those are made outside of IntelliJ (e.g. by VCS operations).
+ */
+public class OpenCmsDirtyFileListener implements BulkFileListener {
+
+	private OpenCmsPlugin plugin;
+	private OpenCmsPluginConfigurationData config;
+
+	/**
+	 * Creates a new listener feeding the dirty file tracker
+	 * @param plugin the OpenCms plugin instance
+	 */
+	public OpenCmsDirtyFileListener(OpenCmsPlugin plugin) {
+		this.plugin = plugin;
+		config = plugin.getPluginConfiguration();
+	}
+
+	/**
+	 * Does nothing, called by IntelliJ
+	 * @param vFileEvents List of file events, provided by IntelliJ
+	 */
+	public void before(@NotNull List<? extends VFileEvent> vFileEvents) {
+		// Nothing to do before file changes
+	}
+
+	/**
+	 * Handler method that is called after file changes have been executed by IntelliJ, updates the dirty set
+	 * @param vFileEvents List of file events, provided by IntelliJ
+	 */
+	public void after(@NotNull List<? extends VFileEvent> vFileEvents) {
+		if (config == null || !config.isOpenCmsPluginEnabled() || !plugin.isReady()) {
+			return;
+		}
+
+		OpenCmsModules openCmsModules = plugin.getOpenCmsModules();
+		OpenCmsDirtyFileTracker tracker = OpenCmsDirtyFileTracker.getInstance(plugin.getProject());
+		if (tracker == null) {
+			return;
+		}
+		for (VFileEvent event : vFileEvents) {
+			if (event instanceof VFileContentChangeEvent || event instanceof VFileCreateEvent) {
+				handleChange(event.getFile(), openCmsModules, tracker);
+			}
+			else if (event instanceof VFileCopyEvent) {
+				handleChange(((VFileCopyEvent)event).findCreatedFile(), openCmsModules, tracker);
+			}
+			else if (event instanceof VFileDeleteEvent) {
+				tracker.removePath(event.getPath());
+			}
+			else if (event instanceof VFileMoveEvent) {
+				VirtualFile ideaVFile = event.getFile();
+				String oldPath = ((VFileMoveEvent)event).getOldParent().getPath() + "/" + ideaVFile.getName();
+				handleMove(ideaVFile, oldPath, openCmsModules, tracker);
+			}
+			else if (event instanceof VFilePropertyChangeEvent && "name".equals(((VFilePropertyChangeEvent)event).getPropertyName())) {
+				VirtualFile ideaVFile = event.getFile();
+				VirtualFile parent = ideaVFile.getParent();
+				if (parent != null) {
+					String oldPath = parent.getPath() + "/" + ((VFilePropertyChangeEvent)event).getOldValue();
+					handleMove(ideaVFile, oldPath, openCmsModules, tracker);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Marks the changed or created file or folder dirty if it is a module resource that's not ignored
+	 * @param ideaVFile      the changed or created file or folder
+	 * @param openCmsModules the OpenCms modules of the project
+	 * @param tracker        the dirty file tracker
+	 */
+	private void handleChange(VirtualFile ideaVFile, OpenCmsModules openCmsModules, OpenCmsDirtyFileTracker tracker) {
+		if (ideaVFile != null && isTrackedResource(ideaVFile, openCmsModules)) {
+			tracker.markDirty(ideaVFile.getPath());
+		}
+	}
+
+	/**
+	 * Moves dirty paths to the new location of a moved or renamed file or folder. If it was moved out of the module
+	 * resource paths, the old dirty paths are just removed.
+	 * @param ideaVFile      the moved or renamed file or folder
+	 * @param oldPath        the path before the move/rename
+	 * @param openCmsModules the OpenCms modules of the project
+	 * @param tracker        the dirty file tracker
+	 */
+	private void handleMove(VirtualFile ideaVFile, String oldPath, OpenCmsModules openCmsModules, OpenCmsDirtyFileTracker tracker) {
+		if (isTrackedResource(ideaVFile, openCmsModules)) {
+			tracker.moved(oldPath, ideaVFile.getPath());
+		}
+		else {
+			tracker.removePath(oldPath);
+		}
+	}
+
+	/**
+	 * Checks if changes to the given file or folder are to be tracked
+	 * @param ideaVFile      the file or folder
+	 * @param openCmsModules the OpenCms modules of the project
+	 * @return <code>true</code> if the file or folder is a module resource that's not ignored, <code>false</code>
+	 *         otherwise
+	 */
+	private boolean isTrackedResource(VirtualFile ideaVFile, OpenCmsModules openCmsModules) {
+		String path = ideaVFile.getPath();
+		OpenCmsModule ocmsModule = openCmsModules.getModuleForPath(path);
+		return ocmsModule != null && ocmsModule.isPathModuleResource(path) && !config.getIgnoreRules().isIgnored(path, ideaVFile.getName());
+	}
+}
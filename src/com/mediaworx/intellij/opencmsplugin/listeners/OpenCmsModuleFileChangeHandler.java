@@ -25,6 +25,9 @@
 package com.mediaworx.intellij.opencmsplugin.listeners;
 
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
@@ -34,7 +37,6 @@ import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsPluginConfigura
 import com.mediaworx.intellij.opencmsplugin.connector.AutoPublishMode;
 import com.mediaworx.intellij.opencmsplugin.exceptions.CmsConnectionException;
 import com.mediaworx.intellij.opencmsplugin.exceptions.CmsPermissionDeniedException;
-import com.mediaworx.intellij.opencmsplugin.exceptions.OpenCmsConnectorException;
 import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModule;
 import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModuleExportPoint;
 import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModules;
@@ -47,10 +49,16 @@ import org.apache.chemistry.opencmis.client.api.FileableCmisObject;
 import org.apache.chemistry.opencmis.client.api.Folder;
 import org.apache.chemistry.opencmis.commons.PropertyIds;
 import org.apache.commons.io.FileUtils;
+import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Handles changes collected by the {@link OpenCmsModuleFileChangeListener} and asks the user if those changes should
@@ -67,11 +75,18 @@ public class OpenCmsModuleFileChangeHandler implements Runnable {
 
 	private static final Logger LOG = Logger.getInstance(OpenCmsModuleFileChangeHandler.class);
 
+	/** number of affected resources from which on one combined confirmation dialog is presented */
+	private static final int BULK_CHANGE_THRESHOLD = 50;
+
+	/** max number of changes listed in the combined confirmation dialog */
+	private static final int MAX_LISTED_CHANGES = 30;
+
 	private OpenCmsPlugin plugin;
 	private OpenCmsPluginConfigurationData config;
 	private OpenCmsModules openCmsModules;
 	private OpenCmsToolWindowConsole console;
 
+	private boolean vcsOperation;
 	private VfsAdapter vfsAdapter;
 	private List<VfsFileDeleteInfo> vfsFilesToBeDeleted;
 	private List<VfsFileMoveInfo> vfsFilesToBeMoved;
@@ -92,7 +107,7 @@ public class OpenCmsModuleFileChangeHandler implements Runnable {
 		vfsFilesToBeDeleted = new ArrayList<VfsFileDeleteInfo>();
 		vfsFilesToBeMoved = new ArrayList<VfsFileMoveInfo>();
 		vfsFilesToBeRenamed = new ArrayList<VfsFileRenameInfo>();
-		refreshFiles = new ArrayList<File>();
+		refreshFiles = Collections.synchronizedList(new ArrayList<File>());
 	}
 
 	@Override
@@ -100,30 +115,53 @@ public class OpenCmsModuleFileChangeHandler implements Runnable {
 		handleChanges();
 	}
 
+	/**
+	 * Marks the collected changes as the result of a VCS operation (like a branch switch), the user is asked only once
+	 * if all changes should be reflected in the OpenCms VFS
+	 * @param vcsOperation <code>true</code> if the changes look like the result of a VCS operation
+	 */
+	void setVcsOperation(boolean vcsOperation) {
+		this.vcsOperation = vcsOperation;
+	}
+
 	/**
 	 * Handles all the changes collected previously and is also used  to present a dialog asking the user if the file
-	 * change should be reflected in the OpenCms VFS as well.
+	 * change should be reflected in the OpenCms VFS as well. For VCS operations or large numbers of affected files one
+	 * combined dialog is presented, otherwise one dialog for each kind of change. The confirmed changes are executed
+	 * in a background task.
 	 */
 	private void handleChanges() {
-		try {
-			if (getNumAffected() > 0) {
-				boolean wasExecuted = handleAffectedFiles();
-
-				// Publish the affected VFS resources (if publish is enabled)
-				if (wasExecuted && config.isPluginConnectorEnabled() && config.getAutoPublishMode() != AutoPublishMode.OFF) {
-					publishAffectedVfsResources();
-				}
-			}
+		if (getNumAffected() == 0) {
+			return;
 		}
-		catch (CmsConnectionException e) {
-			Messages.showDialog("Error syncing file deletion/move/rename to OpenCms:\n" + e.getMessage(), "Error", new String[]{"Ok"}, 0, Messages.getErrorIcon());
+		if (vcsOperation || getNumAffected() >= BULK_CHANGE_THRESHOLD) {
+			if (!confirmBulkChanges()) {
+				return;
+			}
 		}
-		finally {
-			vfsFilesToBeDeleted.clear();
-			vfsFilesToBeMoved.clear();
-			vfsFilesToBeRenamed.clear();
-			refreshFiles.clear();
+		else {
+			if (vfsFilesToBeDeleted.size() > 0 && !confirmDeletes()) {
+				vfsFilesToBeDeleted.clear();
+			}
+			if (vfsFilesToBeMoved.size() > 0 && !confirmMoves()) {
+				vfsFilesToBeMoved.clear();
+			}
+			if (vfsFilesToBeRenamed.size() > 0 && !confirmRenames()) {
+				vfsFilesToBeRenamed.clear();
+			}
+			if (getNumAffected() == 0) {
+				return;
+			}
 		}
+
+		console.clear();
+		plugin.showConsole();
+		ProgressManager.getInstance().run(new Task.Backgroundable(plugin.getProject(), "Reflecting file changes in the OpenCms VFS", true) {
+			@Override
+			public void run(@NotNull ProgressIndicator indicator) {
+				executeChanges(indicator);
+			}
+		});
 	}
 
 
@@ -161,38 +199,161 @@ public class OpenCmsModuleFileChangeHandler implements Runnable {
 		return vfsAdapter;
 	}
 
+	/**
+	 * Presents one combined dialog asking the user if all the collected deletes, moves and renames are to be
+	 * reflected in the OpenCms VFS. Only the first {@link #MAX_LISTED_CHANGES} changes are listed.
+	 *
+	 * @return <code>true</code> if the user confirmed the changes, <code>false</code> otherwise
+	 */
+	private boolean confirmBulkChanges() {
+		StringBuilder msg = new StringBuilder();
+		if (vcsOperation) {
+			msg.append("The file changes look like the result of a VCS operation (e.g. a branch switch).\n");
+		}
+		msg.append("Do you want to reflect the following changes in the OpenCms VFS as well?\n");
+		msg.append("\n").append(vfsFilesToBeDeleted.size()).append(" file(s)/folder(s) to be deleted");
+		msg.append("\n").append(vfsFilesToBeMoved.size()).append(" file(s)/folder(s) to be moved");
+		msg.append("\n").append(vfsFilesToBeRenamed.size()).append(" file(s)/folder(s) to be renamed\n");
+
+		int numListed = 0;
+		for (VfsFileDeleteInfo deleteInfo : vfsFilesToBeDeleted) {
+			if (numListed++ < MAX_LISTED_CHANGES) {
+				msg.append("\nDELETE: ").append(deleteInfo.vfsPath);
+			}
+		}
+		for (VfsFileMoveInfo moveInfo : vfsFilesToBeMoved) {
+			if (numListed++ < MAX_LISTED_CHANGES) {
+				msg.append("\nMOVE: ").append(moveInfo.oldVfsPath).append(" to ").append(moveInfo.newParentPath);
+			}
+		}
+		for (VfsFileRenameInfo renameInfo : vfsFilesToBeRenamed) {
+			if (numListed++ < MAX_LISTED_CHANGES) {
+				msg.append("\nRENAME: ").append(renameInfo.oldVfsPath).append(" -> ").append(renameInfo.newName);
+			}
+		}
+		if (numListed > MAX_LISTED_CHANGES) {
+			msg.append("\n... and ").append(numListed - MAX_LISTED_CHANGES).append(" more");
+		}
+
+		int dlgStatus = Messages.showOkCancelDialog(msg.toString(), "Reflect File Changes in the OpenCms VFS?", Messages.getQuestionIcon());
+		return dlgStatus == 0;
+	}
+
+	/**
+	 * Presents a dialog asking the user if files are to be deleted from the VFS
+	 *
+	 * @return <code>true</code> if the user elected to delete files, <code>false</code> if the user cancelled the
+	 * deletion
+	 */
+	private boolean confirmDeletes() {
+		StringBuilder msg = new StringBuilder("Do you want to delete the following files/folders from the OpenCms VFS?");
+		for (VfsFileDeleteInfo vfsFileToBeDeleted : vfsFilesToBeDeleted) {
+			msg.append("\n").append(vfsFileToBeDeleted.vfsPath);
+		}
+
+		int dlgStatus = Messages.showOkCancelDialog(msg.toString(), "Delete Files/Folders?", Messages.getQuestionIcon());
+		return dlgStatus == 0;
+	}
 
 	/**
-	 * Handles all the lists of deleted, moved and renamed files collected in
-	 * {@link OpenCmsModuleFileChangeListener#handleFileDeleteEvent(com.intellij.openapi.vfs.newvfs.events.VFileEvent)},
-	 * {@link OpenCmsModuleFileChangeListener#handleFileMoveEvent(com.intellij.openapi.vfs.newvfs.events.VFileEvent)} and
-	 * {@link OpenCmsModuleFileChangeListener#handleFileRenameEvent(com.intellij.openapi.vfs.newvfs.events.VFileEvent)}
+	 * Presents a dialog asking the user if files are to be moved in the VFS
 	 *
-	 * @return <code>true</code> if any action was executed
+	 * @return <code>true</code> if the user elected to move files, <code>false</code> if the user cancelled the
+	 * move
+	 */
+	private boolean confirmMoves() {
+		StringBuilder msg = new StringBuilder("Do you want to move the following files/folders in the OpenCms VFS as well?");
+		for (VfsFileMoveInfo vfsFileToBeMoved : vfsFilesToBeMoved) {
+			msg.append("\n").append(vfsFileToBeMoved.oldVfsPath);
+		}
+
+		int dlgStatus = Messages.showOkCancelDialog(msg.toString(), "Move Files/Folders?", Messages.getQuestionIcon());
+		return dlgStatus == 0;
+	}
+
+	/**
+	 * Presents a dialog asking the user if files are to be renamed in the VFS
 	 *
-	 * @throws CmsConnectionException
+	 * @return <code>true</code> if the user elected to rename files, <code>false</code> if the user cancelled the
+	 * rename
 	 */
-	private boolean handleAffectedFiles() throws CmsConnectionException {
+	private boolean confirmRenames() {
+		StringBuilder msg = new StringBuilder("Do you want to rename the following files/folders in the OpenCms VFS as well?");
+		for (VfsFileRenameInfo vfsFileToBeRenamed : vfsFilesToBeRenamed) {
+			msg.append("\n").append(vfsFileToBeRenamed.oldVfsPath).append(" -> ").append(vfsFileToBeRenamed.newName);
+		}
 
-		boolean wasExecuted = false;
+		int dlgStatus = Messages.showOkCancelDialog(msg.toString(), "Move Files/Folders?", Messages.getQuestionIcon());
+		return dlgStatus == 0;
+	}
 
-		// Delete files
-		if (vfsFilesToBeDeleted.size() > 0) {
-			wasExecuted = deleteFiles();
+	/**
+	 * Executes the confirmed deletes, moves and renames in the OpenCms VFS, called in a background task. The three
+	 * kinds of changes are executed one after the other, the changes of one kind are executed in parallel by the
+	 * plugin's VFS pool. Deletions of folders containing moved or renamed resources are executed last, so that those
+	 * resources are moved away before their folder is deleted.
+	 *
+	 * @param indicator the progress indicator of the background task
+	 */
+	private void executeChanges(ProgressIndicator indicator) {
+		try {
+			getVfsAdapter();
+		}
+		catch (CmsConnectionException e) {
+			console.error("Error syncing file deletion/move/rename to OpenCms:\n" + e.getMessage());
+			return;
 		}
-		// Move files
-		if (vfsFilesToBeMoved.size() > 0) {
-			wasExecuted = moveFiles();
+
+		List<VfsFileDeleteInfo> deletes = new ArrayList<VfsFileDeleteInfo>();
+		List<VfsFileDeleteInfo> deferredDeletes = new ArrayList<VfsFileDeleteInfo>();
+		for (VfsFileDeleteInfo deleteInfo : vfsFilesToBeDeleted) {
+			if (deleteInfo.isDirectory && containsMovedResources(deleteInfo.vfsPath)) {
+				deferredDeletes.add(deleteInfo);
+			}
+			else {
+				deletes.add(deleteInfo);
+			}
+		}
+
+		indicator.setIndeterminate(false);
+		ProgressCounter progress = new ProgressCounter(indicator, getNumAffected());
+
+		executeInDependencyOrder(createDeleteOperations(deletes, progress));
+
+		if (vfsFilesToBeMoved.size() > 0 && !indicator.isCanceled()) {
+			createMoveTargetFolders();
+			List<VfsOperation> operations = new ArrayList<VfsOperation>(vfsFilesToBeMoved.size());
+			for (final VfsFileMoveInfo moveInfo : vfsFilesToBeMoved) {
+				operations.add(new VfsOperation(progress, moveInfo.oldVfsPath, moveInfo.newVfsPath) {
+					@Override
+					void execute() {
+						moveFile(moveInfo);
+					}
+				});
+			}
+			executeInDependencyOrder(operations);
 		}
-		// Rename files
-		if (vfsFilesToBeRenamed.size() > 0) {
-			wasExecuted = renameFiles();
+
+		List<VfsOperation> operations = new ArrayList<VfsOperation>(vfsFilesToBeRenamed.size());
+		for (final VfsFileRenameInfo renameInfo : vfsFilesToBeRenamed) {
+			operations.add(new VfsOperation(progress, renameInfo.oldVfsPath, renameInfo.newVfsPath) {
+				@Override
+				void execute() {
+					renameFile(renameInfo);
+				}
+			});
 		}
+		executeInDependencyOrder(operations);
+
+		executeInDependencyOrder(createDeleteOperations(deferredDeletes, progress));
 
 		// Refresh the affected files in the IDEA VFS after a short delay (to avoid event collision)
 		if (refreshFiles.size() > 0) {
-			final List<File> filesToBeRefreshedLater = new ArrayList<File>(refreshFiles);
-			new Timer().schedule(new TimerTask() {
+			final List<File> filesToBeRefreshedLater;
+			synchronized (refreshFiles) {
+				filesToBeRefreshedLater = new ArrayList<File>(refreshFiles);
+			}
+			plugin.getExecutor().schedule(new Runnable() {
 				@Override
 				public void run() {
 					LocalFileSystem.getInstance().refreshIoFiles(filesToBeRefreshedLater, true, false, null);
@@ -200,174 +361,276 @@ public class OpenCmsModuleFileChangeHandler implements Runnable {
 			}, 2000);
 		}
 
-		return wasExecuted;
+		if (indicator.isCanceled()) {
+			console.notice("Cancelled, " + progress.getNumDone() + " of " + getNumAffected() + " change(s) were reflected in the OpenCms VFS");
+			return;
+		}
+
+		// Publish the affected VFS resources (if publish is enabled)
+		if (config.isPluginConnectorEnabled() && config.getAutoPublishMode() != AutoPublishMode.OFF) {
+			publishAffectedVfsResources();
+		}
 	}
 
 	/**
-	 * Internal helper method constructing the meta data file path without the corresponding file suffix (used to
-	 * remove meta data folders)
+	 * Creates the operations deleting the given resources
 	 *
-	 * @param ocmsModule the OpenCms module containing the resource
-	 * @param vfsPath    VFS path of the resource whose meta data path is to be returned
-	 * @return the meta data file path without the corresponding file suffix
+	 * @param deletes  infos about the deleted resources
+	 * @param progress the progress counter of the background task
+	 * @return the delete operations
 	 */
-	private String getMetaDataFilePathWithoutSuffix(OpenCmsModule ocmsModule, String vfsPath) {
-		return ocmsModule.getManifestRoot() + vfsPath;
+	private List<VfsOperation> createDeleteOperations(List<VfsFileDeleteInfo> deletes, ProgressCounter progress) {
+		List<VfsOperation> operations = new ArrayList<VfsOperation>(deletes.size());
+		for (final VfsFileDeleteInfo deleteInfo : deletes) {
+			operations.add(new VfsOperation(progress, deleteInfo.vfsPath) {
+				@Override
+				void execute() {
+					deleteFile(deleteInfo);
+				}
+			});
+		}
+		return operations;
 	}
 
 	/**
-	 * Internal helper method constructing the path to the meta data XML file
+	 * Checks if resources below the given folder are moved or renamed
 	 *
-	 * @param ocmsModule  the OpenCms module containing the resource
-	 * @param vfsPath     VFS path of the resource whose meta data path is to be returned
-	 * @param isDirectory <code>true</code> if the resource is a folder, <code>false</code> otherwise
-	 * @return the path to the meta data XML file
+	 * @param folderVfsPath VFS path of the folder
+	 * @return <code>true</code> if a resource below the folder is moved or renamed, <code>false</code> otherwise
 	 */
-	private String getMetaDataFilePath(OpenCmsModule ocmsModule, String vfsPath, boolean isDirectory) {
-		return OpenCmsModuleManifestGenerator.getMetaInfoPath(ocmsModule.getManifestRoot(), vfsPath, isDirectory);
+	private boolean containsMovedResources(String folderVfsPath) {
+		String folderPrefix = folderVfsPath + "/";
+		for (VfsFileMoveInfo moveInfo : vfsFilesToBeMoved) {
+			if (moveInfo.oldVfsPath.startsWith(folderPrefix)) {
+				return true;
+			}
+		}
+		for (VfsFileRenameInfo renameInfo : vfsFilesToBeRenamed) {
+			if (renameInfo.oldVfsPath.startsWith(folderPrefix)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
-	 * Presents a dialog asking the user if files are to be deleted from the VFS and handles the deletions if the user
-	 * chooses to do so
-	 *
-	 * @return <code>true</code> if the user elected to delete files, <code>false</code> if the user cancelled the
-	 * deletion
-	 *
-	 * @throws CmsConnectionException if the connection to OpenCms failed
+	 * Creates the target folders of all moves that don't exist in the VFS yet. Done sequentially (parents first)
+	 * before the moves are executed in parallel, so that concurrent moves don't try to create the same folder.
 	 */
-	private boolean deleteFiles() throws CmsConnectionException {
-		StringBuilder msg = new StringBuilder("Do you want to delete the following files/folders from the OpenCms VFS?");
-		for (OpenCmsModuleFileChangeHandler.VfsFileDeleteInfo vfsFileToBeDeleted : vfsFilesToBeDeleted) {
-			msg.append("\n").append(vfsFileToBeDeleted.vfsPath);
+	private void createMoveTargetFolders() {
+		Set<String> newParentPaths = new TreeSet<String>();
+		for (VfsFileMoveInfo moveInfo : vfsFilesToBeMoved) {
+			newParentPaths.add(moveInfo.newParentPath);
 		}
-
-		int dlgStatus = Messages.showOkCancelDialog(msg.toString(), "Delete Files/Folders?", Messages.getQuestionIcon());
-
-		if (dlgStatus == 0) {
-			console.clear();
-			plugin.showConsole();
-			for (OpenCmsModuleFileChangeHandler.VfsFileDeleteInfo deleteInfo : vfsFilesToBeDeleted) {
-				console.info("DELETE: " + deleteInfo.vfsPath);
-				getVfsAdapter().deleteResource(deleteInfo.vfsPath);
-				// check export points
-				deleteExportedFileIfNecessary(deleteInfo.vfsPath);
-
-				// handle meta data files
-				boolean isDirectory = deleteInfo.isDirectory;
-				String metaDataFilePath = getMetaDataFilePath(deleteInfo.ocmsModule, deleteInfo.vfsPath, isDirectory);
-				console.info("Remove meta data file " + metaDataFilePath);
-				File metaDataFile = new File(metaDataFilePath);
-				FileUtils.deleteQuietly(metaDataFile);
-				refreshFiles.add(metaDataFile);
-
-				if (isDirectory) {
-					String metaFolderPath = getMetaDataFilePathWithoutSuffix(deleteInfo.ocmsModule, deleteInfo.vfsPath);
-					console.info("Remove meta data folder " + metaFolderPath);
-					File metaFolder = new File(metaFolderPath);
-					FileUtils.deleteQuietly(metaFolder);
-					refreshFiles.add(metaFolder);
+		for (String newParentPath : newParentPaths) {
+			try {
+				if (vfsAdapter.getVfsObject(newParentPath) == null) {
+					console.info("CREATE FOLDER: " + newParentPath);
+					vfsAdapter.createFolder(newParentPath);
 				}
 			}
-			return true;
+			catch (CmsPermissionDeniedException e) {
+				console.error("Error creating folder " + newParentPath + ". " + e.getMessage());
+			}
+			catch (CmsConnectionException e) {
+				console.error("Error creating folder " + newParentPath + ". " + e.getMessage());
+			}
 		}
-		return false;
 	}
 
 	/**
-	 * Presents a dialog asking the user if files are to be moved in the VFS and handles the moves if the user
-	 * chooses to do so
+	 * Executes the given VFS operations, keeping the order of operations that depend on each other. An operation
+	 * affecting the same path as an earlier operation or an ancestor or descendant of it (e.g. renaming a folder and
+	 * moving a file inside the folder) is only started once the earlier operation is finished, operations affecting
+	 * disjoint paths are executed in parallel (see {@link #executeInParallel(List)}).
 	 *
-	 * @return <code>true</code> if the user elected to move files, <code>false</code> if the user cancelled the
-	 * move
-	 *
-	 * @throws CmsConnectionException if the connection to OpenCms failed
+	 * @param operations the operations to execute, in the order the changes occurred
 	 */
-	private boolean moveFiles() throws CmsConnectionException {
-		StringBuilder msg = new StringBuilder("Do you want to move the following files/folders in the OpenCms VFS as well?");
-		for (OpenCmsModuleFileChangeHandler.VfsFileMoveInfo vfsFileToBeMoved : vfsFilesToBeMoved) {
-			msg.append("\n").append(vfsFileToBeMoved.oldVfsPath);
+	private void executeInDependencyOrder(List<VfsOperation> operations) {
+		List<List<VfsOperation>> stages = new ArrayList<List<VfsOperation>>();
+		int[] stageIndexes = new int[operations.size()];
+		for (int i = 0; i < operations.size(); i++) {
+			VfsOperation operation = operations.get(i);
+			int stageIndex = 0;
+			for (int j = 0; j < i; j++) {
+				if (stageIndexes[j] >= stageIndex && operation.dependsOn(operations.get(j))) {
+					stageIndex = stageIndexes[j] + 1;
+				}
+			}
+			stageIndexes[i] = stageIndex;
+			if (stageIndex == stages.size()) {
+				stages.add(new ArrayList<VfsOperation>());
+			}
+			stages.get(stageIndex).add(operation);
 		}
+		for (List<VfsOperation> stage : stages) {
+			executeInParallel(stage);
+		}
+	}
 
-		int dlgStatus = Messages.showOkCancelDialog(msg.toString(), "Move Files/Folders?", Messages.getQuestionIcon());
+	/**
+	 * Executes the given VFS operations with the plugin's VFS pool (see
+	 * {@link com.mediaworx.intellij.opencmsplugin.OpenCmsPluginExecutor#getVfsExecutor()}) and waits until all of them
+	 * are finished.
+	 *
+	 * @param operations the operations to execute
+	 */
+	private void executeInParallel(List<VfsOperation> operations) {
+		if (operations.size() == 0) {
+			return;
+		}
+		if (operations.size() == 1) {
+			operations.get(0).run();
+			return;
+		}
 
-		if (dlgStatus == 0) {
-			console.clear();
-			plugin.showConsole();
-			for (OpenCmsModuleFileChangeHandler.VfsFileMoveInfo moveInfo : vfsFilesToBeMoved) {
+		ExecutorService executor = plugin.getExecutor().getVfsExecutor();
+		List<Future<?>> futures = new ArrayList<Future<?>>(operations.size());
+		try {
+			for (VfsOperation operation : operations) {
+				futures.add(executor.submit(operation));
+			}
+			for (Future<?> future : futures) {
 				try {
-					console.info("MOVE: " + moveInfo.oldVfsPath + " to " + moveInfo.newParentPath);
-					Folder oldParent = (Folder) getVfsAdapter().getVfsObject(moveInfo.oldParentPath);
-					Folder newParent = (Folder) getVfsAdapter().getVfsObject(moveInfo.newParentPath);
-					if (newParent == null) {
-						newParent = getVfsAdapter().createFolder(moveInfo.newParentPath);
-					}
-					FileableCmisObject resource = (FileableCmisObject) getVfsAdapter().getVfsObject(moveInfo.oldVfsPath);
-					resource.move(oldParent, newParent);
-
-					// handle export points
-					handleExportPointsForMovedResources(moveInfo.oldVfsPath, moveInfo.newVfsPath, moveInfo.newIdeaVFile.getPath());
-
-					// handle meta data files
-					handleMetaDataForMovedResources(moveInfo.oldOcmsModule, moveInfo.newOcmsModule, moveInfo.oldVfsPath, moveInfo.newVfsPath, moveInfo.newIdeaVFile.isDirectory());
+					future.get();
 				}
-				catch (CmsPermissionDeniedException e) {
-					Messages.showDialog("Error moving files/folders." + e.getMessage(),
-							"Error", new String[]{"Ok"}, 0, Messages.getErrorIcon());
+				catch (ExecutionException e) {
+					LOG.warn("Exception reflecting a file change in the OpenCms VFS", e.getCause());
+					console.error("Error reflecting a file change in the OpenCms VFS: " + e.getCause().getMessage());
+				}
+				catch (CancellationException e) {
+					console.error("A file change could not be reflected in the OpenCms VFS, the plugin is too busy");
 				}
 			}
-			return true;
 		}
-		return false;
+		catch (InterruptedException e) {
+			for (Future<?> future : futures) {
+				future.cancel(true);
+			}
+			Thread.currentThread().interrupt();
+		}
 	}
 
 	/**
-	 * Presents a dialog asking the user if files are to be renamed in the VFS and handles the renames if the user
-	 * chooses to do so
+	 * Deletes a file or folder from the VFS and removes its exported file and meta data
 	 *
-	 * @return <code>true</code> if the user elected to rename files, <code>false</code> if the user cancelled the
-	 * rename
-	 *
-	 * @throws CmsConnectionException if the connection to OpenCms failed
+	 * @param deleteInfo infos about the deleted resource
 	 */
-	private boolean renameFiles() throws CmsConnectionException {
-		StringBuilder msg = new StringBuilder("Do you want to rename the following files/folders in the OpenCms VFS as well?");
-		for (OpenCmsModuleFileChangeHandler.VfsFileRenameInfo vfsFileToBeRenamed : vfsFilesToBeRenamed) {
-			msg.append("\n").append(vfsFileToBeRenamed.oldVfsPath).append(" -> ").append(vfsFileToBeRenamed.newName);
+	private void deleteFile(VfsFileDeleteInfo deleteInfo) {
+		console.info("DELETE: " + deleteInfo.vfsPath);
+		try {
+			vfsAdapter.deleteResource(deleteInfo.vfsPath);
+		}
+		catch (CmsConnectionException e) {
+			console.error("Error deleting " + deleteInfo.vfsPath + ". " + e.getMessage());
+			return;
 		}
+		// check export points
+		deleteExportedFileIfNecessary(deleteInfo.vfsPath);
 
-		int dlgStatus = Messages.showOkCancelDialog(msg.toString(), "Move Files/Folders?", Messages.getQuestionIcon());
+		// handle meta data files
+		boolean isDirectory = deleteInfo.isDirectory;
+		String metaDataFilePath = getMetaDataFilePath(deleteInfo.ocmsModule, deleteInfo.vfsPath, isDirectory);
+		console.info("Remove meta data file " + metaDataFilePath);
+		File metaDataFile = new File(metaDataFilePath);
+		FileUtils.deleteQuietly(metaDataFile);
+		refreshFiles.add(metaDataFile);
 
-		if (dlgStatus == 0) {
-			console.clear();
-			plugin.showConsole();
-			for (OpenCmsModuleFileChangeHandler.VfsFileRenameInfo renameInfo : vfsFilesToBeRenamed) {
-				console.info("RENAME: " + renameInfo.oldVfsPath + " to " + renameInfo.newName);
-				try {
-					CmisObject file = getVfsAdapter().getVfsObject(renameInfo.oldVfsPath);
-					if (file == null) {
-						LOG.warn("Error renaming " + renameInfo.oldVfsPath + ": the resource could not be loaded through CMIS");
-						continue;
-					}
-					HashMap<String, Object> properties = new HashMap<String, Object>();
-					properties.put(PropertyIds.NAME, renameInfo.newName);
-					file.updateProperties(properties);
+		if (isDirectory) {
+			String metaFolderPath = getMetaDataFilePathWithoutSuffix(deleteInfo.ocmsModule, deleteInfo.vfsPath);
+			console.info("Remove meta data folder " + metaFolderPath);
+			File metaFolder = new File(metaFolderPath);
+			FileUtils.deleteQuietly(metaFolder);
+			refreshFiles.add(metaFolder);
+		}
+	}
 
-					// handle export points
-					handleExportPointsForMovedResources(renameInfo.oldVfsPath, renameInfo.newVfsPath, renameInfo.newIdeaVFile.getPath());
+	/**
+	 * Moves a file or folder in the VFS and moves its exported file and meta data
+	 *
+	 * @param moveInfo infos about the moved resource
+	 */
+	private void moveFile(VfsFileMoveInfo moveInfo) {
+		try {
+			console.info("MOVE: " + moveInfo.oldVfsPath + " to " + moveInfo.newParentPath);
+			Folder oldParent = (Folder) vfsAdapter.getVfsObject(moveInfo.oldParentPath);
+			Folder newParent = (Folder) vfsAdapter.getVfsObject(moveInfo.newParentPath);
+			FileableCmisObject resource = (FileableCmisObject) vfsAdapter.getVfsObject(moveInfo.oldVfsPath);
+			if (oldParent == null || newParent == null || resource == null) {
+				console.error("Error moving " + moveInfo.oldVfsPath + ": the resource or its parent folder could not be loaded through CMIS");
+				return;
+			}
+			resource.move(oldParent, newParent);
 
-					// handle meta data files
-					handleMetaDataForMovedResources(renameInfo.ocmsModule, renameInfo.ocmsModule, renameInfo.oldVfsPath, renameInfo.newVfsPath, renameInfo.newIdeaVFile.isDirectory());
-				}
-				catch (CmsPermissionDeniedException e) {
-					LOG.warn("Exception moving files - permission denied", e);
-					Messages.showDialog("Error moving files/folders. " + e.getMessage(),
-							"Error", new String[]{"Ok"}, 0, Messages.getErrorIcon());
-				}
+			// handle export points
+			handleExportPointsForMovedResources(moveInfo.oldVfsPath, moveInfo.newVfsPath, moveInfo.newIdeaVFile.getPath());
+
+			// handle meta data files
+			handleMetaDataForMovedResources(moveInfo.oldOcmsModule, moveInfo.newOcmsModule, moveInfo.oldVfsPath, moveInfo.newVfsPath, moveInfo.newIdeaVFile.isDirectory());
+		}
+		catch (CmsPermissionDeniedException e) {
+			LOG.warn("Exception moving files - permission denied", e);
+			console.error("Error moving files/folders. " + e.getMessage());
+		}
+		catch (CmsConnectionException e) {
+			console.error("Error moving " + moveInfo.oldVfsPath + ". " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Renames a file or folder in the VFS and moves its exported file and meta data
+	 *
+	 * @param renameInfo infos about the renamed resource
+	 */
+	private void renameFile(VfsFileRenameInfo renameInfo) {
+		console.info("RENAME: " + renameInfo.oldVfsPath + " to " + renameInfo.newName);
+		try {
+			CmisObject file = vfsAdapter.getVfsObject(renameInfo.oldVfsPath);
+			if (file == null) {
+				LOG.warn("Error renaming " + renameInfo.oldVfsPath + ": the resource could not be loaded through CMIS");
+				return;
 			}
-			return true;
+			HashMap<String, Object> properties = new HashMap<String, Object>();
+			properties.put(PropertyIds.NAME, renameInfo.newName);
+			file.updateProperties(properties);
+
+			// handle export points
+			handleExportPointsForMovedResources(renameInfo.oldVfsPath, renameInfo.newVfsPath, renameInfo.newIdeaVFile.getPath());
+
+			// handle meta data files
+			handleMetaDataForMovedResources(renameInfo.ocmsModule, renameInfo.ocmsModule, renameInfo.oldVfsPath, renameInfo.newVfsPath, renameInfo.newIdeaVFile.isDirectory());
 		}
-		return false;
+		catch (CmsPermissionDeniedException e) {
+			LOG.warn("Exception moving files - permission denied", e);
+			console.error("Error moving files/folders. " + e.getMessage());
+		}
+		catch (CmsConnectionException e) {
+			console.error("Error renaming " + renameInfo.oldVfsPath + ". " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Internal helper method constructing the meta data file path without the corresponding file suffix (used to
+	 * remove meta data folders)
+	 *
+	 * @param ocmsModule the OpenCms module containing the resource
+	 * @param vfsPath    VFS path of the resource whose meta data path is to be returned
+	 * @return the meta data file path without the corresponding file suffix
+	 */
+	private String getMetaDataFilePathWithoutSuffix(OpenCmsModule ocmsModule, String vfsPath) {
+		return ocmsModule.getManifestRoot() + vfsPath;
+	}
+
+	/**
+	 * Internal helper method constructing the path to the meta data XML file
+	 *
+	 * @param ocmsModule  the OpenCms module containing the resource
+	 * @param vfsPath     VFS path of the resource whose meta data path is to be returned
+	 * @param isDirectory <code>true</code> if the resource is a folder, <code>false</code> otherwise
+	 * @return the path to the meta data XML file
+	 */
+	private String getMetaDataFilePath(OpenCmsModule ocmsModule, String vfsPath, boolean isDirectory) {
+		return OpenCmsModuleManifestGenerator.getMetaInfoPath(ocmsModule.getManifestRoot(), vfsPath, isDirectory);
 	}
 
 	/**
@@ -478,7 +741,7 @@ public class OpenCmsModuleFileChangeHandler implements Runnable {
 	}
 
 	/**
-	 * Starts an OpenCms direct publish session for resources that were affected by the deletes/moves/renames
+	 * Queues resources that were affected by the deletes/moves/renames for publishing
 	 */
 	private void publishAffectedVfsResources() {
 		ArrayList<String> affectedResourcePaths = new ArrayList<String>(getNumAffected());
@@ -492,18 +755,8 @@ public class OpenCmsModuleFileChangeHandler implements Runnable {
 			affectedResourcePaths.add(renameInfo.newVfsPath);
 		}
 		if (affectedResourcePaths.size() > 0) {
-			try {
-				plugin.getPluginConnector().publishResources(affectedResourcePaths, false);
-				console.info("PUBLISH: A direct publish session was started successfully");
-			}
-			catch (OpenCmsConnectorException e) {
-				console.error(e.getMessage());
-			}
-			catch (IOException e) {
-				LOG.warn("There was an exception while publishing resources after a file change event", e);
-				Messages.showDialog("There was an Error during publish.\nIs OpenCms running?\n\n" + e.getMessage(),
-						"OpenCms Publish Error", new String[]{"Ok"}, 0, Messages.getErrorIcon());
-			}
+			plugin.getPublishQueue().enqueue(affectedResourcePaths, false);
+			console.info("PUBLISH: " + affectedResourcePaths.size() + " resource(s) queued for publishing");
 		}
 	}
 
@@ -520,6 +773,85 @@ public class OpenCmsModuleFileChangeHandler implements Runnable {
 	}
 
 
+	/**
+	 * A VFS operation executed by {@link #executeInDependencyOrder(List)}, operations that weren't started yet are
+	 * skipped if the user cancels the background task
+	 */
+	private static abstract class VfsOperation implements Runnable {
+
+		private ProgressCounter progress;
+		private String[] vfsPaths;
+
+		/**
+		 * @param progress the progress counter of the background task
+		 * @param vfsPaths the VFS paths affected by the operation (e.g. the old and the new path of a moved file)
+		 */
+		VfsOperation(ProgressCounter progress, String... vfsPaths) {
+			this.progress = progress;
+			this.vfsPaths = vfsPaths;
+		}
+
+		/**
+		 * Checks if the operation has to wait for the other operation, i.e. if both affect the same path or one of
+		 * them affects an ancestor of a path affected by the other one
+		 * @param other the other operation
+		 * @return <code>true</code> if the operations depend on each other, <code>false</code> otherwise
+		 */
+		boolean dependsOn(VfsOperation other) {
+			for (String path : vfsPaths) {
+				for (String otherPath : other.vfsPaths) {
+					if (isSameOrAncestor(path, otherPath) || isSameOrAncestor(otherPath, path)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		private static boolean isSameOrAncestor(String path, String descendantPath) {
+			return descendantPath.startsWith(path) && (descendantPath.length() == path.length() || descendantPath.charAt(path.length()) == '/');
+		}
+
+		@Override
+		public void run() {
+			if (progress.isCanceled()) {
+				return;
+			}
+			execute();
+			progress.increment();
+		}
+
+		/**
+		 * Executes the operation
+		 */
+		abstract void execute();
+	}
+
+	/** Counts the executed VFS operations and updates the progress indicator of the background task */
+	private static class ProgressCounter {
+
+		private ProgressIndicator indicator;
+		private int numOperations;
+		private AtomicInteger numDone = new AtomicInteger();
+
+		private ProgressCounter(ProgressIndicator indicator, int numOperations) {
+			this.indicator = indicator;
+			this.numOperations = numOperations;
+		}
+
+		void increment() {
+			indicator.setFraction((double)numDone.incrementAndGet() / numOperations);
+		}
+
+		int getNumDone() {
+			return numDone.get();
+		}
+
+		boolean isCanceled() {
+			return indicator.isCanceled();
+		}
+	}
+
 	/** Internal bean to store infos for deleted resources */
 	private static class VfsFileDeleteInfo {
 
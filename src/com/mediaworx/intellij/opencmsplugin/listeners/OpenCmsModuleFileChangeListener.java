@@ -41,25 +41,32 @@ import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModule;
 import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModules;
 import com.mediaworx.intellij.opencmsplugin.sync.VfsAdapter;
 import com.mediaworx.intellij.opencmsplugin.tools.PluginTools;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisBaseException;
 import org.apache.chemistry.opencmis.commons.exceptions.CmisPermissionDeniedException;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Listener/handler for delete, move and rename events in the IntelliJ file system. Analyzes changes and uses the
- * {@link OpenCmsModuleFileChangeHandler} to ask the user if those changes should be reflected in the OpenCms VFS
+ * {@link OpenCmsModuleFileChangeHandler} to ask the user if those changes should be reflected in the OpenCms VFS.
+ * <br /><br />
+ * The listener only records the changes affecting module resources while the events are delivered. The recorded
+ * changes are coalesced by the {@link FileChangeCoalescer} (so that branch switches or mass refactorings don't result
+ * in thousands of redundant VFS operations). Checking which of the affected resources exist in the OpenCms VFS
+ * requires network round trips, so it is done afterwards in one batched pass on a background thread (see
+ * {@link VfsAdapter#getExistingPaths(java.util.Collection)}).
  */
-// TODO: handle cases where moves or deletions of parents of vfs resources take place (or don't handle those cases, whatever, at least think about it)
 public class OpenCmsModuleFileChangeListener implements BulkFileListener {
 
 	private static final Logger LOG = Logger.getInstance(OpenCmsModuleFileChangeListener.class);
 
 	private OpenCmsPlugin plugin;
-	private OpenCmsModuleFileChangeHandler changeHandler;
-	private VfsAdapter vfsAdapter;
+	private volatile VfsAdapter vfsAdapter;
 	private OpenCmsPluginConfigurationData config;
 	private OpenCmsModules openCmsModules;
 
@@ -71,7 +78,6 @@ public class OpenCmsModuleFileChangeListener implements BulkFileListener {
 	 */
 	public OpenCmsModuleFileChangeListener(OpenCmsPlugin plugin) {
 		this.plugin = plugin;
-		changeHandler = new OpenCmsModuleFileChangeHandler(plugin);
 		config = plugin.getPluginConfiguration();
 		openCmsModules = plugin.getOpenCmsModules();
 
@@ -109,8 +115,9 @@ public class OpenCmsModuleFileChangeListener implements BulkFileListener {
 
 	/**
 	 * Handler method that is called after the file change has been executed by IntelliJ, analyzes file deletes, moves
-	 * and renames and calls the change handler (in a separate thread) that handles all the changes and is also used
-	 * to present a dialog asking the user if the file change should be reflected in the OpenCms VFS as well.
+	 * and renames and records the changes affecting module resources. Checking the recorded changes against the
+	 * OpenCms VFS and calling the change handler that presents a dialog asking the user if the file changes should be
+	 * reflected in the OpenCms VFS as well is done in the background.
 	 * @param vFileEvents   List of file events, provided by IntelliJ
 	 */
 	public void after(@NotNull List<? extends VFileEvent> vFileEvents) {
@@ -120,20 +127,67 @@ public class OpenCmsModuleFileChangeListener implements BulkFileListener {
 				return;
 			}
 
+			final FileChangeCoalescer coalescer = new FileChangeCoalescer();
 			for (VFileEvent event : vFileEvents) {
-				handleFileEvent(event);
+				handleFileEvent(event, coalescer);
 			}
 
-			if (changeHandler.hasAffectedFiles()) {
-				ApplicationManager.getApplication().invokeLater(changeHandler);
+			if (!coalescer.isEmpty()) {
+				final OpenCmsModuleFileChangeHandler changeHandler = new OpenCmsModuleFileChangeHandler(plugin);
+				changeHandler.setVcsOperation(coalescer.isVcsOperation());
+				plugin.getExecutor().execute(new Runnable() {
+					@Override
+					public void run() {
+						checkRecordedChanges(coalescer, changeHandler);
+					}
+				});
 			}
+		}
+		finally {
+			deletedFileModuleLookup.clear();
+		}
+	}
+
+	/**
+	 * Coalesces the recorded changes, checks which of the affected resources exist in the OpenCms VFS (in one batched
+	 * pass), passes the changes of existing resources to the change handler and calls the change handler on the event
+	 * dispatch thread. Called on a background thread.
+	 * @param coalescer     the coalescer containing the changes recorded by {@link #after(List)}
+	 * @param changeHandler the change handler for the recorded changes
+	 */
+	private void checkRecordedChanges(FileChangeCoalescer coalescer, OpenCmsModuleFileChangeHandler changeHandler) {
+		List<FileChangeCoalescer.FileChange> changes = coalescer.coalesce();
+		LOG.info(coalescer.getNumEvents() + " file event(s) coalesced to " + changes.size() + " module resource change(s)");
+
+		Set<String> vfsPaths = new HashSet<String>(changes.size());
+		for (FileChangeCoalescer.FileChange change : changes) {
+			vfsPaths.add(change.getOriginVfsPath());
+		}
 
+		try {
+			Set<String> existingVfsPaths = getVfsAdapter().getExistingPaths(vfsPaths);
+			for (FileChangeCoalescer.FileChange change : changes) {
+				if (existingVfsPaths.contains(change.getOriginVfsPath())) {
+					change.addToChangeHandler(changeHandler);
+				}
+			}
 		}
 		catch (CmsConnectionException e) {
 			LOG.error("Error syncing file deletion/move/rename to OpenCms:\n" + e.getMessage(), e);
+			return;
 		}
-		finally {
-			deletedFileModuleLookup.clear();
+		catch (CmisPermissionDeniedException e) {
+			LOG.error("Local files have been deleted, moved or renamed, but it can't be checked if the files exist in the VFS (permission denied).\nPlease check manually: " + vfsPaths, e);
+			return;
+		}
+		catch (CmisBaseException e) {
+			// runtime CMIS errors (e.g. OpenCms went down) would otherwise vanish in the executor
+			LOG.error("Error syncing file deletion/move/rename to OpenCms:\n" + e.getMessage() + "\nPlease check manually: " + vfsPaths, e);
+			return;
+		}
+
+		if (changeHandler.hasAffectedFiles()) {
+			ApplicationManager.getApplication().invokeLater(changeHandler);
 		}
 	}
 
@@ -160,35 +214,39 @@ public class OpenCmsModuleFileChangeListener implements BulkFileListener {
 
 	/**
 	 * Internal handler for file delete, move and rename events
-	 * @param event IntelliJ's file change event
-	 * @throws CmsConnectionException if the connection to OpenCms fails
+	 * @param event     IntelliJ's file change event
+	 * @param coalescer coalescer the changes affecting module resources are recorded in
 	 */
-	private void handleFileEvent(VFileEvent event) throws CmsConnectionException {
+	private void handleFileEvent(VFileEvent event, FileChangeCoalescer coalescer) {
 		// File is deleted
 		if (event instanceof VFileDeleteEvent) {
-			handleFileDeleteEvent(event);
+			coalescer.countEvent(event);
+			handleFileDeleteEvent(event, coalescer);
 		}
 		// File is moved
 		if (event instanceof VFileMoveEvent) {
-			handleFileMoveEvent(event);
+			coalescer.countEvent(event);
+			handleFileMoveEvent(event, coalescer);
 		}
 
 		// File is renamed
 		if (event instanceof VFilePropertyChangeEvent) {
 			String propertyName = ((VFilePropertyChangeEvent)event).getPropertyName();
 			if ("name".equals(propertyName)) {
-				handleFileRenameEvent(event);
+				coalescer.countEvent(event);
+				handleFileRenameEvent(event, coalescer);
 			}
 		}
 	}
 
 	/**
-	 * Internal handler for file delete events, fills a list of files to be deleted that is handled later in
-	 * {@link OpenCmsModuleFileChangeHandler#handleChanges()}
-	 * @param event IntelliJ's file change event
-	 * @throws CmsConnectionException if the connection to OpenCms fails
+	 * Internal handler for file delete events, records the deletion of module resources, the resources are added to
+	 * the list of files to be deleted that is handled later in
+	 * {@link OpenCmsModuleFileChangeHandler#handleChanges()} if they exist in the VFS
+	 * @param event     IntelliJ's file change event
+	 * @param coalescer coalescer the changes affecting module resources are recorded in
 	 */
-	private void handleFileDeleteEvent(VFileEvent event) throws CmsConnectionException {
+	private void handleFileDeleteEvent(VFileEvent event, FileChangeCoalescer coalescer) {
 		VirtualFile ideaVFile = event.getFile();
 		if (ideaVFile != null) {
 			String moduleBasePath = PluginTools.getModuleContentRoot(deletedFileModuleLookup.get(ideaVFile));
@@ -198,25 +256,19 @@ public class OpenCmsModuleFileChangeListener implements BulkFileListener {
 			if (ocmsModule  != null && ocmsModule.isPathModuleResource(ideaVFile.getPath())) {
 				LOG.info("The following module resource was deleted: " + ideaVFile.getPath());
 				String vfsPath = ocmsModule.getVfsPathForRealPath(ideaVFile.getPath());
-				try {
-					if (getVfsAdapter().exists(vfsPath)) {
-						changeHandler.addFileToBeDeleted(ocmsModule, vfsPath, ideaVFile.isDirectory());
-					}
-				}
-				catch (CmisPermissionDeniedException e) {
-					throw new CmsConnectionException("A local file has been deleted, but it can't be checked if the file exists in the VFS (permission denied).\nPlease check manually: " + vfsPath);
-				}
+				coalescer.recordDeletion(ideaVFile, ocmsModule, vfsPath, ideaVFile.isDirectory());
 			}
 		}
 	}
 
 	/**
-	 * Internal handler for file move events fills a list of files to be moved that is handled later in
-	 * {@link OpenCmsModuleFileChangeHandler#handleChanges()}
-	 * @param event IntelliJ's file change event
-	 * @throws CmsConnectionException if the connection to OpenCms fails
+	 * Internal handler for file move events, records moves of module resources, the resources are added to the list
+	 * of files to be moved (or deleted, if moved out of the module) that is handled later in
+	 * {@link OpenCmsModuleFileChangeHandler#handleChanges()} if they exist in the VFS
+	 * @param event     IntelliJ's file change event
+	 * @param coalescer coalescer the changes affecting module resources are recorded in
 	 */
-	private void handleFileMoveEvent(VFileEvent event) throws CmsConnectionException {
+	private void handleFileMoveEvent(VFileEvent event, FileChangeCoalescer coalescer) {
 		VirtualFile ideaVFile = event.getFile();
 
 		if (ideaVFile != null) {
@@ -235,13 +287,10 @@ public class OpenCmsModuleFileChangeListener implements BulkFileListener {
 			if (oldOcmsModule != null && oldOcmsModule.isPathModuleResource(oldParentPath)
 					&& newOcmsModule != null && newOcmsModule.isPathModuleResource(newParent.getPath())) {
 				String oldParentVfsPath = oldOcmsModule.getVfsPathForRealPath(oldParentPath);
-				String oldVfsPath = oldParentVfsPath + "/" + ideaVFile.getName();
-				if (getVfsAdapter().exists(oldVfsPath)) {
-					String newParentVfsPath = newOcmsModule.getVfsPathForRealPath(newParentPath);
-					if (!oldParentVfsPath.equals(newParentVfsPath)) {
-						LOG.debug("A file was moved from " + oldParentVfsPath + " to " + newParentVfsPath);
-						changeHandler.addFileToBeMoved(oldOcmsModule, newOcmsModule, ideaVFile, ideaVFile.getName(), oldParentVfsPath, newParentVfsPath);
-					}
+				String newParentVfsPath = newOcmsModule.getVfsPathForRealPath(newParentPath);
+				if (!oldParentVfsPath.equals(newParentVfsPath)) {
+					LOG.debug("A file was moved from " + oldParentVfsPath + " to " + newParentVfsPath);
+					coalescer.recordMove(ideaVFile, oldOcmsModule, newOcmsModule, oldParentVfsPath, newParentVfsPath);
 				}
 			}
 
@@ -253,20 +302,19 @@ public class OpenCmsModuleFileChangeListener implements BulkFileListener {
 
 				LOG.info("File was moved out of the module path, deleting " + oldVfsPath);
 
-				if (getVfsAdapter().exists(oldVfsPath)) {
-					changeHandler.addFileToBeDeleted(oldOcmsModule, oldVfsPath, ideaVFile.isDirectory());
-				}
+				coalescer.recordDeletion(ideaVFile, oldOcmsModule, oldVfsPath, ideaVFile.isDirectory());
 			}
 		}
 	}
 
 	/**
-	 * Internal handler for file rename events fills a list of files to be renamed that is handled later in
-	 * {@link OpenCmsModuleFileChangeHandler#handleChanges()}
-	 * @param event IntelliJ's file change event
-	 * @throws CmsConnectionException if the connection to OpenCms fails
+	 * Internal handler for file rename events, records renames of module resources, the resources are added to the
+	 * list of files to be renamed that is handled later in {@link OpenCmsModuleFileChangeHandler#handleChanges()} if
+	 * they exist in the VFS
+	 * @param event     IntelliJ's file change event
+	 * @param coalescer coalescer the changes affecting module resources are recorded in
 	 */
-	private void handleFileRenameEvent(VFileEvent event) throws CmsConnectionException {
+	private void handleFileRenameEvent(VFileEvent event, FileChangeCoalescer coalescer) {
 		VirtualFile ideaVFile = event.getFile();
 		if (ideaVFile != null) {
 			String renameFilePath = ideaVFile.getPath();
@@ -274,12 +322,11 @@ public class OpenCmsModuleFileChangeListener implements BulkFileListener {
 			if (ocmsModule != null) {
 				LOG.debug("The following file was renamed: " + ideaVFile.getPath());
 				String oldName = (String)((VFilePropertyChangeEvent)event).getOldValue();
-				String newName = (String)((VFilePropertyChangeEvent)event).getNewValue();
 				String newVfsPath = ocmsModule.getVfsPathForRealPath(renameFilePath);
-				String oldVfsPath = newVfsPath.replaceFirst(newName, oldName);
+				String oldVfsPath = newVfsPath.substring(0, newVfsPath.lastIndexOf('/') + 1) + oldName;
 
-				if (!oldVfsPath.equals(newVfsPath) && ocmsModule.isPathModuleResource(ocmsModule.getLocalVfsRoot() + oldVfsPath) && getVfsAdapter().exists(oldVfsPath)) {
-					changeHandler.addFileToBeRenamed(ocmsModule, ideaVFile, oldVfsPath, newVfsPath, newName);
+				if (!oldVfsPath.equals(newVfsPath) && ocmsModule.isPathModuleResource(ocmsModule.getLocalVfsRoot() + oldVfsPath)) {
+					coalescer.recordRename(ideaVFile, ocmsModule, oldName, newVfsPath);
 				}
 			}
 		}
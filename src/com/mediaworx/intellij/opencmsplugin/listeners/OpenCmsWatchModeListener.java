@@ -0,0 +1,116 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.listeners;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.mediaworx.intellij.opencmsplugin.OpenCmsPlugin;
+import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsPluginConfigurationData;
+import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModule;
+import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModules;
+import com.mediaworx.intellij.opencmsplugin.sync.OpenCmsWatchModeQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Listener for content changes in the IntelliJ file system used by watch mode (see
+ * {@link OpenCmsPluginConfigurationData#isWatchModeEnabled()}). Module resources saved in IntelliJ are added to the
+ * {@link OpenCmsWatchModeQueue} that pushes them to the OpenCms VFS.
+ * <br /><br />
+ * Content changes detected by file system refreshes are not handled, those are caused by changes made outside of
+ * IntelliJ, among them the files written by pulls from the VFS (pushing those back would be pointless).
+ */
+public class OpenCmsWatchModeListener implements BulkFileListener {
+
+	private OpenCmsPlugin plugin;
+	private OpenCmsPluginConfigurationData config;
+
+	/**
+	 * Creates a new listener for content changes in the IntelliJ file system
+	 * @param plugin the OpenCms plugin instance
+	 */
+	public OpenCmsWatchModeListener(OpenCmsPlugin plugin) {
+		this.plugin = plugin;
+		config = plugin.getPluginConfiguration();
+	}
+
+	/**
+	 * Does nothing, called by IntelliJ
+	 * @param vFileEvents List of file events, provided by IntelliJ
+	 */
+	public void before(@NotNull List<? extends VFileEvent> vFileEvents) {
+		// Nothing to do before file changes
+	}
+
+	/**
+	 * Handler method that is called after file changes have been executed by IntelliJ, adds saved module resources
+	 * to the watch mode queue
+	 * @param vFileEvents List of file events, provided by IntelliJ
+	 */
+	public void after(@NotNull List<? extends VFileEvent> vFileEvents) {
+		if (config == null || !config.isOpenCmsPluginEnabled() || !config.isWatchModeEnabled() || !plugin.isReady()) {
+			return;
+		}
+
+		OpenCmsModules openCmsModules = plugin.getOpenCmsModules();
+		OpenCmsWatchModeQueue watchModeQueue = plugin.getWatchModeQueue();
+		for (VFileEvent event : vFileEvents) {
+			if (event instanceof VFileContentChangeEvent) {
+				if (!event.isFromRefresh()) {
+					handleFileSave(event.getFile(), openCmsModules, watchModeQueue);
+				}
+			}
+			// CMIS documents known from previous pushes may not be valid any more after deletes, moves or renames
+			else if (event instanceof VFileDeleteEvent || event instanceof VFileMoveEvent
+					|| (event instanceof VFilePropertyChangeEvent && "name".equals(((VFilePropertyChangeEvent)event).getPropertyName()))) {
+				watchModeQueue.forgetVfsObjects();
+			}
+		}
+	}
+
+	/**
+	 * Adds the saved file to the watch mode queue if it is a module resource that's not ignored
+	 * @param ideaVFile      the saved file
+	 * @param openCmsModules the OpenCms modules of the project
+	 * @param watchModeQueue the watch mode queue
+	 */
+	private void handleFileSave(VirtualFile ideaVFile, OpenCmsModules openCmsModules, OpenCmsWatchModeQueue watchModeQueue) {
+		if (ideaVFile == null || ideaVFile.isDirectory()) {
+			return;
+		}
+		String path = ideaVFile.getPath();
+		OpenCmsModule ocmsModule = openCmsModules.getModuleForPath(path);
+		if (ocmsModule != null && ocmsModule.isPathModuleResource(path) && !config.getIgnoreRules().isIgnored(path, ideaVFile.getName())) {
+			watchModeQueue.enqueue(ocmsModule, path);
+		}
+	}
+}
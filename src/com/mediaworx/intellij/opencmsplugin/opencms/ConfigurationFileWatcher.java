@@ -0,0 +1,246 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.opencms;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.mediaworx.intellij.opencmsplugin.OpenCmsPluginExecutor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Watches a single configuration file for changes and runs a callback after the file was changed. The file's
+ * folder is watched using a NIO {@link WatchService}, events for other files in the folder (e.g. the OpenCms
+ * configuration backups) are ignored. If no WatchService is available for the folder (e.g. because it doesn't exist
+ * yet or the file system doesn't support it), the file's modification date and size are polled instead.
+ * <br /><br />
+ * Bursts of changes (OpenCms writes the configuration in multiple steps) are debounced, the callback is run once
+ * no further change was noticed for the debounce delay. Debouncing and polling use the plugin executor's scheduler,
+ * the callback is run by the executor's background pool, never on the thread reporting the change.
+ */
+class ConfigurationFileWatcher {
+
+	private static final Logger LOG = Logger.getInstance(ConfigurationFileWatcher.class);
+
+	private final File file;
+	private final long debounceDelay;
+	private final long pollingInterval;
+	private final Runnable changeHandler;
+	private final OpenCmsPluginExecutor executor;
+
+	private boolean running;
+	private ScheduledFuture<?> pollingTask;
+	private Runnable currentChangeTask;
+	private ScheduledFuture<?> currentChangeFuture;
+	private WatchService watchService;
+	private Thread watchThread;
+
+	/** last modification date and size of the file, only used for polling */
+	private long lastModified;
+	private long lastLength;
+
+	/**
+	 * Creates a new watcher, the watcher has to be started using {@link #start()}.
+	 * @param file            the file to watch
+	 * @param debounceDelay   delay in milliseconds the callback is postponed after each change
+	 * @param pollingInterval interval in milliseconds used to check the file if no WatchService is available
+	 * @param changeHandler   the callback to run after the file was changed
+	 * @param executor        the plugin executor used for debouncing, polling and the watch service thread
+	 */
+	ConfigurationFileWatcher(File file, long debounceDelay, long pollingInterval, Runnable changeHandler, OpenCmsPluginExecutor executor) {
+		this.file = file;
+		this.debounceDelay = debounceDelay;
+		this.pollingInterval = pollingInterval;
+		this.changeHandler = changeHandler;
+		this.executor = executor;
+	}
+
+	/**
+	 * Starts watching the file, does nothing if the watcher is already running.
+	 */
+	synchronized void start() {
+		if (running) {
+			return;
+		}
+		running = true;
+		if (!startWatchService()) {
+			startPolling();
+		}
+	}
+
+	/**
+	 * Stops watching the file, a pending callback is cancelled.
+	 */
+	synchronized void stop() {
+		if (watchService != null) {
+			try {
+				watchService.close();
+			}
+			catch (IOException e) {
+				LOG.info("There was an error closing the configuration watch service", e);
+			}
+			watchService = null;
+		}
+		if (watchThread != null) {
+			watchThread.interrupt();
+			watchThread = null;
+		}
+		if (pollingTask != null) {
+			pollingTask.cancel(false);
+			pollingTask = null;
+		}
+		if (currentChangeFuture != null) {
+			currentChangeFuture.cancel(false);
+			currentChangeFuture = null;
+		}
+		currentChangeTask = null;
+		running = false;
+	}
+
+	/**
+	 * @return <code>true</code> if the watcher is running and uses a WatchService, <code>false</code> if it is
+	 *         stopped or polls the file
+	 */
+	synchronized boolean isUsingWatchService() {
+		return watchService != null;
+	}
+
+	private boolean startWatchService() {
+		File folder = file.getParentFile();
+		if (folder == null || !folder.isDirectory()) {
+			LOG.info("The folder " + folder + " does not exist, polling " + file.getName() + " instead of watching it");
+			return false;
+		}
+		final WatchService service;
+		try {
+			service = FileSystems.getDefault().newWatchService();
+			folder.toPath().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		}
+		catch (IOException | UnsupportedOperationException e) {
+			LOG.info("No watch service available for " + folder + ", polling " + file.getName() + " instead", e);
+			return false;
+		}
+		watchService = service;
+		// waiting for events blocks for the watcher's lifetime, so a dedicated thread is used instead of a pool thread
+		watchThread = executor.newThread("configuration watch service", new Runnable() {
+			@Override
+			public void run() {
+				watch(service);
+			}
+		});
+		watchThread.start();
+		return true;
+	}
+
+	private void watch(WatchService service) {
+		Path fileName = file.toPath().getFileName();
+		try {
+			while (true) {
+				WatchKey key = service.take();
+				boolean fileChanged = false;
+				for (WatchEvent<?> event : key.pollEvents()) {
+					// on overflow events may have been lost, so the file may have been changed
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+						fileChanged = true;
+					}
+				}
+				if (fileChanged) {
+					fileChanged();
+				}
+				if (!key.reset()) {
+					LOG.info("The configuration folder is no longer accessible, polling " + file.getName() + " instead");
+					synchronized (this) {
+						if (watchService == service) {
+							watchService = null;
+							watchThread = null;
+							startPolling();
+						}
+					}
+					return;
+				}
+			}
+		}
+		catch (InterruptedException | ClosedWatchServiceException e) {
+			// the watcher was stopped
+		}
+	}
+
+	private void startPolling() {
+		lastModified = file.lastModified();
+		lastLength = file.length();
+		pollingTask = executor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				long modified = file.lastModified();
+				long length = file.length();
+				if (modified != lastModified || length != lastLength) {
+					lastModified = modified;
+					lastLength = length;
+					fileChanged();
+				}
+			}
+		}, pollingInterval, pollingInterval);
+	}
+
+	/**
+	 * (Re)starts the debounce delay, the change handler is run once no further change occurs within the delay.
+	 */
+	private synchronized void fileChanged() {
+		if (!running) {
+			return;
+		}
+		if (currentChangeFuture != null) {
+			currentChangeFuture.cancel(false);
+		}
+		currentChangeTask = new Runnable() {
+			@Override
+			public void run() {
+				synchronized (ConfigurationFileWatcher.this) {
+					if (currentChangeTask != this) {
+						return;
+					}
+					currentChangeTask = null;
+					currentChangeFuture = null;
+				}
+				try {
+					changeHandler.run();
+				}
+				catch (RuntimeException e) {
+					LOG.warn("There was an error handling the change of " + file.getName(), e);
+				}
+			}
+		};
+		currentChangeFuture = executor.schedule(currentChangeTask, debounceDelay);
+	}
+}
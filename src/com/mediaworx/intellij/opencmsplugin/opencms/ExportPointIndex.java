@@ -0,0 +1,125 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.opencms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable index of export points by VFS source path, returning the most specific (longest) export point containing
+ * a VFS path. The export points are sorted by source path, a lookup finds the greatest source less than or equal to
+ * the path. If that source is no prefix of the path, the sources containing it (which are precomputed) are checked,
+ * so a lookup takes one binary search plus a walk up the (usually very short) chain of nested export points.
+ */
+class ExportPointIndex {
+
+	private final String[] sources;
+	private final OpenCmsModuleExportPoint[] exportPoints;
+
+	/** for each export point the index of the longest other export point whose source is a prefix, -1 if none */
+	private final int[] parents;
+
+	/**
+	 * Creates a new index
+	 * @param allExportPoints the export points to index, if several export points have the same source, the first
+	 *                        one is used
+	 */
+	ExportPointIndex(Collection<OpenCmsModuleExportPoint> allExportPoints) {
+		TreeMap<String, OpenCmsModuleExportPoint> sorted = new TreeMap<String, OpenCmsModuleExportPoint>();
+		for (OpenCmsModuleExportPoint exportPoint : allExportPoints) {
+			if (!sorted.containsKey(exportPoint.getVfsSource())) {
+				sorted.put(exportPoint.getVfsSource(), exportPoint);
+			}
+		}
+		int size = sorted.size();
+		sources = sorted.keySet().toArray(new String[size]);
+		exportPoints = sorted.values().toArray(new OpenCmsModuleExportPoint[size]);
+		parents = new int[size];
+		// sources are sorted, so a source's prefixes come before it; keep a stack of the current prefix chain
+		List<Integer> chain = new ArrayList<Integer>();
+		for (int i = 0; i < size; i++) {
+			while (!chain.isEmpty() && !sources[i].startsWith(sources[chain.get(chain.size() - 1)])) {
+				chain.remove(chain.size() - 1);
+			}
+			parents[i] = chain.isEmpty() ? -1 : chain.get(chain.size() - 1);
+			chain.add(i);
+		}
+	}
+
+	/**
+	 * Finds the most specific export point for the given VFS path
+	 * @param vfsPath the VFS path
+	 * @return the export point with the longest source path that's a prefix of the VFS path, <code>null</code> if
+	 *         the path is not contained in any export point
+	 */
+	OpenCmsModuleExportPoint find(String vfsPath) {
+		int pos = Arrays.binarySearch(sources, vfsPath);
+		if (pos >= 0) {
+			return exportPoints[pos];
+		}
+		// insertion point - 1 is the greatest source less than the path
+		int candidate = -pos - 2;
+		while (candidate >= 0) {
+			if (vfsPath.startsWith(sources[candidate])) {
+				return exportPoints[candidate];
+			}
+			candidate = parents[candidate];
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the most specific export points for a number of VFS paths
+	 * @param vfsPaths the VFS paths
+	 * @return map containing the VFS paths contained in an export point as keys and the export points as values
+	 *         (paths not contained in any export point are left out)
+	 */
+	Map<String, OpenCmsModuleExportPoint> findAll(Collection<String> vfsPaths) {
+		Map<String, OpenCmsModuleExportPoint> result = new HashMap<String, OpenCmsModuleExportPoint>();
+		if (sources.length == 0) {
+			return result;
+		}
+		for (String vfsPath : vfsPaths) {
+			OpenCmsModuleExportPoint exportPoint = find(vfsPath);
+			if (exportPoint != null) {
+				result.put(vfsPath, exportPoint);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return <code>true</code> if there are no export points, <code>false</code> otherwise
+	 */
+	boolean isEmpty() {
+		return sources.length == 0;
+	}
+}
@@ -0,0 +1,283 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.opencms;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the module resources and export points contained in the OpenCms module configuration
+ * (<code>opencms-modules.xml</code>), keyed by module name. The configuration file is read in a single pass using a
+ * streaming parser, so looking up the resources or export points of a module does not require any XML processing.
+ * <br /><br />
+ * Only the paths <code>/opencms/modules/module/name</code>, <code>/opencms/modules/module/resources/resource</code>
+ * and <code>/opencms/modules/module/exportpoints/exportpoint</code> are evaluated, everything else is skipped.
+ */
+class ModuleConfigurationIndex {
+
+	private static final Logger LOG = Logger.getInstance(ModuleConfigurationIndex.class);
+
+	/** Empty index, used if the module configuration is not available */
+	static final ModuleConfigurationIndex EMPTY = new ModuleConfigurationIndex(Collections.<String, ModuleEntry>emptyMap());
+
+	private static final String[] MODULE_PATH = {"opencms", "modules", "module"};
+
+	private final Map<String, ModuleEntry> moduleEntries;
+
+	private ModuleConfigurationIndex(Map<String, ModuleEntry> moduleEntries) {
+		this.moduleEntries = moduleEntries;
+	}
+
+	/**
+	 * Parses the given module configuration file.
+	 * @param moduleConfigurationFile the module configuration file (<code>opencms-modules.xml</code>)
+	 * @return the index of the module configuration
+	 * @throws IOException if the file can't be read
+	 * @throws XMLStreamException if the file is not well formed XML
+	 */
+	static ModuleConfigurationIndex parse(File moduleConfigurationFile) throws IOException, XMLStreamException {
+		InputStream in = new BufferedInputStream(new FileInputStream(moduleConfigurationFile));
+		try {
+			return parse(in);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Parses the module configuration from the given stream, the stream is not closed.
+	 * @param in stream containing the module configuration XML
+	 * @return the index of the module configuration
+	 * @throws XMLStreamException if the stream does not contain well formed XML
+	 */
+	static ModuleConfigurationIndex parse(InputStream in) throws XMLStreamException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		// the DTD referenced by opencms-modules.xml must not be loaded (it's neither needed nor available offline)
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+
+		Map<String, ModuleEntry> moduleEntries = new HashMap<String, ModuleEntry>();
+		XMLStreamReader reader = factory.createXMLStreamReader(in);
+		try {
+			// depth of the current element, 1 for the root element
+			int depth = 0;
+			// number of open elements matching MODULE_PATH, the module element is entered if this equals 3
+			int matchedDepth = 0;
+
+			String moduleName = null;
+			List<String> resources = null;
+			List<OpenCmsModuleExportPoint> exportPoints = null;
+			String moduleChild = null;
+
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					depth++;
+					String elementName = reader.getLocalName();
+					if (matchedDepth == depth - 1 && depth <= MODULE_PATH.length) {
+						if (MODULE_PATH[depth - 1].equals(elementName)) {
+							matchedDepth = depth;
+							if (depth == MODULE_PATH.length) {
+								moduleName = null;
+								resources = new ArrayList<String>();
+								exportPoints = new ArrayList<OpenCmsModuleExportPoint>();
+							}
+						}
+					}
+					else if (matchedDepth == MODULE_PATH.length) {
+						if (depth == MODULE_PATH.length + 1) {
+							moduleChild = elementName;
+							if ("name".equals(elementName)) {
+								moduleName = normalizeSpace(reader.getElementText());
+								depth--;
+								moduleChild = null;
+							}
+						}
+						else if (depth == MODULE_PATH.length + 2) {
+							if ("resources".equals(moduleChild) && "resource".equals(elementName)) {
+								String uri = reader.getAttributeValue(null, "uri");
+								if (uri != null) {
+									resources.add(uri);
+								}
+							}
+							else if ("exportpoints".equals(moduleChild) && "exportpoint".equals(elementName)) {
+								String uri = reader.getAttributeValue(null, "uri");
+								String destination = reader.getAttributeValue(null, "destination");
+								if (uri != null && destination != null) {
+									exportPoints.add(new OpenCmsModuleExportPoint(uri, destination));
+								}
+								else {
+									LOG.warn("Skipping incomplete export point in module " + moduleName + ": uri=" + uri + " - destination=" + destination);
+								}
+							}
+						}
+					}
+				}
+				else if (event == XMLStreamConstants.END_ELEMENT) {
+					if (matchedDepth == depth) {
+						if (depth == MODULE_PATH.length && moduleName != null) {
+							ModuleEntry entry = moduleEntries.get(moduleName);
+							if (entry == null) {
+								moduleEntries.put(moduleName, new ModuleEntry(resources, exportPoints));
+							}
+							else {
+								// a module configured twice, the XPath based implementation returned the union
+								entry.resources.addAll(resources);
+								entry.exportPoints.addAll(exportPoints);
+							}
+						}
+						matchedDepth--;
+					}
+					else if (depth == MODULE_PATH.length + 1) {
+						moduleChild = null;
+					}
+					depth--;
+				}
+			}
+		}
+		finally {
+			reader.close();
+		}
+		return new ModuleConfigurationIndex(moduleEntries);
+	}
+
+	/**
+	 * Returns the resources of the module with the given name.
+	 * @param moduleName the module name
+	 * @return the module resources (VFS paths), an empty list if the module is not configured
+	 */
+	List<String> getModuleResources(String moduleName) {
+		ModuleEntry entry = moduleEntries.get(moduleName);
+		return entry == null ? new ArrayList<String>() : new ArrayList<String>(entry.resources);
+	}
+
+	/**
+	 * Returns the export points of the module with the given name.
+	 * @param moduleName the module name
+	 * @return the export points, an empty list if the module is not configured
+	 */
+	List<OpenCmsModuleExportPoint> getExportPoints(String moduleName) {
+		ModuleEntry entry = moduleEntries.get(moduleName);
+		return entry == null ? new ArrayList<OpenCmsModuleExportPoint>() : new ArrayList<OpenCmsModuleExportPoint>(entry.exportPoints);
+	}
+
+	/**
+	 * Compares this index to a previous one and returns the names of the modules whose resources or export points
+	 * differ, including modules that were added or removed.
+	 * @param previous the previous index
+	 * @return the names of the changed modules, an empty set if nothing changed
+	 */
+	Set<String> getChangedModuleNames(ModuleConfigurationIndex previous) {
+		Set<String> changedModuleNames = new HashSet<String>();
+		for (Map.Entry<String, ModuleEntry> moduleEntry : moduleEntries.entrySet()) {
+			if (!moduleEntry.getValue().equals(previous.moduleEntries.get(moduleEntry.getKey()))) {
+				changedModuleNames.add(moduleEntry.getKey());
+			}
+		}
+		for (String moduleName : previous.moduleEntries.keySet()) {
+			if (!moduleEntries.containsKey(moduleName)) {
+				changedModuleNames.add(moduleName);
+			}
+		}
+		return changedModuleNames;
+	}
+
+	/**
+	 * @return the number of modules contained in the index
+	 */
+	int size() {
+		return moduleEntries.size();
+	}
+
+	/**
+	 * Strips leading and trailing whitespace and replaces sequences of whitespace by a single space, like the
+	 * XPath function <code>normalize-space</code>.
+	 */
+	private static String normalizeSpace(String text) {
+		StringBuilder normalized = new StringBuilder(text.length());
+		boolean pendingSpace = false;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+				pendingSpace = normalized.length() > 0;
+			}
+			else {
+				if (pendingSpace) {
+					normalized.append(' ');
+					pendingSpace = false;
+				}
+				normalized.append(c);
+			}
+		}
+		return normalized.toString();
+	}
+
+	private static class ModuleEntry {
+
+		private final List<String> resources;
+		private final List<OpenCmsModuleExportPoint> exportPoints;
+
+		private ModuleEntry(List<String> resources, List<OpenCmsModuleExportPoint> exportPoints) {
+			this.resources = resources;
+			this.exportPoints = exportPoints;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof ModuleEntry)) {
+				return false;
+			}
+			ModuleEntry other = (ModuleEntry)o;
+			return resources.equals(other.resources) && exportPoints.equals(other.exportPoints);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * resources.hashCode() + exportPoints.hashCode();
+		}
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.opencms;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable index of the OpenCms modules by base path, used to find the module containing a local path. The module
+ * base paths are stored in a trie of path segments, a lookup walks down the trie segment by segment and returns the
+ * module with the longest base path that is a prefix of the given path. Segments are compared in place, so lookups
+ * don't allocate any objects and don't access the file system.<br />
+ * <br />
+ * Both "/" and "\" are treated as separators and empty segments are skipped, so Windows paths and paths with or
+ * without trailing slashes are matched. Matching is done on whole segments only, so the module
+ * <code>a.b.c</code> does not match the path <code>a.b.c.d/src/main/vfs/example.txt</code>.
+ */
+class ModulePathIndex {
+
+	private final Node root;
+
+	/**
+	 * Creates a new index
+	 * @param modulesByBasePath map containing the module base paths as keys and the corresponding modules as values
+	 */
+	ModulePathIndex(Map<String, OpenCmsModule> modulesByBasePath) {
+		BuildNode buildRoot = new BuildNode();
+		for (Map.Entry<String, OpenCmsModule> entry : modulesByBasePath.entrySet()) {
+			String basePath = entry.getKey();
+			BuildNode node = buildRoot;
+			int pos = 0;
+			int length = basePath.length();
+			while (pos < length) {
+				int end = nextSeparator(basePath, pos);
+				if (end > pos) {
+					String segment = basePath.substring(pos, end);
+					BuildNode child = node.children.get(segment);
+					if (child == null) {
+						child = new BuildNode();
+						node.children.put(segment, child);
+					}
+					node = child;
+				}
+				pos = end + 1;
+			}
+			node.module = entry.getValue();
+		}
+		root = buildRoot.toNode(null);
+	}
+
+	/**
+	 * Finds the module containing the given path
+	 * @param path any local path (may contain back slashes)
+	 * @return the module with the longest base path containing the path, <code>null</code> if the path is not
+	 *         contained in any module
+	 */
+	OpenCmsModule find(String path) {
+		Node node = root;
+		OpenCmsModule module = node.module;
+		int pos = 0;
+		int length = path.length();
+		while (pos < length) {
+			int end = nextSeparator(path, pos);
+			if (end > pos) {
+				node = node.findChild(path, pos, end);
+				if (node == null) {
+					break;
+				}
+				if (node.module != null) {
+					module = node.module;
+				}
+			}
+			pos = end + 1;
+		}
+		return module;
+	}
+
+	private static int nextSeparator(String path, int start) {
+		int length = path.length();
+		for (int i = start; i < length; i++) {
+			char c = path.charAt(i);
+			if (c == '/' || c == '\\') {
+				return i;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * A trie node, the children are sorted by segment so they can be found using binary search
+	 */
+	private static class Node {
+		private final String segment;
+		private final OpenCmsModule module;
+		private final Node[] children;
+
+		private Node(String segment, OpenCmsModule module, Node[] children) {
+			this.segment = segment;
+			this.module = module;
+			this.children = children;
+		}
+
+		/**
+		 * Finds the child node for the path segment between start (inclusive) and end (exclusive)
+		 */
+		private Node findChild(String path, int start, int end) {
+			int low = 0;
+			int high = children.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				int cmp = compareSegment(children[mid].segment, path, start, end);
+				if (cmp < 0) {
+					low = mid + 1;
+				}
+				else if (cmp > 0) {
+					high = mid - 1;
+				}
+				else {
+					return children[mid];
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Compares a segment to a region of a path, using the same order as {@link String#compareTo(String)}
+		 */
+		private static int compareSegment(String segment, String path, int start, int end) {
+			int segmentLength = segment.length();
+			int regionLength = end - start;
+			int minLength = Math.min(segmentLength, regionLength);
+			for (int i = 0; i < minLength; i++) {
+				char c1 = segment.charAt(i);
+				char c2 = path.charAt(start + i);
+				if (c1 != c2) {
+					return c1 - c2;
+				}
+			}
+			return segmentLength - regionLength;
+		}
+	}
+
+	/**
+	 * Mutable node used while building the trie
+	 */
+	private static class BuildNode {
+		private final TreeMap<String, BuildNode> children = new TreeMap<String, BuildNode>();
+		private OpenCmsModule module;
+
+		private Node toNode(String segment) {
+			Node[] childNodes = new Node[children.size()];
+			int i = 0;
+			for (Map.Entry<String, BuildNode> child : children.entrySet()) {
+				childNodes[i++] = child.getValue().toNode(child.getKey());
+			}
+			return new Node(segment, module, childNodes);
+		}
+	}
+}
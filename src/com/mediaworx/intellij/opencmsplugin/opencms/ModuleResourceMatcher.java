@@ -0,0 +1,101 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.opencms;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable matcher checking if local paths are contained in one of a module's resource paths. The local resource
+ * roots (local VFS root + module resource path) are computed once. Roots contained in other roots are dropped, so
+ * that the remaining roots are prefix free: the only candidate root for a path is the greatest root less than or
+ * equal to the path, which is found with a single lookup in a sorted map.<br />
+ * <br />
+ * Matching is done like {@link OpenCmsModule#isPathModuleResource(String)} always did: a path belongs to a module
+ * resource if it starts with the local resource root, or if the path plus a trailing slash equals the local root
+ * (i.e. the path is the module resource folder itself).
+ */
+class ModuleResourceMatcher {
+
+	/** local resource roots (sorted, prefix free) mapped to the module resource paths */
+	private final TreeMap<String, String> rootsToResources = new TreeMap<String, String>();
+
+	/** local paths of resource folders without trailing slash mapped to the module resource paths */
+	private final Map<String, String> folderPathsToResources = new HashMap<String, String>();
+
+	/**
+	 * Creates a matcher for the given module resources
+	 * @param localVfsRoot    the module's local VFS root (absolute local path, unix separators)
+	 * @param moduleResources the module resource paths (relative to the VFS root)
+	 */
+	ModuleResourceMatcher(String localVfsRoot, List<String> moduleResources) {
+		if (moduleResources == null) {
+			return;
+		}
+		TreeMap<String, String> allRoots = new TreeMap<String, String>();
+		for (String moduleResource : moduleResources) {
+			String localRoot = localVfsRoot + moduleResource;
+			if (!allRoots.containsKey(localRoot)) {
+				allRoots.put(localRoot, moduleResource);
+			}
+		}
+		String lastRoot = null;
+		for (Map.Entry<String, String> entry : allRoots.entrySet()) {
+			// all roots starting with a root come right after it in sort order
+			if (lastRoot != null && entry.getKey().startsWith(lastRoot)) {
+				continue;
+			}
+			lastRoot = entry.getKey();
+			rootsToResources.put(lastRoot, entry.getValue());
+		}
+		for (Map.Entry<String, String> entry : allRoots.entrySet()) {
+			String localRoot = entry.getKey();
+			if (localRoot.endsWith("/") && localRoot.length() > 1) {
+				String folderPath = localRoot.substring(0, localRoot.length() - 1);
+				if (!folderPathsToResources.containsKey(folderPath)) {
+					folderPathsToResources.put(folderPath, entry.getValue());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the module resource containing the given path. If module resources are nested, the outermost resource is
+	 * returned.
+	 * @param path the local path to check (unix separators)
+	 * @return the module resource path (relative to the VFS root) containing the path, <code>null</code> if the path
+	 *         is not contained in any of the module resources
+	 */
+	String getModuleResourceForPath(String path) {
+		Map.Entry<String, String> candidate = rootsToResources.floorEntry(path);
+		if (candidate != null && path.startsWith(candidate.getKey())) {
+			return candidate.getValue();
+		}
+		return folderPathsToResources.get(path);
+	}
+}
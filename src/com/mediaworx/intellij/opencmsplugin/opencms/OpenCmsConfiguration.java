@@ -25,23 +25,18 @@
 package com.mediaworx.intellij.opencmsplugin.opencms;
 
 import com.intellij.openapi.diagnostic.Logger;
+import com.mediaworx.intellij.opencmsplugin.OpenCmsPluginExecutor;
 import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsPluginConfigurationData;
-import com.mediaworx.xmlutils.XmlHelper;
-import org.apache.commons.io.monitor.FileAlterationListener;
-import org.apache.commons.io.monitor.FileAlterationMonitor;
-import org.apache.commons.io.monitor.FileAlterationObserver;
-import org.w3c.dom.Document;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Parser for OpenCms XML configuration files, right now only handles the module configuration file
- * <code>/WEB-INF/config/opencms-modules.xml</code>. Used to extract export points and module resources. Also provides
+ * <code>/WEB-INF/config/opencms-modules.xml</code>. Used to extract export points and module resources, the module
+ * configuration is read in a single pass into an index (see {@link ModuleConfigurationIndex}). Also provides
  * Notifications if the module configuration file is changed. Listener for module configuration changes can register
  * using {@link #registerConfigurationChangeListener(com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsConfiguration.ConfigurationChangeListener)}.
  * Listeners must implement the Interface {@link ConfigurationChangeListener} that is also contained in this class.
@@ -54,16 +49,20 @@ public class OpenCmsConfiguration {
 	public static final String CONFIGPATH = "/WEB-INF/config/";
 
 	private static final String MODULECONFIGFILE = "opencms-modules.xml";
-	private static final String EXPORTPOINT_XPATH = "/opencms/modules/module/name[normalize-space(text())=\"%s\"]/../exportpoints/exportpoint";
-	private static final String MODULE_RESOURCE_XPATH = "/opencms/modules/module/name[normalize-space(text())=\"%s\"]/../resources/resource";
+
+	/** delay in milliseconds after the last change of the module configuration before it is parsed again */
+	private static final long CONFIGURATION_CHANGE_DEBOUNCE_DELAY = 500;
+
+	/** interval in milliseconds used to check the module configuration if it can't be watched */
+	private static final long CONFIGURATION_POLLING_INTERVAL = 5000;
 
 	private OpenCmsPluginConfigurationData config;
-	private XmlHelper xmlHelper;
 	private File moduleConfigurationFile;
-	private FileAlterationMonitor configurationChangeMonitor;
-	private List<ConfigurationChangeListener> configurationChageListeners = new ArrayList<ConfigurationChangeListener>();
+	private ConfigurationFileWatcher configurationChangeWatcher;
+	private List<ConfigurationChangeListener> configurationChageListeners = new CopyOnWriteArrayList<ConfigurationChangeListener>();
 
-	private Document parsedModuleConfigurationFile;
+	/** module resources and export points by module name, <code>null</code> if the configuration wasn't parsed yet */
+	private volatile ModuleConfigurationIndex moduleConfigurationIndex;
 
 	/**
 	 * enumeration for configuration changes, containing only MODULECONFIGURATION right now, may be extended as needed
@@ -74,27 +73,23 @@ public class OpenCmsConfiguration {
 	}
 
 	/**
-	 * Creates a new OpenCmsConfiguration instance, prepares the XML helper for parsing configuration files, starts
-	 * a FileAlterationObserver used to handle changes to configuration files.
-	 * @param config the project level plugin configuration data
+	 * Creates a new OpenCmsConfiguration instance, parses the module configuration and prepares the
+	 * {@link ConfigurationFileWatcher} used to handle changes to the module configuration file.
+	 * @param config   the project level plugin configuration data
+	 * @param executor the plugin executor, used by the configuration change watcher
 	 */
-	public OpenCmsConfiguration(OpenCmsPluginConfigurationData config) {
+	public OpenCmsConfiguration(OpenCmsPluginConfigurationData config, OpenCmsPluginExecutor executor) {
 		this.config = config;
 
-		File configurationFolder = new File(config.getWebappRoot() + CONFIGPATH);
 		this.moduleConfigurationFile = new File(config.getWebappRoot() + CONFIGPATH + MODULECONFIGFILE);
 
-		// Create an Observer for configuration changes
-		FileAlterationObserver configurationChangeObserver = new FileAlterationObserver(configurationFolder);
-		configurationChangeObserver.addListener(new ConfigurationAlterationListener());
-		configurationChangeMonitor = new FileAlterationMonitor(5000, configurationChangeObserver);
-
-		try {
-			xmlHelper = new XmlHelper();
-		}
-		catch (Exception e) {
-			LOG.warn("Exception during initialization of the module configuration: " + e);
-		}
+		// Create a watcher for configuration changes
+		configurationChangeWatcher = new ConfigurationFileWatcher(moduleConfigurationFile, CONFIGURATION_CHANGE_DEBOUNCE_DELAY, CONFIGURATION_POLLING_INTERVAL, new Runnable() {
+			@Override
+			public void run() {
+				handleModuleConfigurationChange();
+			}
+		}, executor);
 
 		parseConfiguration();
 	}
@@ -104,7 +99,10 @@ public class OpenCmsConfiguration {
 	private void parseConfiguration() {
 		if (config.getWebappRoot() != null) {
 			try {
-				parsedModuleConfigurationFile = xmlHelper.parseFile(moduleConfigurationFile, null);
+				long start = System.currentTimeMillis();
+				ModuleConfigurationIndex index = ModuleConfigurationIndex.parse(moduleConfigurationFile);
+				LOG.info("Parsed the module configuration (" + index.size() + " modules) in " + (System.currentTimeMillis() - start) + " ms");
+				moduleConfigurationIndex = index;
 			}
 			catch (Exception e) {
 				LOG.warn("Exception parsing the module configuration ", e);
@@ -113,98 +111,94 @@ public class OpenCmsConfiguration {
 	}
 
 	/**
-	 * Starts the configuration change monitor that is used to observe configuration file changes and to notify
+	 * Starts the configuration change watcher that is used to observe configuration file changes and to notify
 	 * listeners after such changes occurred
 	 * @see #stopMonitoringConfigurationChanges()
 	 */
 	public void startMonitoringConfigurationChanges() {
-		try {
-			LOG.info("Starting OpenCms configuration change monitor");
-			configurationChangeMonitor.start();
-		}
-		catch (Exception e) {
-			LOG.warn("There was an error starting the OpenCms configuration change monitor", e);
+		if (config.getWebappRoot() == null) {
+			return;
 		}
+		LOG.info("Starting OpenCms configuration change watcher");
+		configurationChangeWatcher.start();
 	}
 
 	/**
-	 * Stops the configuration change monitor
+	 * Stops the configuration change watcher
 	 * @see #startMonitoringConfigurationChanges()
 	 */
 	public void stopMonitoringConfigurationChanges() {
-		try {
-			configurationChangeMonitor.stop();
+		configurationChangeWatcher.stop();
+	}
+
+	/**
+	 * Handles changes to the module configuration file, called by the configuration change watcher (not on the
+	 * event dispatch thread). Parses the changed configuration file, determines the modules whose resources or
+	 * export points have changed and calls <code>handleOpenCmsConfigurationChange</code> on all registered
+	 * listeners if there are any.
+	 */
+	private void handleModuleConfigurationChange() {
+		ModuleConfigurationIndex previousIndex = getModuleConfigurationIndex();
+		parseConfiguration();
+		ModuleConfigurationIndex index = getModuleConfigurationIndex();
+		if (index == previousIndex) {
+			// the changed configuration could not be parsed, the previous configuration is kept
+			return;
 		}
-		catch (Exception e) {
-			LOG.info("There was an error stopping the OpenCms configuration change monitor");
+
+		Set<String> changedModuleNames = index.getChangedModuleNames(previousIndex);
+		if (changedModuleNames.isEmpty()) {
+			LOG.info("The OpenCms module configuration has been changed, but no module resources or export points changed");
+			return;
+		}
+		LOG.info("The OpenCms module configuration has been changed, refreshing modules " + changedModuleNames);
+
+		// notify the listeners that the module configuration was changed
+		for (ConfigurationChangeListener listener : configurationChageListeners) {
+			listener.handleOpenCmsConfigurationChange(ConfigurationChangeType.MODULECONFIGURATION, changedModuleNames);
 		}
 	}
 
 	/**
-	 * Internal method, parses the module configuration XML file and returns the resulting Document
-	 * @return the parsed module configuration XML file as a Document
+	 * Internal method, returns the index of the module configuration, the module configuration is parsed if that
+	 * wasn't done before
+	 * @return the index of the module configuration, empty if the module configuration could not be parsed
 	 */
-	private Document getParsedModuleConfigurationFile() {
-		if (parsedModuleConfigurationFile == null) {
+	private ModuleConfigurationIndex getModuleConfigurationIndex() {
+		ModuleConfigurationIndex index = moduleConfigurationIndex;
+		if (index == null) {
 			parseConfiguration();
+			index = moduleConfigurationIndex;
 		}
-		return parsedModuleConfigurationFile;
+		return index != null ? index : ModuleConfigurationIndex.EMPTY;
 	}
 
 	/**
-	 * Reads the export points from the module configuration
+	 * Returns the export points from the module configuration
 	 * @param moduleName    the module whose export points should be returned
 	 * @return  A List of export points for the given module
 	 */
 	public List<OpenCmsModuleExportPoint> getExportPointsForModule(String moduleName) {
-		List<OpenCmsModuleExportPoint> exportPoints = new ArrayList<OpenCmsModuleExportPoint>();
-		Document configDocument = getParsedModuleConfigurationFile();
-		if (configDocument != null) {
-			try {
-				String exportPointXPath = String.format(EXPORTPOINT_XPATH, moduleName);
-				NodeList nl = xmlHelper.getNodeListForXPath(configDocument, exportPointXPath);
-				int numExportPoints = nl.getLength();
-
-				for (int i = 0; i < numExportPoints; i++) {
-					Node n = nl.item(i);
-					NamedNodeMap attr = n.getAttributes();
-					String uri = attr.getNamedItem("uri").getNodeValue();
-					String destination = attr.getNamedItem("destination").getNodeValue();
-					LOG.info("Exportpoint " + (i + 1) + ": uri=" + uri + " - destination=" + destination);
-					exportPoints.add(new OpenCmsModuleExportPoint(uri, destination));
-				}
-			}
-			catch (Exception e) {
-				LOG.warn("There was an Exception initializing export points for module " + moduleName, e);
+		List<OpenCmsModuleExportPoint> exportPoints = getModuleConfigurationIndex().getExportPoints(moduleName);
+		if (LOG.isDebugEnabled()) {
+			for (int i = 0; i < exportPoints.size(); i++) {
+				OpenCmsModuleExportPoint exportPoint = exportPoints.get(i);
+				LOG.debug("Exportpoint " + (i + 1) + ": uri=" + exportPoint.getVfsSource() + " - destination=" + exportPoint.getRfsTarget());
 			}
 		}
 		return exportPoints;
 	}
 
 	/**
-	 * Reads the module resource from the module configuration
+	 * Returns the module resource from the module configuration
 	 * @param moduleName    the module whose resources should be returned
 	 * @return A List of module resources for the given module
 	 */
 	public List<String> getModuleResourcesForModule(String moduleName) {
-		List<String> moduleResources = new ArrayList<String>();
-		Document configDocument = getParsedModuleConfigurationFile();
-
-		if (configDocument != null) {
-			try {
-				NodeList nl = xmlHelper.getNodeListForXPath(configDocument, String.format(MODULE_RESOURCE_XPATH, moduleName));
-				int numResources = nl.getLength();
-
-				for (int i = 0; i < numResources; i++) {
-					Node n = nl.item(i);
-					NamedNodeMap attr = n.getAttributes();
-					String uri = attr.getNamedItem("uri").getNodeValue();
-					LOG.info("Module Resource " + (i + 1) + ": uri=" + uri);
-					moduleResources.add(uri);
-				}
-			}
-			catch (Exception e) {
-				LOG.warn("There was an Exception initializing export points for module " + moduleName, e);
+		List<String> moduleResources = getModuleConfigurationIndex().getModuleResources(moduleName);
+		if (LOG.isDebugEnabled()) {
+			for (int i = 0; i < moduleResources.size(); i++) {
+				LOG.debug("Module Resource " + (i + 1) + ": uri=" + moduleResources.get(i));
 			}
 		}
 		return moduleResources;
@@ -220,79 +214,6 @@ public class OpenCmsConfiguration {
 		configurationChageListeners.add(listener);
 	}
 
-	/**
-	 * The internal FileAlterationListener handling file changes of OpenCms configuration files
-	 */
-	private class ConfigurationAlterationListener implements FileAlterationListener {
-
-		/** does nothing */
-		@Override
-		public void onStart(FileAlterationObserver fileAlterationObserver) {
-			// LOG.debug("Checking for OpenCms configuration changes");
-		}
-
-		/** does nothing */
-		@Override
-		public void onDirectoryCreate(File file) {
-			// Do nothing
-		}
-
-		/** does nothing */
-		@Override
-		public void onDirectoryChange(File file) {
-			// Do nothing
-		}
-
-		/** does nothing */
-		@Override
-		public void onDirectoryDelete(File file) {
-			// Do nothing
-		}
-
-		/** does nothing */
-		@Override
-		public void onFileCreate(File file) {
-			// Do nothing
-		}
-
-		/**
-		 * Handles changes to OpenCms configuration files (right now only changes to the module configuration are
-		 * handled). Parses the changed configuration file and calls <code>handleOpenCmsConfigurationChange</code> on
-		 * all registered listeners.
-		 * @param file  the changed file
-		 */
-		@Override
-		public void onFileChange(File file) {
-			// ignore changes in the configuration backup directory
-			if (file.getPath().contains(File.pathSeparator + "backup")) {
-				return;
-			}
-
-			// if the module configuration was changed ...
-			if (file.getName().equals(MODULECONFIGFILE)) {
-				LOG.info("The OpenCms module configuration has been changed, refreshing modules");
-				parseConfiguration();
-
-				// notify the listeners that the module configuration was changed
-				for (ConfigurationChangeListener listener : configurationChageListeners) {
-					listener.handleOpenCmsConfigurationChange(ConfigurationChangeType.MODULECONFIGURATION);
-				}
-			}
-		}
-
-		/** does nothing */
-		@Override
-		public void onFileDelete(File file) {
-			// Do nothing
-		}
-
-		/** does nothing */
-		@Override
-		public void onStop(FileAlterationObserver fileAlterationObserver) {
-			// LOG.debug("Checking for OpenCms configuration changes finished");
-		}
-	}
-
 	/**
 	 * Interface to be implemented by classes registering as listener for configuration changes
 	 */
@@ -302,7 +223,8 @@ public class OpenCmsConfiguration {
 		 * Method that is called whenever an OpenCms configuration file is changed (right now only changes to the
 		 * module configuration are handled).
 		 * @param changeType    the type of the changed OpenCms configuration (right now only MODULECONFIGURATION)
+		 * @param changedModuleNames names of the modules whose resources or export points have changed
 		 */
-		public void handleOpenCmsConfigurationChange(ConfigurationChangeType changeType);
+		public void handleOpenCmsConfigurationChange(ConfigurationChangeType changeType, Set<String> changedModuleNames);
 	}
 }
@@ -32,8 +32,6 @@ import com.mediaworx.intellij.opencmsplugin.tools.PluginTools;
 import com.mediaworx.intellij.opencmsplugin.tools.VfsFileAnalyzer;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.Collection;
@@ -43,21 +41,23 @@ import java.util.regex.Pattern;
 /**
  * Represents an OpenCms module with all its configured properties like resource paths and export points.
  */
-public class OpenCmsModule implements OpenCmsConfiguration.ConfigurationChangeListener {
-
-	private static final Logger LOG = LoggerFactory.getLogger(OpenCmsModule.class);
+public class OpenCmsModule {
 
 	private OpenCmsPlugin plugin;
 	private String moduleBasePath;
-	private OpenCmsConfiguration openCmsConfig;
 	private OpenCmsPluginConfigurationData pluginConfig;
 	private OpenCmsModuleConfigurationData moduleConfig;
 	private String moduleName;
 
-	private List<OpenCmsModuleExportPoint> exportPoints;
-	private List<String> moduleResources;
 	private String localVfsRoot;
 
+	/**
+	 * The module's resources and export points from the OpenCms module configuration, replaced as a whole after
+	 * configuration changes, so readers never see the resources of one configuration and the export points or
+	 * resource matcher of another
+	 */
+	private volatile ModuleVfsConfiguration vfsConfiguration;
+
 	/**
 	 * Creates a new OpenCms module
 	 * @param plugin            the current plugin instance
@@ -68,8 +68,6 @@ public class OpenCmsModule implements OpenCmsConfiguration.ConfigurationChangeLi
 		this.moduleBasePath = moduleBasePath;
 
 		pluginConfig = plugin.getPluginConfiguration();
-		openCmsConfig = plugin.getOpenCmsConfiguration();
-		openCmsConfig.registerConfigurationChangeListener(this);
 	}
 
 	/**
@@ -93,9 +91,6 @@ public class OpenCmsModule implements OpenCmsConfiguration.ConfigurationChangeLi
 			moduleName = moduleConfig.getModuleName();
 		}
 
-		exportPoints = openCmsConfig.getExportPointsForModule(moduleName);
-		moduleResources = openCmsConfig.getModuleResourcesForModule(moduleName);
-
 		String relativeVfsRoot;
 
 		if (moduleConfig.isUseProjectDefaultVfsRootEnabled()) {
@@ -105,6 +100,28 @@ public class OpenCmsModule implements OpenCmsConfiguration.ConfigurationChangeLi
 			relativeVfsRoot = moduleConfig.getLocalVfsRoot();
 		}
 		localVfsRoot = this.moduleBasePath + "/" + relativeVfsRoot;
+		setVfsConfiguration(readVfsConfiguration());
+	}
+
+	/**
+	 * Reads the module's resources and export points from the OpenCms module configuration without applying them.
+	 * Used by {@link OpenCmsModules} to prepare the new configuration of all changed modules before publishing them
+	 * in one step (see {@link #setVfsConfiguration(ModuleVfsConfiguration)}).
+	 * @return the module's current VFS configuration
+	 */
+	ModuleVfsConfiguration readVfsConfiguration() {
+		OpenCmsConfiguration openCmsConfig = plugin.getOpenCmsConfiguration();
+		List<OpenCmsModuleExportPoint> exportPoints = openCmsConfig.getExportPointsForModule(moduleName);
+		List<String> moduleResources = openCmsConfig.getModuleResourcesForModule(moduleName);
+		return new ModuleVfsConfiguration(exportPoints, moduleResources, new ModuleResourceMatcher(localVfsRoot, moduleResources));
+	}
+
+	/**
+	 * Replaces the module's resources and export points
+	 * @param vfsConfiguration the configuration read by {@link #readVfsConfiguration()}
+	 */
+	void setVfsConfiguration(ModuleVfsConfiguration vfsConfiguration) {
+		this.vfsConfiguration = vfsConfiguration;
 	}
 
 	/**
@@ -192,14 +209,14 @@ public class OpenCmsModule implements OpenCmsConfiguration.ConfigurationChangeLi
 	 * @return a list of export points configured for this module
 	 */
 	public List<OpenCmsModuleExportPoint> getExportPoints() {
-		return exportPoints;
+		return vfsConfiguration.exportPoints;
 	}
 
 	/**
 	 * @return list of the module resource paths configured for this module (relative to VFS root)
 	 */
 	public List<String> getModuleResources() {
-		return moduleResources;
+		return vfsConfiguration.moduleResources;
 	}
 
 	/**
@@ -220,19 +237,19 @@ public class OpenCmsModule implements OpenCmsConfiguration.ConfigurationChangeLi
 	 * <code>false</code> otherwise
 	 */
 	public boolean isPathModuleResource(String resourcePath) {
-		resourcePath = PluginTools.ensureUnixPath(resourcePath);
-		for (String moduleResourcePath : getModuleResources()) {
-			String localModuleResourcePath = getLocalVfsRoot() + moduleResourcePath;
-			if ((resourcePath + "/").endsWith(localModuleResourcePath)) {
-				resourcePath = resourcePath + "/";
-			}
-			LOG.info("localModuleResourcePath: " + localModuleResourcePath);
-			LOG.info("resourcePath:     " + resourcePath);
-			if (resourcePath.startsWith(localModuleResourcePath)) {
-				return true;
-			}
-		}
-		return false;
+		return getModuleResourceForPath(resourcePath) != null;
+	}
+
+	/**
+	 * Finds the module resource path containing the given path. If module resources are nested, the outermost
+	 * module resource is returned.
+	 *
+	 * @param resourcePath the local path to check
+	 * @return the module resource path (relative to the VFS root, as configured for the module) containing the given
+	 * path, <code>null</code> if the path is not contained in any of the module's resource paths
+	 */
+	public String getModuleResourceForPath(String resourcePath) {
+		return vfsConfiguration.moduleResourceMatcher.getModuleResourceForPath(PluginTools.ensureUnixPath(resourcePath));
 	}
 
 	/**
@@ -299,6 +316,16 @@ public class OpenCmsModule implements OpenCmsConfiguration.ConfigurationChangeLi
 		return getVfsPathForRealPath(filepath);
 	}
 
+	/**
+	 * Creates a {@link VfsPath} for the given VFS path, caching the path's derived forms (RFS path, meta info path
+	 * etc.) based on this module's current configuration.
+	 * @param vfsPath a VFS path (including the module's site root, if any)
+	 * @return the VfsPath for the given VFS path
+	 */
+	public VfsPath createVfsPath(String vfsPath) {
+		return new VfsPath(this, vfsPath);
+	}
+
 	/**
 	 * @param path a local root path
 	 * @return the VFS relative path for the given local path
@@ -333,14 +360,18 @@ public class OpenCmsModule implements OpenCmsConfiguration.ConfigurationChangeLi
 
 
 	/**
-	 * handles changes to the module configuration, refreshes export points and module resources
-	 * @param changeType    the type of the changed OpenCms configuration (right now only MODULECONFIGURATION)
+	 * Holder for the module's resources and export points read from the OpenCms module configuration
 	 */
-	@Override
-	public void handleOpenCmsConfigurationChange(OpenCmsConfiguration.ConfigurationChangeType changeType) {
-		if (changeType == OpenCmsConfiguration.ConfigurationChangeType.MODULECONFIGURATION) {
-			exportPoints = openCmsConfig.getExportPointsForModule(moduleName);
-			moduleResources = openCmsConfig.getModuleResourcesForModule(moduleName);
+	static class ModuleVfsConfiguration {
+
+		private final List<OpenCmsModuleExportPoint> exportPoints;
+		private final List<String> moduleResources;
+		private final ModuleResourceMatcher moduleResourceMatcher;
+
+		private ModuleVfsConfiguration(List<OpenCmsModuleExportPoint> exportPoints, List<String> moduleResources, ModuleResourceMatcher moduleResourceMatcher) {
+			this.exportPoints = exportPoints;
+			this.moduleResources = moduleResources;
+			this.moduleResourceMatcher = moduleResourceMatcher;
 		}
 	}
 
@@ -70,4 +70,21 @@ public class OpenCmsModuleExportPoint {
 		}
 		return rfsTarget + resourcePath.substring(vfsSource.length());
 	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof OpenCmsModuleExportPoint)) {
+			return false;
+		}
+		OpenCmsModuleExportPoint other = (OpenCmsModuleExportPoint)o;
+		return vfsSource.equals(other.vfsSource) && rfsTarget.equals(other.rfsTarget);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * vfsSource.hashCode() + rfsTarget.hashCode();
+	}
 }
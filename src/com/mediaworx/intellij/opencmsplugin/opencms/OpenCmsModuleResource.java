@@ -33,6 +33,7 @@ public class OpenCmsModuleResource {
 
 	private OpenCmsModule openCmsModule;
 	private String resourcePath;
+	private String vfsResourcePath;
 
 	/**
 	 * @param openCmsModule the OpenCms module this resource belongs to
@@ -54,8 +55,14 @@ public class OpenCmsModuleResource {
 	 * @return the resource path (VFS relative path)
 	 */
 	public String getResourcePath() {
-		String resourcePath = this.resourcePath.replaceFirst("/$", ""); // strip trailing slash
-		return PluginTools.addVfsSiteRootToLocalPath(openCmsModule, resourcePath);
+		if (vfsResourcePath == null) {
+			String resourcePath = this.resourcePath;
+			if (resourcePath.endsWith("/")) {
+				resourcePath = resourcePath.substring(0, resourcePath.length() - 1); // strip trailing slash
+			}
+			vfsResourcePath = PluginTools.addVfsSiteRootToLocalPath(openCmsModule, resourcePath);
+		}
+		return vfsResourcePath;
 	}
 
 }
@@ -36,14 +36,27 @@ import java.util.*;
 /**
  * Module repository for the currently open project. All OpenCms modules are registered here.
  */
-public class OpenCmsModules {
+public class OpenCmsModules implements OpenCmsConfiguration.ConfigurationChangeListener {
 
 	private static final Logger LOG = Logger.getInstance(OpenCmsModules.class);
 
 	OpenCmsPlugin plugin;
-	List<OpenCmsModuleExportPoint> allExportPoints;
+	volatile List<OpenCmsModuleExportPoint> allExportPoints;
 
-	private Map<String, OpenCmsModule> openCmsModuleMap = new LinkedHashMap<String, OpenCmsModule>();
+	/** Index of all export points, built on demand and dropped whenever export points may have changed */
+	private volatile ExportPointIndex exportPointIndex;
+
+	/**
+	 * Modules by base path. The map is never modified once published, registering or unregistering a module
+	 * replaces it with a modified copy (under the lock), so it can be read from any thread without locking.
+	 */
+	private volatile Map<String, OpenCmsModule> openCmsModuleMap = Collections.emptyMap();
+
+	/** Index used to find the module for a path, rebuilt whenever a module is registered or unregistered */
+	private volatile ModulePathIndex modulePathIndex = new ModulePathIndex(openCmsModuleMap);
+
+	/** Incremented whenever modules or their configuration change, see {@link #getVersion()} */
+	private volatile int version;
 
 	/**
 	 * Creates a new OpenCmsModules repository
@@ -58,10 +71,9 @@ public class OpenCmsModules {
 	 * @param moduleBasePath the module's base path
 	 * @param moduleConfig   the configuration data from the module's configuration dialog
 	 */
-	public void registerModule(String moduleBasePath, OpenCmsModuleConfigurationData moduleConfig) {
+	public synchronized void registerModule(String moduleBasePath, OpenCmsModuleConfigurationData moduleConfig) {
 		LOG.info("registering module: " + moduleBasePath);
 		moduleBasePath = PluginTools.ensureUnixPath(moduleBasePath);
-		allExportPoints = null;
 		if (!moduleConfig.isOpenCmsModuleEnabled()) {
 			return;
 		}
@@ -73,98 +85,75 @@ public class OpenCmsModules {
 		else {
 			ocmsModule = new OpenCmsModule(plugin, moduleBasePath);
 			ocmsModule.init(moduleConfig);
-			openCmsModuleMap.put(moduleBasePath, ocmsModule);
+			Map<String, OpenCmsModule> moduleMap = new LinkedHashMap<String, OpenCmsModule>(openCmsModuleMap);
+			moduleMap.put(moduleBasePath, ocmsModule);
+			publishModuleMap(moduleMap);
 		}
+		invalidateExportPoints();
 	}
 
 	/**
 	 * removes the OpenCms module linked to the IntelliJ module with the given base path from the repository
 	 * @param moduleBasePath the IntelliJ module's basePath
 	 */
-	public void unregisterModule(String moduleBasePath) {
+	public synchronized void unregisterModule(String moduleBasePath) {
 		LOG.info("unregistering module: " + moduleBasePath);
-		allExportPoints = null;
-		openCmsModuleMap.remove(moduleBasePath);
+		if (openCmsModuleMap.containsKey(moduleBasePath)) {
+			Map<String, OpenCmsModule> moduleMap = new LinkedHashMap<String, OpenCmsModule>(openCmsModuleMap);
+			moduleMap.remove(moduleBasePath);
+			publishModuleMap(moduleMap);
+		}
+		invalidateExportPoints();
 	}
 
 	/**
-	 * @return a Collection of all modules in the repository
+	 * Publishes a new module map and the matching path index. Must be called while holding the lock.
+	 * @param moduleMap the new module map, must not be modified afterwards
+	 */
+	private void publishModuleMap(Map<String, OpenCmsModule> moduleMap) {
+		modulePathIndex = new ModulePathIndex(moduleMap);
+		openCmsModuleMap = Collections.unmodifiableMap(moduleMap);
+	}
+
+	/**
+	 * @return an unmodifiable snapshot of all modules in the repository, modules registered or unregistered later
+	 *         are not reflected
 	 */
 	public Collection<OpenCmsModule> getAllModules() {
 		return openCmsModuleMap.values();
 	}
 
-	/*
-		Compare paths ending with a / to avoid matching on another
-		module that begins with the same prefix.
-		For example, consider this ModuleMap:
-		- a.b.c.a
-		- a.b.c
-		- a.b.c.d
-		Without the / appending, a request for a.b.c.d/src/main/vfs/example.txt
-		would yield the module a.b.c responsible.
-		 */
-
 	/**
-	 * get the module owning a specific File
-	 * @param file
-	 * @return
+	 * get the module owning a specific File. The lookup is done using the module path index, the file system is not
+	 * accessed.
+	 * @param file the file (or folder) to check
+	 * @return the module containing the file, <code>null</code> if the file is not contained in any module
 	 */
 	public OpenCmsModule getModuleForFile(File file) {
 		if (file == null) {
 			return null;
 		}
-		String filePath = PluginTools.ensureUnixPath(file.getPath());
-		if(file.isDirectory() && filePath.substring(filePath.length() - 1) != "/") {
-			filePath = filePath + "/";
-		}
-		LOG.info("getModuleForFile(file="+filePath+")");
-		for (String basePath : openCmsModuleMap.keySet()) {
-			String compareBasePath = basePath;
-			if(compareBasePath.substring(compareBasePath.length() - 1) != "/") {
-				compareBasePath = compareBasePath + "/";
-			}
-			LOG.info("Comparing " + filePath + " against "+compareBasePath);
-			if (filePath.startsWith(compareBasePath)) {
-				LOG.info("Match");
-				return openCmsModuleMap.get(basePath); //use basePath here as the module registration may or may not have been with a trailing /
-			}
-		}
-		LOG.warn("No matching module could be found for " + filePath);
-		return null;
+		return getModuleForPath(file.getPath());
 	}
 
 	/**
+	 * Finds the module containing the given path. If modules are nested, the innermost module is returned. Only
+	 * whole path segments are matched, so for the modules <code>a.b.c</code> and <code>a.b.c.d</code> the path
+	 * <code>a.b.c.d/src/main/vfs/example.txt</code> belongs to <code>a.b.c.d</code>. The lookup is done using the
+	 * module path index, the file system is not accessed, so the path doesn't have to exist (anymore).
 	 * @param path any path inside the module (local root path)
-	 * @return the module containing the path
+	 * @return the module containing the path, <code>null</code> if the path is not contained in any module
 	 */
 	public OpenCmsModule getModuleForPath(String path) {
 		if (path == null) {
 			LOG.error("getModuleForPath called with path = null");
 			return null;
 		}
-		File fsFile = new File(path);
-		if(!fsFile.exists()) {
-			LOG.error("getModuleForPath(" + path + ") called on a non-existent file");
-			return null;
-		}
-		if(fsFile.isDirectory() && path.substring(path.length() - 1) != "/") {
-			path = path + "/";
-		}
-		LOG.info("getModuleForPath(path=" + path + ")");
-		for (String basePath : openCmsModuleMap.keySet()) {
-			String compareBasePath = basePath;
-			if(compareBasePath.substring(compareBasePath.length() - 1) != "/") {
-				compareBasePath = compareBasePath + "/";
-			}
-			LOG.info("Comparing " + path + " against "+compareBasePath);
-			if (path.startsWith(compareBasePath)) {
-				LOG.info("Match");
-				return openCmsModuleMap.get(basePath); //use basePath here as the module registration may or may not have been with a trailing /
-			}
+		OpenCmsModule ocmsModule = modulePathIndex.find(path);
+		if (ocmsModule == null && LOG.isDebugEnabled()) {
+			LOG.debug("No matching module could be found for " + path);
 		}
-		LOG.warn("No matching module could be found for " + path);
-		return null;
+		return ocmsModule;
 	}
 
 	/**
@@ -193,34 +182,116 @@ public class OpenCmsModules {
 
 	/**
 	 * @param resourcePath path pf the resource to check
-	 * @return the export point for the given resource path, <code>null</code> if no export point is configured for
-	 *         the resource
+	 * @return the most specific export point (the one with the longest VFS source path) for the given resource
+	 *         path, <code>null</code> if no export point is configured for the resource
 	 */
 	public OpenCmsModuleExportPoint getExportPointForVfsResource(String resourcePath) {
-		for (OpenCmsModuleExportPoint exportPoint : getAllExportPoints()) {
-			if (resourcePath.startsWith(exportPoint.getVfsSource())) {
-				return exportPoint;
-			}
-		}
-		return null;
+		return getExportPointIndex().find(resourcePath);
+	}
+
+	/**
+	 * Bulk variant of {@link #getExportPointForVfsResource(String)}, e.g. for all entities of a sync
+	 * @param resourcePaths paths of the resources to check
+	 * @return Map containing the resource paths that are inside an export point as keys and their most specific
+	 *         export point as values
+	 */
+	public Map<String, OpenCmsModuleExportPoint> getExportPointsForVfsResources(Collection<String> resourcePaths) {
+		return getExportPointIndex().findAll(resourcePaths);
 	}
 
 	/**
 	 * @return List of all export points defined by all the modules in the repository
 	 */
-	public List<OpenCmsModuleExportPoint> getAllExportPoints() {
-		if (allExportPoints == null) {
-			allExportPoints = new ArrayList<OpenCmsModuleExportPoint>();
+	public synchronized List<OpenCmsModuleExportPoint> getAllExportPoints() {
+		List<OpenCmsModuleExportPoint> exportPointList = allExportPoints;
+		if (exportPointList == null) {
+			exportPointList = new ArrayList<OpenCmsModuleExportPoint>();
 			for (OpenCmsModule ocmsModule : getAllModules()) {
 				List<OpenCmsModuleExportPoint> exportPoints = ocmsModule.getExportPoints();
 				if (exportPoints != null) {
-					for (OpenCmsModuleExportPoint exportPoint : exportPoints) {
-						allExportPoints.add(exportPoint);
-					}
+					exportPointList.addAll(exportPoints);
+				}
+			}
+			allExportPoints = exportPointList;
+		}
+		return exportPointList;
+	}
+
+	private ExportPointIndex getExportPointIndex() {
+		ExportPointIndex index = exportPointIndex;
+		if (index == null) {
+			synchronized (this) {
+				index = exportPointIndex;
+				if (index == null) {
+					index = new ExportPointIndex(getAllExportPoints());
+					exportPointIndex = index;
 				}
 			}
 		}
-		return allExportPoints;
+		return index;
+	}
+
+	/**
+	 * Drops the export point list and index, so they are rebuilt on the next access, and increments the module
+	 * version. Called whenever modules are (un)registered or refreshed and when the OpenCms module configuration
+	 * changes.
+	 */
+	synchronized void invalidateExportPoints() {
+		allExportPoints = null;
+		exportPointIndex = null;
+		version++;
+	}
+
+	/**
+	 * Returns the module version, a counter that is incremented whenever modules are (un)registered or refreshed or
+	 * the OpenCms module configuration changes. Can be used to check if data derived from the modules is still
+	 * valid.
+	 * @return the current module version
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Handles changes to the OpenCms module configuration. Only the modules whose resources or export points have
+	 * changed are refreshed: their new configuration is read first and then published together with dropping the
+	 * export point index and incrementing the version (see {@link #publishVfsConfigurations(Map)}). The module path
+	 * index stays valid, it only depends on the module base paths.
+	 * @param changeType         the type of the changed OpenCms configuration (right now only MODULECONFIGURATION)
+	 * @param changedModuleNames names of the modules whose resources or export points have changed
+	 */
+	@Override
+	public synchronized void handleOpenCmsConfigurationChange(OpenCmsConfiguration.ConfigurationChangeType changeType, Set<String> changedModuleNames) {
+		if (changeType != OpenCmsConfiguration.ConfigurationChangeType.MODULECONFIGURATION) {
+			return;
+		}
+		Map<OpenCmsModule, OpenCmsModule.ModuleVfsConfiguration> vfsConfigurations = new LinkedHashMap<OpenCmsModule, OpenCmsModule.ModuleVfsConfiguration>();
+		for (OpenCmsModule ocmsModule : getAllModules()) {
+			if (changedModuleNames.contains(ocmsModule.getModuleName())) {
+				vfsConfigurations.put(ocmsModule, ocmsModule.readVfsConfiguration());
+			}
+		}
+		if (!vfsConfigurations.isEmpty()) {
+			publishVfsConfigurations(vfsConfigurations);
+		}
+		LOG.info("Refreshed " + vfsConfigurations.size() + " of " + openCmsModuleMap.size() + " modules after an OpenCms module configuration change");
+	}
+
+	/**
+	 * Publishes the new VFS configurations of the given modules, the export point list and index are dropped and
+	 * the version is incremented in the same step. Must be called while holding the lock. The index is dropped
+	 * before the modules are updated, so readers needing the index wait for the lock (see
+	 * {@link #getExportPointIndex()}) instead of combining new module resources with the old index. Data derived
+	 * while the modules are updated is tagged with the old version and thus discarded.
+	 * @param vfsConfigurations the new VFS configurations by module
+	 */
+	private void publishVfsConfigurations(Map<OpenCmsModule, OpenCmsModule.ModuleVfsConfiguration> vfsConfigurations) {
+		allExportPoints = null;
+		exportPointIndex = null;
+		for (Map.Entry<OpenCmsModule, OpenCmsModule.ModuleVfsConfiguration> entry : vfsConfigurations.entrySet()) {
+			entry.getKey().setVfsConfiguration(entry.getValue());
+		}
+		version++;
 	}
 
 	/**
@@ -230,6 +301,6 @@ public class OpenCmsModules {
 		for (OpenCmsModule ocmsModule : getAllModules()) {
 			ocmsModule.refresh();
 		}
-		allExportPoints = null;
+		invalidateExportPoints();
 	}
 }
@@ -0,0 +1,152 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.opencms;
+
+import com.mediaworx.intellij.opencmsplugin.tools.PluginTools;
+import com.mediaworx.opencms.moduleutils.manifestgenerator.OpenCmsModuleManifestGenerator;
+
+/**
+ * Effectively immutable value type for a VFS path belonging to an OpenCms module. The derived forms of the path (the
+ * path without the module's site root, the RFS path and the meta info paths) are computed only once, so callers
+ * asking for them repeatedly (e.g. the sync entities during a sync run) don't have to normalize and concatenate the
+ * same strings again and again. The path without site root and the RFS path are computed when the VfsPath is
+ * created, the meta info paths are computed on first use and cached in non-final fields.
+ * <br /><br />
+ * The meta info path cache is racy but benign (like <code>String.hashCode()</code>): the cached values only depend on
+ * final fields and are immutable strings, so threads that don't see another thread's cached value just compute the
+ * same value again.
+ * <br /><br />
+ * The derived forms are based on the module configuration at the time the VfsPath was created, so VfsPath
+ * instances should not be kept across module configuration changes.
+ */
+public final class VfsPath {
+
+	private final OpenCmsModule module;
+	private final String vfsPath;
+	private final String localPath;
+	private final String rfsPath;
+	private final String manifestRoot;
+
+	// lazily computed, see the class description for thread safety
+	private String fileMetaInfoPath;
+	private String folderMetaInfoPath;
+	private String metaInfoFolderPath;
+
+	/**
+	 * Creates a new VfsPath, use {@link OpenCmsModule#createVfsPath(String)} instead of calling this constructor
+	 * directly.
+	 * @param module  the OpenCms module the path belongs to
+	 * @param vfsPath the VFS path (including the module's site root, if any)
+	 */
+	VfsPath(OpenCmsModule module, String vfsPath) {
+		this.module = module;
+		this.vfsPath = PluginTools.ensureUnixPath(vfsPath);
+		localPath = PluginTools.stripVfsSiteRootFromVfsPath(module, this.vfsPath);
+		rfsPath = module.getLocalVfsRoot() + localPath;
+		manifestRoot = module.getManifestRoot();
+	}
+
+	/**
+	 * @return the OpenCms module the path belongs to
+	 */
+	public OpenCmsModule getModule() {
+		return module;
+	}
+
+	/**
+	 * @return the VFS path (unix style, including the module's site root, if any)
+	 */
+	public String getVfsPath() {
+		return vfsPath;
+	}
+
+	/**
+	 * @return the VFS path without the module's site root
+	 */
+	public String getLocalPath() {
+		return localPath;
+	}
+
+	/**
+	 * @return the path in the real file system
+	 */
+	public String getRfsPath() {
+		return rfsPath;
+	}
+
+	/**
+	 * Returns the path to the meta data file for the resource at this path
+	 * @param isFolder <code>true</code> if the resource at this path is a folder, <code>false</code> otherwise
+	 * @return the path to the meta data file for the resource at this path
+	 */
+	public String getMetaInfoFilePath(boolean isFolder) {
+		String path = isFolder ? folderMetaInfoPath : fileMetaInfoPath;
+		if (path == null) {
+			path = OpenCmsModuleManifestGenerator.getMetaInfoPath(manifestRoot, localPath, isFolder);
+			if (isFolder) {
+				folderMetaInfoPath = path;
+			}
+			else {
+				fileMetaInfoPath = path;
+			}
+		}
+		return path;
+	}
+
+	/**
+	 * @return the path to the meta data folder for the folder at this path
+	 */
+	public String getMetaInfoFolderPath() {
+		String path = metaInfoFolderPath;
+		if (path == null) {
+			path = manifestRoot + localPath;
+			metaInfoFolderPath = path;
+		}
+		return path;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof VfsPath)) {
+			return false;
+		}
+		VfsPath other = (VfsPath)o;
+		return module == other.module && vfsPath.equals(other.vfsPath);
+	}
+
+	@Override
+	public int hashCode() {
+		return vfsPath.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return vfsPath;
+	}
+}
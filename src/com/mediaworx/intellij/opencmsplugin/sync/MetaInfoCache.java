@@ -0,0 +1,140 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.mediaworx.intellij.opencmsplugin.sync;
+
+import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsPluginConfigurationData;
+import com.mediaworx.intellij.opencmsplugin.entities.SyncEntity;
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+
+import java.io.File;
+import java.util.Calendar;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache remembering for which VFS resources the local meta info file is up to date, so that meta data has to be
+ * requested from the plugin connector only for resources that changed in OpenCms.<br />
+ * <br />
+ * Cache entries are keyed by VFS path and store the resource's last modification date in OpenCms at the time the
+ * meta info was pulled. The meta XML itself is not held in memory, it is already stored in the local meta info file.
+ * To detect local changes to that file (e.g. by a VCS update), the file's date and size are stored as well. An entry
+ * is only considered up to date if both the remote modification date and the local meta info file are unchanged.
+ */
+public class MetaInfoCache {
+
+	/** Cache entries, key: VFS path */
+	private final Map<String, CacheEntry> entries = new ConcurrentHashMap<String, CacheEntry>();
+
+	/** The meta variable settings the cached meta infos were pulled with */
+	private String metaVariableSettings;
+
+	/**
+	 * Clears the cache if the meta variable settings (dates and/or UUIDs replaced by placeholders) have changed since
+	 * the cached meta infos were pulled, because those settings change the meta XML.
+	 * @param config the project level plugin configuration
+	 */
+	public synchronized void validate(OpenCmsPluginConfigurationData config) {
+		String settings = config.isUseMetaDateVariablesEnabled() + "/" + config.isUseMetaIdVariablesEnabled();
+		if (!settings.equals(metaVariableSettings)) {
+			entries.clear();
+			metaVariableSettings = settings;
+		}
+	}
+
+	/**
+	 * Checks if the local meta info file of the given entity is up to date
+	 * @param entity the sync entity to check
+	 * @return <code>true</code> if the resource wasn't modified in OpenCms and the local meta info file wasn't changed
+	 *         since the meta info was pulled, <code>false</code> otherwise
+	 */
+	public boolean isUpToDate(SyncEntity entity) {
+		CacheEntry entry = entries.get(entity.getVfsPath());
+		if (entry == null) {
+			return false;
+		}
+		long remoteDate = getRemoteModificationDate(entity);
+		if (remoteDate <= 0 || remoteDate != entry.remoteDate) {
+			return false;
+		}
+		File metaInfoFile = new File(entity.getMetaInfoFilePath());
+		return metaInfoFile.lastModified() == entry.metaInfoFileDate && metaInfoFile.length() == entry.metaInfoFileLength;
+	}
+
+	/**
+	 * Stores a cache entry for the given entity, should be called after its meta info file was written
+	 * @param entity the sync entity whose meta info was pulled
+	 */
+	public void update(SyncEntity entity) {
+		long remoteDate = getRemoteModificationDate(entity);
+		if (remoteDate <= 0) {
+			entries.remove(entity.getVfsPath());
+			return;
+		}
+		File metaInfoFile = new File(entity.getMetaInfoFilePath());
+		entries.put(entity.getVfsPath(), new CacheEntry(remoteDate, metaInfoFile.lastModified(), metaInfoFile.length()));
+	}
+
+	/**
+	 * Removes the cache entry for the given VFS path
+	 * @param vfsPath the VFS path
+	 */
+	public void remove(String vfsPath) {
+		entries.remove(vfsPath);
+	}
+
+	/**
+	 * Removes all cache entries
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Internal method returning the last modification date of the entity's VFS resource. After pushing, the entity's
+	 * VFS object is the pushed document or folder, so the date is the one set by OpenCms during the push.
+	 * @param entity the sync entity
+	 * @return the last modification date in milliseconds, <code>0</code> if the date is not known
+	 */
+	private static long getRemoteModificationDate(SyncEntity entity) {
+		CmisObject vfsObject = entity.getVfsObject();
+		if (vfsObject == null) {
+			return 0;
+		}
+		Calendar lastModificationDate = vfsObject.getLastModificationDate();
+		return lastModificationDate != null ? lastModificationDate.getTimeInMillis() : 0;
+	}
+
+	private static class CacheEntry {
+		private final long remoteDate;
+		private final long metaInfoFileDate;
+		private final long metaInfoFileLength;
+
+		private CacheEntry(long remoteDate, long metaInfoFileDate, long metaInfoFileLength) {
+			this.remoteDate = remoteDate;
+			this.metaInfoFileDate = metaInfoFileDate;
+			this.metaInfoFileLength = metaInfoFileLength;
+		}
+	}
+}
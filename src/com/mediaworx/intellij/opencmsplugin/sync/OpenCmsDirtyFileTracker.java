@@ -0,0 +1,229 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.sync;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.ProjectComponent;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.mediaworx.intellij.opencmsplugin.tools.PluginTools;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Project component keeping track of the module resources that were changed or created locally since they were
+ * last synced (the "dirty set"). The dirty set is fed by the {@link com.mediaworx.intellij.opencmsplugin.listeners.OpenCmsDirtyFileListener}
+ * and is used by the "Sync changed Files" action, so only the changed resources have to be analyzed instead of
+ * whole module trees. The dirty paths are stored in IntelliJ's workspace file (<code>.idea/workspace.xml</code>), so
+ * they survive IDE restarts.
+ * <br /><br />
+ * Paths are local file system paths using "/" as separator. Since the {@link SyncFileAnalyzer} walks folders
+ * recursively, a dirty folder covers all dirty paths below it.
+ */
+@State(
+	name = "OpenCmsDirtyFiles",
+	storages = {
+		@Storage(StoragePathMacros.WORKSPACE_FILE)
+	}
+)
+public class OpenCmsDirtyFileTracker implements ProjectComponent, PersistentStateComponent<OpenCmsDirtyFileTracker.State> {
+
+	private static final Logger LOG = Logger.getInstance(OpenCmsDirtyFileTracker.class);
+
+	/** sorted, so all paths below a folder form a contiguous range (see {@link #getDescendants(String)}) */
+	private final TreeSet<String> dirtyPaths = new TreeSet<String>();
+
+	/**
+	 * Returns the dirty file tracker of the given project.
+	 * @param project the IntelliJ project
+	 * @return the project's dirty file tracker
+	 */
+	public static OpenCmsDirtyFileTracker getInstance(Project project) {
+		return project.getComponent(OpenCmsDirtyFileTracker.class);
+	}
+
+	/**
+	 * Marks the file or folder with the given path as changed since the last sync.
+	 * @param path local path of the changed file or folder
+	 */
+	public synchronized void markDirty(String path) {
+		dirtyPaths.add(path);
+	}
+
+	/**
+	 * Removes the given path and all paths below it from the dirty set. Used for local deletions, those are
+	 * reflected in the VFS by the {@link com.mediaworx.intellij.opencmsplugin.listeners.OpenCmsModuleFileChangeListener}.
+	 * @param path local path of the deleted file or folder
+	 */
+	public synchronized void removePath(String path) {
+		dirtyPaths.remove(path);
+		getDescendants(path).clear();
+	}
+
+	/**
+	 * Updates the dirty set after a file or folder was moved or renamed locally: if the file or folder itself or
+	 * anything below it was dirty, the new path is marked dirty instead.
+	 * @param oldPath local path of the file or folder before the move/rename
+	 * @param newPath local path of the file or folder after the move/rename
+	 */
+	public synchronized void moved(String oldPath, String newPath) {
+		SortedSet<String> descendants = getDescendants(oldPath);
+		boolean wasDirty = dirtyPaths.remove(oldPath) || !descendants.isEmpty();
+		descendants.clear();
+		if (wasDirty) {
+			dirtyPaths.add(newPath);
+		}
+	}
+
+	/**
+	 * Removes all dirty paths equal to or below the given sync roots from the dirty set. Called after the files
+	 * were analyzed and synced, no matter which sync action was used.
+	 * @param syncRoots the files and folders that were synced
+	 */
+	public synchronized void markSynced(Collection<File> syncRoots) {
+		if (dirtyPaths.isEmpty()) {
+			return;
+		}
+		for (File syncRoot : syncRoots) {
+			removePath(PluginTools.ensureUnixPath(syncRoot.getPath()));
+		}
+	}
+
+	/**
+	 * Returns the files and folders changed since the last sync. Paths below dirty folders are left out (they are
+	 * synced with their folder). Paths that don't exist any more are removed from the dirty set.
+	 * @return list of the changed files and folders
+	 */
+	public synchronized List<File> getDirtyFiles() {
+		List<File> dirtyFiles = new ArrayList<File>();
+		String lastFolderPrefix = null;
+		Iterator<String> pathIterator = dirtyPaths.iterator();
+		while (pathIterator.hasNext()) {
+			String path = pathIterator.next();
+			if (lastFolderPrefix != null && path.startsWith(lastFolderPrefix)) {
+				continue;
+			}
+			File file = new File(path);
+			if (!file.exists()) {
+				// deleted while the IDE wasn't running, deletions are not handled by the dirty set
+				pathIterator.remove();
+				continue;
+			}
+			dirtyFiles.add(file);
+			lastFolderPrefix = file.isDirectory() ? path + "/" : null;
+		}
+		return dirtyFiles;
+	}
+
+	/**
+	 * @return the number of paths in the dirty set
+	 */
+	public synchronized int getNumDirty() {
+		return dirtyPaths.size();
+	}
+
+	/**
+	 * Returns the (live) subset of the dirty paths located below the given folder path.
+	 * @param folderPath the folder path
+	 * @return the dirty paths below the folder, changes to the subset are reflected in the dirty set
+	 */
+	private SortedSet<String> getDescendants(String folderPath) {
+		// '0' is the character following '/', so the range contains exactly the paths starting with folderPath + "/"
+		return dirtyPaths.subSet(folderPath + "/", folderPath + "0");
+	}
+
+	/**
+	 * Method called by IntelliJ whenever the component is initialized, does nothing.
+	 */
+	public void initComponent() {
+	}
+
+	/**
+	 * Method called by IntelliJ whenever the component is disposed, does nothing.
+	 */
+	public void disposeComponent() {
+	}
+
+	/**
+	 * Returns the component's name.
+	 * @return the component's name "OpenCmsPlugin.DirtyFileTracker"
+	 */
+	@NotNull
+	public String getComponentName() {
+		return "OpenCmsPlugin.DirtyFileTracker";
+	}
+
+	/**
+	 * Method called by IntelliJ whenever a project is opened, does nothing.
+	 */
+	public void projectOpened() {
+	}
+
+	/**
+	 * Method called by IntelliJ whenever a project is closed, does nothing.
+	 */
+	public void projectClosed() {
+	}
+
+	/**
+	 * Method called by IntelliJ to retrieve the dirty paths to be persisted.
+	 * @return the state containing the current dirty paths
+	 */
+	public synchronized State getState() {
+		State state = new State();
+		state.dirtyPaths = new ArrayList<String>(dirtyPaths);
+		return state;
+	}
+
+	/**
+	 * Method called by IntelliJ to restore the dirty paths persisted in the workspace file.
+	 * @param state the persisted state
+	 */
+	public synchronized void loadState(State state) {
+		dirtyPaths.clear();
+		if (state != null && state.dirtyPaths != null) {
+			dirtyPaths.addAll(state.dirtyPaths);
+		}
+		LOG.info("Dirty file tracker: " + dirtyPaths.size() + " changed files/folders loaded");
+	}
+
+	/**
+	 * Persistent state of the dirty file tracker, serialized by IntelliJ.
+	 */
+	public static class State {
+		public List<String> dirtyPaths = new ArrayList<String>();
+	}
+}
@@ -75,9 +75,14 @@ public class OpenCmsSyncer {
 			return;
 		}
 
+		long analysisStart = System.nanoTime();
 		ProgressManager.getInstance().runProcessWithProgressSynchronously(analyzer, "Analyzing local and VFS syncFiles and folders ...", true, plugin.getProject());
+		long analysisDuration = (System.nanoTime() - analysisStart) / 1000000;
 
 		if (!analyzer.isExecuteSync()) {
+			if (analyzer.getConnectionErrorMessage() != null) {
+				Messages.showDialog(analyzer.getConnectionErrorMessage(), "Error", new String[]{"Ok"}, 0, Messages.getErrorIcon());
+			}
 			return;
 		}
 
@@ -92,22 +97,72 @@ public class OpenCmsSyncer {
 		}
 		if (proceed) {
 			SyncJob syncJob = new SyncJob(plugin, analyzer.getSyncList());
+			syncJob.getReport().addPhaseDuration(SyncRunReport.PHASE_ANALYSIS, analysisDuration);
 			if (showConfirmDialog && !pullMetaDataOnly && ((numSyncEntities == 1 && message.length() > 0) || numSyncEntities > 1)) {
 				assembleConfirmMessage(message, syncJob.getSyncList());
 				int dlgStatus = Messages.showOkCancelDialog(plugin.getProject(), message.toString(), "Start OpenCms VFS Sync?", Messages.getQuestionIcon());
 				proceed = dlgStatus == 0;
 			}
 			if (proceed) {
+				markSynced(syncFiles);
 				plugin.showConsole();
-				new Thread(syncJob).start();
+				ProgressManager.getInstance().run(syncJob);
 			}
 		}
 		else {
+			markSynced(syncFiles);
 			message.append("Nothing to sync");
 			Messages.showMessageDialog(message.toString(), "OpenCms VFS Sync", Messages.getInformationIcon());
 		}
 	}
 
+	/**
+	 * Removes the synced files and folders from the dirty set of the {@link OpenCmsDirtyFileTracker}. Entities that
+	 * fail or are skipped during the sync are marked dirty again by the {@link SyncJob} when it finishes.
+	 * @param syncFiles list of local files (and folders) that were used as starting point for the sync
+	 */
+	private void markSynced(List<File> syncFiles) {
+		if (pullMetaDataOnly) {
+			return;
+		}
+		OpenCmsDirtyFileTracker tracker = OpenCmsDirtyFileTracker.getInstance(plugin.getProject());
+		if (tracker != null) {
+			tracker.markSynced(syncFiles);
+		}
+	}
+
+	/**
+	 * Syncs the entities that failed during the last sync again (see {@link OpenCmsPlugin#getFailedSyncList()}).
+	 * The entities are not analyzed again, the sync actions determined for the original sync are reused.
+	 */
+	public void retryFailedSync() {
+		SyncList failedList = plugin.getFailedSyncList();
+		if (failedList == null || failedList.isEmpty()) {
+			Messages.showMessageDialog("There are no failed files or folders to be synced", "OpenCms VFS Sync", Messages.getInformationIcon());
+			return;
+		}
+
+		VfsAdapter adapter = plugin.getVfsAdapter();
+		try {
+			if (!adapter.isConnected()) {
+				adapter.startSession();
+			}
+		}
+		catch (CmsConnectionException e) {
+			Messages.showDialog(e.getMessage(), "Error", new String[]{"Ok"}, 0, Messages.getErrorIcon());
+			return;
+		}
+
+		SyncList retryList = new SyncList();
+		for (SyncEntity syncEntity : failedList) {
+			retryList.add(syncEntity);
+			retryList.addOcmsModule(syncEntity.getOcmsModule());
+		}
+		plugin.setFailedSyncList(null);
+		plugin.showConsole();
+		ProgressManager.getInstance().run(new SyncJob(plugin, retryList));
+	}
+
 	private void assembleConfirmMessage(StringBuilder message, SyncList syncEntities) {
 		int numSyncEntities = syncEntities.size();
 		if (message.length() > 0) {
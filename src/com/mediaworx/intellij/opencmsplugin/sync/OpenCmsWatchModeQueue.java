@@ -0,0 +1,312 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.sync;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.mediaworx.intellij.opencmsplugin.OpenCmsPlugin;
+import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsPluginConfigurationData;
+import com.mediaworx.intellij.opencmsplugin.connector.AutoPublishMode;
+import com.mediaworx.intellij.opencmsplugin.entities.SyncFile;
+import com.mediaworx.intellij.opencmsplugin.exceptions.CmsConnectionException;
+import com.mediaworx.intellij.opencmsplugin.exceptions.CmsPermissionDeniedException;
+import com.mediaworx.intellij.opencmsplugin.exceptions.CmsPushException;
+import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModule;
+import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModuleExportPoint;
+import com.mediaworx.intellij.opencmsplugin.toolwindow.OpenCmsToolWindowConsole;
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Document;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisBaseException;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Queue collecting module files saved while watch mode is enabled (see
+ * {@link OpenCmsPluginConfigurationData#isWatchModeEnabled()}). The dirty files are collected for a short debounce
+ * window (see {@link OpenCmsPluginConfigurationData#getWatchModeDelay()}) and are then pushed to the OpenCms VFS
+ * directly, without the tree analysis done by the {@link SyncFileAnalyzer}.<br />
+ * <br />
+ * The CMIS documents returned by pushes are kept, so that files saved again are pushed without looking them up in
+ * the VFS first. If pushing with a known document fails (e.g. because the resource was deleted in OpenCms), the
+ * document is looked up again and the push is retried once. Known documents are dropped whenever module files are
+ * deleted, moved or renamed (see {@link #forgetVfsObjects()}).
+ */
+public class OpenCmsWatchModeQueue {
+
+	private static final Logger LOG = Logger.getInstance(OpenCmsWatchModeQueue.class);
+
+	private OpenCmsPlugin plugin;
+
+	/** local paths of the dirty files (key) and the OpenCms modules containing them (value) */
+	private final TreeMap<String, OpenCmsModule> dirtyFiles = new TreeMap<String, OpenCmsModule>();
+
+	/** CMIS documents returned by previous pushes, by VFS path */
+	private final Map<String, CmisObject> knownVfsObjects = new ConcurrentHashMap<String, CmisObject>();
+
+	/** task used to execute the delayed push once no further files were saved for the configured debounce window */
+	private ScheduledFuture<?> currentPushTask;
+
+	/**
+	 * Creates a new watch mode queue for the given plugin instance
+	 * @param plugin the current plugin instance
+	 */
+	public OpenCmsWatchModeQueue(OpenCmsPlugin plugin) {
+		this.plugin = plugin;
+	}
+
+	/**
+	 * Adds the given file to the dirty files and (re)starts the debounce timer.
+	 * @param ocmsModule the OpenCms module containing the file
+	 * @param path       the file's local path
+	 */
+	public synchronized void enqueue(OpenCmsModule ocmsModule, String path) {
+		if (plugin == null) {
+			return;
+		}
+		dirtyFiles.put(path, ocmsModule);
+
+		if (currentPushTask != null) {
+			currentPushTask.cancel(false);
+		}
+		currentPushTask = plugin.getExecutor().schedule(new Runnable() {
+			@Override
+			public void run() {
+				flush();
+			}
+		}, getWatchModeDelay());
+	}
+
+	/**
+	 * Returns the number of dirty files currently waiting to be pushed
+	 * @return the number of queued files
+	 */
+	public synchronized int getNumQueued() {
+		return dirtyFiles.size();
+	}
+
+	/**
+	 * Pushes all dirty files immediately. Called by the debounce timer, may be called directly if queued files should
+	 * be pushed without further delay.
+	 */
+	public void flush() {
+		Map<String, OpenCmsModule> pushFiles;
+		synchronized (this) {
+			if (currentPushTask != null) {
+				currentPushTask.cancel(false);
+				currentPushTask = null;
+			}
+			pushFiles = new TreeMap<String, OpenCmsModule>(dirtyFiles);
+			dirtyFiles.clear();
+		}
+		if (!pushFiles.isEmpty()) {
+			push(pushFiles);
+		}
+	}
+
+	/**
+	 * Drops all dirty files without pushing them, called when watch mode is disabled.
+	 */
+	public synchronized void clear() {
+		if (currentPushTask != null) {
+			currentPushTask.cancel(false);
+			currentPushTask = null;
+		}
+		dirtyFiles.clear();
+		knownVfsObjects.clear();
+	}
+
+	/**
+	 * Drops the CMIS documents known from previous pushes, called when module files are deleted, moved or renamed
+	 */
+	public void forgetVfsObjects() {
+		knownVfsObjects.clear();
+	}
+
+	/**
+	 * Drops all dirty files and stops the debounce timer, called when the project is closed.
+	 */
+	public synchronized void dispose() {
+		clear();
+		plugin = null;
+	}
+
+	/**
+	 * Internal method pushing the given files to the VFS, queueing them for publishing or handling export points
+	 * depending on the configuration.
+	 * @param pushFiles local paths of the files to be pushed (key) and the OpenCms modules containing them (value)
+	 */
+	private void push(Map<String, OpenCmsModule> pushFiles) {
+		OpenCmsPlugin plugin = this.plugin;
+		if (plugin == null) {
+			return;
+		}
+		OpenCmsToolWindowConsole console = plugin.getConsole();
+		OpenCmsPluginConfigurationData config = plugin.getPluginConfiguration();
+		VfsAdapter adapter = plugin.getVfsAdapter();
+		try {
+			if (!adapter.isConnected()) {
+				adapter.startSession();
+			}
+		}
+		catch (CmsConnectionException e) {
+			console.error("WATCH: " + pushFiles.size() + " saved file(s) could not be pushed. " + e.getMessage());
+			return;
+		}
+
+		boolean publish = config.isPluginConnectorEnabled() && config.getAutoPublishMode() == AutoPublishMode.ALL;
+		List<String> publishList = new ArrayList<String>();
+		for (Map.Entry<String, OpenCmsModule> pushFile : pushFiles.entrySet()) {
+			File file = new File(pushFile.getKey());
+			// the file may have been deleted since it was saved
+			if (!file.isFile()) {
+				continue;
+			}
+			OpenCmsModule ocmsModule = pushFile.getValue();
+			String vfsPath = ocmsModule.getVfsPathForRealPath(pushFile.getKey());
+			long start = System.currentTimeMillis();
+			if (!pushFile(adapter, ocmsModule, vfsPath, file, console)) {
+				continue;
+			}
+			console.info("WATCH: " + vfsPath + " pushed to VFS (" + (System.currentTimeMillis() - start) + " ms)");
+			// if publishing is enabled, export points are handled by OpenCms
+			if (publish) {
+				publishList.add(vfsPath);
+			}
+			else {
+				copyToExportPointIfNecessary(plugin, vfsPath, file, console);
+			}
+		}
+		if (publishList.size() > 0) {
+			plugin.getPublishQueue().enqueue(publishList, false);
+		}
+	}
+
+	/**
+	 * Internal method pushing one file, using the CMIS document known from a previous push if there is one.
+	 * @param adapter    the VFS adapter
+	 * @param ocmsModule the OpenCms module containing the file
+	 * @param vfsPath    the file's VFS path
+	 * @param file       the file
+	 * @param console    the console push errors are reported to
+	 * @return <code>true</code> if the file was pushed, <code>false</code> otherwise
+	 */
+	private boolean pushFile(VfsAdapter adapter, OpenCmsModule ocmsModule, String vfsPath, File file, OpenCmsToolWindowConsole console) {
+		CmisObject knownVfsObject = knownVfsObjects.get(vfsPath);
+		if (knownVfsObject != null) {
+			try {
+				return pushFile(adapter, ocmsModule, vfsPath, file, knownVfsObject);
+			}
+			catch (CmsConnectionException e) {
+				console.error("WATCH: PUSH FAILED! " + e.getMessage());
+				return false;
+			}
+			catch (CmsPushException e) {
+				LOG.info("Pushing " + vfsPath + " with the known CMIS document failed, looking it up again", e);
+			}
+			catch (CmisBaseException e) {
+				LOG.info("Pushing " + vfsPath + " with the known CMIS document failed, looking it up again", e);
+			}
+			knownVfsObjects.remove(vfsPath);
+		}
+		try {
+			return pushFile(adapter, ocmsModule, vfsPath, file, adapter.getVfsObject(vfsPath));
+		}
+		catch (CmsPushException e) {
+			console.error("WATCH: PUSH FAILED! " + e.getMessage());
+		}
+		catch (CmsPermissionDeniedException e) {
+			console.error("WATCH: PUSH FAILED! " + e.getMessage());
+		}
+		catch (CmsConnectionException e) {
+			console.error("WATCH: PUSH FAILED! " + e.getMessage());
+		}
+		catch (CmisBaseException e) {
+			LOG.warn("There was an exception pushing " + vfsPath, e);
+			console.error("WATCH: PUSH FAILED! " + vfsPath + ": " + e.getMessage());
+		}
+		return false;
+	}
+
+	/**
+	 * Internal method pushing one file using the given CMIS object
+	 * @param adapter    the VFS adapter
+	 * @param ocmsModule the OpenCms module containing the file
+	 * @param vfsPath    the file's VFS path
+	 * @param file       the file
+	 * @param vfsObject  the CMIS object representing the file in the VFS, <code>null</code> if the file doesn't exist
+	 *                   in the VFS yet
+	 * @return <code>true</code> if the file was pushed, <code>false</code> otherwise
+	 * @throws CmsPushException if the push failed
+	 * @throws CmsConnectionException if the VFS adapter is not connected
+	 */
+	private boolean pushFile(VfsAdapter adapter, OpenCmsModule ocmsModule, String vfsPath, File file, CmisObject vfsObject) throws CmsPushException, CmsConnectionException {
+		SyncFile syncFile = new SyncFile(ocmsModule, vfsPath, file, vfsObject, SyncAction.PUSH, vfsObject != null);
+		Document document = adapter.pushFile(syncFile);
+		if (document == null) {
+			return false;
+		}
+		knownVfsObjects.put(vfsPath, document);
+		return true;
+	}
+
+	/**
+	 * Internal method copying a pushed file to its export target if it is inside an export point
+	 * @param plugin  the current plugin instance
+	 * @param vfsPath the file's VFS path
+	 * @param file    the file
+	 * @param console the console the copy is reported to
+	 */
+	private void copyToExportPointIfNecessary(OpenCmsPlugin plugin, String vfsPath, File file, OpenCmsToolWindowConsole console) {
+		OpenCmsModuleExportPoint exportPoint = plugin.getOpenCmsModules().getExportPointForVfsResource(vfsPath);
+		if (exportPoint == null) {
+			return;
+		}
+		String targetPath = plugin.getPluginConfiguration().getWebappRoot() + "/" + exportPoint.getTargetPathForVfsResource(vfsPath);
+		try {
+			FileUtils.copyFile(file, new File(targetPath));
+			console.info("WATCH: Copy of " + vfsPath + " to " + exportPoint.getRfsTarget() + " - SUCCESS");
+		}
+		catch (IOException e) {
+			console.error("WATCH: Copy of " + vfsPath + " to " + exportPoint.getRfsTarget() + " - FAILED (" + e.getMessage() + ")");
+		}
+	}
+
+	/**
+	 * Internal method returning the configured debounce delay
+	 * @return the debounce delay in milliseconds
+	 */
+	private long getWatchModeDelay() {
+		OpenCmsPluginConfigurationData config = plugin.getPluginConfiguration();
+		return config != null ? config.getWatchModeDelay() : OpenCmsPluginConfigurationData.DEFAULT_WATCH_MODE_DELAY;
+	}
+}
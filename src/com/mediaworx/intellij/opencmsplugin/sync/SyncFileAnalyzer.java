@@ -41,7 +41,6 @@ import org.apache.chemistry.opencmis.client.api.Folder;
 import org.apache.chemistry.opencmis.client.api.ItemIterable;
 import org.apache.chemistry.opencmis.commons.enums.BaseTypeId;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.TrueFileFilter;
 
 import java.io.File;
 import java.util.*;
@@ -59,6 +58,7 @@ class SyncFileAnalyzer extends VfsFileAnalyzer implements Runnable {
 
 	private boolean pullAllMetaInformation;
 	private boolean executeSync = true;
+	private String connectionErrorMessage;
 
 	SyncFileAnalyzer(final OpenCmsPlugin plugin, final List<File> syncFiles, boolean pullAllMetaInformation) throws CmsConnectionException {
 
@@ -88,7 +88,7 @@ class SyncFileAnalyzer extends VfsFileAnalyzer implements Runnable {
 
 		analyzeFiles();
 
-		if (!progressIndicator.isCanceled()) {
+		if (!progressIndicator.isCanceled() && executeSync) {
 			if (moduleResourcesToBePulled != null && moduleResourcesToBePulled.size() > 0) {
 				handleModuleResourcesToBePulled(moduleResourcesToBePulled);
 			}
@@ -102,6 +102,14 @@ class SyncFileAnalyzer extends VfsFileAnalyzer implements Runnable {
 		return executeSync;
 	}
 
+	/**
+	 * @return the error message if the analysis was aborted because the VFS couldn't be read, <code>null</code>
+	 *         otherwise
+	 */
+	String getConnectionErrorMessage() {
+		return connectionErrorMessage;
+	}
+
 	protected void handleModule(OpenCmsModule ocmsModule) {
 		super.handleModule(ocmsModule);
 		syncList.setSyncModuleMetaData(true);
@@ -129,7 +137,7 @@ class SyncFileAnalyzer extends VfsFileAnalyzer implements Runnable {
 	// TODO: handle cases where a folder on the vfs has the same name as a file on the rfs or vice versa
 	private void walkFileTree(OpenCmsModule ocmsModule, File file, FolderSyncMode folderSyncMode) {
 
-		if (progressIndicator.isCanceled()) {
+		if (progressIndicator.isCanceled() || !executeSync) {
 			executeSync = false;
 			return;
 		}
@@ -170,6 +178,10 @@ class SyncFileAnalyzer extends VfsFileAnalyzer implements Runnable {
 				warnings.append(message).append("\n");
 				return;
 			}
+			catch (CmsConnectionException e) {
+				handleConnectionError(vfsPath, e);
+				return;
+			}
 
 			vfsObjectExists = vfsObject != null;
 			LOG.debug(vfsPath + (vfsObjectExists ? " exists" : " does not exist"));
@@ -332,6 +344,10 @@ class SyncFileAnalyzer extends VfsFileAnalyzer implements Runnable {
 				warnings.append("Skipping ").append(vfsPath).append(", permission denied\n");
 				continue;
 			}
+			catch (CmsConnectionException e) {
+				handleConnectionError(vfsPath, e);
+				return;
+			}
 			if (vfsObject == null)  {
 				warnings.append("Skipping ").append(vfsPath).append(", doesn't exist in the VFS\n");
 				continue;
@@ -350,6 +366,20 @@ class SyncFileAnalyzer extends VfsFileAnalyzer implements Runnable {
 		}
 	}
 
+	/**
+	 * Internal method stopping the analysis if the VFS can't be read, otherwise resources would be considered not to
+	 * exist in the VFS and the sync would push (or delete) them
+	 * @param vfsPath the path of the resource that couldn't be read
+	 * @param e       the connection error
+	 */
+	private void handleConnectionError(String vfsPath, CmsConnectionException e) {
+		LOG.warn("Error reading " + vfsPath + " from the VFS, sync aborted", e);
+		if (connectionErrorMessage == null) {
+			connectionErrorMessage = e.getMessage();
+		}
+		executeSync = false;
+	}
+
 	private void addRfsOnlyFileToSyncList(OpenCmsModule ocmsModule, String vfsPath, File file, Document vfsFile) {
 		LOG.info("Adding RFS only file " + vfsPath);
 		SyncAction syncAction = getRfsOnlySyncAction(ocmsModule.getSyncMode());
@@ -366,7 +396,7 @@ class SyncFileAnalyzer extends VfsFileAnalyzer implements Runnable {
 
 		if (syncAction != SyncAction.DELETE_RFS) {
 			LOG.info("Get children of folder " + vfsPath);
-			Collection<File> rfsChildren = FileUtils.listFiles(file, TrueFileFilter.INSTANCE, null);
+			Collection<File> rfsChildren = FileUtils.listFiles(file, plugin.getPluginConfiguration().getIgnoreRules().getFileFilter(), null);
 			for (File rfsChild : rfsChildren) {
 				LOG.info("Handle PUSH child " + rfsChild.getPath());
 				walkFileTree(ocmsModule, rfsChild, FolderSyncMode.PUSH);
@@ -25,34 +25,46 @@
 package com.mediaworx.intellij.opencmsplugin.sync;
 
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.mediaworx.intellij.opencmsplugin.OpenCmsPlugin;
 import com.mediaworx.intellij.opencmsplugin.configuration.OpenCmsPluginConfigurationData;
 import com.mediaworx.intellij.opencmsplugin.connector.AutoPublishMode;
+import com.mediaworx.intellij.opencmsplugin.connector.OpenCmsPluginConnector;
 import com.mediaworx.intellij.opencmsplugin.entities.ExportEntity;
 import com.mediaworx.intellij.opencmsplugin.entities.SyncEntity;
 import com.mediaworx.intellij.opencmsplugin.entities.SyncFolder;
+import com.mediaworx.intellij.opencmsplugin.exceptions.CmsConnectionException;
+import com.mediaworx.intellij.opencmsplugin.exceptions.CmsPermissionDeniedException;
 import com.mediaworx.intellij.opencmsplugin.exceptions.CmsPushException;
+import com.mediaworx.intellij.opencmsplugin.exceptions.CmsTransferException;
 import com.mediaworx.intellij.opencmsplugin.exceptions.OpenCmsConnectorException;
 import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModule;
 import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModuleExportPoint;
 import com.mediaworx.intellij.opencmsplugin.opencms.OpenCmsModuleResource;
 import com.mediaworx.intellij.opencmsplugin.tools.PluginTools;
 import com.mediaworx.intellij.opencmsplugin.toolwindow.OpenCmsToolWindowConsole;
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Document;
+import org.apache.chemistry.opencmis.client.api.Folder;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 
 /**
- * Syncs OpenCms and the local file system, is run as a separate thread
+ * Syncs OpenCms and the local file system, is run as a cancellable background task reporting its progress and
+ * throughput
  */
-public class SyncJob implements Runnable {
+public class SyncJob extends Task.Backgroundable {
 
 	private static final Logger LOG = Logger.getInstance(SyncJob.class);
 	public static final String ERROR_PREFIX = "ERROR: ";
@@ -81,6 +93,12 @@ public class SyncJob implements Runnable {
 	private List<ExportEntity> exportList;
 	private List<String> publishList;
 	private boolean publish;
+	private VfsTransferGuard transferGuard;
+	private SyncList failedList;
+	private CompletableFuture<HashMap<String, String>> moduleManifestsFuture;
+	private List<OpenCmsModuleResource> resourcePathParents;
+	private CompletableFuture<HashMap<String, String>> resourcePathParentInfosFuture;
+	private SyncRunReport report;
 
 	/**
 	 * Creates a new SyncJob for the given SyncList
@@ -88,6 +106,7 @@ public class SyncJob implements Runnable {
 	 * @param syncList list of SyncEntities to be synced by this SyncJob
 	 */
 	public SyncJob(OpenCmsPlugin plugin, SyncList syncList) {
+		super(plugin.getProject(), "OpenCms VFS Sync", true);
 		this.plugin = plugin;
 		config = plugin.getPluginConfiguration();
 		publish = config.isPluginConnectorEnabled() && config.getAutoPublishMode() == AutoPublishMode.ALL;
@@ -95,14 +114,29 @@ public class SyncJob implements Runnable {
 		this.refreshEntityList = new ArrayList<SyncEntity>();
 		this.exportList = new ArrayList<ExportEntity>();
 		this.publishList = new ArrayList<String>();
+		this.failedList = new SyncList();
 		setSyncList(syncList);
+		report = new SyncRunReport(syncList.size());
 	}
 
 	/**
-	 * Starts the SyncJob (done as a separate thread)
+	 * Executes the SyncJob, called by IntelliJ in a background thread once the task is queued. The sync may be
+	 * cancelled between two entities, in that case the remaining steps (except refreshing the IntelliJ file system)
+	 * are skipped.
+	 * @param indicator the progress indicator used to show the sync progress and throughput
 	 */
-	public void run() {
+	@Override
+	public void run(@NotNull ProgressIndicator indicator) {
 		console = plugin.getConsole();
+		transferGuard = new VfsTransferGuard(indicator);
+		report.start();
+		boolean canceled = false;
+
+		// module manifests and the meta data of module resource ancestors don't depend on the resources synced, so
+		// they are requested right away and are pulled from OpenCms while files and folders are transferred
+		if (syncList.isSyncModuleMetaData()) {
+			requestModuleMetaData();
+		}
 
 		int step = 1;
 		int numSteps = 1;
@@ -120,12 +154,51 @@ public class SyncJob implements Runnable {
 		}
 
 
+		long phaseStart;
+
 		// ######## SYNC FILES / FOLDERS ################################
 		if (!pullMetadataOnly) {
+			phaseStart = System.nanoTime();
 			console.info("Step " + (step++) + "/" + numSteps + ": Syncing files and folders");
-			for (SyncEntity entity : syncList) {
-				doSync(entity);
+			SyncProgress progress = new SyncProgress(indicator, syncList.size());
+			List<SyncEntity> skippedEntities = Collections.emptyList();
+			for (int i = 0; i < syncList.size(); i++) {
+				SyncEntity entity = syncList.get(i);
+				if (progress.isCanceled()) {
+					canceled = true;
+					skippedEntities = syncList.subList(i, syncList.size());
+					break;
+				}
+				progress.entityStarted(entity);
+				long entityStart = System.nanoTime();
+				int numFailedBefore = failedList.size();
+				if (transferGuard.isOpen()) {
+					failedList.add(entity);
+				}
+				else {
+					try {
+						doSync(entity);
+					}
+					catch (CmsConnectionException e) {
+						console.error(e.getMessage());
+						failedList.add(entity);
+					}
+				}
+				progress.entityFinished(entity);
+				long entityMillis = (System.nanoTime() - entityStart) / 1000000;
+				report.addEntity(entity, entityMillis, SyncProgress.getTransferredBytes(entity), failedList.size() == numFailedBefore);
+			}
+			console.info(progress.getSummary());
+			if (canceled) {
+				console.notice("Sync cancelled by user, " + progress.getNumRemaining() + " files/folders were not synced, remaining steps are skipped");
 			}
+			if (transferGuard.isOpen()) {
+				console.error("OpenCms could not be reached, " + failedList.size() + " files/folders were not synced, remaining steps are skipped");
+				canceled = true;
+			}
+			registerFailedEntities();
+			markUnsyncedDirty(skippedEntities);
+			report.addPhase(SyncRunReport.PHASE_TRANSFER, phaseStart);
 			console.info("---- Sync finished ----\n");
 		}
 		// ######## OR CLEAN UP META DATA FOLDERS ################################
@@ -137,63 +210,69 @@ public class SyncJob implements Runnable {
 			}
 		}
 
-		if (syncList.isSyncModuleMetaData()) {
+		if (!canceled && syncList.isSyncModuleMetaData()) {
+			indicator.setIndeterminate(true);
+			indicator.setText("Pulling module manifests");
 			// ######## PULL MODULE MANIFESTS ################################
+			phaseStart = System.nanoTime();
 			console.info("Step " + (step++) + "/" + numSteps + ": Pull module manifests");
 			pullModuleManifests();
+			report.addPhase(SyncRunReport.PHASE_MANIFEST_PULL, phaseStart);
 			console.info("---- Module manifest pull finished ----\n");
 
 			// ######## PULL META INFOS FOR MODULE RESOURCE PARENTS ################################
+			phaseStart = System.nanoTime();
 			console.info("Step " + (step++) + "/" + numSteps + ": Pulling resource meta data for module resource path ancestors from OpenCms");
 			pullModuleResourcePathAncestorMetaInfos();
+			report.addPhase(SyncRunReport.PHASE_ANCESTOR_META_PULL, phaseStart);
 			console.info("---- Pull of meta data for module resource path ancestors finished ----\n");
 		}
 
 		// ######## PULL RESOURCE VFS META INFORMATION ################################
-		if (config.isPluginConnectorEnabled() && config.isPullMetadataEnabled()) {
+		if (!canceled && config.isPluginConnectorEnabled() && config.isPullMetadataEnabled()) {
+			indicator.setIndeterminate(true);
+			indicator.setText("Pulling resource meta data");
+			phaseStart = System.nanoTime();
 			console.info("Step " + (step++) + "/" + numSteps + ": Pulling resource meta data from OpenCms");
 			pullResourceMetaInfos();
+			report.addPhase(SyncRunReport.PHASE_RESOURCE_META_PULL, phaseStart);
 			console.info("---- Resource meta info pull finished ----\n");
 		}
 
-		if (!pullMetadataOnly) {
+		if (!canceled && !pullMetadataOnly) {
 			// ######## PUBLISHING ###########################################
 			if (publish) {
+				phaseStart = System.nanoTime();
 				console.info("Step " + step + "/" + numSteps + ": Publishing");
 
 				if (publishList.size() > 0) {
-					try {
-						plugin.getPluginConnector().publishResources(publishList, false);
-						console.info("A direct publish session was started successfully");
-					}
-					catch (OpenCmsConnectorException e) {
-						console.error(e.getMessage());
-					}
-					catch (IOException e) {
-						LOG.warn("There was an exception while publishing resources after sync", e);
-						console.error("There was an exception while publishing resources after syncing. Is OpenCms running? Please have a look at the OpenCms log file and/or the IntelliJ log file.");
-					}
+					plugin.getPublishQueue().enqueue(publishList, false);
+					console.info(publishList.size() + " resource(s) queued for publishing, the direct publish session will be started shortly");
 				}
 				else {
 					console.info("No resources need publishing");
 				}
 
+				report.addPhase(SyncRunReport.PHASE_PUBLISH, phaseStart);
 				console.info("---- Publish finished ----\n");
 			}
 
 			// ######## EXPORT POINT HANDLING ################################
 			if (numExportEntities() > 0) {
+				phaseStart = System.nanoTime();
 				console.info("Step " + step + "/" + numSteps + ": Handling export points");
 
 				for (ExportEntity entity : exportList) {
 					doExportPointHandling(entity);
 				}
+				report.addPhase(SyncRunReport.PHASE_EXPORT_POINTS, phaseStart);
 				console.info("---- Copying of ExportPoints finished ----\n");
 			}
 		}
 
 		// ######## REFRESH IDEA FILESYSTEM ##############################
 		if (hasRefreshEntities()) {
+			phaseStart = System.nanoTime();
 			List<SyncEntity> pullEntityList = getRefreshEntityList();
 			List<File> refreshFiles = new ArrayList<File>(pullEntityList.size());
 
@@ -207,21 +286,41 @@ public class SyncJob implements Runnable {
 			catch (Exception e) {
 				// if there's an exception then the file was not found.
 			}
+			report.addPhase(SyncRunReport.PHASE_REFRESH, phaseStart);
+		}
+		report.setCanceled(canceled);
+		report.finish();
+		plugin.getSyncRunReportHistory().addReport(report);
+		if (report.getReportFile() != null) {
+			console.info("Sync report: " + report.getReportFile().getPath());
 		}
 		console.info("#### SYNC FINISHED ####");
 	}
 
+	/**
+	 * Returns the report of this sync run, phases measured before the job is started (e.g. the analysis) may be added
+	 * @return the sync run report
+	 */
+	public SyncRunReport getReport() {
+		return report;
+	}
+
 	private void setSyncList(SyncList syncList) {
 		this.syncList = syncList;
 		this.pullMetadataOnly = syncList.isPullMetaDataOnly();
 
 		if (!syncList.isPullMetaDataOnly()) {
+			List<SyncEntity> exportCandidates = new ArrayList<SyncEntity>();
 			for (SyncEntity entity : syncList) {
 				if (entity.getSyncAction() == SyncAction.PULL || entity.getSyncAction() == SyncAction.DELETE_RFS) {
 					this.refreshEntityList.add(entity);
 				}
-				addSyncEntityToExportListIfNecessary(entity);
+				// if publishing is enabled, pushed and deleted entities don't have to be handled (this is done by OpenCms)
+				if (!publish || (entity.getSyncAction() != SyncAction.PUSH && entity.getSyncAction() != SyncAction.DELETE_VFS)) {
+					exportCandidates.add(entity);
+				}
 			}
+			addSyncEntitiesToExportList(exportCandidates);
 		}
 	}
 
@@ -232,33 +331,35 @@ public class SyncJob implements Runnable {
 		return syncList;
 	}
 
-	private void addSyncEntityToExportListIfNecessary(SyncEntity syncEntity) {
-
-		// if publishing is enabled, pushed and deleted entities don't have to be handled (this is done by OpenCms)
-		if (publish && (syncEntity.getSyncAction() == SyncAction.PUSH || syncEntity.getSyncAction() == SyncAction.DELETE_VFS)) {
+	/**
+	 * Creates export entities for all sync entities inside an export point, the export points are looked up in bulk
+	 * using the plugin wide export point index (most specific export point wins)
+	 * @param syncEntities the sync entities to check
+	 */
+	private void addSyncEntitiesToExportList(List<SyncEntity> syncEntities) {
+		if (syncEntities.isEmpty()) {
 			return;
 		}
-
-		List<OpenCmsModuleExportPoint> exportPoints = syncEntity.getOcmsModule().getExportPoints();
-
-		if (exportPoints != null) {
-
-			String localModuleVfsRoot = syncEntity.getOcmsModule().getLocalVfsRoot();
+		List<String> vfsPaths = new ArrayList<String>(syncEntities.size());
+		for (SyncEntity syncEntity : syncEntities) {
+			vfsPaths.add(syncEntity.getVfsPath());
+		}
+		Map<String, OpenCmsModuleExportPoint> exportPoints = plugin.getOpenCmsModules().getExportPointsForVfsResources(vfsPaths);
+		if (exportPoints.isEmpty()) {
+			return;
+		}
+		for (SyncEntity syncEntity : syncEntities) {
 			String entityVfsPath = syncEntity.getVfsPath();
-
-			for (OpenCmsModuleExportPoint exportPoint : exportPoints) {
-				String vfsSource = exportPoint.getVfsSource();
-				if (entityVfsPath.startsWith(vfsSource)) {
-					String destination = exportPoint.getRfsTarget();
-					String relativePath = entityVfsPath.substring(vfsSource.length());
-					ExportEntity exportEntity = new ExportEntity();
-					exportEntity.setSourcePath(localModuleVfsRoot+entityVfsPath);
-					exportEntity.setTargetPath(config.getWebappRoot() + "/" + destination + relativePath);
-					exportEntity.setVfsPath(entityVfsPath);
-					exportEntity.setDestination(destination);
-					exportEntity.setToBeDeleted(syncEntity.getSyncAction().isDeleteAction());
-					addExportEntity(exportEntity);
-				}
+			OpenCmsModuleExportPoint exportPoint = exportPoints.get(entityVfsPath);
+			if (exportPoint != null) {
+				String destination = exportPoint.getRfsTarget();
+				ExportEntity exportEntity = new ExportEntity();
+				exportEntity.setSourcePath(syncEntity.getOcmsModule().getLocalVfsRoot() + entityVfsPath);
+				exportEntity.setTargetPath(config.getWebappRoot() + "/" + exportPoint.getTargetPathForVfsResource(entityVfsPath));
+				exportEntity.setVfsPath(entityVfsPath);
+				exportEntity.setDestination(destination);
+				exportEntity.setToBeDeleted(syncEntity.getSyncAction().isDeleteAction());
+				addExportEntity(exportEntity);
 			}
 		}
 	}
@@ -284,10 +385,46 @@ public class SyncJob implements Runnable {
 	}
 
 
-	private void doSync(SyncEntity entity) {
+	/**
+	 * Collects the entities that failed during this sync, so they can be synced again using the action
+	 * "Retry failed Sync"
+	 */
+	private void registerFailedEntities() {
+		if (failedList.size() > 0) {
+			for (SyncEntity failedEntity : failedList) {
+				failedList.addOcmsModule(failedEntity.getOcmsModule());
+			}
+			console.notice(failedList.size() + " files/folders could not be synced, use \"Retry failed Sync\" in the OpenCms menu to try again");
+		}
+		plugin.setFailedSyncList(failedList);
+	}
+
+	/**
+	 * Marks the files and folders that failed or were skipped because the sync was cancelled as dirty again (the
+	 * {@link OpenCmsSyncer} removes the sync roots from the dirty set when the sync is started), so they are picked
+	 * up by the next "Sync changed Files".
+	 * @param skippedEntities entities that were not synced because the sync was cancelled
+	 */
+	private void markUnsyncedDirty(List<SyncEntity> skippedEntities) {
+		if (failedList.isEmpty() && skippedEntities.isEmpty()) {
+			return;
+		}
+		OpenCmsDirtyFileTracker tracker = OpenCmsDirtyFileTracker.getInstance(plugin.getProject());
+		if (tracker == null) {
+			return;
+		}
+		for (SyncEntity entity : failedList) {
+			tracker.markDirty(PluginTools.ensureUnixPath(entity.getRfsPath()));
+		}
+		for (SyncEntity entity : skippedEntities) {
+			tracker.markDirty(PluginTools.ensureUnixPath(entity.getRfsPath()));
+		}
+	}
+
+	private void doSync(SyncEntity entity) throws CmsConnectionException {
 		if (entity.getSyncAction() == SyncAction.PUSH) {
-			doPush(entity);
-			if (publish) {
+			boolean success = doPush(entity);
+			if (success && publish) {
 				publishList.add(entity.getVfsPath());
 			}
 		}
@@ -298,33 +435,55 @@ public class SyncJob implements Runnable {
 			doDeleteFromRfs(entity);
 		}
 		else if (entity.getSyncAction() == SyncAction.DELETE_VFS) {
-			doDeleteFromVfs(entity);
-			if (publish) {
+			boolean success = doDeleteFromVfs(entity);
+			if (success && publish) {
 				publishList.add(entity.getVfsPath());
 			}
 		}
 	}
 
-	private void doPush(SyncEntity entity) {
+	private boolean doPush(final SyncEntity entity) throws CmsConnectionException {
 
 		boolean success = false;
 		String errormessage = null;
 
 		if (entity.isFolder()) {
 			try {
-				adapter.createFolder(entity.getVfsPath());
+				transferGuard.execute(entity, new VfsTransferGuard.Transfer() {
+					@Override
+					public void execute(boolean retry) throws Exception {
+						// createFolder looks the folder up before creating it, so a retry doesn't create it twice
+						Folder folder = adapter.createFolder(entity.getVfsPath());
+						if (folder == null) {
+							throw new CmsPushException("Folder " + entity.getVfsPath() + " could not be created");
+						}
+						updateVfsObject(entity, folder);
+					}
+				});
 				success = true;
 			}
-			catch (Exception e) {
+			catch (CmsTransferException e) {
 				errormessage = "Error pushing Folder "+entity.getVfsPath()+"\n"+e.getMessage();
 			}
 		}
 		else if (entity.isFile()) {
 			try {
-				adapter.pushFile(entity);
+				transferGuard.execute(entity, new VfsTransferGuard.Transfer() {
+					@Override
+					public void execute(boolean retry) throws Exception {
+						if (retry && !entity.replaceExistingEntity()) {
+							lookUpCreatedDocument(entity);
+						}
+						Document document = adapter.pushFile(entity);
+						if (document == null) {
+							throw new CmsPushException("Could not push entity " + entity.getVfsPath() + ", OpenCms didn't return the pushed document");
+						}
+						updateVfsObject(entity, document);
+					}
+				});
 				success = true;
 			}
-			catch (CmsPushException e) {
+			catch (CmsTransferException e) {
 				errormessage = e.getMessage();
 			}
 		}
@@ -339,10 +498,41 @@ public class SyncJob implements Runnable {
 		}
 		else {
 			console.error("PUSH FAILED! " + errormessage);
+			failedList.add(entity);
+		}
+		return success;
+	}
+
+	/**
+	 * Before retrying the push of a new file, checks if the failed attempt created the document nonetheless (e.g. if
+	 * only the response got lost). If so the existing document is updated by the retry instead of being created a
+	 * second time, which would fail because the name is already taken.
+	 * @param entity the entity to be pushed
+	 * @throws CmsPermissionDeniedException if the document can't be read
+	 * @throws CmsConnectionException if the VFS can't be reached
+	 */
+	private void lookUpCreatedDocument(SyncEntity entity) throws CmsPermissionDeniedException, CmsConnectionException {
+		CmisObject vfsObject = adapter.getVfsObject(entity.getVfsPath());
+		if (vfsObject instanceof Document) {
+			LOG.info(entity.getVfsPath() + " was created by the failed attempt, updating it instead");
+			entity.setVfsObject(vfsObject);
+			entity.setReplaceExistingEntity(true);
+		}
+	}
+
+	/**
+	 * Sets the VFS object returned by a push as the entity's VFS object, so that its modification date matches the
+	 * date set by OpenCms during the push (used by the {@link MetaInfoCache})
+	 * @param entity    the pushed entity
+	 * @param vfsObject the VFS object returned by the push
+	 */
+	private void updateVfsObject(SyncEntity entity, CmisObject vfsObject) {
+		if (vfsObject != null) {
+			entity.setVfsObject(vfsObject);
 		}
 	}
 
-	private void doPull(SyncEntity entity) {
+	private void doPull(final SyncEntity entity) throws CmsConnectionException {
 		StringBuilder confirmation = new StringBuilder();
 
 		if (entity.isFolder()) {
@@ -354,7 +544,19 @@ public class SyncJob implements Runnable {
 		   }
 		}
 		else {
-			adapter.pullFile(entity);
+			try {
+				transferGuard.execute(entity, new VfsTransferGuard.Transfer() {
+					@Override
+					public void execute(boolean retry) throws Exception {
+						adapter.pullFile(entity);
+					}
+				});
+			}
+			catch (CmsTransferException e) {
+				console.error("PULL FAILED! " + e.getMessage());
+				failedList.add(entity);
+				return;
+			}
 		}
 
 		confirmation.append("PULL: ").append(entity.getVfsPath()).append(" pulled from VFS to ").append(entity.getOcmsModule().getLocalVfsRoot());
@@ -379,9 +581,21 @@ public class SyncJob implements Runnable {
 		}
 	}
 
-	private void doDeleteFromVfs(SyncEntity entity) {
+	private boolean doDeleteFromVfs(final SyncEntity entity) throws CmsConnectionException {
 		StringBuilder confirmation = new StringBuilder("DELETE ").append(entity.getVfsPath()).append(" (not in the RFS) - ");
-		if (adapter.deleteResource(entity.getVfsPath())) {
+		final boolean[] deleted = new boolean[1];
+		try {
+			transferGuard.execute(entity, new VfsTransferGuard.Transfer() {
+				@Override
+				public void execute(boolean retry) throws Exception {
+					deleted[0] = adapter.deleteResource(entity.getVfsPath());
+				}
+			});
+		}
+		catch (CmsTransferException e) {
+			confirmation.append(e.getMessage()).append(" - ");
+		}
+		if (deleted[0]) {
 			confirmation.append(" SUCCESS");
 			console.info(confirmation.toString());
 		}
@@ -389,22 +603,53 @@ public class SyncJob implements Runnable {
 			confirmation.insert(0, "ERROR: ");
 			confirmation.append(" FAILED!");
 			console.error(confirmation.toString());
+			failedList.add(entity);
 		}
+		return deleted[0];
 	}
 
 	private void pullResourceMetaInfos() {
-		// build lists with all resources for which meta information is to be pulled / deleted
+		MetaInfoCache metaInfoCache = plugin.getMetaInfoCache();
+		metaInfoCache.validate(config);
+
+		// build lists with all resources for which meta information is to be pulled / deleted, resources with up to
+		// date meta info files are skipped
 		ArrayList<String> pullEntityList = new ArrayList<String>();
+		Set<SyncEntity> upToDateEntities = new HashSet<SyncEntity>();
 		for (SyncEntity entity : syncList) {
 			if (!entity.getSyncAction().isDeleteAction()) {
-				pullEntityList.add(entity.getVfsPath());
+				if (metaInfoCache.isUpToDate(entity)) {
+					upToDateEntities.add(entity);
+				}
+				else {
+					pullEntityList.add(entity.getVfsPath());
+				}
 			}
 		}
+		if (upToDateEntities.size() > 0) {
+			console.info("Meta info files of " + upToDateEntities.size() + " resources are up to date, skipping them");
+		}
 
 		try {
-			HashMap<String, String> metaInfos = plugin.getPluginConnector().getResourceInfos(pullEntityList);
+			Map<String, String> metaInfos;
+			if (pullEntityList.size() > 0) {
+				metaInfos = plugin.getPluginConnector().getResourceInfos(pullEntityList);
+			}
+			else {
+				metaInfos = Collections.emptyMap();
+			}
 			for (SyncEntity entity : syncList) {
-				doMetaInfoHandling(console, metaInfos, entity);
+				if (upToDateEntities.contains(entity)) {
+					continue;
+				}
+				if (doMetaInfoHandling(console, metaInfos, entity)) {
+					if (entity.getSyncAction().isDeleteAction()) {
+						metaInfoCache.remove(entity.getVfsPath());
+					}
+					else {
+						metaInfoCache.update(entity);
+					}
+				}
 			}
 		}
 		catch (OpenCmsConnectorException e) {
@@ -416,14 +661,14 @@ public class SyncJob implements Runnable {
 		}
 	}
 
-	private void doMetaInfoHandling(OpenCmsToolWindowConsole console, Map<String,String> metaInfos, SyncEntity entity) {
+	private boolean doMetaInfoHandling(OpenCmsToolWindowConsole console, Map<String,String> metaInfos, SyncEntity entity) {
 		String metaInfoFilePath = entity.getMetaInfoFilePath();
 		File metaInfoFile = new File(metaInfoFilePath);
 
 		if (entity.getSyncAction().isDeleteAction()) {
 			FileUtils.deleteQuietly(metaInfoFile);
 			console.info("DELETE: " + metaInfoFilePath);
-			return;
+			return true;
 		}
 
 		if (metaInfos.containsKey(entity.getVfsPath())) {
@@ -438,7 +683,7 @@ public class SyncJob implements Runnable {
 						String message = "ERROR: cant create meta info directory " + metaFolderPath;
 						console.error(message);
 						LOG.warn(message, e);
-						return;
+						return false;
 					}
 				}
 			}
@@ -450,30 +695,57 @@ public class SyncJob implements Runnable {
 				String message = "ERROR: cant create meta info file " + metaInfoFilePath;
 				console.error(message);
 				LOG.warn(message, e);
-				return;
+				return false;
 			}
 
 		}
 		else {
 			String message = entity.getVfsPath() + " not found in meta info map.";
 			console.error(message);
-			return;
+			return false;
 		}
 		console.info("PULL: Meta info file pulled: " + metaInfoFilePath);
+		return true;
 	}
 
-	private void pullModuleResourcePathAncestorMetaInfos() {
-		List<OpenCmsModuleResource> resourcePathParents = new ArrayList<OpenCmsModuleResource>();
+	/**
+	 * Starts the asynchronous requests for the module manifests and the meta data of module resource ancestor folders
+	 */
+	private void requestModuleMetaData() {
+		OpenCmsPluginConnector connector = plugin.getPluginConnector();
+		if (connector == null) {
+			return;
+		}
+
+		List<String> moduleNames = getModuleNames();
+		if (moduleNames.size() > 0) {
+			moduleManifestsFuture = connector.getModuleManifestsAsync(moduleNames);
+		}
+
+		resourcePathParents = new ArrayList<OpenCmsModuleResource>();
 		for (OpenCmsModule ocmsModule : syncList.getOcmsModules()) {
 			Set<String> handledParents = new HashSet<String>();
 			for (String resourcePath : ocmsModule.getModuleResources()) {
 				addParentFolderToResourcePaths(resourcePath, ocmsModule, resourcePathParents, handledParents);
 			}
 		}
-
 		if (resourcePathParents.size() > 0) {
+			resourcePathParentInfosFuture = connector.getModuleResourceInfosAsync(resourcePathParents);
+		}
+	}
+
+	private List<String> getModuleNames() {
+		List<String> moduleNames = new ArrayList<String>(syncList.getOcmsModules().size());
+		for (OpenCmsModule ocmsModule : syncList.getOcmsModules()) {
+			moduleNames.add(ocmsModule.getModuleName());
+		}
+		return moduleNames;
+	}
+
+	private void pullModuleResourcePathAncestorMetaInfos() {
+		if (resourcePathParentInfosFuture != null) {
 			try {
-				Map<String,String> resourceInfos = plugin.getPluginConnector().getModuleResourceInfos(resourcePathParents);
+				Map<String,String> resourceInfos = OpenCmsPluginConnector.awaitResult(resourcePathParentInfosFuture);
 
 				for (OpenCmsModuleResource resourceParent : resourcePathParents) {
 					SyncFolder syncFolder = new SyncFolder(resourceParent.getOpenCmsModule(), resourceParent.getResourcePath(), null, null, SyncAction.PULL, false);
@@ -510,16 +782,10 @@ public class SyncJob implements Runnable {
 
 	private void pullModuleManifests() {
 
-		// collect the module names in a List
-		List<String> moduleNames = new ArrayList<String>(syncList.getOcmsModules().size());
-		for (OpenCmsModule ocmsModule : syncList.getOcmsModules()) {
-			moduleNames.add(ocmsModule.getModuleName());
-		}
-
-		if (moduleNames.size() > 0) {
+		if (moduleManifestsFuture != null) {
 			try {
-				// pull the module manifests
-				Map<String,String> manifestInfos = plugin.getPluginConnector().getModuleManifests(moduleNames);
+				// wait for the module manifests requested at the start of the sync
+				Map<String,String> manifestInfos = OpenCmsPluginConnector.awaitResult(moduleManifestsFuture);
 
 				for (OpenCmsModule ocmsModule : syncList.getOcmsModules()) {
 					if (manifestInfos.containsKey(ocmsModule.getModuleName())) {
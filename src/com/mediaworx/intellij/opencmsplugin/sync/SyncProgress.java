@@ -0,0 +1,174 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.sync;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.mediaworx.intellij.opencmsplugin.entities.SyncEntity;
+
+import java.io.File;
+
+/**
+ * Keeps track of the progress of a {@link SyncJob}. Counts synced entities and transferred bytes, calculates the
+ * throughput (files/s and bytes/s) and the estimated remaining time and reports them to the progress indicator of the
+ * sync task.
+ */
+class SyncProgress {
+
+	private static final long KILOBYTE = 1024;
+	private static final long MEGABYTE = 1024 * KILOBYTE;
+
+	private ProgressIndicator indicator;
+	private int numEntities;
+	private int numSynced;
+	private long numBytes;
+	private long startTime;
+
+	/**
+	 * Creates a new progress tracker, the clock starts running right away
+	 * @param indicator   the progress indicator of the sync task, may be <code>null</code>
+	 * @param numEntities total number of entities to be synced
+	 */
+	SyncProgress(ProgressIndicator indicator, int numEntities) {
+		this.indicator = indicator;
+		this.numEntities = numEntities;
+		startTime = System.currentTimeMillis();
+		if (indicator != null) {
+			indicator.setIndeterminate(false);
+			indicator.setFraction(0);
+		}
+	}
+
+	/**
+	 * Checks if the sync was cancelled by the user. Called between entities, the only safe points for cancelling a
+	 * sync.
+	 * @return <code>true</code> if the sync was cancelled, <code>false</code> otherwise
+	 */
+	boolean isCanceled() {
+		return indicator != null && indicator.isCanceled();
+	}
+
+	/**
+	 * Shows the entity that is about to be synced
+	 * @param entity the entity that is about to be synced
+	 */
+	void entityStarted(SyncEntity entity) {
+		if (indicator != null) {
+			indicator.setText(entity.getSyncAction().getDescription() + " " + entity.getVfsPath());
+		}
+	}
+
+	/**
+	 * Adds the entity that has just been synced to the statistics and updates the progress indicator
+	 * @param entity the entity that has just been synced
+	 */
+	void entityFinished(SyncEntity entity) {
+		numSynced++;
+		numBytes += getTransferredBytes(entity);
+		if (indicator != null) {
+			indicator.setFraction(numEntities > 0 ? (double)numSynced / numEntities : 1);
+			indicator.setText2(getStatus());
+		}
+	}
+
+	/**
+	 * Returns the number of entities that haven't been synced yet
+	 * @return the number of remaining entities
+	 */
+	int getNumRemaining() {
+		return numEntities - numSynced;
+	}
+
+	/**
+	 * Returns the current status, e.g. "12/80 files, 3.2 files/s, 1.4 MB/s, ETA 21s"
+	 * @return the current status
+	 */
+	String getStatus() {
+		long elapsed = getElapsedMillis();
+		StringBuilder status = new StringBuilder();
+		status.append(numSynced).append("/").append(numEntities).append(" files, ");
+		status.append(formatRate(numSynced, elapsed)).append(" files/s, ");
+		status.append(formatBytes(bytesPerSecond(elapsed))).append("/s");
+		if (numSynced > 0 && getNumRemaining() > 0) {
+			long eta = elapsed * getNumRemaining() / numSynced;
+			status.append(", ETA ").append(formatDuration(eta));
+		}
+		return status.toString();
+	}
+
+	/**
+	 * Returns a summary of the sync throughput, used for the console output once syncing is finished
+	 * @return a summary of the sync throughput
+	 */
+	String getSummary() {
+		long elapsed = getElapsedMillis();
+		return numSynced + " files/folders (" + formatBytes(numBytes) + ") synced in " + formatDuration(elapsed) + ", "
+				+ formatRate(numSynced, elapsed) + " files/s, " + formatBytes(bytesPerSecond(elapsed)) + "/s";
+	}
+
+	private long getElapsedMillis() {
+		return Math.max(System.currentTimeMillis() - startTime, 1);
+	}
+
+	private long bytesPerSecond(long elapsed) {
+		return numBytes * 1000 / elapsed;
+	}
+
+	/**
+	 * Internal method returning the number of bytes transferred for the given entity. Folders and deletions don't
+	 * transfer any content, for pushed or pulled files the size of the local file is used.
+	 * @param entity the synced entity
+	 * @return the number of transferred bytes
+	 */
+	static long getTransferredBytes(SyncEntity entity) {
+		if (!entity.isFile() || entity.getSyncAction().isDeleteAction()) {
+			return 0;
+		}
+		File file = entity.getFile() != null ? entity.getFile() : new File(entity.getRfsPath());
+		return file.length();
+	}
+
+	private static String formatRate(int count, long millis) {
+		return String.format("%.1f", count * 1000.0 / millis);
+	}
+
+	private static String formatBytes(long bytes) {
+		if (bytes >= MEGABYTE) {
+			return String.format("%.1f MB", (double)bytes / MEGABYTE);
+		}
+		if (bytes >= KILOBYTE) {
+			return String.format("%.1f KB", (double)bytes / KILOBYTE);
+		}
+		return bytes + " bytes";
+	}
+
+	private static String formatDuration(long millis) {
+		long seconds = (millis + 500) / 1000;
+		if (seconds >= 60) {
+			return (seconds / 60) + "m " + (seconds % 60) + "s";
+		}
+		return seconds + "s";
+	}
+}
@@ -0,0 +1,320 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.sync;
+
+import com.mediaworx.intellij.opencmsplugin.entities.SyncEntity;
+import org.json.simple.JSONValue;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Machine readable report of one {@link SyncJob} run: the durations of the sync phases, the number of entities and
+ * bytes per sync action and the slowest entities. The report is written as JSON (see {@link #toJson()}) and listed
+ * in the "Sync Runs" tab of the OpenCms tool window (see {@link SyncRunReportHistory}).
+ * <br /><br />
+ * Phases are recorded by the thread running the sync, the report may be read by other threads once it is finished.
+ */
+public class SyncRunReport {
+
+	public static final String PHASE_ANALYSIS = "analysis";
+	public static final String PHASE_TRANSFER = "transfer";
+	public static final String PHASE_MANIFEST_PULL = "manifest pull";
+	public static final String PHASE_ANCESTOR_META_PULL = "ancestor meta pull";
+	public static final String PHASE_RESOURCE_META_PULL = "resource meta pull";
+	public static final String PHASE_PUBLISH = "publish";
+	public static final String PHASE_EXPORT_POINTS = "export points";
+	public static final String PHASE_REFRESH = "refresh";
+
+	/** number of entities listed as the slowest ones */
+	private static final int NUM_SLOWEST_ENTITIES = 10;
+
+	private long startTime = System.currentTimeMillis();
+	private long startNanos = System.nanoTime();
+	private final Map<String, Long> phaseDurations = new LinkedHashMap<String, Long>();
+	private final Map<SyncAction, ActionStatistics> actionStatistics = new EnumMap<SyncAction, ActionStatistics>(SyncAction.class);
+
+	/** min heap of the slowest entities, the fastest of them is on top and is replaced by slower ones */
+	private final PriorityQueue<EntityTiming> slowestEntities = new PriorityQueue<EntityTiming>(NUM_SLOWEST_ENTITIES + 1, new Comparator<EntityTiming>() {
+		@Override
+		public int compare(EntityTiming timing1, EntityTiming timing2) {
+			return Long.compare(timing1.millis, timing2.millis);
+		}
+	});
+
+	private int numEntities;
+	private boolean canceled = false;
+	private long totalDuration = -1;
+	private File reportFile;
+
+	/**
+	 * Creates a new report, the total duration is measured from the creation of the report or from the last call of
+	 * {@link #start()}
+	 * @param numEntities number of entities to be synced
+	 */
+	SyncRunReport(int numEntities) {
+		this.numEntities = numEntities;
+	}
+
+	/**
+	 * (Re)starts the clock measuring the total duration, called when the sync job starts running (after the user
+	 * confirmed the sync).
+	 */
+	synchronized void start() {
+		startTime = System.currentTimeMillis();
+		startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Records the duration of a phase that has just finished. If the phase was recorded before, the durations are
+	 * added up.
+	 * @param phase      the phase, one of the <code>PHASE_</code> constants
+	 * @param phaseStart the start time of the phase, as returned by {@link System#nanoTime()}
+	 */
+	synchronized void addPhase(String phase, long phaseStart) {
+		addPhaseDuration(phase, (System.nanoTime() - phaseStart) / 1000000);
+	}
+
+	/**
+	 * Records the duration of a phase measured elsewhere (e.g. the analysis done before the sync job was started).
+	 * @param phase    the phase, one of the <code>PHASE_</code> constants
+	 * @param duration the duration in milliseconds
+	 */
+	public synchronized void addPhaseDuration(String phase, long duration) {
+		Long previousDuration = phaseDurations.get(phase);
+		phaseDurations.put(phase, previousDuration != null ? previousDuration + duration : duration);
+	}
+
+	/**
+	 * Adds a synced entity to the statistics
+	 * @param entity  the synced entity
+	 * @param millis  the time in milliseconds it took to sync the entity
+	 * @param bytes   number of bytes transferred
+	 * @param success <code>true</code> if the entity was synced successfully, <code>false</code> otherwise
+	 */
+	synchronized void addEntity(SyncEntity entity, long millis, long bytes, boolean success) {
+		ActionStatistics statistics = actionStatistics.get(entity.getSyncAction());
+		if (statistics == null) {
+			statistics = new ActionStatistics();
+			actionStatistics.put(entity.getSyncAction(), statistics);
+		}
+		statistics.count++;
+		if (success) {
+			statistics.bytes += bytes;
+		}
+		else {
+			statistics.failed++;
+		}
+
+		if (slowestEntities.size() < NUM_SLOWEST_ENTITIES || millis > slowestEntities.peek().millis) {
+			slowestEntities.add(new EntityTiming(entity.getVfsPath(), entity.getSyncAction(), millis, bytes));
+			if (slowestEntities.size() > NUM_SLOWEST_ENTITIES) {
+				slowestEntities.poll();
+			}
+		}
+	}
+
+	/**
+	 * @param canceled <code>true</code> if the sync was cancelled by the user or because OpenCms couldn't be reached
+	 */
+	synchronized void setCanceled(boolean canceled) {
+		this.canceled = canceled;
+	}
+
+	/**
+	 * Marks the run as finished, the total duration is measured from the start of the run (see {@link #start()}).
+	 */
+	synchronized void finish() {
+		totalDuration = (System.nanoTime() - startNanos) / 1000000;
+	}
+
+	/**
+	 * @return the file the report was written to, <code>null</code> if it wasn't written
+	 */
+	public synchronized File getReportFile() {
+		return reportFile;
+	}
+
+	synchronized void setReportFile(File reportFile) {
+		this.reportFile = reportFile;
+	}
+
+	/**
+	 * @return the start time of the run, in milliseconds since the epoch
+	 */
+	public synchronized long getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * @return the total duration of the run in milliseconds, -1 if the run is not finished yet
+	 */
+	public synchronized long getTotalDuration() {
+		return totalDuration;
+	}
+
+	/**
+	 * Returns the number of failed entities of all sync actions
+	 * @return the number of failed entities
+	 */
+	public synchronized int getNumFailed() {
+		int numFailed = 0;
+		for (ActionStatistics statistics : actionStatistics.values()) {
+			numFailed += statistics.failed;
+		}
+		return numFailed;
+	}
+
+	/**
+	 * Returns a one line summary of the run, e.g. "2016-05-12 14:03:11 - 120 entities in 4210 ms (2 failed)"
+	 * @return a summary of the run
+	 */
+	public synchronized String getSummary() {
+		StringBuilder summary = new StringBuilder(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(startTime)));
+		summary.append(" - ").append(numEntities).append(" entities in ").append(totalDuration).append(" ms");
+		int numFailed = getNumFailed();
+		if (numFailed > 0) {
+			summary.append(" (").append(numFailed).append(" failed)");
+		}
+		if (canceled) {
+			summary.append(" (cancelled)");
+		}
+		return summary.toString();
+	}
+
+	/**
+	 * Returns the phase durations, action statistics and slowest entities in human readable form, displayed in the
+	 * tool window
+	 * @return the details of the run
+	 */
+	public synchronized String getDetails() {
+		StringBuilder details = new StringBuilder(getSummary()).append("\n\nPhases:\n");
+		for (Map.Entry<String, Long> phase : phaseDurations.entrySet()) {
+			details.append("  ").append(phase.getKey()).append(": ").append(phase.getValue()).append(" ms\n");
+		}
+		details.append("\nActions:\n");
+		for (Map.Entry<SyncAction, ActionStatistics> action : actionStatistics.entrySet()) {
+			ActionStatistics statistics = action.getValue();
+			details.append("  ").append(action.getKey().getDescription()).append(": ").append(statistics.count)
+					.append(" (").append(statistics.failed).append(" failed), ").append(statistics.bytes).append(" bytes\n");
+		}
+		details.append("\nSlowest entities:\n");
+		for (EntityTiming timing : getSlowestEntities()) {
+			details.append("  ").append(timing.millis).append(" ms ").append(timing.action.getDescription()).append(" ")
+					.append(timing.vfsPath).append(" (").append(timing.bytes).append(" bytes)\n");
+		}
+		if (reportFile != null) {
+			details.append("\nReport: ").append(reportFile.getPath()).append("\n");
+		}
+		return details.toString();
+	}
+
+	/**
+	 * Returns the report as JSON object, e.g.
+	 * <pre>
+	 * {"startTime":"2016-05-12T14:03:11.042+0200","totalMillis":4210,"canceled":false,"numEntities":120,
+	 *  "phases":{"analysis":830,"transfer":3010,...},
+	 *  "actions":{"PUSH":{"count":118,"failed":2,"bytes":1048576},...},
+	 *  "slowestEntities":[{"vfsPath":"/system/modules/...","action":"PUSH","millis":410,"bytes":524288},...]}
+	 * </pre>
+	 * @return the report in JSON format
+	 */
+	public synchronized String toJson() {
+		Map<String, Object> json = new LinkedHashMap<String, Object>();
+		json.put("startTime", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").format(new Date(startTime)));
+		json.put("totalMillis", totalDuration);
+		json.put("canceled", canceled);
+		json.put("numEntities", numEntities);
+		json.put("phases", new LinkedHashMap<String, Long>(phaseDurations));
+
+		Map<String, Object> actions = new LinkedHashMap<String, Object>();
+		for (Map.Entry<SyncAction, ActionStatistics> action : actionStatistics.entrySet()) {
+			Map<String, Object> statistics = new LinkedHashMap<String, Object>();
+			statistics.put("count", action.getValue().count);
+			statistics.put("failed", action.getValue().failed);
+			statistics.put("bytes", action.getValue().bytes);
+			actions.put(action.getKey().name(), statistics);
+		}
+		json.put("actions", actions);
+
+		List<Object> slowest = new ArrayList<Object>();
+		for (EntityTiming timing : getSlowestEntities()) {
+			Map<String, Object> entity = new LinkedHashMap<String, Object>();
+			entity.put("vfsPath", timing.vfsPath);
+			entity.put("action", timing.action.name());
+			entity.put("millis", timing.millis);
+			entity.put("bytes", timing.bytes);
+			slowest.add(entity);
+		}
+		json.put("slowestEntities", slowest);
+
+		return JSONValue.toJSONString(json);
+	}
+
+	@Override
+	public String toString() {
+		return getSummary();
+	}
+
+	/**
+	 * @return the slowest entities, the slowest first
+	 */
+	private List<EntityTiming> getSlowestEntities() {
+		List<EntityTiming> timings = new ArrayList<EntityTiming>(slowestEntities);
+		Collections.sort(timings, Collections.reverseOrder(slowestEntities.comparator()));
+		return timings;
+	}
+
+	private static class ActionStatistics {
+		int count;
+		int failed;
+		long bytes;
+	}
+
+	private static class EntityTiming {
+
+		final String vfsPath;
+		final SyncAction action;
+		final long millis;
+		final long bytes;
+
+		EntityTiming(String vfsPath, SyncAction action, long millis, long bytes) {
+			this.vfsPath = vfsPath;
+			this.action = action;
+			this.millis = millis;
+			this.bytes = bytes;
+		}
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.sync;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the reports of the recent sync runs (see {@link SyncRunReport}) and writes each report as JSON file to the
+ * report folder. Only the last {@link #MAX_REPORTS} reports are kept in memory and only the last
+ * {@link #MAX_REPORT_FILES} report files are kept in the report folder.
+ */
+public class SyncRunReportHistory {
+
+	private static final Logger LOG = Logger.getInstance(SyncRunReportHistory.class);
+
+	/** max number of reports kept in memory (and listed in the tool window) */
+	private static final int MAX_REPORTS = 20;
+
+	/** max number of report files kept in the report folder, older files are deleted */
+	private static final int MAX_REPORT_FILES = 100;
+
+	private static final String REPORT_FILE_PREFIX = "sync-";
+	private static final String REPORT_FILE_SUFFIX = ".json";
+
+	private final File reportFolder;
+	private final LinkedList<SyncRunReport> reports = new LinkedList<SyncRunReport>();
+	private final List<Runnable> changeListeners = new CopyOnWriteArrayList<Runnable>();
+
+	/**
+	 * Creates a new history writing its report files to the given folder
+	 * @param reportFolder the folder the JSON reports are written to, created if necessary
+	 */
+	public SyncRunReportHistory(File reportFolder) {
+		this.reportFolder = reportFolder;
+	}
+
+	/**
+	 * Writes the given report to the report folder, adds it to the recent reports and notifies the change listeners
+	 * @param report the report of a finished sync run
+	 */
+	void addReport(SyncRunReport report) {
+		writeReportFile(report);
+		synchronized (this) {
+			reports.addFirst(report);
+			while (reports.size() > MAX_REPORTS) {
+				reports.removeLast();
+			}
+		}
+		for (Runnable changeListener : changeListeners) {
+			changeListener.run();
+		}
+	}
+
+	/**
+	 * @return the recent reports, the newest first
+	 */
+	public synchronized List<SyncRunReport> getReports() {
+		return new ArrayList<SyncRunReport>(reports);
+	}
+
+	/**
+	 * @return the folder the JSON reports are written to
+	 */
+	public File getReportFolder() {
+		return reportFolder;
+	}
+
+	/**
+	 * Adds a listener that is run whenever a report was added, on the thread that added the report
+	 * @param changeListener the listener
+	 */
+	public void addChangeListener(Runnable changeListener) {
+		changeListeners.add(changeListener);
+	}
+
+	private void writeReportFile(SyncRunReport report) {
+		String fileName = REPORT_FILE_PREFIX + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date(report.getStartTime())) + REPORT_FILE_SUFFIX;
+		File reportFile = new File(reportFolder, fileName);
+		try {
+			FileUtils.writeStringToFile(reportFile, report.toJson(), StandardCharsets.UTF_8.name());
+			report.setReportFile(reportFile);
+		}
+		catch (IOException e) {
+			LOG.warn("The sync report could not be written to " + reportFile.getPath(), e);
+			return;
+		}
+		deleteOldReportFiles();
+	}
+
+	private void deleteOldReportFiles() {
+		File[] reportFiles = reportFolder.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.startsWith(REPORT_FILE_PREFIX) && name.endsWith(REPORT_FILE_SUFFIX);
+			}
+		});
+		if (reportFiles == null || reportFiles.length <= MAX_REPORT_FILES) {
+			return;
+		}
+		// the file names start with the timestamp, so the oldest files come first
+		Arrays.sort(reportFiles);
+		for (int i = 0; i < reportFiles.length - MAX_REPORT_FILES; i++) {
+			FileUtils.deleteQuietly(reportFiles[i]);
+		}
+	}
+}
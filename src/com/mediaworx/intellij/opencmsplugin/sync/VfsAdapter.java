@@ -25,11 +25,11 @@
 package com.mediaworx.intellij.opencmsplugin.sync;
 
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.ui.Messages;
 import com.mediaworx.intellij.opencmsplugin.entities.SyncEntity;
 import com.mediaworx.intellij.opencmsplugin.exceptions.CmsConnectionException;
 import com.mediaworx.intellij.opencmsplugin.exceptions.CmsPermissionDeniedException;
 import com.mediaworx.intellij.opencmsplugin.exceptions.CmsPushException;
+import com.mediaworx.intellij.opencmsplugin.exceptions.CmsTransferException;
 import com.mediaworx.intellij.opencmsplugin.tools.PluginTools;
 import org.apache.chemistry.opencmis.client.api.*;
 import org.apache.chemistry.opencmis.client.runtime.SessionFactoryImpl;
@@ -47,9 +47,12 @@ import org.apache.commons.io.FileUtils;
 
 import javax.activation.MimetypesFileTypeMap;
 import java.io.*;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Adapter used to sync the RFS with the OpenCms VFS. Doesn't handle properties, siblings or content types.
@@ -179,17 +182,98 @@ public class VfsAdapter {
 	    }
 	}
 
+	/**
+	 * Checks which of the given paths exist in the VFS. The paths are grouped by their parent folder, for parent
+	 * folders containing more than one of the paths the folder's children are read in one request instead of
+	 * checking each path separately.
+	 * @param paths the paths to be checked (full root paths)
+	 * @return the paths that exist in the VFS, an empty set if the adapter is not connected
+	 */
+	public Set<String> getExistingPaths(Collection<String> paths) {
+		Set<String> existingPaths = new HashSet<String>();
+		if (!isConnected()) {
+			LOG.warn("not connected");
+			return existingPaths;
+		}
+
+		Map<String, Set<String>> namesByParentPath = new HashMap<String, Set<String>>();
+		for (String path : paths) {
+			int nameStart = path.lastIndexOf('/') + 1;
+			if (!path.startsWith("/") || nameStart == path.length()) {
+				// relative paths never exist, folder paths with trailing slash are checked directly
+				if (exists(path)) {
+					existingPaths.add(path);
+				}
+				continue;
+			}
+			String parentPath = nameStart == 1 ? "/" : path.substring(0, nameStart - 1);
+			Set<String> names = namesByParentPath.get(parentPath);
+			if (names == null) {
+				names = new HashSet<String>();
+				namesByParentPath.put(parentPath, names);
+			}
+			names.add(path.substring(nameStart));
+		}
+
+		for (Map.Entry<String, Set<String>> parent : namesByParentPath.entrySet()) {
+			String parentPath = parent.getKey();
+			Set<String> names = parent.getValue();
+			String pathPrefix = "/".equals(parentPath) ? parentPath : parentPath + "/";
+			if (names.size() == 1) {
+				String path = pathPrefix + names.iterator().next();
+				if (exists(path)) {
+					existingPaths.add(path);
+				}
+				continue;
+			}
+			CmisObject parentObject;
+			try {
+				parentObject = getObjectByPath(parentPath);
+			}
+			catch (CmisObjectNotFoundException e) {
+				continue;
+			}
+			if (parentObject instanceof Folder) {
+				for (CmisObject child : ((Folder)parentObject).getChildren()) {
+					if (names.contains(child.getName())) {
+						existingPaths.add(pathPrefix + child.getName());
+					}
+				}
+			}
+		}
+		return existingPaths;
+	}
+
+	/**
+	 * Internal method making sure the adapter is connected before a resource is read or written
+	 * @throws CmsConnectionException if the adapter is not connected
+	 */
+	private void ensureConnected() throws CmsConnectionException {
+		if (!connected) {
+			LOG.warn("not connected");
+			throw new CmsConnectionException("Not connected to the OpenCms VFS. Is OpenCms running?");
+		}
+	}
+
+	/**
+	 * Reads the CMIS object at the given path from the session
+	 * @param path the resource's root path
+	 * @return the CMIS object
+	 * @throws CmisObjectNotFoundException if there's no resource at the given path
+	 */
+	protected CmisObject getObjectByPath(String path) {
+		return session.getObjectByPath(path);
+	}
+
 	/**
 	 * retrieves (pulls) the VFS resource at the given path
 	 * @param path  path of the resource to be pulled
-	 * @return  the VFS resource
+	 * @return  the VFS resource, <code>null</code> if there's no resource at the given path
 	 * @throws CmsPermissionDeniedException
+	 * @throws CmsConnectionException if the adapter is not connected or the connection to OpenCms failed
 	 */
-	public CmisObject getVfsObject(String path) throws CmsPermissionDeniedException {
-	    if (!connected) {
-		    LOG.warn("not connected");
-		    return null;
-	    }
+	public CmisObject getVfsObject(String path) throws CmsPermissionDeniedException, CmsConnectionException {
+		ensureConnected();
 		path = PluginTools.ensureUnixPath(path);
 	    try {
 	        return session.getObjectByPath(path);
@@ -202,11 +286,8 @@ public class VfsAdapter {
 		    throw new CmsPermissionDeniedException("Permission denied, can't access "+path, e);
 	    }
 		catch (CmisConnectionException e) {
-			Messages.showDialog("Error connecting to the VFS" + e.getMessage() + "\nIs OpenCms running?",
-					"Error", new String[]{"Ok"}, 0, Messages.getErrorIcon());
 			LOG.warn("Error connecting to the VFS", e);
-			connected = false;
-			return null;
+			throw new CmsConnectionException("Error connecting to the VFS reading " + path + ": " + e.getMessage() + "\nIs OpenCms running?", e);
 		}
 	}
 
@@ -214,12 +295,10 @@ public class VfsAdapter {
 	 * retrieves a VFS folder, creating it if it doesn't exist
 	 * @param path  the path of the folder to be retrieved
 	 * @return  the VFS folder (may be newly created)
+	 * @throws CmsConnectionException if the adapter is not connected
 	 */
-	private Folder getOrCreateFolder(String path) {
-	    if (!connected) {
-		    LOG.warn("not connected");
-		    return null;
-	    }
+	private Folder getOrCreateFolder(String path) throws CmsConnectionException {
+		ensureConnected();
 
 	    // check if the folder exists
 	    try {
@@ -254,8 +333,9 @@ public class VfsAdapter {
 	 * @param path  the folder's VFS path (full root path, e.g.
 	 *              <code>/system/modules/com.mycompany.mymodule/classes</code>)
 	 * @return  the newly created folder (or the folder that existed previously)
+	 * @throws CmsConnectionException if the adapter is not connected
 	 */
-	public Folder createFolder(String path) {
+	public Folder createFolder(String path) throws CmsConnectionException {
 		return getOrCreateFolder(path);
 	}
 
@@ -263,13 +343,11 @@ public class VfsAdapter {
 	 * pushes a file from the RFS to the VFS
 	 * @param entity    the sync entity representing the file to be pushed
 	 * @return  a CMIS document of the newly created VFS file
-	 * @throws CmsPushException
+	 * @throws CmsPushException if the file could not be pushed
+	 * @throws CmsConnectionException if the adapter is not connected
 	 */
-	public Document pushFile(SyncEntity entity) throws CmsPushException {
-		if (!connected) {
-			LOG.info("not connected");
-			return null;
-		}
+	public Document pushFile(SyncEntity entity) throws CmsPushException, CmsConnectionException {
+		ensureConnected();
 
 		File rfsFile = entity.getFile();
 		FileInputStream rfsFileInputStream = null;
@@ -316,7 +394,7 @@ public class VfsAdapter {
 			vfsFileModifiedTime = vfsFile.getLastModificationDate().getTimeInMillis();
 		}
 		catch (FileNotFoundException e) {
-			LOG.info("File not found.");
+			throw new CmsPushException("Could not push entity "+entity.getVfsPath()+", the local file doesn't exist.", e);
 		}
 		catch(CmisNameConstraintViolationException e) {
 			throw new CmsPushException("Could not push entity "+entity.getVfsPath()+", there was a problem with the resource name.\n"+e.getMessage(), e);
@@ -351,12 +429,12 @@ public class VfsAdapter {
 	/**
 	 * pulls a VFS file to the RFS
 	 * @param syncEntity    the sync entity representing the file to be pulled
+	 * @throws CmsConnectionException if the adapter is not connected
+	 * @throws CmsTransferException if the content couldn't be read from OpenCms or written to the local file, in
+	 *                              that case the partially written local file is deleted
 	 */
-	public void pullFile(SyncEntity syncEntity) {
-	    if (!connected) {
-		    LOG.info("not connected");
-		    return;
-	    }
+	public void pullFile(SyncEntity syncEntity) throws CmsConnectionException, CmsTransferException {
+		ensureConnected();
 	    Document document = (Document)syncEntity.getVfsObject();
 
 	    LOG.info("Pulling "+syncEntity.getVfsPath()+" to "+syncEntity.getOcmsModule().getLocalVfsRoot());
@@ -364,15 +442,18 @@ public class VfsAdapter {
 	    InputStream is = document.getContentStream().getStream();
 	    File rfsFile = createRealFile(syncEntity);
 	    OutputStream os = null;
+	    boolean success = false;
 	    try {
 	        os = new FileOutputStream(rfsFile);
 	        byte[] buffer = new byte[4096];
 	        for (int n; (n = is.read(buffer)) != -1; ) {
 	            os.write(buffer, 0, n);
 	        }
+	        os.close();
+	        success = true;
 	    }
 	    catch (IOException e) {
-	        LOG.info("There was an Exception writing to the local file " + syncEntity.getRfsPath() + ": " + e + "\n" + e.getMessage());
+	        throw new CmsTransferException("There was an Exception pulling " + syncEntity.getVfsPath() + " to the local file " + syncEntity.getRfsPath() + ": " + e.getMessage(), e);
 	    }
 	    finally {
 	        try {
@@ -381,17 +462,23 @@ public class VfsAdapter {
 	        catch (IOException e) {
 	            // Do nothing
 	        }
-		    if (os != null) {
-			    try {
-				    os.close();
+		    if (!success) {
+			    if (os != null) {
+				    try {
+					    os.close();
+				    }
+				    catch (IOException e) {
+					    // Do nothing
+				    }
 			    }
-			    catch (IOException e) {
-				    // Do nothing
+			    // a truncated file must not look like an up to date copy of the VFS file
+			    if (rfsFile.exists() && !rfsFile.delete()) {
+				    LOG.warn("The partially pulled file " + syncEntity.getRfsPath() + " could not be deleted");
 			    }
 		    }
-	        if (!rfsFile.setLastModified(document.getLastModificationDate().getTimeInMillis())) {
-		        LOG.info("there was an error setting the modification date for " + syncEntity.getRfsPath());
-	        }
+	    }
+	    if (!rfsFile.setLastModified(document.getLastModificationDate().getTimeInMillis())) {
+		    LOG.info("there was an error setting the modification date for " + syncEntity.getRfsPath());
 	    }
 	}
 
@@ -434,12 +521,11 @@ public class VfsAdapter {
 	 * deletes a file or folder from the VFS
 	 * @param vfsPath   the path of the resource to be deleted (full root path, e.g.
 	 *              <code>/system/modules/com.mycompany.mymodule/formatters/delete_me.jsp</code>)
+	 * @return  <code>true</code> if the resource was deleted, <code>false</code> otherwise
+	 * @throws CmsConnectionException if the adapter is not connected
 	 */
-	public boolean deleteResource(String vfsPath) {
-	    if (!connected) {
-		    LOG.warn("not connected");
-		    return false;
-	    }
+	public boolean deleteResource(String vfsPath) throws CmsConnectionException {
+		ensureConnected();
 		boolean success = false;
 	    CmisObject vfsFile = null;
 	    try {
@@ -0,0 +1,194 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package com.mediaworx.intellij.opencmsplugin.sync;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.mediaworx.intellij.opencmsplugin.entities.SyncEntity;
+import com.mediaworx.intellij.opencmsplugin.exceptions.CmsConnectionException;
+import com.mediaworx.intellij.opencmsplugin.exceptions.CmsTransferException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisBaseException;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisConnectionException;
+
+import java.io.IOException;
+
+/**
+ * Resilience layer for transfers executed via the {@link VfsAdapter} during a {@link SyncJob}. Transient errors
+ * (connection problems, timeouts) are retried with exponential backoff, other errors (e.g. name constraints, locks or
+ * XML validation issues) fail right away. If several entities in a row fail with transient errors even after
+ * retrying, OpenCms is considered to be down: the circuit breaker opens and all further transfers of the job are
+ * rejected immediately instead of running into the same timeout for each remaining entity. The circuit breaker also
+ * opens right away if the VFS adapter is not connected at all.
+ */
+class VfsTransferGuard {
+
+	private static final Logger LOG = Logger.getInstance(VfsTransferGuard.class);
+
+	/** number of retries after the first failed attempt */
+	private static final int MAX_RETRIES = 3;
+
+	/** backoff before the first retry in milliseconds, doubled for each further retry */
+	private static final long INITIAL_BACKOFF = 500;
+
+	/** upper limit for the backoff in milliseconds */
+	private static final long MAX_BACKOFF = 4000;
+
+	/** number of entities in a row failing with transient errors that opens the circuit breaker */
+	private static final int CIRCUIT_BREAKER_THRESHOLD = 3;
+
+	/** the backoff is slept in steps of this many milliseconds, so a cancellation is noticed quickly */
+	private static final long BACKOFF_STEP = 100;
+
+	/**
+	 * A single transfer (push, pull or delete) of a sync entity
+	 */
+	interface Transfer {
+		/**
+		 * Executes the transfer
+		 * @param retry <code>true</code> if a previous attempt failed with a transient error. The previous attempt
+		 *              may have taken effect in OpenCms nonetheless (e.g. if only the response was lost), so
+		 *              transfers that aren't idempotent (creating resources) have to check the VFS first.
+		 * @throws Exception if the transfer failed
+		 */
+		void execute(boolean retry) throws Exception;
+	}
+
+	private final ProgressIndicator indicator;
+	private int numConsecutiveFailures = 0;
+	private boolean open = false;
+
+	/**
+	 * Creates a new transfer guard for one sync job
+	 * @param indicator the job's progress indicator, retries are stopped if it is canceled; may be <code>null</code>
+	 */
+	VfsTransferGuard(ProgressIndicator indicator) {
+		this.indicator = indicator;
+	}
+
+	/**
+	 * Executes the given transfer, retrying transient errors with exponential backoff
+	 * @param entity   the entity to be transferred, used for logging
+	 * @param transfer the transfer to be executed
+	 * @throws CmsTransferException if the transfer failed with a non transient error or if all retries failed
+	 * @throws CmsConnectionException if the circuit breaker is open because OpenCms seems to be down or the VFS
+	 *         adapter is not connected
+	 */
+	void execute(SyncEntity entity, Transfer transfer) throws CmsTransferException, CmsConnectionException {
+		if (open) {
+			throw new CmsConnectionException("Transfer of " + entity.getVfsPath() + " skipped, OpenCms is not reachable");
+		}
+
+		long backoff = INITIAL_BACKOFF;
+		for (int attempt = 0; ; attempt++) {
+			try {
+				transfer.execute(attempt > 0);
+				numConsecutiveFailures = 0;
+				return;
+			}
+			catch (Exception e) {
+				if (e instanceof CmsConnectionException && !isTransient(e)) {
+					// the adapter isn't connected, so all further transfers would fail as well
+					open = true;
+					throw (CmsConnectionException)e;
+				}
+				if (!isTransient(e)) {
+					numConsecutiveFailures = 0;
+					throw asTransferException(entity, e);
+				}
+				if (attempt >= MAX_RETRIES) {
+					numConsecutiveFailures++;
+					if (numConsecutiveFailures >= CIRCUIT_BREAKER_THRESHOLD) {
+						open = true;
+						LOG.warn("Circuit breaker opened after " + numConsecutiveFailures + " failed transfers in a row", e);
+						throw new CmsConnectionException("Sync aborted, " + numConsecutiveFailures + " transfers in a row failed. Is OpenCms running?");
+					}
+					throw asTransferException(entity, e);
+				}
+				LOG.info("Transient error transferring " + entity.getVfsPath() + ", retry " + (attempt + 1) + " in " + backoff + "ms: " + e.getMessage());
+				if (!sleepUnlessCanceled(backoff)) {
+					throw asTransferException(entity, e);
+				}
+				backoff = Math.min(backoff * 2, MAX_BACKOFF);
+			}
+		}
+	}
+
+	/**
+	 * Internal method sleeping for the backoff in short steps, so the sync can be canceled while waiting for a retry
+	 * @param millis the backoff in milliseconds
+	 * @return <code>true</code> if the full backoff elapsed, <code>false</code> if the sync was canceled or the
+	 *         thread was interrupted
+	 */
+	private boolean sleepUnlessCanceled(long millis) {
+		long end = System.currentTimeMillis() + millis;
+		try {
+			for (long remaining = millis; remaining > 0; remaining = end - System.currentTimeMillis()) {
+				if (indicator != null && indicator.isCanceled()) {
+					return false;
+				}
+				Thread.sleep(Math.min(remaining, BACKOFF_STEP));
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		return indicator == null || !indicator.isCanceled();
+	}
+
+	/**
+	 * Flag denoting if the circuit breaker is open, i.e. OpenCms is considered to be down
+	 * @return <code>true</code> if the circuit breaker is open, <code>false</code> otherwise
+	 */
+	boolean isOpen() {
+		return open;
+	}
+
+	/**
+	 * Internal method checking if an error is transient, i.e. it is a connection problem that may go away when the
+	 * transfer is retried. Errors reported by OpenCms itself (permissions, name constraints, locks) are not transient.
+	 * @param e the error to check
+	 * @return <code>true</code> if the error is transient, <code>false</code> otherwise
+	 */
+	private static boolean isTransient(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof CmisConnectionException || cause instanceof IOException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static CmsTransferException asTransferException(SyncEntity entity, Exception e) {
+		if (e instanceof CmsTransferException) {
+			return (CmsTransferException)e;
+		}
+		String message = e.getMessage();
+		if (e instanceof CmisBaseException || message == null) {
+			message = "Error transferring " + entity.getVfsPath() + "\n" + e;
+		}
+		return new CmsTransferException(message, e);
+	}
+}
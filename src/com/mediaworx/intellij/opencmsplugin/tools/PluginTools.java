@@ -74,10 +74,10 @@ public class PluginTools {
 	 * @return a path woth all backward slashes replaced by forward ones
 	 */
 	public static String ensureUnixPath(String path) {
-		if (path == null || path.length() == 0) {
+		if (path == null || path.indexOf('\\') < 0) {
 			return path;
 		}
-		return path.replaceAll("\\\\", "/");
+		return path.replace('\\', '/');
 	}
 
 	/**
@@ -97,14 +97,11 @@ public class PluginTools {
 	 * @return the given vfsPath with the site root removed
 	 */
 	public static String stripVfsSiteRootFromVfsPath(OpenCmsModule module, String vfsPath) {
-		String localPath;
-		if ("/".equals(module.getExportImportSiteRoot())) {
-			localPath = vfsPath;
+		String siteRoot = module.getExportImportSiteRoot();
+		if ("/".equals(siteRoot) || !vfsPath.startsWith(siteRoot)) {
+			return vfsPath;
 		}
-		else {
-			localPath = vfsPath.replaceFirst("^" + module.getExportImportSiteRoot(), "");
-		}
-		return localPath;
+		return vfsPath.substring(siteRoot.length());
 	}
 
 
@@ -185,9 +185,7 @@ public abstract class VfsFileAnalyzer {
 	 * @return <code>true</code> if the resource is ignored, <code>false</code> otherwise
 	 */
 	public static boolean fileOrPathIsIgnored(OpenCmsPluginConfigurationData config, final File file) {
-		final String filePath = PluginTools.ensureUnixPath(file.getPath());
-		final String filename = file.getName();
-		return fileOrPathIsIgnored(config, filePath, filename);
+		return config.getIgnoreRules().isIgnored(file);
 	}
 
 	/**
@@ -198,20 +196,7 @@ public abstract class VfsFileAnalyzer {
 	 * @return <code>true</code> if the resource is ignored, <code>false</code> otherwise
 	 */
 	public static boolean fileOrPathIsIgnored(OpenCmsPluginConfigurationData config, final String path, String filename) {
-		for (String ignoredPath : config.getIgnoredPathsArray()) {
-			if (path.matches(".*/"+ignoredPath+"(/.*)?")) {
-				LOG.info("path " + ignoredPath + " is ignored");
-				return true;
-			}
-		}
-
-		for (String ignoredFilename : config.getIgnoredFilesArray()) {
-			if (filename.matches(ignoredFilename)) {
-				LOG.info("file " + ignoredFilename + " is ignored");
-				return true;
-			}
-		}
-		return false;
+		return config.getIgnoreRules().isIgnored(path, filename);
 	}
 	
 	
@@ -24,6 +24,7 @@
 
 package com.mediaworx.intellij.opencmsplugin.toolwindow;
 
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.wm.ToolWindow;
@@ -33,6 +34,7 @@ import com.intellij.ui.content.ContentFactory;
 import com.mediaworx.intellij.opencmsplugin.OpenCmsPlugin;
 
 import javax.swing.*;
+import java.io.File;
 
 public class OpenCmsPluginToolWindowFactory implements ToolWindowFactory {
 
@@ -51,10 +53,13 @@ public class OpenCmsPluginToolWindowFactory implements ToolWindowFactory {
 		this.toolWindow = toolWindow;
 
 		ContentFactory contentFactory = ContentFactory.SERVICE.getInstance();
-        Content content = contentFactory.createContent(toolWindowContent, "", false);
+        Content content = contentFactory.createContent(toolWindowContent, "Console", false);
         toolWindow.getContentManager().addContent(content);
+		Content syncRunsContent = contentFactory.createContent(new SyncRunsPanel(plugin.getSyncRunReportHistory()), "Sync Runs", false);
+		toolWindow.getContentManager().addContent(syncRunsContent);
 
 		console.setScrollPane(scrollPane);
+		console.setSpillFile(new File(PathManager.getLogPath(), "opencms-console-" + project.getName().replaceAll("[^\\w.-]", "_") + ".log"));
 		plugin.setConsole(console);
 	}
 
@@ -22,6 +22,7 @@
  * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
  */
 
+
 package com.mediaworx.intellij.opencmsplugin.toolwindow;
 
 import com.intellij.openapi.diagnostic.Logger;
@@ -30,16 +31,58 @@ import com.intellij.util.ui.UIUtil;
 import javax.swing.*;
 import javax.swing.text.*;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Console of the OpenCms tool window used to log OpenCms actions like sync or publish.
+ * <br /><br />
+ * Output may be appended from any thread. Appended text is put into a lock-free queue that is drained on the event
+ * dispatch thread at most every {@link #FRAME_INTERVAL} milliseconds, so a sync of thousands of resources results in a
+ * few document updates per second instead of one EDT event per line. The console keeps only the last
+ * {@link #MAX_CONSOLE_LINES} lines, older output is removed. If a spill file is set (see {@link #setSpillFile(File)}),
+ * the complete output since the console was last cleared is written to that file as well.
+ */
 public class OpenCmsToolWindowConsole extends JTextPane {
 
 	private static final Logger LOG = Logger.getInstance(OpenCmsToolWindowConsole.class);
 
+	/** min interval in milliseconds between two updates of the console document */
+	private static final int FRAME_INTERVAL = 100;
+
+	/** max number of lines kept in the console, older lines are removed */
+	private static final int MAX_CONSOLE_LINES = 5000;
+
+	/** marker entry used to clear the console in the order of the queued output */
+	private static final ConsoleEntry CLEAR = new ConsoleEntry("", null);
+
 	private JScrollPane scrollPane;
 	private StyledDocument consoleDocument;
 	private SimpleAttributeSet errorAttributes;
 	private SimpleAttributeSet noticeAttributes;
 
+	private final ConcurrentLinkedQueue<ConsoleEntry> pendingEntries = new ConcurrentLinkedQueue<ConsoleEntry>();
+	private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+	private Timer drainTimer;
+
+	/** length of the notice at the top of the console telling that older output was removed, 0 if not displayed */
+	private int truncationNoticeLength = 0;
+
+	/** guards the spill file and writer, the console's own monitor is used by Swing */
+	private final Object spillLock = new Object();
+	private volatile File spillFile;
+	private Writer spillWriter;
+
 	public OpenCmsToolWindowConsole() {
 		super();
 		init();
@@ -49,6 +92,18 @@ public class OpenCmsToolWindowConsole extends JTextPane {
 		this.scrollPane = scrollPane;
 	}
 
+	/**
+	 * Sets the file the complete console output is written to. The file is overwritten whenever the console is
+	 * cleared.
+	 * @param spillFile the spill file, <code>null</code> if the output should not be written to a file
+	 */
+	public void setSpillFile(File spillFile) {
+		synchronized (spillLock) {
+			closeSpillWriter();
+			this.spillFile = spillFile;
+		}
+	}
+
 	private void init() {
 		setEditable(false);
 
@@ -60,10 +115,27 @@ public class OpenCmsToolWindowConsole extends JTextPane {
 		noticeAttributes = new SimpleAttributeSet();
 		StyleConstants.setForeground(noticeAttributes, Color.BLUE);
 		StyleConstants.setBold(noticeAttributes, true);
+
+		drainTimer = new Timer(FRAME_INTERVAL, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				drainPendingEntries();
+			}
+		});
+		drainTimer.setRepeats(false);
 	}
 
+	/**
+	 * Clears the console, output appended before is removed as well even if it wasn't displayed yet.
+	 */
 	public void clear() {
-		setText("");
+		synchronized (spillLock) {
+			closeSpillWriter();
+			if (spillFile != null && spillFile.exists() && !spillFile.delete()) {
+				LOG.info("The console spill file " + spillFile.getPath() + " could not be deleted");
+			}
+		}
+		enqueue(CLEAR);
 	}
 
 	public void append(String str) {
@@ -83,36 +155,200 @@ public class OpenCmsToolWindowConsole extends JTextPane {
 	}
 
 	private void append(String str, AttributeSet attributeSet) {
-		UIUtil.invokeLaterIfNeeded(new ConsoleAppender(str, attributeSet));
+		spill(str);
+		enqueue(new ConsoleEntry(str, attributeSet));
 	}
 
 	public StyledDocument getConsoleDocument() {
 		return consoleDocument;
 	}
 
-	private class ConsoleAppender implements Runnable {
+	/**
+	 * Queues the given entry and schedules the next drain of the queue on the EDT, if it isn't scheduled already.
+	 * @param entry the entry to queue
+	 */
+	private void enqueue(ConsoleEntry entry) {
+		pendingEntries.offer(entry);
+		scheduleDrain();
+	}
 
-		String stringToAppend;
-		AttributeSet attributeSet;
+	private void scheduleDrain() {
+		if (drainScheduled.compareAndSet(false, true)) {
+			UIUtil.invokeLaterIfNeeded(new Runnable() {
+				@Override
+				public void run() {
+					drainTimer.restart();
+				}
+			});
+		}
+	}
 
-		private ConsoleAppender(String stringToAppend, AttributeSet attributeSet) {
-			this.stringToAppend = stringToAppend;
-			this.attributeSet = attributeSet;
+	/**
+	 * Appends all queued entries to the console document in one go, removes lines exceeding
+	 * {@link #MAX_CONSOLE_LINES} and scrolls to the end. Runs on the EDT.
+	 */
+	private void drainPendingEntries() {
+		drainScheduled.set(false);
+
+		// only the last MAX_CONSOLE_LINES entries can be displayed anyway, older ones are dropped right away
+		ArrayDeque<ConsoleEntry> entries = new ArrayDeque<ConsoleEntry>();
+		boolean clear = false;
+		boolean entriesDropped = false;
+		ConsoleEntry entry;
+		while ((entry = pendingEntries.poll()) != null) {
+			if (entry == CLEAR) {
+				entries.clear();
+				clear = true;
+				entriesDropped = false;
+				continue;
+			}
+			entries.addLast(entry);
+			if (entries.size() > MAX_CONSOLE_LINES) {
+				entries.removeFirst();
+				entriesDropped = true;
+			}
 		}
 
-		@Override
-		public void run() {
+		if (clear) {
+			setText("");
+			truncationNoticeLength = 0;
+		}
+		try {
+			insertEntries(entries);
+			if (entriesDropped) {
+				// everything displayed before is older than the dropped entries
+				consoleDocument.remove(truncationNoticeLength, consoleDocument.getLength() - truncationNoticeLength - getLength(entries));
+				showTruncationNotice();
+			}
+			removeExcessLines();
+		}
+		catch (BadLocationException e) {
+			LOG.warn("Exception while appending content to the console", e);
+		}
+
+		if (scrollPane != null && scrollPane.getVerticalScrollBar() != null) {
+			JScrollBar scrollbar = scrollPane.getVerticalScrollBar();
+			scrollbar.setValue(scrollbar.getMaximum() - scrollbar.getVisibleAmount());
+		}
+
+		// entries queued after the queue was polled, but before the flag was reset, have to be drained as well
+		if (!pendingEntries.isEmpty()) {
+			scheduleDrain();
+		}
+	}
+
+	/**
+	 * Inserts the given entries at the end of the console document, consecutive entries with the same attributes are
+	 * inserted with one call.
+	 */
+	private void insertEntries(ArrayDeque<ConsoleEntry> entries) throws BadLocationException {
+		StringBuilder text = new StringBuilder();
+		AttributeSet currentAttributes = null;
+		for (ConsoleEntry entry : entries) {
+			if (entry.attributeSet != currentAttributes && text.length() > 0) {
+				consoleDocument.insertString(consoleDocument.getLength(), text.toString(), currentAttributes);
+				text.setLength(0);
+			}
+			currentAttributes = entry.attributeSet;
+			text.append(entry.text);
+		}
+		if (text.length() > 0) {
+			consoleDocument.insertString(consoleDocument.getLength(), text.toString(), currentAttributes);
+		}
+	}
+
+	/**
+	 * Removes the oldest lines if the console contains more than {@link #MAX_CONSOLE_LINES} lines and adds a notice
+	 * about the removed output at the top of the console.
+	 */
+	private void removeExcessLines() throws BadLocationException {
+		Element root = consoleDocument.getDefaultRootElement();
+		int noticeLines = truncationNoticeLength > 0 ? 1 : 0;
+		int excessLines = root.getElementCount() - noticeLines - MAX_CONSOLE_LINES;
+		if (excessLines <= 0) {
+			return;
+		}
+		int removeEnd = root.getElement(noticeLines + excessLines).getStartOffset();
+		consoleDocument.remove(truncationNoticeLength, removeEnd - truncationNoticeLength);
+		showTruncationNotice();
+	}
+
+	/**
+	 * Adds a notice about removed output at the top of the console, if it isn't displayed already.
+	 */
+	private void showTruncationNotice() throws BadLocationException {
+		if (truncationNoticeLength > 0) {
+			return;
+		}
+		String notice = "[Older output was removed from the console"
+				+ (spillFile != null ? ", the complete output is available in " + spillFile.getPath() : "") + "]\n";
+		consoleDocument.insertString(0, notice, noticeAttributes);
+		truncationNoticeLength = notice.length();
+	}
+
+	private static int getLength(ArrayDeque<ConsoleEntry> entries) {
+		int length = 0;
+		for (ConsoleEntry entry : entries) {
+			length += entry.text.length();
+		}
+		return length;
+	}
+
+	/**
+	 * Writes the given text to the spill file (if set). Writing is buffered, so callers usually don't wait for I/O.
+	 */
+	private void spill(String text) {
+		if (spillFile == null) {
+			return;
+		}
+		synchronized (spillLock) {
+			if (spillFile == null) {
+				return;
+			}
 			try {
-				consoleDocument.insertString(consoleDocument.getLength(), stringToAppend, attributeSet);
+				if (spillWriter == null) {
+					spillWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(spillFile, true), StandardCharsets.UTF_8), 65536);
+				}
+				spillWriter.write(text);
 			}
-			catch (BadLocationException e) {
-				LOG.warn("Exception while appending content to the console", e);
+			catch (IOException e) {
+				LOG.warn("The console output can't be written to " + spillFile.getPath() + ", spilling is disabled", e);
+				closeSpillWriter();
+				spillFile = null;
 			}
-			if (scrollPane != null && scrollPane.getVerticalScrollBar() != null) {
-				JScrollBar scrollbar = scrollPane.getVerticalScrollBar();
-				scrollPane.getVerticalScrollBar().setValue(scrollbar.getMaximum() - scrollbar.getVisibleAmount());
+		}
+	}
+
+	/**
+	 * Flushes and closes the spill file, should be called when the console isn't used any more. Output appended
+	 * afterwards reopens the file and is appended to it.
+	 */
+	public void closeSpillFile() {
+		synchronized (spillLock) {
+			closeSpillWriter();
+		}
+	}
+
+	private void closeSpillWriter() {
+		if (spillWriter != null) {
+			try {
+				spillWriter.close();
+			}
+			catch (IOException e) {
+				LOG.info("Exception closing the console spill file", e);
 			}
+			spillWriter = null;
 		}
+	}
+
+	private static class ConsoleEntry {
 
+		final String text;
+		final AttributeSet attributeSet;
+
+		private ConsoleEntry(String text, AttributeSet attributeSet) {
+			this.text = text;
+			this.attributeSet = attributeSet;
+		}
 	}
 }
@@ -0,0 +1,111 @@
+/*
+ * This file is part of the OpenCms plugin for IntelliJ by mediaworx.
+ *
+ * For further information about the OpenCms plugin for IntelliJ, please
+ * see the project website at GitHub:
+ * https://github.com/mediaworx/opencms-intellijplugin
+ *
+ * Copyright (C) 2007-2016 mediaworx berlin AG (http://www.mediaworx.com)
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+
+package com.mediaworx.intellij.opencmsplugin.toolwindow;
+
+import com.intellij.util.ui.UIUtil;
+import com.mediaworx.intellij.opencmsplugin.sync.SyncRunReport;
+import com.mediaworx.intellij.opencmsplugin.sync.SyncRunReportHistory;
+
+import javax.swing.*;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
+import java.awt.*;
+
+/**
+ * Tool window tab listing the recent sync runs (see {@link SyncRunReportHistory}). The phase timings, action
+ * statistics and slowest entities of the selected run are displayed below the list.
+ */
+public class SyncRunsPanel extends JPanel {
+
+	private final SyncRunReportHistory history;
+	private final DefaultListModel<SyncRunReport> runListModel = new DefaultListModel<SyncRunReport>();
+	private final JList<SyncRunReport> runList = new JList<SyncRunReport>(runListModel);
+	private final JTextArea details = new JTextArea();
+
+	/**
+	 * Creates the panel and registers it as change listener with the given history
+	 * @param history the history of sync run reports to be listed
+	 */
+	public SyncRunsPanel(SyncRunReportHistory history) {
+		super(new BorderLayout());
+		this.history = history;
+
+		runList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		runList.addListSelectionListener(new ListSelectionListener() {
+			@Override
+			public void valueChanged(ListSelectionEvent e) {
+				if (!e.getValueIsAdjusting()) {
+					showDetails(runList.getSelectedValue());
+				}
+			}
+		});
+		details.setEditable(false);
+		details.setFont(new Font(Font.MONOSPACED, Font.PLAIN, details.getFont().getSize()));
+
+		JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(runList), new JScrollPane(details));
+		splitPane.setResizeWeight(0.3);
+		add(splitPane, BorderLayout.CENTER);
+
+		history.addChangeListener(new Runnable() {
+			@Override
+			public void run() {
+				UIUtil.invokeLaterIfNeeded(new Runnable() {
+					@Override
+					public void run() {
+						refresh();
+					}
+				});
+			}
+		});
+		refresh();
+	}
+
+	/**
+	 * Reloads the list of runs from the history, the newest run is selected
+	 */
+	private void refresh() {
+		runListModel.clear();
+		for (SyncRunReport report : history.getReports()) {
+			runListModel.addElement(report);
+		}
+		if (runListModel.isEmpty()) {
+			showDetails(null);
+		}
+		else {
+			runList.setSelectedIndex(0);
+		}
+	}
+
+	private void showDetails(SyncRunReport report) {
+		if (report != null) {
+			details.setText(report.getDetails());
+		}
+		else {
+			details.setText("No sync runs yet, the JSON reports are written to " + history.getReportFolder().getPath());
+		}
+		details.setCaretPosition(0);
+	}
+}